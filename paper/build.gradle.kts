@@ -159,6 +159,16 @@ repositories {
 
 }
 
+/**
+ * JMH benchmarks (src/jmh/java). They can use the test helpers as well. Run them with ./gradlew :paper:jmh
+ */
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+}
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.testImplementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.testRuntimeOnly.get())
+
 dependencies {
     implementation(project(path= ":common", configuration= "shadow"))
     paperweight.paperDevBundle("1.20.6-R0.1-SNAPSHOT")
@@ -257,6 +267,13 @@ dependencies {
 
     compileOnly("com.github.war-systems:UltimateJobs:0.3.6")
 
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testImplementation("org.xerial:sqlite-jdbc:3.45.3.0") //Provided by the server at runtime
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+
 
 }
 
@@ -366,6 +383,24 @@ tasks {
         options.encoding = Charsets.UTF_8.name()
         options.release.set(21)
     }
+    compileTestJava {
+        options.encoding = Charsets.UTF_8.name()
+        options.release.set(21)
+    }
+    test {
+        useJUnitPlatform()
+    }
+    named<JavaCompile>(jmh.compileJavaTaskName) {
+        options.encoding = Charsets.UTF_8.name()
+        options.release.set(21)
+    }
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the JMH benchmarks. JMH options can be passed with -PjmhArgs=\"...\" (e.g. -PjmhArgs=\"PlayerDataCodec -f 1\")."
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        args((project.findProperty("jmhArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: listOf<String>())
+    }
     javadoc {
         options.encoding = Charsets.UTF_8.name()
     }
@@ -0,0 +1,42 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+/**
+ * Only prints warnings and errors, so they show up next to the benchmark results
+ */
+final class BenchmarkPlayerDataLog implements PlayerDataLog {
+
+  @Override
+  public void info(final String message, final Object... interpolatedStrings) {}
+
+  @Override
+  public void warn(final String message, final Object... interpolatedStrings) {
+    System.err.println("[WARN] " + String.format(message, interpolatedStrings));
+  }
+
+  @Override
+  public void severe(final String message, final Object... interpolatedStrings) {
+    System.err.println("[SEVERE] " + String.format(message, interpolatedStrings));
+  }
+
+  @Override
+  public void debug(final String message, final Object... interpolatedStrings) {}
+}
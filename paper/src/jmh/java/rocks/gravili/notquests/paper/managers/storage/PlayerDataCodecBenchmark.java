@@ -0,0 +1,69 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataCodec.Profile;
+
+/**
+ * How long encoding and decoding a whole profile takes, depending on how long its quest history is
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerDataCodecBenchmark {
+  @Param({"0", "100", "1000"})
+  public int completedQuests;
+
+  private Profile profile;
+  private byte[] encodedProfile;
+
+  @Setup
+  public void createProfile() throws IOException {
+    profile = PlayerDataSamples.profile(UUID.randomUUID(), completedQuests);
+    encodedProfile = PlayerDataCodec.encode(profile);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return PlayerDataCodec.encode(profile);
+  }
+
+  @Benchmark
+  public Profile decode() throws IOException {
+    return PlayerDataCodec.decode(encodedProfile);
+  }
+}
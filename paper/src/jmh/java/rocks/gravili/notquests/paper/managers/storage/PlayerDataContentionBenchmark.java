@@ -0,0 +1,146 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.Encoding;
+
+/**
+ * Many players logging out at the same time (e.g. when a proxy moves everyone to another server), each of whose quit saves
+ * runs on its own thread. Every invocation saves and releases the data of all of them, while the reads of joining players go
+ * to the read-only connections.
+ * <p>
+ * With one writer connection (what the DataManager uses for SQLite), the saves wait for each other in the pool. With 20, which
+ * is how the pool was before, they all write at the same time and wait for each other on SQLITE_BUSY instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class PlayerDataContentionBenchmark {
+  @Param({"1", "20"})
+  public int writerConnections;
+
+  @Param({"200"})
+  public int logouts;
+
+  private Path directory;
+  private SqliteTestDatabase database;
+  private SqlPlayerDataStorage playerDataStorage;
+  private ExecutorService executorService;
+  private final ArrayList<UUID> uuids = new ArrayList<>();
+  private final ArrayList<UUID> joiningUUIDs = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void openDatabase() throws IOException, SQLException {
+    directory = Files.createTempDirectory("notquests-benchmark");
+    database = new SqliteTestDatabase(directory.resolve("database_sqlite.db"), writerConnections, 4, Encoding.TEXT);
+    database.createTables();
+    playerDataStorage = new SqlPlayerDataStorage(database, new BenchmarkPlayerDataLog(), () -> "benchmark");
+    //Twice as many threads, for the quit saves and for the joins
+    executorService = Executors.newFixedThreadPool(logouts * 2);
+
+    for (int i = 0; i < logouts; i++) {
+      uuids.add(UUID.randomUUID());
+      final UUID joiningUUID = UUID.randomUUID();
+      joiningUUIDs.add(joiningUUID);
+      if (!playerDataStorage.savePlayerData(List.of(PlayerDataSamples.snapshot(joiningUUID, i, 100, 20)), savedSnapshot -> {})) {
+        throw new IllegalStateException("Could not save the player data of " + joiningUUID);
+      }
+    }
+  }
+
+  /**
+   * Claims the data of the players who are going to log out, like joining does
+   */
+  @Setup(Level.Iteration)
+  public void claimPlayerData() throws SQLException, InterruptedException {
+    for (final UUID uuid : uuids) {
+      playerDataStorage.claimPlayerData(uuid, 0);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void closeDatabase() throws IOException {
+    executorService.shutdownNow();
+    database.close();
+    try (final Stream<Path> files = Files.walk(directory)) {
+      for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  public void simultaneousLogouts() throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    final ArrayList<Future<Boolean>> tasks = new ArrayList<>();
+    for (int i = 0; i < logouts; i++) {
+      final UUID uuid = uuids.get(i);
+      final PlayerDataSnapshot snapshot = PlayerDataSamples.snapshot(uuid, i, 1, 2);
+      tasks.add(executorService.submit(() -> {
+        start.await();
+        final boolean saved = playerDataStorage.savePlayerData(List.of(snapshot), savedSnapshot -> {});
+        playerDataStorage.releasePlayerData(uuid);
+        return saved;
+      }));
+
+      final UUID joiningUUID = joiningUUIDs.get(i);
+      tasks.add(executorService.submit(() -> {
+        start.await();
+        return !playerDataStorage.loadPlayerData(joiningUUID).isEmpty();
+      }));
+    }
+    start.countDown();
+    for (final Future<Boolean> task : tasks) {
+      if (!task.get()) {
+        throw new IllegalStateException("A logout or join failed");
+      }
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.ColumnType;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.Encoding;
+
+/**
+ * The TEXT and the COMPACT encoding of the player data tables on SQLite. The size of the database file of each encoding is
+ * printed after its players have been saved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerDataEncodingBenchmark {
+  @Param({"TEXT", "COMPACT"})
+  public Encoding encoding;
+
+  @Param({"2000"})
+  public int players;
+
+  @Param({"200"})
+  public int completedQuests;
+
+  private Path directory;
+  private SqliteTestDatabase database;
+  private SqlPlayerDataStorage playerDataStorage;
+  private final ArrayList<UUID> uuids = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void fillDatabase() throws IOException, SQLException {
+    directory = Files.createTempDirectory("notquests-benchmark");
+    final Path databaseFile = directory.resolve("database_sqlite.db");
+    database = new SqliteTestDatabase(databaseFile, 4, encoding);
+    database.createTables();
+    playerDataStorage = new SqlPlayerDataStorage(database, new BenchmarkPlayerDataLog(), () -> "benchmark");
+
+    final ArrayList<PlayerDataSnapshot> snapshots = new ArrayList<>();
+    for (int i = 0; i < players; i++) {
+      final UUID uuid = UUID.randomUUID();
+      uuids.add(uuid);
+      snapshots.add(PlayerDataSamples.snapshot(uuid, i, completedQuests, 20));
+      if (snapshots.size() == 100 || i == players - 1) {
+        if (!playerDataStorage.savePlayerData(snapshots, savedSnapshot -> {})) {
+          throw new IllegalStateException("Could not save the player data");
+        }
+        snapshots.clear();
+      }
+    }
+
+    try (final Connection connection = database.getConnection();
+         final Statement statement = connection.createStatement()) {
+      statement.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+    }
+    System.out.printf("%nDatabase size with the %s encoding (%s players with %s completed quests each): %s KB%n",
+        encoding, players, completedQuests, Files.size(databaseFile) / 1024);
+  }
+
+  @TearDown(Level.Trial)
+  public void closeDatabase() throws IOException {
+    database.close();
+    try (final Stream<Path> files = Files.walk(directory)) {
+      for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Loads a player, which reads their rows of all tables through the PlayerUUID/Profile indexes
+   */
+  @Benchmark
+  public List<StoredPlayerData> loadPlayer() throws SQLException {
+    return playerDataStorage.loadPlayerData(uuids.get(ThreadLocalRandom.current().nextInt(uuids.size())));
+  }
+
+  /**
+   * Counts the players who have completed a quest, which has to scan the whole CompletedQuests table
+   */
+  @Benchmark
+  public int scanCompletedQuests() throws SQLException {
+    final PlayerDataSchema playerDataSchema = database.getPlayerDataSchema();
+    try (final Connection connection = database.getReadConnection();
+         final PreparedStatement countPS = connection.prepareStatement("SELECT COUNT(DISTINCT PlayerUUID) FROM CompletedQuests WHERE QuestName = ?;")) {
+      playerDataSchema.setExistingValue(countPS, 1, ColumnType.QUEST_NAME, "weeklyBoss");
+      try (final ResultSet result = countPS.executeQuery()) {
+        result.next();
+        return result.getInt(1);
+      }
+    }
+  }
+}
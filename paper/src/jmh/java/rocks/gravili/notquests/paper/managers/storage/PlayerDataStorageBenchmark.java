@@ -0,0 +1,126 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.Encoding;
+
+/**
+ * Saving and loading a single player with the key-value storage (storage.backend: kv) and with the SQL storage on SQLite,
+ * opened like the DataManager opens it. Both start out with the same players, who have completed 100 quests each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerDataStorageBenchmark {
+  @Param({"kv", "sql"})
+  public String storage;
+
+  @Param({"1000"})
+  public int players;
+
+  private Path directory;
+  private SqliteTestDatabase database;
+  private PlayerDataStorage playerDataStorage;
+  private final ArrayList<UUID> uuids = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void openStorage() throws IOException, SQLException {
+    directory = Files.createTempDirectory("notquests-benchmark");
+    if (storage.equals("kv")) {
+      playerDataStorage = new KeyValuePlayerDataStorage(new BenchmarkPlayerDataLog(), new File(directory.toFile(), "playerdata.kv"));
+    } else {
+      database = new SqliteTestDatabase(directory.resolve("database_sqlite.db"), 4, Encoding.TEXT);
+      database.createTables();
+      playerDataStorage = new SqlPlayerDataStorage(database, new BenchmarkPlayerDataLog(), () -> "benchmark");
+    }
+
+    for (int i = 0; i < players; i++) {
+      final UUID uuid = UUID.randomUUID();
+      uuids.add(uuid);
+      if (!playerDataStorage.savePlayerData(List.of(PlayerDataSamples.snapshot(uuid, i, 100, 20)), savedSnapshot -> {})) {
+        throw new IllegalStateException("Could not save the player data of " + uuid);
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void closeStorage() throws IOException {
+    playerDataStorage.close();
+    if (database != null) {
+      database.close();
+    }
+    try (final Stream<Path> files = Files.walk(directory)) {
+      for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  private UUID randomPlayer() {
+    return uuids.get(ThreadLocalRandom.current().nextInt(uuids.size()));
+  }
+
+  /**
+   * A save like the autosave or a quit makes: new progress and a few changed tags
+   */
+  @Benchmark
+  public boolean save() {
+    return playerDataStorage.savePlayerData(List.of(PlayerDataSamples.snapshot(randomPlayer(), ThreadLocalRandom.current().nextLong(10_000), 0, 2)), savedSnapshot -> {});
+  }
+
+  /**
+   * A load like joining does: the player data and the tags of the profile
+   */
+  @Benchmark
+  public Map<String, Object> load() throws Exception {
+    final UUID uuid = randomPlayer();
+    final List<StoredPlayerData> storedPlayerData = playerDataStorage.loadPlayerData(uuid);
+    return playerDataStorage.loadTags(uuid, storedPlayerData.get(0).profile());
+  }
+}
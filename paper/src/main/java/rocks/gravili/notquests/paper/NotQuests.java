@@ -547,6 +547,17 @@ public class NotQuests extends NotQuestsMainAbstract<Component, CommandSender> {
         return getMiniMessage().deserialize(miniMessage);
     }
 
+    /**
+     * Same as {@link #parse(String)}, but re-uses the parsed Component if the same string has been parsed before.
+     * Meant for strings which get parsed over and over again - like GUI items and fixed messages.
+     *
+     * @param miniMessage the final MiniMessage string
+     * @return the parsed Component
+     */
+    public final Component parseCached(final String miniMessage){
+        return messageManager.parseCached(miniMessage);
+    }
+
     @Override
     public void sendMessage(final CommandSender sender, final String message){
         if(!message.isBlank() && sender != null){
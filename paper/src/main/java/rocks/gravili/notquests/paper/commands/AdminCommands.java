@@ -29,10 +29,12 @@ import cloud.commandframework.bukkit.parsers.WorldArgument;
 import cloud.commandframework.bukkit.parsers.selector.SinglePlayerSelectorArgument;
 import cloud.commandframework.meta.CommandMeta;
 import cloud.commandframework.paper.PaperCommandManager;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
@@ -56,11 +58,13 @@ import rocks.gravili.notquests.paper.commands.arguments.wrappers.ItemStackSelect
 import rocks.gravili.notquests.paper.managers.data.Category;
 import rocks.gravili.notquests.paper.managers.expressions.NumberExpression;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
+import rocks.gravili.notquests.paper.managers.registering.ActionExecutionStats;
 import rocks.gravili.notquests.paper.structs.ActiveObjective;
 import rocks.gravili.notquests.paper.structs.ActiveQuest;
 import rocks.gravili.notquests.paper.structs.CompletedQuest;
 import rocks.gravili.notquests.paper.structs.PredefinedProgressOrder;
 import rocks.gravili.notquests.paper.structs.Quest;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.actions.Action;
 import rocks.gravili.notquests.paper.structs.conditions.Condition;
@@ -227,6 +231,15 @@ public class AdminCommands {
                         if (questPlayer != null) {
                             context.getSender().sendMessage(main.parse("<main>Completed quests of player <highlight>" + player.getName() + "</highlight> <green>(online)</green>:"));
                             int counter = 1;
+                            for (final Map.Entry<String, QuestHistorySummary> questHistorySummary : questPlayer.getQuestHistorySummaries().entrySet()) {
+                                if (questHistorySummary.getValue().completions() > 0) {
+                                    resultDate.setTime(questHistorySummary.getValue().lastCompleted());
+                                    context.getSender().sendMessage(main.parse("<highlight>" + counter + ".</highlight> <highlight2>" + questHistorySummary.getKey()
+                                            + "</highlight2> <main>Completed <highlight2>" + questHistorySummary.getValue().completions() + "</highlight2> times earlier, last time: </main><highlight2>" + resultDate + "</highlight2>"
+                                    ));
+                                    counter += 1;
+                                }
+                            }
                             for (CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
                                 resultDate.setTime(completedQuest.getTimeCompleted());
                                 context.getSender().sendMessage(main.parse("<highlight>" + counter + ".</highlight> <highlight2>" + completedQuest.getQuest().getIdentifier()
@@ -235,7 +248,7 @@ public class AdminCommands {
                                 counter += 1;
                             }
 
-                            context.getSender().sendMessage(main.parse("<unimportant>Total completed quests: <highlight2>" + (counter - 1) + "</highlight2>."));
+                            context.getSender().sendMessage(main.parse("<unimportant>Total completed quests: <highlight2>" + questPlayer.getTotalCompletedAmount() + "</highlight2>."));
                         } else {
                             context.getSender().sendMessage(main.parse("<error>Seems like the player <highlight>" + player.getName() + "</highlight> <green>(online)</green> never completed any quests."));
                         }
@@ -245,6 +258,15 @@ public class AdminCommands {
                         if (questPlayer != null) {
                             context.getSender().sendMessage(main.parse("<main>Completed quests of player <highlight>" + offlinePlayer.getName() + "</highlight> <red>(offline)</red>:"));
                             int counter = 1;
+                            for (final Map.Entry<String, QuestHistorySummary> questHistorySummary : questPlayer.getQuestHistorySummaries().entrySet()) {
+                                if (questHistorySummary.getValue().completions() > 0) {
+                                    resultDate.setTime(questHistorySummary.getValue().lastCompleted());
+                                    context.getSender().sendMessage(main.parse("<main><highlight>" + counter + ".</highlight> <highlight2>" + questHistorySummary.getKey()
+                                            + "</highlight2> Completed <highlight2>" + questHistorySummary.getValue().completions() + "</highlight2> times earlier, last time: <highlight2>" + resultDate + "</highlight2>"
+                                    ));
+                                    counter += 1;
+                                }
+                            }
                             for (CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
                                 resultDate.setTime(completedQuest.getTimeCompleted());
                                 context.getSender().sendMessage(main.parse("<main><highlight>" + counter + ".</highlight> <highlight2>" + completedQuest.getQuest().getIdentifier()
@@ -253,7 +275,7 @@ public class AdminCommands {
                                 counter += 1;
                             }
 
-                            context.getSender().sendMessage(main.parse("<unimportant>Total completed quests: <highlight2>" + (counter - 1) + "</highlight2>."));
+                            context.getSender().sendMessage(main.parse("<unimportant>Total completed quests: <highlight2>" + questPlayer.getTotalCompletedAmount() + "</highlight2>."));
                         } else {
                             context.getSender().sendMessage(main.parse("<error>Seems like the player <highlight>" + offlinePlayer.getName() + "</highlight> <red>(offline)</red> never completed any quests."));
                         }
@@ -505,22 +527,14 @@ public class AdminCommands {
                         }
                     }
 
-                    questPlayer.getActiveQuests().removeAll(activeQuestsToRemove);
-
-                    final ArrayList<CompletedQuest> completedQuestsToRemove = new ArrayList<>();
-
-                    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-                        if (completedQuest.getQuest().equals(quest)) {
-                            completedQuestsToRemove.add(completedQuest);
-                            context.getSender().sendMessage(main.parse("<success>Removed the quest as a completed quest for the player with the UUID <highlight>"
-                                    + questPlayer.getUniqueId().toString() + "</highlight> and name <highlight2>"
-                                    + Bukkit.getOfflinePlayer(questPlayer.getUniqueId()).getName() + "</highlight2>."
-                            ));
-                        }
+                    questPlayer.removeActiveQuests(activeQuestsToRemove);
 
+                    if (questPlayer.removeCompletedQuests(quest.getIdentifier()) > 0) {
+                        context.getSender().sendMessage(main.parse("<success>Removed the quest as a completed quest for the player with the UUID <highlight>"
+                                + questPlayer.getUniqueId().toString() + "</highlight> and name <highlight2>"
+                                + Bukkit.getOfflinePlayer(questPlayer.getUniqueId()).getName() + "</highlight2>."
+                        ));
                     }
-
-                    questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
                 }));
 
@@ -544,22 +558,14 @@ public class AdminCommands {
                             }
                         }
 
-                        questPlayer.getActiveQuests().removeAll(activeQuestsToRemove);
-
-                        final ArrayList<CompletedQuest> completedQuestsToRemove = new ArrayList<>();
-
-                        for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-                            if (completedQuest.getQuest().equals(quest)) {
-                                completedQuestsToRemove.add(completedQuest);
-                                context.getSender().sendMessage(main.parse("<success>Removed the quest as a completed quest for the player with the UUID <highlight>"
-                                        + questPlayer.getUniqueId().toString() + "</highlight> and name <highlight2>"
-                                        + Bukkit.getOfflinePlayer(questPlayer.getUniqueId()).getName() + "</highlight2>."
-                                ));
-                            }
+                        questPlayer.removeActiveQuests(activeQuestsToRemove);
 
+                        if (questPlayer.removeCompletedQuests(quest.getIdentifier()) > 0) {
+                            context.getSender().sendMessage(main.parse("<success>Removed the quest as a completed quest for the player with the UUID <highlight>"
+                                    + questPlayer.getUniqueId().toString() + "</highlight> and name <highlight2>"
+                                    + Bukkit.getOfflinePlayer(questPlayer.getUniqueId()).getName() + "</highlight2>."
+                            ));
                         }
-
-                        questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
                     }
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
                 }));
@@ -592,20 +598,12 @@ public class AdminCommands {
 
                         // questPlayer.getActiveQuests().removeAll(activeQuestsToRemove);
 
-                        final ArrayList<CompletedQuest> completedQuestsToRemove = new ArrayList<>();
-
-                        for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-                            if (completedQuest.getQuest().equals(quest)) {
-                                completedQuestsToRemove.add(completedQuest);
-                                context.getSender().sendMessage(main.parse("<success>Removed the quest as a completed quest for the player with the UUID <highlight>"
-                                        + questPlayer.getUniqueId().toString() + "</highlight> and name <highlight2>"
-                                        + Bukkit.getOfflinePlayer(questPlayer.getUniqueId()).getName() + "</highlight2>."
-                                ));
-                            }
-
+                        if (questPlayer.removeCompletedQuests(quest.getIdentifier()) > 0) {
+                            context.getSender().sendMessage(main.parse("<success>Removed the quest as a completed quest for the player with the UUID <highlight>"
+                                    + questPlayer.getUniqueId().toString() + "</highlight> and name <highlight2>"
+                                    + Bukkit.getOfflinePlayer(questPlayer.getUniqueId()).getName() + "</highlight2>."
+                            ));
                         }
-
-                        questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
                     }
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
 
@@ -1042,6 +1040,70 @@ public class AdminCommands {
                 }));
 
 
+        manager.command(builder.literal("debug")
+                .literal("performanceStats")
+                .meta(CommandMeta.DESCRIPTION, "Shows statistics of NotQuests' internal caches and action executions")
+                .handler((context) -> {
+                    context.getSender().sendMessage(Component.empty());
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Parsed component cache: <highlight>" + main.getMessageManager().getParsedComponentCacheSize() + "</highlight> entries, <highlight>"
+                                    + String.format("%.1f", main.getMessageManager().getParsedComponentCacheHitRate() * 100) + "%</highlight> hit rate (<highlight2>"
+                                    + main.getMessageManager().getParsedComponentCacheHits() + "</highlight2> hits, <highlight2>"
+                                    + main.getMessageManager().getParsedComponentCacheMisses() + "</highlight2> misses)"
+                    ));
+
+                    final long movesInspected = main.getQuestEvents().getMovesInspected();
+                    final long movesProcessed = main.getQuestEvents().getMovesProcessed();
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Player moves: <highlight>" + movesInspected + "</highlight> inspected, <highlight>" + movesProcessed + "</highlight> processed (<highlight2>"
+                                    + String.format("%.1f", movesInspected == 0 ? 0d : movesProcessed * 100d / movesInspected) + "%</highlight2>)"
+                    ));
+
+                    final long lastCheckpointAgeMillis = main.getQuestPlayerManager().getLastCheckpointAgeMillis();
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Player data checkpoint age: <highlight>" + (lastCheckpointAgeMillis < 0 ? "never saved" : String.format("%.1f", lastCheckpointAgeMillis / 1000d) + "s")
+                                    + "</highlight>, last autosave: <highlight>" + main.getQuestPlayerManager().getLastAutosaveSnapshots() + "</highlight> players copied in <highlight2>"
+                                    + String.format("%.3f", main.getQuestPlayerManager().getLastAutosaveSnapshotMillis()) + "ms</highlight2>, <highlight2>"
+                                    + main.getQuestPlayerManager().getLastAutosaveRemainingQuestPlayers() + "</highlight2> left for the next one"
+                    ));
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Player data storage: <highlight>" + main.getDataManager().getPlayerDataStorage().getName() + "</highlight>, average load: <highlight2>"
+                                    + String.format("%.3f", main.getQuestPlayerManager().getAverageStorageLoadMillis()) + "ms</highlight2>, average save per player: <highlight2>"
+                                    + String.format("%.3f", main.getQuestPlayerManager().getAverageStorageSaveMillis()) + "ms</highlight2>"
+                    ));
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Joins: <highlight>" + main.getQuestPlayerManager().getJoins() + "</highlight> (<highlight2>" + main.getQuestPlayerManager().getPrefetchedJoins()
+                                    + "</highlight2> prefetched), average join to ready: <highlight2>" + String.format("%.3f", main.getQuestPlayerManager().getAverageJoinToReadyMillis()) + "ms</highlight2>"
+                    ));
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Handoffs: <highlight>" + main.getQuestPlayerManager().getHandoffClaims()
+                                    + "</highlight>, average wait for the previous server: <highlight2>" + String.format("%.3f", main.getQuestPlayerManager().getAverageHandoffClaimMillis()) + "ms</highlight2>"
+                    ));
+                    final HikariPoolMXBean connectionPoolStats = main.getDataManager().getConnectionPoolStats();
+                    final HikariPoolMXBean readConnectionPoolStats = main.getDataManager().getReadConnectionPoolStats();
+                    if (connectionPoolStats != null) {
+                        context.getSender().sendMessage(main.parse(
+                                "<main>Database connections: <highlight>" + connectionPoolStats.getActiveConnections() + "/" + connectionPoolStats.getTotalConnections()
+                                        + "</highlight> in use, <highlight2>" + connectionPoolStats.getThreadsAwaitingConnection() + "</highlight2> waiting"
+                                        + (readConnectionPoolStats == null ? "" : ". Read-only: <highlight>" + readConnectionPoolStats.getActiveConnections() + "/"
+                                        + readConnectionPoolStats.getTotalConnections() + "</highlight> in use, <highlight2>" + readConnectionPoolStats.getThreadsAwaitingConnection() + "</highlight2> waiting")
+                        ));
+                    }
+
+                    final ActionExecutionStats actionExecutionStats = main.getActionManager().getActionExecutionStats();
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Action batches: <highlight>" + actionExecutionStats.getBatches() + "</highlight>, objective unlock checks: <highlight>"
+                                    + actionExecutionStats.getObjectiveUnlockChecks()
+                    ));
+                    for (final Map.Entry<String, ActionExecutionStats.ActionTypeSnapshot> actionTypeStats : actionExecutionStats.getSnapshot().entrySet()) {
+                        context.getSender().sendMessage(main.parse(
+                                "<main>  " + actionTypeStats.getKey() + ": <highlight>" + actionTypeStats.getValue().executions() + "</highlight> executions, <highlight2>"
+                                        + String.format("%.3f", actionTypeStats.getValue().getAverageMillis()) + "ms</highlight2> avg, <highlight2>"
+                                        + String.format("%.3f", actionTypeStats.getValue().getMaxMillis()) + "ms</highlight2> max"
+                        ));
+                    }
+                }));
+
         manager.command(builder.literal("debug")
                 .literal("loadDataManagerUnsafe")
                 .meta(CommandMeta.DESCRIPTION, "Calls the dataManager.reloadData() method. This starts loading all Config-, Quest-, and Player Data. Reload = Load")
@@ -1,11 +1,18 @@
 package rocks.gravili.notquests.paper.commands.arguments.wrappers;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
@@ -18,6 +25,45 @@ public class ItemStackSelection {
   private final ArrayList<Material> materials;
   private boolean any;
 
+  /**
+   * Lookup structures built from the lists above. Built when the selection is checked for the first time, and re-built
+   * after the selection or one of its NQItems changed.
+   */
+  private volatile CompiledSelection compiledSelection = null;
+
+  /**
+   * @param materials all selected materials
+   * @param itemStacksByMaterial all selected item stacks and NQItem item stacks, by their material
+   * @param signatureMaterials the materials whose item stacks don't all share the same signature. Only for those, the
+   *     signature of a checked item stack is worth computing
+   * @param itemStacksBySignature the item stacks of the signature materials, by their signature
+   * @param nqItemsModificationCount the NQItem modification count when this was built
+   */
+  private record CompiledSelection(
+      EnumSet<Material> materials,
+      EnumMap<Material, List<ItemStack>> itemStacksByMaterial,
+      EnumSet<Material> signatureMaterials,
+      HashMap<ItemSignature, List<ItemStack>> itemStacksBySignature,
+      int nqItemsModificationCount) {}
+
+  /**
+   * Everything of an item stack which is cheap to compare and has to be equal for ItemStack.isSimilar() to be true
+   */
+  private record ItemSignature(
+      Material material, int customModelData, Set<NamespacedKey> persistentDataKeys) {
+
+    private static ItemSignature of(final ItemStack itemStack) {
+      if (!itemStack.hasItemMeta()) {
+        return new ItemSignature(itemStack.getType(), Integer.MIN_VALUE, Set.of());
+      }
+      final ItemMeta itemMeta = itemStack.getItemMeta();
+      return new ItemSignature(
+          itemStack.getType(),
+          itemMeta.hasCustomModelData() ? itemMeta.getCustomModelData() : Integer.MIN_VALUE,
+          Set.copyOf(itemMeta.getPersistentDataContainer().getKeys()));
+    }
+  }
+
   public ItemStackSelection(final NotQuests main) {
     this.main = main;
 
@@ -36,6 +82,7 @@ public class ItemStackSelection {
 
   public void addNqItem(final NQItem nqItem) {
     this.nqItems.add(nqItem);
+    compiledSelection = null;
   }
 
   public void addNqItemName(final String nqItemName) {
@@ -47,12 +94,14 @@ public class ItemStackSelection {
   public void addItemStack(@Nullable final ItemStack itemStack) {
     if (itemStack != null) {
       this.itemStacks.add(itemStack);
+      compiledSelection = null;
     }
   }
 
   public void addMaterial(final Material material) {
     if(material != null) {
       this.materials.add(material);
+      compiledSelection = null;
     }
   }
 
@@ -170,30 +219,65 @@ public class ItemStackSelection {
         : materialsString.toString();
   }
 
-  // Material is often used when checking Blocks and not itemStacks
-  public final boolean checkIfIsIncluded(final Material materialToCheck) {
-    if (any) {
-      return true;
-    }
-    for (final Material material : materials) {
-      if (materialToCheck == material) {
-        return true;
-      }
+  private CompiledSelection getCompiledSelection() {
+    final CompiledSelection compiledSelection = this.compiledSelection;
+    final int nqItemsModificationCount = NQItem.getItemsModificationCount();
+    if (compiledSelection != null
+        && compiledSelection.nqItemsModificationCount() == nqItemsModificationCount) {
+      return compiledSelection;
     }
 
-    for (final ItemStack itemStack : itemStacks) {
-      if (itemStack.getType() == materialToCheck) {
-        return true;
-      }
-    }
+    final EnumSet<Material> compiledMaterials = EnumSet.noneOf(Material.class);
+    compiledMaterials.addAll(materials);
 
+    final EnumMap<Material, List<ItemStack>> itemStacksByMaterial = new EnumMap<>(Material.class);
+    final ArrayList<ItemStack> allItemStacks = new ArrayList<>(itemStacks);
     for (final NQItem nqItem : nqItems) {
-      if (nqItem.getItemStack().getType() == materialToCheck) {
-        return true;
+      allItemStacks.add(nqItem.getItemStack());
+    }
+    for (final ItemStack itemStack : allItemStacks) {
+      itemStacksByMaterial
+          .computeIfAbsent(itemStack.getType(), material -> new ArrayList<>())
+          .add(itemStack);
+    }
+
+    final EnumSet<Material> signatureMaterials = EnumSet.noneOf(Material.class);
+    final HashMap<ItemSignature, List<ItemStack>> itemStacksBySignature = new HashMap<>();
+    for (final List<ItemStack> materialItemStacks : itemStacksByMaterial.values()) {
+      if (materialItemStacks.size() < 2) {
+        continue;
+      }
+      final HashMap<ItemSignature, List<ItemStack>> materialItemStacksBySignature = new HashMap<>();
+      for (final ItemStack itemStack : materialItemStacks) {
+        materialItemStacksBySignature
+            .computeIfAbsent(ItemSignature.of(itemStack), signature -> new ArrayList<>())
+            .add(itemStack);
+      }
+      if (materialItemStacksBySignature.size() > 1) {
+        signatureMaterials.add(materialItemStacks.get(0).getType());
+        itemStacksBySignature.putAll(materialItemStacksBySignature);
       }
     }
 
-    return false;
+    final CompiledSelection newCompiledSelection =
+        new CompiledSelection(
+            compiledMaterials,
+            itemStacksByMaterial,
+            signatureMaterials,
+            itemStacksBySignature,
+            nqItemsModificationCount);
+    this.compiledSelection = newCompiledSelection;
+    return newCompiledSelection;
+  }
+
+  // Material is often used when checking Blocks and not itemStacks
+  public final boolean checkIfIsIncluded(final Material materialToCheck) {
+    if (any) {
+      return true;
+    }
+    final CompiledSelection compiledSelection = getCompiledSelection();
+    return compiledSelection.materials().contains(materialToCheck)
+        || compiledSelection.itemStacksByMaterial().containsKey(materialToCheck);
   }
 
   @Override
@@ -210,21 +294,23 @@ public class ItemStackSelection {
     if (any) {
       return true;
     }
-    for (final Material material : materials) {
-      if (itemStackToCheck.getType() == material) {
-        return true;
-      }
-    }
-
-    for (final ItemStack itemStack : itemStacks) {
-      if (itemStack.isSimilar(itemStackToCheck)) {
-        return true;
-      }
+    final CompiledSelection compiledSelection = getCompiledSelection();
+    final Material materialToCheck = itemStackToCheck.getType();
+    if (compiledSelection.materials().contains(materialToCheck)) {
+      return true;
     }
 
-    for (final NQItem nqItem : nqItems) {
-      if (nqItem.getItemStack().isSimilar(itemStackToCheck)) {
-        return true;
+    // Only items with the same material - and, if they differ in it, the same signature - can be similar.
+    // isSimilar() makes the final decision
+    final List<ItemStack> candidates =
+        compiledSelection.signatureMaterials().contains(materialToCheck)
+            ? compiledSelection.itemStacksBySignature().get(ItemSignature.of(itemStackToCheck))
+            : compiledSelection.itemStacksByMaterial().get(materialToCheck);
+    if (candidates != null) {
+      for (final ItemStack itemStack : candidates) {
+        if (itemStack.isSimilar(itemStackToCheck)) {
+          return true;
+        }
       }
     }
 
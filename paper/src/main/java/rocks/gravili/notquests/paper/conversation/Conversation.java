@@ -191,6 +191,7 @@ public class Conversation {
     }
     this.npcs.add(nqnpc);
     bindToNQNPC(nqnpc);
+    main.getNPCManager().markInteractionBindingsModified();
 
     if (configFile == null || config == null) {
       return;
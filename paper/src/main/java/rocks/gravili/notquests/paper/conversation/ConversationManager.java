@@ -23,17 +23,16 @@ import java.io.IOException;
 import java.util.*;
 
 import net.kyori.adventure.text.Component;
-import org.bukkit.NamespacedKey;
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Player;
-import org.bukkit.persistence.PersistentDataContainer;
-import org.bukkit.persistence.PersistentDataType;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.conversation.interactionhandlers.SendClickableText;
 import rocks.gravili.notquests.paper.conversation.interactionhandlers.ConversationInteractionHandler;
+import rocks.gravili.notquests.paper.events.notquests.ConversationEndEvent;
 import rocks.gravili.notquests.paper.managers.data.Category;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
@@ -199,6 +198,7 @@ public class ConversationManager {
     for (final Category category : main.getDataManager().getCategories()) {
       loadConversationsFromConfig(category);
     }
+    main.getNPCManager().markInteractionBindingsModified();
   }
 
   public void loadConversationsFromConfig(final Category category) {
@@ -559,17 +559,26 @@ public class ConversationManager {
                 "Skipping stopping conversation, as the conversation you tried to stop is already stopped and some other conversation is running instead.");
         return;
       }
+      boolean lastConversationOfNPC = false;
       if (conversationPlayer.getNpc() != null) {
         if (this.activeConversationsOfNPCWithPlayerCache.containsKey(conversationPlayer.getNpc().getID().getIntegerID())) {
           this.activeConversationsOfNPCWithPlayerCache.get(conversationPlayer.getNpc().getID().getIntegerID()).remove(conversationPlayer.getQuestPlayer().getUniqueId());
           if (this.activeConversationsOfNPCWithPlayerCache.get(conversationPlayer.getNpc().getID().getIntegerID()).size() == 0) {
             this.activeConversationsOfNPCWithPlayerCache.remove(conversationPlayer.getNpc().getID().getIntegerID());
+            lastConversationOfNPC = true;
           }
         }
       }
 
       conversationPlayer.getQuestPlayer().sendDebugMessage("Stopping conversation...");
       openConversations.remove(conversationPlayer.getQuestPlayer().getUniqueId());
+
+      final ConversationEndEvent conversationEndEvent = new ConversationEndEvent(conversationPlayer.getQuestPlayer(), conversationPlayer, lastConversationOfNPC);
+      if (Bukkit.isPrimaryThread()) {
+        Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> Bukkit.getPluginManager().callEvent(conversationEndEvent));
+      } else {
+        Bukkit.getPluginManager().callEvent(conversationEndEvent);
+      }
     }
 
     // Send back old messages
@@ -951,14 +960,7 @@ public class ConversationManager {
   }
 
   public final Conversation getConversationAttachedToArmorstand(final ArmorStand armorstand) {
-    PersistentDataContainer armorstandPDB = armorstand.getPersistentDataContainer();
-    NamespacedKey attachedQuestsKey = main.getArmorStandManager().getAttachedConversationKey();
-
-    if (armorstandPDB.has(attachedQuestsKey, PersistentDataType.STRING)) {
-      String attachedConversation = armorstandPDB.get(attachedQuestsKey, PersistentDataType.STRING);
-      return getConversation(attachedConversation);
-    }
-    return null;
+    return main.getArmorStandManager().getAttachments(armorstand).conversation();
   }
 
   public String analyze(final ConversationLine conversationLine, String beginningSpaces) {
@@ -131,6 +131,8 @@ public class ArmorStandEvents implements Listener {
                                     armorstandPDB.set(attachedQuestsKey, PersistentDataType.STRING, existingAttachedQuests);
                                 }
 
+                                main.getArmorStandManager().refreshAttachments(armorStand);
+
                                 player.sendMessage(main.parse(
                                         "<DARK_GREEN>Quest with the name <highlight>" + questName + "</highlight> was removed from this armor stand!\n" +
                                                 "<DARK_GREEN>Attached Quests: <highlight>" + existingAttachedQuests
@@ -282,6 +284,7 @@ public class ArmorStandEvents implements Listener {
 
                                 } else {
                                     armorStandPDB.set(attachedConversationKey, PersistentDataType.STRING, conversation.getIdentifier());
+                                    main.getArmorStandManager().refreshAttachments(armorStand);
                                     player.sendMessage(main.parse(
                                             "<GREEN>Conversation with the name <highlight>" + conversation.getIdentifier() + "</highlight> was added to this poor little armorstand!"
                                     ));
@@ -313,6 +316,7 @@ public class ArmorStandEvents implements Listener {
 
                         if (armorStandPDB.has(attachedConversationKey, PersistentDataType.STRING)) {
                             armorStandPDB.remove(attachedConversationKey);
+                            main.getArmorStandManager().refreshAttachments(armorStand);
                             main.getArmorStandManager().removeArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
                             player.sendMessage(main.parse(
                                     "<GREEN>All conversations were removed from this armorStand!"
@@ -437,19 +441,19 @@ public class ArmorStandEvents implements Listener {
 
     @EventHandler
     private void onArmorStandLoad(EntitiesLoadEvent event) {
-        if (!main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
-            return;
-        }
         for(final Entity entity : event.getEntities()){
             if (entity instanceof final ArmorStand armorStand) {
                 final PersistentDataContainer armorStandPDB = armorStand.getPersistentDataContainer();
 
                 if (!armorStandPDB.has(main.getArmorStandManager().getAttachedQuestsShowingKey(), PersistentDataType.STRING) && !armorStandPDB.has(main.getArmorStandManager().getAttachedQuestsNonShowingKey(), PersistentDataType.STRING) && !armorStandPDB.has(main.getArmorStandManager().getAttachedConversationKey(), PersistentDataType.STRING)) {
-                    return;
+                    continue;
                 }
 
-                main.getArmorStandManager().addArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
+                main.getArmorStandManager().refreshAttachments(armorStand);
 
+                if (main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
+                    main.getArmorStandManager().addArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
+                }
             }
         }
 
@@ -457,11 +461,14 @@ public class ArmorStandEvents implements Listener {
 
     @EventHandler
     private void onArmorStandUnload(EntitiesUnloadEvent event) {
-        if (!main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
-            return;
-        }
         for (final Entity entity : event.getEntities()) {
             if (entity instanceof final ArmorStand armorStand) {
+                main.getArmorStandManager().dropAttachments(armorStand.getUniqueId());
+
+                if (!main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
+                    continue;
+                }
+
                 final PersistentDataContainer armorStandPDB = armorStand.getPersistentDataContainer();
 
 
@@ -497,6 +504,7 @@ public class ArmorStandEvents implements Listener {
     @EventHandler
     public void onArmorStandDeath(EntityDeathEvent event) {
         if (event.getEntity() instanceof final ArmorStand armorStand) {
+            main.getArmorStandManager().dropAttachments(armorStand.getUniqueId());
             if (!main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
                 return;
             }
@@ -58,16 +58,17 @@ import rocks.gravili.notquests.paper.conversation.ConversationLine;
 import rocks.gravili.notquests.paper.conversation.ConversationPlayer;
 import rocks.gravili.notquests.paper.structs.ActiveObjective;
 import rocks.gravili.notquests.paper.structs.ActiveQuest;
+import rocks.gravili.notquests.paper.structs.BeamMode;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.objectives.*;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
-import rocks.gravili.notquests.paper.structs.triggers.types.WorldEnterTrigger;
-import rocks.gravili.notquests.paper.structs.triggers.types.WorldLeaveTrigger;
+import rocks.gravili.notquests.paper.structs.triggers.TriggerType;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import static rocks.gravili.notquests.paper.commands.NotQuestColors.debugHighlightGradient;
 
@@ -77,6 +78,9 @@ public class QuestEvents implements Listener {
 
     private final HashMap<QuestPlayer, String> beaconsToUpdate;
 
+    private final LongAdder movesInspected = new LongAdder();
+    private final LongAdder movesProcessed = new LongAdder();
+
     int beaconCounter = 0;
     int objectiveUnlockConditionCheckCounter = 0;
     int conditionObjectiveCounter = 0;
@@ -91,7 +95,7 @@ public class QuestEvents implements Listener {
             if(main.getDataManager().isDisabled()){
                 return;
             }
-            if(!main.getConfiguration().getBeamMode().equals("end_gateway")){
+            if(main.getConfiguration().getResolvedBeamMode() != BeamMode.END_GATEWAY){
                 beaconsToUpdate.clear();
             }
 
@@ -140,7 +144,7 @@ public class QuestEvents implements Listener {
                     questPlayer.increaseBossBarTimeByOneSecond();
                 }
 
-                if(main.getConfiguration().getBeamMode().equals("end_gateway")){
+                if(main.getConfiguration().getResolvedBeamMode() == BeamMode.END_GATEWAY){
                     if(updateBeacons){
                         questPlayer.updateBeaconLocations(player);
                     }
@@ -775,24 +779,11 @@ public class QuestEvents implements Listener {
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-
-            for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-                if (activeTrigger.getTrigger() instanceof WorldEnterTrigger worldEnterTrigger) {
-                    if (e.getPlayer().getWorld().getName().equals(worldEnterTrigger.getWorldToEnterName())) {
-                        handleGeneralTrigger(questPlayer, activeTrigger);
-
-                    }
-
-                } else if (activeTrigger.getTrigger() instanceof WorldLeaveTrigger worldLeaveTrigger) {
-                    if (e.getFrom().getName().equals(worldLeaveTrigger.getWorldToLeaveName())) {
-                        handleGeneralTrigger(questPlayer, activeTrigger);
-                    }
-
-                }
-            }
-
-
+        for (final ActiveTrigger activeTrigger : questPlayer.getActiveTriggerIndex().getWorldEnterTriggers(player.getWorld().getName())) {
+            handleGeneralTrigger(questPlayer, activeTrigger);
+        }
+        for (final ActiveTrigger activeTrigger : questPlayer.getActiveTriggerIndex().getWorldLeaveTriggers(e.getFrom().getName())) {
+            handleGeneralTrigger(questPlayer, activeTrigger);
         }
     }
 
@@ -806,9 +797,10 @@ public class QuestEvents implements Listener {
                     return;
                 }
 
+                final EntityType bredEntityType = e.getEntityType();
                 questPlayer.queueObjectiveCheck(activeObjective -> {
                     if (activeObjective.getObjective() instanceof final BreedObjective breedObjective) {
-                        if(breedObjective.getEntityToBreedType().equalsIgnoreCase("any") ||  breedObjective.getEntityToBreedType().equalsIgnoreCase(e.getEntityType().toString())){
+                        if(breedObjective.getEntityToBreedFilter().matches(bredEntityType)){
                             activeObjective.addProgress(1);
                         }
 
@@ -1016,15 +1008,9 @@ public class QuestEvents implements Listener {
         if (e.getEntity() instanceof final Player player) {
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
 
-            if (questPlayer != null && !questPlayer.getActiveQuests().isEmpty()) {
-                for (int i = 0; i < questPlayer.getActiveQuests().size(); i++) {
-                    final ActiveQuest activeQuest = questPlayer.getActiveQuests().get(i);
-                    for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-                        if (activeTrigger.getTrigger().getTriggerType().equals("DEATH")) {
-                            handleGeneralTrigger(questPlayer, activeTrigger);
-
-                        }
-                    }
+            if (questPlayer != null) {
+                for (final ActiveTrigger activeTrigger : questPlayer.getActiveTriggerIndex().getActiveTriggers(TriggerType.DEATH)) {
+                    handleGeneralTrigger(questPlayer, activeTrigger);
                 }
             }
 
@@ -1039,59 +1025,26 @@ public class QuestEvents implements Listener {
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
+            if (e.getEntity() == player) { //Suicide prevention
+                return;
+            }
+
+            // Resolved once per kill and shared by all KillMobs objectives of the killer
+            final EntityType killedMob = e.getEntity().getType();
+            final Component customName = e.getEntity().customName();
+            final String customNamePlainStringLowercase = customName != null
+                    ? PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(Locale.ROOT)
+                    : null;
+
             questPlayer.queueObjectiveCheck(activeObjective -> {
                 if (activeObjective.getObjective() instanceof final KillMobsObjective killMobsObjective) {
                     if (activeObjective.isUnlocked()) {
                         if(main.getIntegrationsManager().isProjectKorraEnabled() && !killMobsObjective.getProjectKorraAbility().isBlank()){
                             return; //See ProjectKorraEvents.java onEntityKilled() for that.
                         }
-                        final EntityType killedMob = e.getEntity().getType();
-                        if (killMobsObjective.getMobToKill().equalsIgnoreCase("any") || killMobsObjective.getMobToKill().equalsIgnoreCase(killedMob.toString())) {
-                            if (e.getEntity() != e.getEntity().getKiller()) { //Suicide prevention
-
-                                //Extra Flags
-                                if (!killMobsObjective.getNameTagContainsAny().isBlank()) {
-                                    final Component customName = e.getEntity().customName();
-                                    if (customName == null) {
-                                        return;
-                                    }
-                                    final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(
-                                        Locale.ROOT);
-                                    if(customNamePlainStringLowercase.isBlank()){
-                                        return;
-                                    }
-
-                                    boolean foundOneNotFitting = false;
-                                    for (final String namePart : killMobsObjective.getNameTagContainsAny().toLowerCase(Locale.ROOT).split(" ")) {
-                                        if (!customNamePlainStringLowercase.contains(
-                                            namePart)) {
-                                            foundOneNotFitting = true;
-                                            break;
-                                        }
-                                    }
-                                    if (foundOneNotFitting) {
-                                        return;
-                                    }
-                                }
-                                if (!killMobsObjective.getNameTagEquals().isBlank()) {
-                                    final Component customName = e.getEntity().customName();
-                                    if (customName == null) {
-                                        return;
-                                    }
-                                    final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(
-                                        Locale.ROOT);
-                                    if(customNamePlainStringLowercase.isBlank()){
-                                        return;
-                                    }
-
-                                    if (!customNamePlainStringLowercase.equalsIgnoreCase(killMobsObjective.getNameTagEquals())) {
-                                        return;
-                                    }
-                                }
-
-                                activeObjective.addProgress(1);
-                            }
-
+                        if (killMobsObjective.getMobToKillFilter().matches(killedMob)
+                                && killMobsObjective.matchesNameTag(customNamePlainStringLowercase)) {
+                            activeObjective.addProgress(1);
                         }
                     }
 
@@ -1173,12 +1126,27 @@ public class QuestEvents implements Listener {
 
     }
 
+    /**
+     * @return how many PlayerMoveEvents have been inspected by the ReachLocation objective check
+     */
+    public final long getMovesInspected() {
+        return movesInspected.sum();
+    }
+
+    /**
+     * @return how many PlayerMoveEvents were actually checked against the ReachLocation objectives of the player
+     */
+    public final long getMovesProcessed() {
+        return movesProcessed.sum();
+    }
+
     //For ReachLocation
     @EventHandler
     public void onMove(PlayerMoveEvent e) {
         if (!main.getConfiguration().isMoveEventEnabled()) {
             return;
         }
+        movesInspected.increment();
 
         if (e.getFrom().getBlockX() != e.getTo().getBlockX() || e.getFrom().getBlockY() != e.getTo().getBlockY() || e.getFrom().getBlockZ() != e.getTo().getBlockZ()) {
             checkIfInReachLocation(e, e.getTo());
@@ -1189,9 +1157,10 @@ public class QuestEvents implements Listener {
     public void checkIfInReachLocation(final PlayerMoveEvent e, final Location currentLocation) {
 
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(e.getPlayer().getUniqueId());
-        if (e.isCancelled() || questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if (e.isCancelled() || questPlayer == null || !questPlayer.isInterestedInMoves()) {
             return;
         }
+        movesProcessed.increment();
         questPlayer.queueObjectiveCheck(activeObjective -> {
             if (activeObjective.getObjective() instanceof final ReachLocationObjective reachLocationObjective) {
 
@@ -1278,9 +1247,8 @@ public class QuestEvents implements Listener {
     private void onDisconnectEvent(PlayerQuitEvent e) { //Disconnect objectives
         if(main.getConfiguration().isSavePlayerDataOnQuit()){
             if (Bukkit.isPrimaryThread()) {
-                Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
-                    main.getQuestPlayerManager().saveSinglePlayerData(e.getPlayer());
-                });
+                //Copied right away, only saved asynchronously
+                main.getQuestPlayerManager().saveQuittingPlayerDataAsync(e.getPlayer());
             }else{
                 main.getQuestPlayerManager().saveSinglePlayerData(e.getPlayer());
             }
@@ -1304,15 +1272,23 @@ public class QuestEvents implements Listener {
     }
 
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent e) {
+        if (e.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED && main.getConfiguration().isLoadPlayerDataOnJoin()) {
+            main.getQuestPlayerManager().prefetchPlayerData(e.getUniqueId());
+        }
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent e) {
         if(main.getConfiguration().isLoadPlayerDataOnJoin()){
+            final long joinNanos = System.nanoTime();
             if (Bukkit.isPrimaryThread()) {
                 Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
-                    main.getQuestPlayerManager().loadSinglePlayerData(e.getPlayer().getUniqueId());
+                    main.getQuestPlayerManager().loadJoinedPlayerData(e.getPlayer().getUniqueId(), joinNanos);
                 });
             }else{
-                main.getQuestPlayerManager().loadSinglePlayerData(e.getPlayer().getUniqueId());
+                main.getQuestPlayerManager().loadJoinedPlayerData(e.getPlayer().getUniqueId(), joinNanos);
             }
 
             //no need to call onJoin here as it's called by loadSinglePlayerData automatically
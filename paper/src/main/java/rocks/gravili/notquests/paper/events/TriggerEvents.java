@@ -33,6 +33,7 @@ import rocks.gravili.notquests.paper.structs.ActiveObjective;
 import rocks.gravili.notquests.paper.structs.ActiveQuest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
+import rocks.gravili.notquests.paper.structs.triggers.TriggerType;
 
 public class TriggerEvents implements Listener {
   private final NotQuests main;
@@ -44,32 +45,7 @@ public class TriggerEvents implements Listener {
   @EventHandler(priority = EventPriority.MONITOR)
   private void onQuestFinishAccept(QuestFinishAcceptEvent e) {
     if (e.isTriggerAcceptQuestTrigger()) {
-      for (final ActiveTrigger activeTrigger : e.getActiveQuest().getActiveTriggers()) {
-        if (activeTrigger.getTrigger().getTriggerType().equals("BEGIN")) { // Start the quest
-          if (activeTrigger.getTrigger().getApplyOn() == 0) { // Quest and not objective
-
-            if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
-              activeTrigger.addAndCheckTrigger(e.getActiveQuest());
-            } else {
-              final Player player = e.getQuestPlayer().getPlayer();
-              if (player != null
-                  && player
-                      .getWorld()
-                      .getName()
-                      .equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
-                activeTrigger.addAndCheckTrigger(e.getActiveQuest());
-              }
-            }
-          }
-        }
-      }
-    }
-  }
-
-  @EventHandler(priority = EventPriority.MONITOR)
-  private void onQuestComplete(QuestCompletedEvent e) {
-    for (final ActiveTrigger activeTrigger : e.getActiveQuest().getActiveTriggers()) {
-      if (activeTrigger.getTrigger().getTriggerType().equals("COMPLETE")) { // Complete the quest
+      for (final ActiveTrigger activeTrigger : e.getActiveQuest().getActiveTriggers(TriggerType.BEGIN)) {
         if (activeTrigger.getTrigger().getApplyOn() == 0) { // Quest and not objective
 
           if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
@@ -89,25 +65,44 @@ public class TriggerEvents implements Listener {
     }
   }
 
+  @EventHandler(priority = EventPriority.MONITOR)
+  private void onQuestComplete(QuestCompletedEvent e) {
+    for (final ActiveTrigger activeTrigger : e.getActiveQuest().getActiveTriggers(TriggerType.COMPLETE)) {
+      if (activeTrigger.getTrigger().getApplyOn() == 0) { // Quest and not objective
+
+        if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
+          activeTrigger.addAndCheckTrigger(e.getActiveQuest());
+        } else {
+          final Player player = e.getQuestPlayer().getPlayer();
+          if (player != null
+              && player
+                  .getWorld()
+                  .getName()
+                  .equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
+            activeTrigger.addAndCheckTrigger(e.getActiveQuest());
+          }
+        }
+      }
+    }
+  }
+
   @EventHandler(priority = EventPriority.MONITOR)
   private void onObjectiveComplete(ObjectiveCompleteEvent e) {
     if(e.getActiveObjectiveHolder() instanceof final ActiveQuest activeQuest){
-      for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-        if (activeTrigger.getTrigger().getTriggerType().equals("COMPLETE")) { // Complete the quest
-          if (activeTrigger.getTrigger().getApplyOn() >= 1) { // Objective and not Quest
-            if (e.getActiveObjective().getObjectiveID() == activeTrigger.getTrigger().getApplyOn()) {
+      for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers(TriggerType.COMPLETE)) {
+        if (activeTrigger.getTrigger().getApplyOn() >= 1) { // Objective and not Quest
+          if (e.getActiveObjective().getObjectiveID() == activeTrigger.getTrigger().getApplyOn()) {
 
-              if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
+            if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
+              activeTrigger.addAndCheckTrigger(activeQuest);
+            } else {
+              final Player player = Bukkit.getPlayer(e.getQuestPlayer().getUniqueId());
+              if (player != null
+                  && player
+                  .getWorld()
+                  .getName()
+                  .equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
                 activeTrigger.addAndCheckTrigger(activeQuest);
-              } else {
-                final Player player = Bukkit.getPlayer(e.getQuestPlayer().getUniqueId());
-                if (player != null
-                    && player
-                    .getWorld()
-                    .getName()
-                    .equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
-                  activeTrigger.addAndCheckTrigger(activeQuest);
-                }
               }
             }
           }
@@ -133,12 +128,30 @@ public class TriggerEvents implements Listener {
 
     // for(final ActiveQuest activeQuest : activeQuestsCopy){
     final ActiveQuest activeQuest = e.getActiveQuest();
-    for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-      if (activeTrigger.getTrigger().getTriggerType().equals("FAIL")) {
-        if (activeTrigger.getTrigger().getApplyOn() == 0) { // Quest and not Objective
-          if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
+    for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers(TriggerType.FAIL)) {
+      if (activeTrigger.getTrigger().getApplyOn() == 0) { // Quest and not Objective
+        if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
+          activeTrigger.addAndCheckTrigger(activeQuest);
+
+        } else {
+          final Player player = Bukkit.getPlayer(questPlayer.getUniqueId());
+          if (player != null
+              && player
+                  .getWorld()
+                  .getName()
+                  .equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
             activeTrigger.addAndCheckTrigger(activeQuest);
+          }
+        }
 
+      } else if (activeTrigger.getTrigger().getApplyOn() >= 1) { // Objective and not Quest
+
+        final ActiveObjective activeObjective =
+            activeQuest.getActiveObjectiveFromID(activeTrigger.getTrigger().getApplyOn());
+        if (activeObjective != null && activeObjective.isUnlocked()) {
+
+          if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
+            activeTrigger.addAndCheckTrigger(activeQuest);
           } else {
             final Player player = Bukkit.getPlayer(questPlayer.getUniqueId());
             if (player != null
@@ -149,26 +162,6 @@ public class TriggerEvents implements Listener {
               activeTrigger.addAndCheckTrigger(activeQuest);
             }
           }
-
-        } else if (activeTrigger.getTrigger().getApplyOn() >= 1) { // Objective and not Quest
-
-          final ActiveObjective activeObjective =
-              activeQuest.getActiveObjectiveFromID(activeTrigger.getTrigger().getApplyOn());
-          if (activeObjective != null && activeObjective.isUnlocked()) {
-
-            if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
-              activeTrigger.addAndCheckTrigger(activeQuest);
-            } else {
-              final Player player = Bukkit.getPlayer(questPlayer.getUniqueId());
-              if (player != null
-                  && player
-                      .getWorld()
-                      .getName()
-                      .equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
-                activeTrigger.addAndCheckTrigger(activeQuest);
-              }
-            }
-          }
         }
       }
     }
@@ -178,22 +171,20 @@ public class TriggerEvents implements Listener {
   private void onObjectiveUnlock(ObjectiveUnlockEvent e) {
     if (e.isTriggerAcceptQuestTrigger()) {
       if(e.getActiveObjectiveHolder() instanceof final ActiveQuest activeQuest){
-        for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-          if (activeTrigger.getTrigger().getTriggerType().equals("BEGIN")) { // Start the quest
-            if (activeTrigger.getTrigger().getApplyOn() >= 1) { // Objective and not Quest
-              if (e.getActiveObjective().getObjectiveID()
-                  == activeTrigger.getTrigger().getApplyOn()) {
-                if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
+        for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers(TriggerType.BEGIN)) {
+          if (activeTrigger.getTrigger().getApplyOn() >= 1) { // Objective and not Quest
+            if (e.getActiveObjective().getObjectiveID()
+                == activeTrigger.getTrigger().getApplyOn()) {
+              if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
+                activeTrigger.addAndCheckTrigger(activeQuest);
+              } else {
+                final Player player = Bukkit.getPlayer(e.getQuestPlayer().getUniqueId());
+                if (player != null
+                    && player
+                    .getWorld()
+                    .getName()
+                    .equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
                   activeTrigger.addAndCheckTrigger(activeQuest);
-                } else {
-                  final Player player = Bukkit.getPlayer(e.getQuestPlayer().getUniqueId());
-                  if (player != null
-                      && player
-                      .getWorld()
-                      .getName()
-                      .equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
-                    activeTrigger.addAndCheckTrigger(activeQuest);
-                  }
                 }
               }
             }
@@ -40,21 +40,21 @@ import org.bukkit.event.Listener;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.conversation.Conversation;
 import rocks.gravili.notquests.paper.conversation.ConversationManager;
+import rocks.gravili.notquests.paper.events.notquests.ConversationEndEvent;
 import rocks.gravili.notquests.paper.managers.npc.ConversationFocus;
+import rocks.gravili.notquests.paper.managers.npc.NPCInteractionProfile;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
 import rocks.gravili.notquests.paper.managers.npc.NQNPCID;
-import rocks.gravili.notquests.paper.structs.ActiveObjective;
-import rocks.gravili.notquests.paper.structs.ActiveQuest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.objectives.DeliverItemsObjective;
 import rocks.gravili.notquests.paper.structs.objectives.TalkToNPCObjective;
 import rocks.gravili.notquests.paper.structs.objectives.hooks.citizens.EscortNPCObjective;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
+import rocks.gravili.notquests.paper.structs.triggers.TriggerType;
 import rocks.gravili.notquests.paper.structs.triggers.types.NPCDeathTrigger;
 
 public class CitizensEvents implements Listener {
@@ -71,46 +71,9 @@ public class CitizensEvents implements Listener {
         final NPC npc = event.getNPC();
 
         for (final QuestPlayer questPlayer : main.getQuestPlayerManager().getActiveQuestPlayers()) {
-            if (!questPlayer.getActiveQuests().isEmpty()) {
-                for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                    for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-                        if (activeTrigger.getTrigger().getTriggerType().equals("NPCDEATH")) {
-                            if (((NPCDeathTrigger) activeTrigger.getTrigger()).getNpcToDieID() == npc.getId()) {
-                                if (activeTrigger.getTrigger().getApplyOn() == 0) { //Quest and not Objective
-
-                                    if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
-                                        activeTrigger.addAndCheckTrigger(activeQuest);
-                                    } else {
-                                        final Player player = Bukkit.getPlayer(questPlayer.getUniqueId());
-                                        if (player != null && player.getWorld().getName().equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
-                                            activeTrigger.addAndCheckTrigger(activeQuest);
-                                        }
-                                    }
-                                }
-
-                            } else if (activeTrigger.getTrigger().getApplyOn() >= 1) { //Objective and not Quest
-                                final ActiveObjective activeObjective = activeQuest.getActiveObjectiveFromID(activeTrigger.getTrigger().getApplyOn());
-                                if (activeObjective != null && activeObjective.isUnlocked()) {
-
-                                    if (activeTrigger.getTrigger().getWorldName().equalsIgnoreCase("ALL")) {
-                                        activeTrigger.addAndCheckTrigger(activeQuest);
-                                    } else {
-                                        final Player player = Bukkit.getPlayer(questPlayer.getUniqueId());
-                                        if (player != null && player.getWorld().getName().equalsIgnoreCase(activeTrigger.getTrigger().getWorldName())) {
-                                            activeTrigger.addAndCheckTrigger(activeQuest);
-                                        }
-                                    }
-
-
-                                }
-
-                            }
-
-
-                        }
-                    }
-
-
+            for (final ActiveTrigger activeTrigger : questPlayer.getActiveTriggerIndex().getActiveTriggers(TriggerType.NPCDEATH)) {
+                if (((NPCDeathTrigger) activeTrigger.getTrigger()).getNpcToDieID() == npc.getId()) {
+                    main.getQuestEvents().handleGeneralTrigger(questPlayer, activeTrigger);
                 }
             }
         }
@@ -147,108 +110,113 @@ public class CitizensEvents implements Listener {
 
 
 
+        final NPCInteractionProfile interactionProfile = main.getNPCManager().getInteractionProfile(nqNPC);
+
         final AtomicBoolean handledObjective = new AtomicBoolean(false);
         questPlayer.sendDebugMessage("Right-clicked NPC event: " + npc.getId() + "." );
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final DeliverItemsObjective deliverItemsObjective) {
-                if (nqNPC.equals(deliverItemsObjective.getRecipientNPC())) {
-                    for (final ItemStack itemStack : player.getInventory().getContents()) {
-                        if (itemStack != null) {
-                            if(!deliverItemsObjective.getItemStackSelection().checkIfIsIncluded(itemStack)){
-                                continue;
-                            }
+        //No objective of any quest refers to this NPC, so there's no need to check the active objectives of the player
+        if (interactionProfile.hasObjectivesInteractingWithNPC() && !questPlayer.getActiveQuests().isEmpty()) {
+            questPlayer.queueObjectiveCheck(activeObjective -> {
+                if (activeObjective.getObjective() instanceof final DeliverItemsObjective deliverItemsObjective) {
+                    if (nqNPC.equals(deliverItemsObjective.getRecipientNPC())) {
+                        for (final ItemStack itemStack : player.getInventory().getContents()) {
+                            if (itemStack != null) {
+                                if(!deliverItemsObjective.getItemStackSelection().checkIfIsIncluded(itemStack)){
+                                    continue;
+                                }
 
-                            final double progressLeft = activeObjective.getProgressNeeded() - activeObjective.getCurrentProgress();
+                                final double progressLeft = activeObjective.getProgressNeeded() - activeObjective.getCurrentProgress();
 
-                            if (progressLeft == 0) {
-                                continue;
-                            }
+                                if (progressLeft == 0) {
+                                    continue;
+                                }
 
-                            handledObjective.set(true);
+                                handledObjective.set(true);
 
-                            final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npc.getName().replace("§","&")));
+                                final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npc.getName().replace("§","&")));
 
-                            if (progressLeft < itemStack.getAmount()) { //We can finish it with this itemStack
-                                itemStack.setAmount((itemStack.getAmount() - (int) progressLeft));
-                                activeObjective.addProgress(progressLeft, nqNPC);
+                                if (progressLeft < itemStack.getAmount()) { //We can finish it with this itemStack
+                                    itemStack.setAmount((itemStack.getAmount() - (int) progressLeft));
+                                    activeObjective.addProgress(progressLeft, nqNPC);
 
 
 
-                                player.sendMessage(main.parse(
-                                    "<GREEN>You have delivered <highlight>" + progressLeft + "</highlight> items to <highlight>" + mmNpcName
-                                ));
-                                break;
-                            } else {
-                                questPlayer.sendDebugMessage("Calling player.getInventory().removeItemAnySlot with amount " + itemStack.getAmount() + "...");
-                                player.getInventory().removeItemAnySlot(itemStack);
-                                activeObjective.addProgress(itemStack.getAmount(), nqNPC);
-                                player.sendMessage(main.parse(
-                                    "<GREEN>You have delivered <highlight>" + itemStack.getAmount() + "</highlight> items to <highlight>" + mmNpcName
-                                ));
+                                    player.sendMessage(main.parse(
+                                        "<GREEN>You have delivered <highlight>" + progressLeft + "</highlight> items to <highlight>" + mmNpcName
+                                    ));
+                                    break;
+                                } else {
+                                    questPlayer.sendDebugMessage("Calling player.getInventory().removeItemAnySlot with amount " + itemStack.getAmount() + "...");
+                                    player.getInventory().removeItemAnySlot(itemStack);
+                                    activeObjective.addProgress(itemStack.getAmount(), nqNPC);
+                                    player.sendMessage(main.parse(
+                                        "<GREEN>You have delivered <highlight>" + itemStack.getAmount() + "</highlight> items to <highlight>" + mmNpcName
+                                    ));
+                                }
                             }
-                        }
 
+                        }
+                        player.updateInventory();
                     }
-                    player.updateInventory();
                 }
-            }
-        });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final TalkToNPCObjective talkToNPCObjective) {
-                if (nqNPC.equals(talkToNPCObjective.getNPCtoTalkTo())) {
-                    activeObjective.addProgress(1, nqNPC);
-                    final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npc.getName().replace("§","&")));
-
-                    player.sendMessage(main.parse(
-                        "<GREEN>You talked to <highlight>" +mmNpcName
-                    ));
-                    handledObjective.set(true);
+            });
+            questPlayer.queueObjectiveCheck(activeObjective -> {
+                if (activeObjective.getObjective() instanceof final TalkToNPCObjective talkToNPCObjective) {
+                    if (nqNPC.equals(talkToNPCObjective.getNPCtoTalkTo())) {
+                        activeObjective.addProgress(1, nqNPC);
+                        final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npc.getName().replace("§","&")));
+
+                        player.sendMessage(main.parse(
+                            "<GREEN>You talked to <highlight>" +mmNpcName
+                        ));
+                        handledObjective.set(true);
+                    }
                 }
-            }
-        });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final EscortNPCObjective escortNPCObjective) {
-                if (escortNPCObjective.getNpcToEscortToID() == npc.getId()) {
-                    final NPC npcToEscort = CitizensAPI.getNPCRegistry().getById(escortNPCObjective.getNpcToEscortID());
-                    if (npcToEscort != null) {
-                        if (npcToEscort.isSpawned() && (npcToEscort.getEntity().getLocation().distance(player.getLocation()) < 6)) {
-                            activeObjective.addProgress(1, nqNPC);
-                            final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npcToEscort.getName()));
-
-                            player.sendMessage(main.parse(
-                                "<GREEN>You have successfully delivered the NPC <highlight>" + mmNpcName
-                            ));
-                            handledObjective.set(true);
-                            FollowTrait followerTrait = null;
-                            for (final Trait trait : npcToEscort.getTraits()) {
-                                if (trait.getName().toLowerCase(Locale.ROOT).contains("follow")) {
-                                    followerTrait = (FollowTrait) trait;
+            });
+            questPlayer.queueObjectiveCheck(activeObjective -> {
+                if (activeObjective.getObjective() instanceof final EscortNPCObjective escortNPCObjective) {
+                    if (escortNPCObjective.getNpcToEscortToID() == npc.getId()) {
+                        final NPC npcToEscort = CitizensAPI.getNPCRegistry().getById(escortNPCObjective.getNpcToEscortID());
+                        if (npcToEscort != null) {
+                            if (npcToEscort.isSpawned() && (npcToEscort.getEntity().getLocation().distance(player.getLocation()) < 6)) {
+                                activeObjective.addProgress(1, nqNPC);
+                                final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npcToEscort.getName()));
+
+                                player.sendMessage(main.parse(
+                                    "<GREEN>You have successfully delivered the NPC <highlight>" + mmNpcName
+                                ));
+                                handledObjective.set(true);
+                                FollowTrait followerTrait = null;
+                                for (final Trait trait : npcToEscort.getTraits()) {
+                                    if (trait.getName().toLowerCase(Locale.ROOT).contains("follow")) {
+                                        followerTrait = (FollowTrait) trait;
+                                    }
+                                }
+                                if (followerTrait != null) {
+                                    npc.removeTrait(followerTrait.getClass());
                                 }
-                            }
-                            if (followerTrait != null) {
-                                npc.removeTrait(followerTrait.getClass());
-                            }
 
-                            npcToEscort.despawn();
-                        } else {
-                            player.sendMessage(main.parse(
-                                "<RED>The NPC you have to escort is not close enough to you!"
-                            ));
+                                npcToEscort.despawn();
+                            } else {
+                                player.sendMessage(main.parse(
+                                    "<RED>The NPC you have to escort is not close enough to you!"
+                                ));
+                            }
                         }
-                    }
 
 
+                    }
                 }
-            }
-        });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            //Eventually trigger CompletionNPC Objective Completion if the objective is not set to complete automatically (so, if getCompletionNPCID() is not -1)
-            if (activeObjective.getObjective().getCompletionNPC() != null) {
-                activeObjective.addProgress(0, nqNPC);
-            }
-        });
-        questPlayer.checkQueuedObjectives();
+            });
+            questPlayer.queueObjectiveCheck(activeObjective -> {
+                //Eventually trigger CompletionNPC Objective Completion if the objective is not set to complete automatically (so, if getCompletionNPCID() is not -1)
+                if (activeObjective.getObjective().getCompletionNPC() != null) {
+                    activeObjective.addProgress(0, nqNPC);
+                }
+            });
+            questPlayer.checkQueuedObjectives();
+        }
 
 
         //Return if another action already happened
@@ -263,21 +231,14 @@ public class CitizensEvents implements Listener {
         //Conversations
         ConversationManager manager = main.getConversationManager();
         if(manager != null){
-            final Conversation foundConversation = main.getConversationManager().getConversationForNPC(nqNPC);
+            final Conversation foundConversation = interactionProfile.conversation();
             if (foundConversation != null) {
                 // Cancel NPC's movement
                 npc.getNavigator().cancelNavigation();
                 npc.getNavigator().setPaused(true);
                 manager.getActiveConversationsOfNPCWithPlayerCache().putIfAbsent(npc.getId(), new ArrayList<>());
                 manager.getActiveConversationsOfNPCWithPlayerCache().get(npc.getId()).add(player.getUniqueId());
-                new BukkitRunnable(){
-                    public void run() {
-                        if (!manager.getActiveConversationsOfNPCWithPlayerCache().containsKey(nqNPC.getID().getIntegerID())) {
-                            npc.getNavigator().setPaused(false);
-                            this.cancel();
-                        }
-                    }
-                }.runTaskTimer(this.main.getMain(), 0L, 30L);
+                //The navigation is resumed in onConversationEnd() once nobody is talking to the NPC anymore
                 // Try to cancel player's movement
                 player.getLocation().setDirection(new Vector(0, 0, 0));
                 player.setVelocity(new Vector(0, 0, 0));
@@ -288,6 +249,24 @@ public class CitizensEvents implements Listener {
         }
     }
 
+    @EventHandler
+    private void onConversationEnd(ConversationEndEvent event) {
+        final NQNPC nqNPC = event.getNPC();
+        if (!event.isLastConversationOfNPC() || nqNPC == null || !nqNPC.getNPCType().equalsIgnoreCase("citizens")) {
+            return;
+        }
+        Bukkit.getScheduler().runTask(main.getMain(), () -> {
+            //Someone might have started talking to the NPC again in the meantime
+            if (main.getConversationManager().getActiveConversationsOfNPCWithPlayerCache().containsKey(nqNPC.getID().getIntegerID())) {
+                return;
+            }
+            final NPC npc = CitizensAPI.getNPCRegistry().getById(nqNPC.getID().getIntegerID());
+            if (npc != null) {
+                npc.getNavigator().setPaused(false);
+            }
+        });
+    }
+
     @EventHandler
     private void onCitizensEnable(CitizensEnableEvent e) {
         main.getLogManager().info("Processing Citizens Enable Event...");
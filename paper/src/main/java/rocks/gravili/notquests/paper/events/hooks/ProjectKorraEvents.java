@@ -21,7 +21,6 @@ package rocks.gravili.notquests.paper.events.hooks;
 import com.projectkorra.projectkorra.event.AbilityStartEvent;
 import com.projectkorra.projectkorra.event.EntityBendingDeathEvent;
 import java.util.Locale;
-import org.bukkit.entity.EntityType;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import rocks.gravili.notquests.paper.NotQuests;
@@ -78,27 +77,13 @@ public class ProjectKorraEvents implements Listener {
                                 if(!killMobsObjective.getProjectKorraAbility().equalsIgnoreCase("any") && !killMobsObjective.getProjectKorraAbility().equalsIgnoreCase(e.getAbility().getName()) ){
                                     continue;
                                 }
-                                final EntityType killedMob = e.getEntity().getType();
-                                if (killMobsObjective.getMobToKill().equalsIgnoreCase("any") || killMobsObjective.getMobToKill().equalsIgnoreCase(killedMob.toString())) {
+                                if (killMobsObjective.getMobToKillFilter().matches(e.getEntity().getType())) {
                                     if (e.getEntity() != e.getAttacker()) { //Suicide prevention
 
                                         //Extra Flags
-                                        if (!killMobsObjective.getNameTagContainsAny().isBlank()) {
-                                            if (e.getEntity().getCustomName() == null || e.getEntity().getCustomName().isBlank()) {
-                                                continue;
-                                            }
-                                            boolean foundOneNotFitting = false;
-                                            for (final String namePart : killMobsObjective.getNameTagContainsAny().toLowerCase(Locale.ROOT).split(" ")) {
-                                                if (!e.getEntity().getCustomName().toLowerCase(Locale.ROOT).contains(namePart)) {
-                                                    foundOneNotFitting = true;
-                                                }
-                                            }
-                                            if (foundOneNotFitting) {
-                                                continue;
-                                            }
-                                        }
-                                        if (!killMobsObjective.getNameTagEquals().isBlank()) {
-                                            if (e.getEntity().getCustomName() == null || e.getEntity().getCustomName().isBlank() || !e.getEntity().getCustomName().equalsIgnoreCase(killMobsObjective.getNameTagEquals())) {
+                                        if (killMobsObjective.hasNameTagFilter()) {
+                                            final String customName = e.getEntity().getCustomName();
+                                            if (!killMobsObjective.matchesNameTag(customName != null ? customName.toLowerCase(Locale.ROOT) : null)) {
                                                 continue;
                                             }
                                         }
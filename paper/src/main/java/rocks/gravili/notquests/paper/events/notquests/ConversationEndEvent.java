@@ -0,0 +1,78 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.events.notquests;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.conversation.ConversationPlayer;
+import rocks.gravili.notquests.paper.managers.npc.NQNPC;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+public class ConversationEndEvent extends Event {
+
+  private static final HandlerList HANDLERS = new HandlerList();
+  private final QuestPlayer questPlayer;
+  private final ConversationPlayer conversationPlayer;
+  private final boolean lastConversationOfNPC;
+
+  public ConversationEndEvent(
+      final QuestPlayer questPlayer,
+      final ConversationPlayer conversationPlayer,
+      final boolean lastConversationOfNPC) {
+    super(true);
+
+    this.questPlayer = questPlayer;
+    this.conversationPlayer = conversationPlayer;
+    this.lastConversationOfNPC = lastConversationOfNPC;
+  }
+
+  public static HandlerList getHandlerList() {
+    return HANDLERS;
+  }
+
+  @NotNull
+  @Override
+  public HandlerList getHandlers() {
+    return HANDLERS;
+  }
+
+  public QuestPlayer getQuestPlayer() {
+    return this.questPlayer;
+  }
+
+  public ConversationPlayer getConversationPlayer() {
+    return this.conversationPlayer;
+  }
+
+  /**
+   * @return the NPC the conversation was played with, or null if it wasn't started by an NPC
+   */
+  public @Nullable NQNPC getNPC() {
+    return this.conversationPlayer.getNpc();
+  }
+
+  /**
+   * @return true if no other player is in a conversation with the NPC anymore
+   */
+  public final boolean isLastConversationOfNPC() {
+    return lastConversationOfNPC;
+  }
+}
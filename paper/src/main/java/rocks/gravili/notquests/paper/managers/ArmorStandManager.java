@@ -18,28 +18,86 @@
 
 package rocks.gravili.notquests.paper.managers;
 
+import com.destroystokyo.paper.ParticleBuilder;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.conversation.Conversation;
+import rocks.gravili.notquests.paper.structs.Quest;
 
 public class ArmorStandManager {
     final NamespacedKey attachedConversationKey;
     private final NotQuests main;
     private final NamespacedKey attachedQuestsShowingKey;
     private final NamespacedKey attachedQuestsNonShowingKey;
-    private final ArrayList<ArmorStand> armorStandsWithQuestsOrConversationAttachedToThem;
+
+    /**
+     * Armor stands with quests or conversations attached to them, bucketed by the chunk they are in. Entity load / unload
+     * events modify this on the main thread while the particle task reads it asynchronously.
+     */
+    private final ConcurrentHashMap<IndicatorChunk, ConcurrentHashMap<UUID, QuestGiverIndicator>> questGiverIndicatorsByChunk;
+    private final ConcurrentHashMap<UUID, IndicatorChunk> indicatorChunksByArmorStand;
+
+    /**
+     * @param worldUUID the world of the chunk
+     * @param chunkX the chunk x coordinate (block x >> 4)
+     * @param chunkZ the chunk z coordinate (block z >> 4)
+     */
+    private record IndicatorChunk(UUID worldUUID, int chunkX, int chunkZ) {
+    }
+
+    /**
+     * The particle position above an armor stand. The location is taken when the armor stand is added, so the async
+     * particle task never has to access the entity itself.
+     */
+    private record QuestGiverIndicator(UUID armorStandUUID, double x, double y, double z) {
+    }
+
+    /**
+     * A player's position, copied on the main thread so the async part of the particle task doesn't have to access the
+     * player's location.
+     */
+    private record IndicatorViewer(Player player, World world, double x, double y, double z) {
+    }
+
+    /**
+     * The resolved quests and conversation attached to loaded armor stands, so interacting with an armor stand doesn't
+     * have to parse its PersistentDataContainer and look up every quest by name.
+     */
+    private final ConcurrentHashMap<UUID, ArmorStandAttachments> attachmentsByArmorStand;
+
+    /**
+     * @param showingQuests the attached quests which are shown in the quest preview
+     * @param nonShowingQuests the attached quests which are not shown in the quest preview
+     * @param conversation the attached conversation, or null if there is none
+     * @param questsModificationCount QuestManager.getQuestsModificationCount() when the attachments were resolved
+     * @param interactionBindingsModificationCount NPCManager.getInteractionBindingsModificationCount() when the attachments were resolved
+     */
+    public record ArmorStandAttachments(List<Quest> showingQuests, List<Quest> nonShowingQuests, @Nullable Conversation conversation, int questsModificationCount, int interactionBindingsModificationCount) {
+        public final boolean isEmpty() {
+            return showingQuests.isEmpty() && nonShowingQuests.isEmpty() && conversation == null;
+        }
+    }
 
     public ArmorStandManager(NotQuests main) {
         this.main = main;
-        armorStandsWithQuestsOrConversationAttachedToThem = new ArrayList<>();
+        questGiverIndicatorsByChunk = new ConcurrentHashMap<>();
+        indicatorChunksByArmorStand = new ConcurrentHashMap<>();
+        attachmentsByArmorStand = new ConcurrentHashMap<>();
         attachedQuestsShowingKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-showing");
         attachedQuestsNonShowingKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-nonshowing");
         attachedConversationKey = new NamespacedKey(main.getMain(), "notquests-attachedConversation");
@@ -62,11 +120,83 @@ public class ArmorStandManager {
     }
 
     public void addArmorStandWithQuestsOrConversationAttachedToThem(final ArmorStand armorStand) {
-        this.armorStandsWithQuestsOrConversationAttachedToThem.add(armorStand);
+        //Remove it first, in case it has been moved to another chunk since it was added
+        removeArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
+
+        final Location location = armorStand.getLocation();
+        final IndicatorChunk indicatorChunk = new IndicatorChunk(location.getWorld().getUID(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        questGiverIndicatorsByChunk.computeIfAbsent(indicatorChunk, chunk -> new ConcurrentHashMap<>())
+                .put(armorStand.getUniqueId(), new QuestGiverIndicator(armorStand.getUniqueId(), location.getX(), location.getY(), location.getZ()));
+        indicatorChunksByArmorStand.put(armorStand.getUniqueId(), indicatorChunk);
     }
 
     public void removeArmorStandWithQuestsOrConversationAttachedToThem(final ArmorStand armorStand) {
-        this.armorStandsWithQuestsOrConversationAttachedToThem.remove(armorStand);
+        final IndicatorChunk indicatorChunk = indicatorChunksByArmorStand.remove(armorStand.getUniqueId());
+        if (indicatorChunk == null) {
+            return;
+        }
+        questGiverIndicatorsByChunk.computeIfPresent(indicatorChunk, (chunk, questGiverIndicators) -> {
+            questGiverIndicators.remove(armorStand.getUniqueId());
+            return questGiverIndicators.isEmpty() ? null : questGiverIndicators;
+        });
+    }
+
+    /**
+     * @return the cached attachments of the armor stand. They are resolved from its PersistentDataContainer if they are not
+     *     cached yet, or if quests or conversations have been reloaded since.
+     */
+    public final ArmorStandAttachments getAttachments(final ArmorStand armorStand) {
+        final ArmorStandAttachments cachedAttachments = attachmentsByArmorStand.get(armorStand.getUniqueId());
+        if (cachedAttachments != null
+                && cachedAttachments.questsModificationCount() == main.getQuestManager().getQuestsModificationCount()
+                && cachedAttachments.interactionBindingsModificationCount() == main.getNPCManager().getInteractionBindingsModificationCount()) {
+            return cachedAttachments;
+        }
+        return refreshAttachments(armorStand);
+    }
+
+    /**
+     * Resolves the attachments of the armor stand from its PersistentDataContainer again. Has to be called whenever quests
+     * or conversations are attached to or removed from it.
+     *
+     * @return the new attachments
+     */
+    public ArmorStandAttachments refreshAttachments(final ArmorStand armorStand) {
+        final int questsModificationCount = main.getQuestManager().getQuestsModificationCount();
+        final int interactionBindingsModificationCount = main.getNPCManager().getInteractionBindingsModificationCount();
+
+        final PersistentDataContainer armorStandPDB = armorStand.getPersistentDataContainer();
+        final String attachedConversationIdentifier = armorStandPDB.get(attachedConversationKey, PersistentDataType.STRING);
+        final ArmorStandAttachments attachments = new ArmorStandAttachments(
+                resolveAttachedQuests(armorStandPDB.get(attachedQuestsShowingKey, PersistentDataType.STRING)),
+                resolveAttachedQuests(armorStandPDB.get(attachedQuestsNonShowingKey, PersistentDataType.STRING)),
+                attachedConversationIdentifier != null && main.getConversationManager() != null ? main.getConversationManager().getConversation(attachedConversationIdentifier) : null,
+                questsModificationCount,
+                interactionBindingsModificationCount
+        );
+        attachmentsByArmorStand.put(armorStand.getUniqueId(), attachments);
+        return attachments;
+    }
+
+    public void dropAttachments(final UUID armorStandUUID) {
+        attachmentsByArmorStand.remove(armorStandUUID);
+    }
+
+    private List<Quest> resolveAttachedQuests(@Nullable final String attachedQuests) {
+        if (attachedQuests == null || attachedQuests.isEmpty()) {
+            return List.of();
+        }
+        final ArrayList<Quest> quests = new ArrayList<>();
+        for (final String questName : attachedQuests.split("°")) {
+            if (questName.isEmpty()) {
+                continue;
+            }
+            final Quest quest = main.getQuestManager().getQuest(questName);
+            if (quest != null) {
+                quests.add(quest);
+            }
+        }
+        return List.copyOf(quests);
     }
 
     public void loadAllArmorStandsFromLoadedChunks() {
@@ -90,6 +220,7 @@ public class ArmorStandManager {
                     }
 
                     if (hasShowingQuestsPDBKey || hasNonShowingQuestsPDBKey || hasConversationPDBKey) {
+                        refreshAttachments(armorStand);
                         main.getArmorStandManager().addArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
                     }
                 }
@@ -98,8 +229,16 @@ public class ArmorStandManager {
     }
 
 
+    /**
+     * Spawns the quest giver indicator particles. Only players within the configured view distance of a quest giver see
+     * its particles, and only the chunks around each player are looked at - so the cost scales with the players near quest
+     * givers, not with the total amount of quest givers. The particle packet of each quest giver is built once and sent to
+     * all players who can see it.
+     * <p>
+     * The player positions are copied on the main thread. Everything else runs asynchronously.
+     */
     public void startQuestGiverIndicatorParticleRunnable() {
-        Bukkit.getServer().getScheduler().runTaskTimerAsynchronously(main.getMain(), () -> {
+        Bukkit.getServer().getScheduler().runTaskTimer(main.getMain(), () -> {
 
             //Disable if Server TPS is too low
             double minimumTPS = main.getConfiguration().getArmorStandQuestGiverIndicatorParticleDisableIfTPSBelow();
@@ -109,14 +248,67 @@ public class ArmorStandManager {
                 }
             }
 
-            for (final ArmorStand armorStand : armorStandsWithQuestsOrConversationAttachedToThem) {
-                final Location location = armorStand.getLocation();
-                armorStand.getWorld().spawnParticle(main.getConfiguration().getArmorStandQuestGiverIndicatorParticleType(), location.getX() - 0.25 + (Math.random() / 2), location.getY() + 1.75 + (Math.random() / 2), location.getZ() - 0.25 + (Math.random() / 2), main.getConfiguration().getArmorStandQuestGiverIndicatorParticleCount());
+            if (questGiverIndicatorsByChunk.isEmpty()) {
+                return;
+            }
 
+            final ArrayList<IndicatorViewer> viewers = new ArrayList<>(Bukkit.getOnlinePlayers().size());
+            for (final Player player : Bukkit.getOnlinePlayers()) {
+                final Location playerLocation = player.getLocation();
+                viewers.add(new IndicatorViewer(player, playerLocation.getWorld(), playerLocation.getX(), playerLocation.getY(), playerLocation.getZ()));
+            }
+            if (viewers.isEmpty()) {
+                return;
             }
+
+            Bukkit.getServer().getScheduler().runTaskAsynchronously(main.getMain(), () -> spawnQuestGiverIndicatorParticles(viewers));
         }, main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval(), main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval());
     }
 
+    private void spawnQuestGiverIndicatorParticles(final List<IndicatorViewer> viewers) {
+        final int viewDistance = main.getConfiguration().getArmorStandQuestGiverIndicatorParticleViewDistance();
+        final double viewDistanceSquared = (double) viewDistance * viewDistance;
+        final int chunkRadius = (viewDistance >> 4) + 1;
+
+        final HashMap<QuestGiverIndicator, List<IndicatorViewer>> receiversByQuestGiverIndicator = new HashMap<>();
+        for (final IndicatorViewer viewer : viewers) {
+            final UUID worldUUID = viewer.world().getUID();
+            final int playerChunkX = Location.locToBlock(viewer.x()) >> 4;
+            final int playerChunkZ = Location.locToBlock(viewer.z()) >> 4;
+
+            for (int chunkX = playerChunkX - chunkRadius; chunkX <= playerChunkX + chunkRadius; chunkX++) {
+                for (int chunkZ = playerChunkZ - chunkRadius; chunkZ <= playerChunkZ + chunkRadius; chunkZ++) {
+                    final ConcurrentHashMap<UUID, QuestGiverIndicator> questGiverIndicators = questGiverIndicatorsByChunk.get(new IndicatorChunk(worldUUID, chunkX, chunkZ));
+                    if (questGiverIndicators == null) {
+                        continue;
+                    }
+                    for (final QuestGiverIndicator questGiverIndicator : questGiverIndicators.values()) {
+                        final double distanceX = questGiverIndicator.x() - viewer.x();
+                        final double distanceY = questGiverIndicator.y() - viewer.y();
+                        final double distanceZ = questGiverIndicator.z() - viewer.z();
+                        if (distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ <= viewDistanceSquared) {
+                            receiversByQuestGiverIndicator.computeIfAbsent(questGiverIndicator, indicator -> new ArrayList<>()).add(viewer);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (final Map.Entry<QuestGiverIndicator, List<IndicatorViewer>> receiversEntry : receiversByQuestGiverIndicator.entrySet()) {
+            final QuestGiverIndicator questGiverIndicator = receiversEntry.getKey();
+            final World world = receiversEntry.getValue().get(0).world();
+            final ArrayList<Player> receivers = new ArrayList<>(receiversEntry.getValue().size());
+            for (final IndicatorViewer viewer : receiversEntry.getValue()) {
+                receivers.add(viewer.player());
+            }
+            new ParticleBuilder(main.getConfiguration().getArmorStandQuestGiverIndicatorParticleType())
+                    .location(world, questGiverIndicator.x() - 0.25 + (Math.random() / 2), questGiverIndicator.y() + 1.75 + (Math.random() / 2), questGiverIndicator.z() - 0.25 + (Math.random() / 2))
+                    .count(main.getConfiguration().getArmorStandQuestGiverIndicatorParticleCount())
+                    .receivers(receivers)
+                    .spawn();
+        }
+    }
+
     public final String getArmorStandName(final UUID armorStandUUID) {
         if (Bukkit.getEntity(armorStandUUID) instanceof ArmorStand armorStand) {
             return armorStand.getName();
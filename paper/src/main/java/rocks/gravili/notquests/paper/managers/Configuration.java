@@ -21,6 +21,7 @@ package rocks.gravili.notquests.paper.managers;
 import java.util.List;
 import org.bukkit.Particle;
 import org.bukkit.inventory.ItemStack;
+import rocks.gravili.notquests.paper.structs.BeamMode;
 
 /**
  * This is the Configuration Class which contains the settings which can be configured in the
@@ -31,6 +32,7 @@ import org.bukkit.inventory.ItemStack;
 public class Configuration {
 
   private final String beamMode = "end_gateway"; // end_gateway, beacon, end_crystal
+  private final BeamMode resolvedBeamMode = BeamMode.fromString(beamMode);
 
   public boolean visualObjectiveTrackingShowProgressInActionBar = true;
   public boolean visualObjectiveTrackingShowProgressInBossBar = true;
@@ -50,6 +52,18 @@ public class Configuration {
   public boolean savePlayerDataOnQuit = true;
   public boolean storageCreateBackupsWhenServerShutsDown = true;
   public boolean storageCreateDatabaseBackupBeforeDatabaseLoads = true;
+  private boolean storageCompactEncoding = false;
+  private String storageBackend = "sql";
+  private int sqliteReadConnections = 4;
+  private int sqliteCacheSizeKb = 16384;
+  private int sqliteMmapSizeMb = 64;
+  private int sqliteCheckpointIntervalSeconds = 60;
+  private long prefetchTimeoutMillis = 3000;
+  private long handoffTimeoutMillis = 5000;
+  private String handoffServerID = "";
+  private int autosaveIntervalSeconds = 300;
+  private long autosaveTimeBudgetMillis = 5;
+  private int questHistoryKeepRecent = -1;
 
   public String placeholder_player_active_quests_list_horizontal_separator = " | ";
   public int placeholder_player_active_quests_list_horizontal_limit = -1;
@@ -57,6 +71,7 @@ public class Configuration {
   public boolean placeholder_player_active_quests_list_horizontal_use_displayname_if_available =
       true;
   public boolean placeholder_player_active_quests_list_vertical_use_displayname_if_available = true;
+  public int placeholderCacheRefreshIntervalTicks = 0;
   public List<String> journalItemEnabledWorlds;
   public int journalInventorySlot = 8;
   public ItemStack journalItem = null;
@@ -79,6 +94,8 @@ public class Configuration {
   public boolean supportPlaceholderAPIInTranslationStrings = false;
   public int guiQuestDescriptionMaxLineLength = 50;
   public int guiObjectiveDescriptionMaxLineLength = 50;
+  public boolean guiPaneCacheEnabled = true;
+  public int guiPaneCacheVisibilityEvaluationTicks = 20;
   public boolean wrapLongWords = false;
   public boolean hideRewardsWithoutName = true;
   public boolean showRewardsAfterQuestCompletion = true;
@@ -107,6 +124,7 @@ public class Configuration {
   private Particle armorStandQuestGiverIndicatorParticleType = Particle.ANGRY_VILLAGER;
   private boolean armorStandQuestGiverIndicatorParticleEnabled = true;
   private double armorStandQuestGiverIndicatorParticleDisableIfTPSBelow = -1;
+  private int armorStandQuestGiverIndicatorParticleViewDistance = 48;
   private String languageCode = "en";
   // Integrations
   private boolean integrationCitizensEnabled = true;
@@ -210,6 +228,10 @@ public class Configuration {
     return beamMode;
   }
 
+  public BeamMode getResolvedBeamMode() {
+    return resolvedBeamMode;
+  }
+
   public boolean isQuestVisibilityEvaluationAcceptCooldown() {
     return questVisibilityEvaluationAcceptCooldown;
   }
@@ -434,6 +456,102 @@ public class Configuration {
     this.storageCreateDatabaseBackupBeforeDatabaseLoads = storageCreateDatabaseBackupBeforeDatabaseLoads;
   }
 
+  public boolean isStorageCompactEncoding() {
+    return storageCompactEncoding;
+  }
+
+  public void setStorageCompactEncoding(boolean storageCompactEncoding) {
+    this.storageCompactEncoding = storageCompactEncoding;
+  }
+
+  public int getAutosaveIntervalSeconds() {
+    return autosaveIntervalSeconds;
+  }
+
+  public void setAutosaveIntervalSeconds(int autosaveIntervalSeconds) {
+    this.autosaveIntervalSeconds = autosaveIntervalSeconds;
+  }
+
+  public long getAutosaveTimeBudgetMillis() {
+    return autosaveTimeBudgetMillis;
+  }
+
+  public void setAutosaveTimeBudgetMillis(long autosaveTimeBudgetMillis) {
+    this.autosaveTimeBudgetMillis = autosaveTimeBudgetMillis;
+  }
+
+  public String getStorageBackend() {
+    return storageBackend;
+  }
+
+  public void setStorageBackend(String storageBackend) {
+    this.storageBackend = storageBackend;
+  }
+
+  public int getSqliteReadConnections() {
+    return sqliteReadConnections;
+  }
+
+  public void setSqliteReadConnections(int sqliteReadConnections) {
+    this.sqliteReadConnections = sqliteReadConnections;
+  }
+
+  public int getSqliteCacheSizeKb() {
+    return sqliteCacheSizeKb;
+  }
+
+  public void setSqliteCacheSizeKb(int sqliteCacheSizeKb) {
+    this.sqliteCacheSizeKb = sqliteCacheSizeKb;
+  }
+
+  public int getSqliteMmapSizeMb() {
+    return sqliteMmapSizeMb;
+  }
+
+  public void setSqliteMmapSizeMb(int sqliteMmapSizeMb) {
+    this.sqliteMmapSizeMb = sqliteMmapSizeMb;
+  }
+
+  public int getSqliteCheckpointIntervalSeconds() {
+    return sqliteCheckpointIntervalSeconds;
+  }
+
+  public void setSqliteCheckpointIntervalSeconds(int sqliteCheckpointIntervalSeconds) {
+    this.sqliteCheckpointIntervalSeconds = sqliteCheckpointIntervalSeconds;
+  }
+
+  public long getPrefetchTimeoutMillis() {
+    return prefetchTimeoutMillis;
+  }
+
+  public void setPrefetchTimeoutMillis(long prefetchTimeoutMillis) {
+    this.prefetchTimeoutMillis = prefetchTimeoutMillis;
+  }
+
+  public long getHandoffTimeoutMillis() {
+    return handoffTimeoutMillis;
+  }
+
+  public void setHandoffTimeoutMillis(long handoffTimeoutMillis) {
+    this.handoffTimeoutMillis = handoffTimeoutMillis;
+  }
+
+  public String getHandoffServerID() {
+    return handoffServerID;
+  }
+
+  public void setHandoffServerID(String handoffServerID) {
+    this.handoffServerID = handoffServerID;
+  }
+
+  public int getQuestHistoryKeepRecent() {
+    return questHistoryKeepRecent;
+  }
+
+  public void setQuestHistoryKeepRecent(int questHistoryKeepRecent) {
+    this.questHistoryKeepRecent = questHistoryKeepRecent;
+  }
+
   public String getPlaceholder_player_active_quests_list_horizontal_separator() {
     return placeholder_player_active_quests_list_horizontal_separator;
   }
@@ -707,6 +825,16 @@ public class Configuration {
         armorStandQuestGiverIndicatorParticleDisableIfTPSBelow;
   }
 
+  public int getArmorStandQuestGiverIndicatorParticleViewDistance() {
+    return armorStandQuestGiverIndicatorParticleViewDistance;
+  }
+
+  public void setArmorStandQuestGiverIndicatorParticleViewDistance(
+      int armorStandQuestGiverIndicatorParticleViewDistance) {
+    this.armorStandQuestGiverIndicatorParticleViewDistance =
+        armorStandQuestGiverIndicatorParticleViewDistance;
+  }
+
   public String getLanguageCode() {
     return languageCode;
   }
@@ -945,6 +1073,14 @@ public class Configuration {
     this.visualTitleQuestCompleted_enabled = visualTitleQuestCompleted_enabled;
   }
 
+  public int getPlaceholderCacheRefreshIntervalTicks() {
+    return placeholderCacheRefreshIntervalTicks;
+  }
+
+  public void setPlaceholderCacheRefreshIntervalTicks(int placeholderCacheRefreshIntervalTicks) {
+    this.placeholderCacheRefreshIntervalTicks = placeholderCacheRefreshIntervalTicks;
+  }
+
   public boolean isSupportPlaceholderAPIInTranslationStrings() {
     return supportPlaceholderAPIInTranslationStrings;
   }
@@ -970,6 +1106,22 @@ public class Configuration {
     this.guiObjectiveDescriptionMaxLineLength = guiObjectiveDescriptionMaxLineLength;
   }
 
+  public boolean isGuiPaneCacheEnabled() {
+    return guiPaneCacheEnabled;
+  }
+
+  public void setGuiPaneCacheEnabled(boolean guiPaneCacheEnabled) {
+    this.guiPaneCacheEnabled = guiPaneCacheEnabled;
+  }
+
+  public int getGuiPaneCacheVisibilityEvaluationTicks() {
+    return guiPaneCacheVisibilityEvaluationTicks;
+  }
+
+  public void setGuiPaneCacheVisibilityEvaluationTicks(int guiPaneCacheVisibilityEvaluationTicks) {
+    this.guiPaneCacheVisibilityEvaluationTicks = guiPaneCacheVisibilityEvaluationTicks;
+  }
+
   public boolean isWrapLongWords() {
     return wrapLongWords;
   }
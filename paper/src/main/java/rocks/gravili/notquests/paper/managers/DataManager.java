@@ -20,12 +20,14 @@ package rocks.gravili.notquests.paper.managers;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -33,6 +35,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.apache.commons.lang.Validate;
@@ -47,10 +50,17 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.common.managers.LogCategory;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.wrappers.ItemStackSelection;
 import rocks.gravili.notquests.paper.managers.data.Category;
+import rocks.gravili.notquests.paper.managers.storage.KeyValuePlayerDataStorage;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataStorage;
+import rocks.gravili.notquests.paper.managers.storage.SqlPlayerDataSource;
+import rocks.gravili.notquests.paper.managers.storage.SqlPlayerDataStorage;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.actions.Action;
@@ -65,10 +75,16 @@ import rocks.gravili.notquests.paper.structs.objectives.ObjectiveHolder;
  *
  * @author Alessio Gravili
  */
-public class DataManager {
+public class DataManager implements SqlPlayerDataSource {
 
     private boolean hasToMigrateQuestPlayerDataTable = false;
 
+    /**
+     * The version of the database schema this version of NotQuests needs. Every versioned migration in migrateSchema()
+     * raises the version stored in the SchemaVersion table by one, so it's only ever applied once.
+     */
+    private static final int currentSchemaVersion = 2;
+
     /**
      * ArrayList for Command Tab Completions. They will be re-used where possible. This is sort of like a buffer for completions.
      * It does not return the real completions, but it's for example used in ObjectivesAdminCommand handleCompletions() which is
@@ -147,6 +163,13 @@ public class DataManager {
     //HikariCP
     private HikariConfig hikariConfig;
     private HikariDataSource hikariDataSource;
+    /**
+     * Read-only connections to the SQLite database. Null if MySQL is used.
+     */
+    private HikariDataSource hikariReadDataSource;
+    private BukkitTask sqliteCheckpointTask;
+    private PlayerDataSchema playerDataSchema;
+    private PlayerDataStorage playerDataStorage;
 
 
     /**
@@ -456,6 +479,7 @@ public class DataManager {
      */
     public final void loadGeneralConfig() {
         main.getLogManager().info("Loading general config");
+        main.getMessageManager().clearParsedComponentCache(); //Components of the old GUI and message templates won't be used anymore
         /*
          * If the generalConfigFile Object doesn't exist yet, this will load the file
          * or create a new general.yml file if it does not exist yet and load it into the
@@ -626,6 +650,102 @@ public class DataManager {
                 "If this is set to true, your database will be backed-up before it loads. This only works for SQLite databases as of now."
         ));
 
+        configuration.setStorageCompactEncoding(getGeneralConfigBoolean(
+                "storage.compact-encoding",
+                false,
+                "If this is set to true, player data is stored in a more compact way: UUIDs as binary, and quest names, objective types, trigger types,",
+                "profiles and tag names as IDs of a dictionary table. This makes the database smaller and faster to search, but harder to read by hand.",
+                "Existing player data is converted automatically on the next start (back up your database first!). Setting it back to false converts it back."
+        ));
+
+        configuration.setStorageBackend(getGeneralConfigString(
+                "storage.backend",
+                "sql",
+                "Where player data (quest progress and tags) is stored. \"sql\" stores it in the SQLite or MySQL database. \"kv\" stores it in the",
+                "append-only file playerdata.kv, which is faster to load and save, but can only be used by a single server. Changing this needs a",
+                "restart and does not move existing player data to the new storage."
+        ).toLowerCase(Locale.ROOT));
+
+        configuration.setSqliteReadConnections(getGeneralConfigInt(
+                "storage.sqlite.read-connections",
+                4,
+                "Only used if MySQL is disabled. All writes to the SQLite database go through a single connection, one after another, because SQLite",
+                "only allows one writer at a time anyways. Reads use this many separate read-only connections, so they don't have to wait for writes."
+        ));
+
+        configuration.setSqliteCacheSizeKb(getGeneralConfigInt(
+                "storage.sqlite.cache-size-kb",
+                16384,
+                "Only used if MySQL is disabled. How many KB of the SQLite database each connection may keep cached in memory."
+        ));
+
+        configuration.setSqliteMmapSizeMb(getGeneralConfigInt(
+                "storage.sqlite.mmap-size-mb",
+                64,
+                "Only used if MySQL is disabled. Up to this many MB of the SQLite database file are memory-mapped, which makes reading faster.",
+                "Set it to 0 to disable memory-mapping."
+        ));
+
+        configuration.setSqliteCheckpointIntervalSeconds(getGeneralConfigInt(
+                "storage.sqlite.checkpoint-interval-seconds",
+                60,
+                "Only used if MySQL is disabled. Every this many seconds, the changes in the SQLite write-ahead log (database_sqlite.db-wal) are",
+                "copied into the database file asynchronously, so the log doesn't keep growing. Set it to 0 to let SQLite do that on its own."
+        ));
+
+        configuration.setPrefetchTimeoutMillis(getGeneralConfigInt(
+                "storage.prefetch.timeout-ms",
+                3000,
+                "If storage.load-playerdata-on-join is enabled, the player data of joining players is already loaded while they are logging in, so",
+                "it's ready right when they join. Logging in waits for up to this many milliseconds for it. If loading takes longer (e.g. because",
+                "the server they came from is still saving it, see storage.handoff.timeout-ms), it's attached once it's done after they joined.",
+                "Set it to 0 to disable prefetching."
+        ));
+
+        configuration.setHandoffTimeoutMillis(getGeneralConfigInt(
+                "storage.handoff.timeout-ms",
+                5000,
+                "Only used if storage.load-playerdata-on-join and storage.save-playerdata-on-quit are enabled. If multiple servers behind a proxy",
+                "(like Velocity or BungeeCord) share the same database, a player switching servers is saved by the server they left while the",
+                "server they join already loads them. The joining server waits for up to this many milliseconds until the other server has",
+                "finished saving them, so it doesn't load outdated data. Set it to 0 to disable waiting (for example, if only one server uses the database)."
+        ));
+
+        String handoffServerID = getGeneralConfigString(
+                "storage.handoff.server-id",
+                "",
+                "Identifies this server in the database for storage.handoff.timeout-ms. Generated automatically, and has to be different on every",
+                "server which shares the database. If you copy this config to another server, remove this value there so a new one is generated."
+        );
+        if (handoffServerID.isBlank()) {
+            handoffServerID = UUID.randomUUID().toString();
+            getGeneralConfig().set("storage.handoff.server-id", handoffServerID);
+            valueChanged = true;
+        }
+        configuration.setHandoffServerID(handoffServerID);
+
+        configuration.setAutosaveIntervalSeconds(getGeneralConfigInt(
+                "storage.autosave.interval-seconds",
+                300,
+                "Every this many seconds, the player data of all players whose data changed since it has last been saved is saved. This way, a server crash",
+                "only loses the progress since the last autosave. Set it to 0 to disable autosaving."
+        ));
+
+        configuration.setAutosaveTimeBudgetMillis(getGeneralConfigInt(
+                "storage.autosave.time-budget-ms",
+                5,
+                "How many milliseconds of a tick each autosave may spend on copying player data on the main thread. The copied data is then saved",
+                "asynchronously. Players which don't fit into this time are saved by the next autosave."
+        ));
+
+        configuration.setQuestHistoryKeepRecent(getGeneralConfigInt(
+                "storage.quest-history.keep-recent",
+                -1,
+                "How many of the most recent completed and failed quests of each player are kept individually (with their exact time). Older ones",
+                "are rolled up into one row per quest, which only keeps their amount and the latest time. This keeps the database and the memory",
+                "usage small for players who repeat quests a lot, while limits and cooldowns still work. Set it to -1 to keep everything individually."
+        ));
+
         configuration.setMaxActiveQuestsPerPlayer(getGeneralConfigInt(
                 "general.max-active-quests-per-player",
                 -1,
@@ -751,6 +871,12 @@ public class DataManager {
                 -1d
         ));
 
+        configuration.setArmorStandQuestGiverIndicatorParticleViewDistance(getGeneralConfigInt(
+                "visual.armorstands.quest-giver-indicator-particle.view-distance",
+                48,
+                "Only players within this distance (in blocks) of an Armor Stand see its quest giver indicator particles"
+        ));
+
         //Visual Colors
 
         //Console colors
@@ -969,6 +1095,18 @@ public class DataManager {
                 50
         ));
 
+        configuration.setGuiPaneCacheEnabled(getGeneralConfigBoolean(
+                "gui.pane-cache.enabled",
+                true,
+                "Re-uses the quest buttons of the take quest and active quest GUIs of a player until the quest, the player's quest progress or the language changes"
+        ));
+
+        configuration.setGuiPaneCacheVisibilityEvaluationTicks(getGeneralConfigInt(
+                "gui.pane-cache.visibility-evaluation-ticks",
+                20,
+                "For how many ticks the result of the quest visibility evaluation is re-used when a player switches pages or re-opens the take quest GUI. Quest accepts, completions, fails, objective progress and tag changes always refresh it immediately. 0 to disable"
+        ));
+
         configuration.setWrapLongWords(getGeneralConfigBoolean(
                 "gui.wrap-long-words",
                 false
@@ -1044,6 +1182,12 @@ public class DataManager {
                 true
         ));
 
+        configuration.setPlaceholderCacheRefreshIntervalTicks(getGeneralConfigInt(
+                "placeholders.cache.refresh-interval-ticks",
+                0,
+                "How many ticks a NotQuests PlaceholderAPI placeholder value is re-used for the same player before it's calculated again. Quest accepts, completions, fails, objective progress and tag changes always refresh it immediately. 0 to disable"
+        ));
+
 
         configuration.setIntegrationCitizensEnabled(getGeneralConfigBoolean(
                 "integrations.citizens.enabled",
@@ -1606,50 +1750,137 @@ public class DataManager {
             """);
     }
 
-    private void reloadDataInternal() {
-        openConnection();
+    /**
+     * @return the schema version stored in the SchemaVersion table, or 0 if no versioned migration has been applied yet
+     */
+    private int readSchemaVersion(final Statement statement) throws SQLException {
+        statement.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS `SchemaVersion` (`Version` INT)
+            """);
+        try (final ResultSet schemaVersionResult = statement.executeQuery("SELECT MAX(Version) AS Version FROM SchemaVersion")) {
+            if (schemaVersionResult.next()) {
+                return schemaVersionResult.getInt("Version"); //0 if there is no row yet
+            }
+        }
+        return 0;
+    }
 
-        //First: back-up
-        if (getConfiguration().isStorageCreateDatabaseBackupBeforeDatabaseLoads()) {
-            main.getBackupManager().backupDatabase();
+    /**
+     * Applies all versioned migrations which have not been applied to this database yet. Has to run after all tables have been created.
+     */
+    private void migrateSchema(final Statement statement) throws SQLException {
+        final int schemaVersion = readSchemaVersion(statement);
+        if (schemaVersion >= currentSchemaVersion) {
+            return;
+        }
+        main.getLogManager().info(LogCategory.DATA, "Migrating database schema from version %s to version %s...", schemaVersion, currentSchemaVersion);
+
+        //Each migration only counts as applied if it succeeded completely, and the following ones wait for it
+        int migratedSchemaVersion = schemaVersion;
+        if (migratedSchemaVersion == 0 && migrateAddPlayerDataIndexes(statement)) {
+            migratedSchemaVersion = 1;
+        }
+        if (migratedSchemaVersion == 1 && migrateAddQuestHistoryRollupIndex(statement)) {
+            migratedSchemaVersion = 2;
         }
 
+        if (migratedSchemaVersion > schemaVersion) {
+            writeSchemaVersion(statement, migratedSchemaVersion);
+        }
+        if (migratedSchemaVersion < currentSchemaVersion) {
+            main.getLogManager().warn(LogCategory.DATA, "Migrating the database schema stopped at version %s, because a migration failed (see above). It will be retried on the next start.", migratedSchemaVersion);
+        }
+    }
 
+    private void writeSchemaVersion(final Statement statement, final int schemaVersion) throws SQLException {
+        statement.executeUpdate("DELETE FROM SchemaVersion");
+        statement.executeUpdate("INSERT INTO SchemaVersion (Version) VALUES (" + schemaVersion + ")");
+    }
 
-        //Create Database tables if they don't exist yet
-        try (final Connection connection = getConnection();
-             final Statement statement = connection.createStatement();
+    /**
+     * Creates the indexes of all versioned migrations again, after the player data tables have been replaced by a conversion. If
+     * one can't be created, the schema version is reset, so the migrations are retried on the next start.
+     */
+    private void recreatePlayerDataIndexes(final Statement statement) throws SQLException {
+        final boolean createdPlayerDataIndexes = migrateAddPlayerDataIndexes(statement);
+        final boolean createdQuestHistoryRollupIndex = migrateAddQuestHistoryRollupIndex(statement);
+        if (!createdPlayerDataIndexes || !createdQuestHistoryRollupIndex) {
+            writeSchemaVersion(statement, 0);
+            main.getLogManager().warn(LogCategory.DATA, "Not all indexes of the converted player data tables could be created (see above). It will be retried on the next start.");
+        }
+    }
 
-             final PreparedStatement createQuestPlayerProfileDataTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `QuestPlayerProfileData` (`PlayerUUID` varchar(200), `CurrentProfile` varchar(200), PRIMARY KEY (PlayerUUID))
-             """);
+    /**
+     * Schema version 1: Every player data query selects or deletes by (PlayerUUID, Profile), and active triggers and objectives
+     * additionally by QuestName. Without an index, each of those is a full table scan, which gets slower the more players have
+     * ever joined. The indexes are not unique, as older databases might contain duplicate rows.
+     */
+    private boolean migrateAddPlayerDataIndexes(final Statement statement) {
+        boolean createdAll = createIndex(statement, "idx_QuestPlayerData_Player", "QuestPlayerData", "`PlayerUUID`, `Profile`");
+        createdAll &= createIndex(statement, "idx_ActiveQuests_Player", "ActiveQuests", "`PlayerUUID`, `Profile`");
+        createdAll &= createIndex(statement, "idx_CompletedQuests_Player", "CompletedQuests", "`PlayerUUID`, `Profile`");
+        createdAll &= createIndex(statement, "idx_FailedQuests_Player", "FailedQuests", "`PlayerUUID`, `Profile`");
+        createdAll &= createIndex(statement, "idx_ActiveTriggers_Player", "ActiveTriggers", "`PlayerUUID`, `Profile`, `QuestName`");
+        createdAll &= createIndex(statement, "idx_ActiveObjectives_Player", "ActiveObjectives", "`PlayerUUID`, `Profile`, `QuestName`");
+        createdAll &= createIndex(statement, "idx_Tags_Player", "Tags", "`PlayerUUID`, `Profile`");
+        return createdAll;
+    }
 
-             final PreparedStatement createQuestPlayerDataTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `QuestPlayerData` (`PlayerUUID` varchar(200), `QuestPoints` BIGINT(255), `Profile` varchar(200))
-             """);
+    /**
+     * Schema version 2: The QuestHistoryRollup table (one row per player, profile and quest) is selected by (PlayerUUID, Profile)
+     * and updated by (PlayerUUID, Profile, QuestName).
+     */
+    private boolean migrateAddQuestHistoryRollupIndex(final Statement statement) {
+        return createIndex(statement, "idx_QuestHistoryRollup_Player", "QuestHistoryRollup", "`PlayerUUID`, `Profile`, `QuestName`");
+    }
 
-             final PreparedStatement createActiveQuestsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `ActiveQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `Profile` varchar(200))
-             """);
+    /**
+     * @return true if the index exists now
+     */
+    private boolean createIndex(final Statement statement, final String indexName, final String tableName, final String columns) {
+        if (main.getConfiguration().isVerboseStartupMessages()) {
+            main.getLogManager().info(LogCategory.DATA, "Creating index '%s' on database table '%s'...", indexName, tableName);
+        }
+        try {
+            //No IF NOT EXISTS, as MySQL doesn't support it for indexes. It exists already if a previous migration failed after creating it.
+            if (indexExists(statement.getConnection(), indexName, tableName)) {
+                return true;
+            }
+            statement.executeUpdate("CREATE INDEX `" + indexName + "` ON `" + tableName + "` (" + columns + ")");
+            return true;
+        } catch (final SQLException e) {
+            main.getLogManager().warn(LogCategory.DATA, "Could not create index '%s' on database table '%s': %s", indexName, tableName, e.getMessage());
+            return false;
+        }
+    }
 
-             final PreparedStatement createCompletedQuestsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `CompletedQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `TimeCompleted` BIGINT(255), `Profile` varchar(200))
-             """);
+    private boolean indexExists(final Connection connection, final String indexName, final String tableName) throws SQLException {
+        try (final ResultSet indexInfo = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, tableName, false, true)) {
+            while (indexInfo.next()) {
+                if (indexName.equalsIgnoreCase(indexInfo.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 
+    private void reloadDataInternal() {
+        openConnection();
 
-             final PreparedStatement createFailedQuestsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `FailedQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `TimeFailed` BIGINT(255), `Profile` varchar(200))
-             """);
+        //First: back-up
+        if (getConfiguration().isStorageCreateDatabaseBackupBeforeDatabaseLoads()) {
+            main.getBackupManager().backupDatabase();
+        }
 
-             final PreparedStatement createActiveTriggersTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `ActiveTriggers` (`TriggerType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` BIGINT(255), `TriggerID` INT(255), `Profile` varchar(200))
-             """);
 
-             final PreparedStatement createTagsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `Tags` (`PlayerUUID` varchar(200), `TagIdentifier` varchar(200), `TagValue` varchar(200), `TagType` varchar(200), `Profile` varchar(200) )
-             """)
 
+        //Create Database tables if they don't exist yet
+        try (final Connection connection = getConnection();
+             final Statement statement = connection.createStatement()
         ) {
+            //An encoding conversion which has been interrupted while replacing the old tables has to be finished before anything else touches them
+            final PlayerDataSchema.Encoding resumedEncoding = playerDataSchema.finishInterruptedConversion(connection);
 
 
             //Migrations
@@ -1664,60 +1895,62 @@ public class DataManager {
                 migrateQuestPlayerDataTable(statement);
             }
 
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'QuestPlayerProfileData' if it doesn't exist yet...");
-            }
-            createQuestPlayerProfileDataTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'QuestPlayerData' if it doesn't exist yet...");
-            }
-            createQuestPlayerDataTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveQuests' if it doesn't exist yet...");
-            }
-            createActiveQuestsTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'FailedQuests' if it doesn't exist yet...");
-            }
-            createFailedQuestsTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'CompletedQuests' if it doesn't exist yet...");
-            }
-            createCompletedQuestsTablePreparedStatement.executeUpdate();
-
             if (main.getConfiguration().isVerboseStartupMessages()) {
                 main.getLogManager().info(LogCategory.DATA, "Adding 'ProgressNeeded' column to 'ActiveObjectives' if it the table exists but the column doesn't exist yet...");
             }
-
             migrateActiveObjectivesTable(statement);
 
+            //Tables are created (and missing ones added) in the encoding of the existing tables. If the configured encoding differs, they are converted afterwards.
+            final PlayerDataSchema.Encoding configuredEncoding = getConfiguration().isStorageCompactEncoding() ? PlayerDataSchema.Encoding.COMPACT : PlayerDataSchema.Encoding.TEXT;
+            final PlayerDataSchema.Encoding storedEncoding = playerDataSchema.readStoredEncoding(statement);
+            final PlayerDataSchema.Encoding tableEncoding = storedEncoding != null ? storedEncoding : configuredEncoding;
 
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveObjectives' if it doesn't exist yet...");
-            }
-            statement.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS `ActiveObjectives` (`ObjectiveType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` DOUBLE, `ObjectiveID` INT(255), `HasBeenCompleted` BOOLEAN, `ProgressNeeded` DOUBLE, `Profile` varchar(200))
-            """);
+            playerDataSchema.createTables(statement, tableEncoding);
+            playerDataSchema.storeEncoding(statement, tableEncoding);
 
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveTriggers' if it doesn't exist yet...");
-            }
-            createActiveTriggersTablePreparedStatement.executeUpdate();
+            migrateSchema(statement);
 
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'Tags' if it doesn't exist yet...");
+            if (tableEncoding != configuredEncoding) {
+                main.getLogManager().info(LogCategory.DATA, "Converting player data from the %s to the %s encoding...", tableEncoding.name().toLowerCase(Locale.ROOT), configuredEncoding.name().toLowerCase(Locale.ROOT));
+                playerDataSchema.convertTables(connection, tableEncoding, configuredEncoding);
+                recreatePlayerDataIndexes(statement); //The indexes have been dropped together with the old tables
+            } else {
+                playerDataSchema.discardInterruptedConversion(connection); //The encoding has been switched back, so the copies aren't needed anymore
+                if (resumedEncoding != null) {
+                    recreatePlayerDataIndexes(statement);
+                }
             }
-            createTagsTablePreparedStatement.executeUpdate();
+            playerDataSchema.setEncoding(configuredEncoding);
+            playerDataSchema.loadDictionary(connection);
 
         } catch (final SQLException e) {
             disablePluginAndSaving("Plugin disabled, because there was an error while trying to load MySQL database tables", e);
             return;
         }
 
+        if (playerDataStorage == null) {
+            if (main.getConfiguration().getStorageBackend().equals("kv")) {
+                try {
+                    playerDataStorage = new KeyValuePlayerDataStorage(main, new File(main.getMain().getDataFolder(), "playerdata.kv"));
+                } catch (final IOException e) {
+                    disablePluginAndSaving("Plugin disabled, because there was an error while trying to open the player data file playerdata.kv", e);
+                    return;
+                }
+            } else {
+                if (!main.getConfiguration().getStorageBackend().equals("sql")) {
+                    main.getLogManager().warn(LogCategory.DATA, "Unknown storage backend <highlight>%s</highlight>. Using sql instead.", main.getConfiguration().getStorageBackend());
+                }
+                playerDataStorage = new SqlPlayerDataStorage(main);
+            }
+            main.getLogManager().info(LogCategory.DATA, "Using the <highlight>%s</highlight> player data storage", playerDataStorage.getName());
+            try {
+                playerDataStorage.releaseAllPlayerData();
+            } catch (final Exception e) {
+                main.getLogManager().warn(LogCategory.DATA, "Could not release the player data claims of this server which were left over from before it was restarted. Other servers will only load that player data after storage.handoff.timeout-ms.");
+                e.printStackTrace();
+            }
+        }
+
 
 
 
@@ -1747,16 +1980,19 @@ public class DataManager {
                 if (Bukkit.isPrimaryThread()) {
                     Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
                         for(final Player player : Bukkit.getOnlinePlayers()){
+                            main.getQuestPlayerManager().claimPlayerData(player.getUniqueId());
                             main.getQuestPlayerManager().loadSinglePlayerData(player.getUniqueId());
                         }
                     });
                 }else{
                     for(final Player player : Bukkit.getOnlinePlayers()){
+                        main.getQuestPlayerManager().claimPlayerData(player.getUniqueId());
                         main.getQuestPlayerManager().loadSinglePlayerData(player.getUniqueId());
                     }
                 }
 
             }
+            main.getQuestPlayerManager().startAutosave();
 
             //Citizens stuff if Citizens is enabled
             if (main.getNPCManager().foundAnyNPCs()) {
@@ -2080,10 +2316,15 @@ public class DataManager {
                 }
             }
 
+            //SQLite only allows one writer at a time. Instead of letting many connections fight over the write lock (and spin on
+            //SQLITE_BUSY), all writes go through this single connection, which the pool hands out to one caller after another.
+            //Reads use the separate pool of read-only connections (see openSQLiteReadDataSource()), which WAL never blocks.
             hikariConfig.setJdbcUrl("jdbc:sqlite:" +  dataFolder);
-            hikariConfig.setConnectionInitSql("PRAGMA journal_mode=WAL; PRAGMA busy_timeout=30000"); // Set journal mode to WAL and timeout to 3000 milliseconds
-            hikariConfig.setMaximumPoolSize(20);
+            hikariConfig.setPoolName("NotQuests-SQLite-Writer");
+            hikariConfig.setMaximumPoolSize(1);
             hikariConfig.setConnectionTimeout(30000);
+            hikariConfig.addDataSourceProperty("journal_mode", "WAL");
+            addSQLitePragmas(hikariConfig);
         }else{
             hikariConfig.setJdbcUrl("jdbc:mysql://" +  configuration.getDatabaseHost() + ":" + configuration.getDatabasePort() + "/" + configuration.getDatabaseName());
             hikariConfig.setUsername(configuration.getDatabaseUsername());
@@ -2096,14 +2337,129 @@ public class DataManager {
         hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
 
         hikariDataSource = new HikariDataSource(hikariConfig);
+        if(!getConfiguration().isMySQLEnabled()){
+            openSQLiteReadDataSource(new File(main.getMain().getDataFolder(), "database_sqlite.db"));
+            startSQLiteCheckpoints();
+        }
+        playerDataSchema = new PlayerDataSchema(main, getConfiguration().isMySQLEnabled());
+    }
+
+    /**
+     * Sets the pragmas of SQLite connections. They are applied by the SQLite driver whenever a connection is opened.
+     */
+    private void addSQLitePragmas(final HikariConfig sqliteHikariConfig) {
+        sqliteHikariConfig.addDataSourceProperty("busy_timeout", "30000");
+        //With WAL, NORMAL can only lose the latest transactions on a power loss, but never corrupts the database. It saves an fsync per commit.
+        sqliteHikariConfig.addDataSourceProperty("synchronous", "NORMAL");
+        sqliteHikariConfig.addDataSourceProperty("temp_store", "MEMORY");
+        sqliteHikariConfig.addDataSourceProperty("cache_size", String.valueOf(-Math.max(0, getConfiguration().getSqliteCacheSizeKb()))); //Negative = in KB instead of pages
+        sqliteHikariConfig.addDataSourceProperty("mmap_size", String.valueOf(Math.max(0, getConfiguration().getSqliteMmapSizeMb()) * 1024L * 1024L));
+        sqliteHikariConfig.addDataSourceProperty("journal_size_limit", String.valueOf(64L * 1024L * 1024L));
+    }
+
+    private void openSQLiteReadDataSource(final File databaseFile) {
+        final HikariConfig readHikariConfig = new HikariConfig();
+        readHikariConfig.setJdbcUrl("jdbc:sqlite:" + databaseFile);
+        readHikariConfig.setPoolName("NotQuests-SQLite-Reader");
+        readHikariConfig.setMaximumPoolSize(Math.max(1, getConfiguration().getSqliteReadConnections()));
+        readHikariConfig.setConnectionTimeout(30000);
+        readHikariConfig.addDataSourceProperty("open_mode", "1"); //SQLITE_OPEN_READONLY
+        addSQLitePragmas(readHikariConfig);
+        hikariReadDataSource = new HikariDataSource(readHikariConfig);
+    }
+
+    private void startSQLiteCheckpoints() {
+        final int checkpointIntervalSeconds = getConfiguration().getSqliteCheckpointIntervalSeconds();
+        if (checkpointIntervalSeconds <= 0) {
+            return;
+        }
+        sqliteCheckpointTask = Bukkit.getScheduler().runTaskTimerAsynchronously(
+                main.getMain(),
+                () -> checkpointSQLite("PASSIVE"),
+                checkpointIntervalSeconds * 20L,
+                checkpointIntervalSeconds * 20L
+        );
     }
 
+    /**
+     * Copies the changes from the SQLite write-ahead log into the database file. This runs on the writer connection, so it waits
+     * for running writes instead of competing with them.
+     *
+     * @param mode PASSIVE to only copy what can be copied without waiting for readers, or TRUNCATE to copy everything and empty the log
+     */
+    private void checkpointSQLite(final String mode) {
+        if (hikariDataSource == null || hikariDataSource.isClosed()) {
+            return;
+        }
+        try (final Connection connection = getConnection();
+             final Statement statement = connection.createStatement();
+             final ResultSet checkpointResult = statement.executeQuery("PRAGMA wal_checkpoint(" + mode + ");")) {
+            if (checkpointResult.next()) {
+                main.getLogManager().debug("SQLite checkpoint (%s): busy: %s, log pages: %s, checkpointed pages: %s", mode, checkpointResult.getInt(1), checkpointResult.getInt(2), checkpointResult.getInt(3));
+            }
+        } catch (final SQLException e) {
+            main.getLogManager().warn(LogCategory.DATA, "Could not checkpoint the SQLite database: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * @return a connection for writing (and reading). With SQLite, there is only one, so callers wait for each other here.
+     */
     public final Connection getConnection() throws SQLException {
         return hikariDataSource.getConnection();
     }
 
+    /**
+     * @return a connection which is only used for reading. With SQLite, it's one of the read-only connections, so reading doesn't
+     * have to wait for writes. With MySQL, it's a normal connection.
+     */
+    public final Connection getReadConnection() throws SQLException {
+        return hikariReadDataSource != null ? hikariReadDataSource.getConnection() : hikariDataSource.getConnection();
+    }
+
+    /**
+     * @return the pool of the connections returned by getConnection(), or null if it's not open
+     */
+    public final @Nullable HikariPoolMXBean getConnectionPoolStats() {
+        return hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+    }
+
+    /**
+     * @return the pool of the SQLite read-only connections, or null if MySQL is used
+     */
+    public final @Nullable HikariPoolMXBean getReadConnectionPoolStats() {
+        return hikariReadDataSource != null ? hikariReadDataSource.getHikariPoolMXBean() : null;
+    }
+
+    /**
+     * @return the layout of the player data tables, which has to be used to set and read their values
+     */
+    public final PlayerDataSchema getPlayerDataSchema() {
+        return playerDataSchema;
+    }
+
+    /**
+     * @return the storage player data (quest progress and tags) is loaded from and saved to
+     */
+    public final PlayerDataStorage getPlayerDataStorage() {
+        return playerDataStorage;
+    }
+
     public void closeDatabaseConnection() {
+        if (playerDataStorage != null) {
+            playerDataStorage.close();
+            playerDataStorage = null;
+        }
         main.getLogManager().info("Closing database connection...");
+        if (sqliteCheckpointTask != null) {
+            sqliteCheckpointTask.cancel();
+            sqliteCheckpointTask = null;
+        }
+        if (hikariReadDataSource != null) {
+            hikariReadDataSource.close();
+            hikariReadDataSource = null;
+            checkpointSQLite("TRUNCATE");
+        }
         if(hikariDataSource != null){
             if(!hikariDataSource.isClosed()){
                 try{
@@ -21,9 +21,11 @@ package rocks.gravili.notquests.paper.managers;
 import com.destroystokyo.paper.profile.PlayerProfile;
 import com.destroystokyo.paper.profile.ProfileProperty;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Bukkit;
@@ -1234,6 +1236,59 @@ public class GUIManager {
         .build();
   }
 
+  /**
+   * @return the up-to-date GUI pane cache of the player, or null if GUI pane caching is disabled
+   */
+  private GUIPaneCache getPaneCache(final QuestPlayer questPlayer) {
+    if (questPlayer == null || !main.getConfiguration().isGuiPaneCacheEnabled()) {
+      return null;
+    }
+    final GUIPaneCache paneCache = questPlayer.getGuiPaneCache();
+    paneCache.validate(
+        main.getQuestManager().getQuestsModificationCount(),
+        main.getLanguageManager().getLanguageModificationCount());
+    return paneCache;
+  }
+
+  private ItemStackElement<ChestPane> getOrRenderElement(
+      final GUIPaneCache paneCache,
+      final String paneType,
+      final Object subject,
+      final Object fingerprint,
+      final Supplier<ItemStackElement<ChestPane>> elementRenderer) {
+    if (paneCache == null) {
+      return elementRenderer.get();
+    }
+    return paneCache.getOrRender(
+        new GUIPaneCache.ElementKey(paneType, subject), fingerprint, elementRenderer);
+  }
+
+  /**
+   * Quest visibility evaluations are re-used for gui.pane-cache.visibility-evaluation-ticks, as long as the quest state of the
+   * player doesn't change in the meantime.
+   */
+  private List<Quest> getVisibleQuests(final GUIPaneCache paneCache, final QuestPlayer questPlayer) {
+    final int visibilityEvaluationTicks =
+        main.getConfiguration().getGuiPaneCacheVisibilityEvaluationTicks();
+    if (paneCache == null || visibilityEvaluationTicks <= 0) {
+      return main.getQuestManager().getAllQuestsWithVisibilityEvaluations(questPlayer);
+    }
+
+    final int questStateModificationCount = questPlayer.getQuestStateModificationCount();
+    final int currentTick = Bukkit.getCurrentTick();
+    final List<Quest> cachedVisibleQuests =
+        paneCache.getVisibleQuests(questStateModificationCount, currentTick);
+    if (cachedVisibleQuests != null) {
+      return cachedVisibleQuests;
+    }
+
+    final List<Quest> visibleQuests =
+        main.getQuestManager().getAllQuestsWithVisibilityEvaluations(questPlayer);
+    paneCache.setVisibleQuests(
+        visibleQuests, questStateModificationCount, currentTick + visibilityEvaluationTicks);
+    return visibleQuests;
+  }
+
   public ChestPane getActiveQuestsPane(
       ChestPane pane, InterfaceView<ChestPane, PlayerViewer> view) {
     final Player player = view.arguments().get(ArgumentKey.of("player", Player.class));
@@ -1244,33 +1299,28 @@ public class GUIManager {
       if (questPlayer == null) {
         return pane;
       }
-      ArrayList<ItemStackElement<ChestPane>> list =
-          new ArrayList<>() {
-            {
-              for (ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                ItemStack itemStack = new ItemStack(Material.BOOK);
-                ItemMeta itemMeta = itemStack.getItemMeta();
-
-                itemMeta.displayName(
-                    main.getLanguageManager()
-                        .getComponent(
-                            "gui.activeQuests.button.activeQuestButton.name", player, activeQuest));
-                itemMeta.lore(
-                    main.getLanguageManager()
-                        .getComponentList(
-                            "gui.activeQuests.button.activeQuestButton.lore", player, activeQuest));
-
-                itemStack.setItemMeta(itemMeta);
-
-                add(
-                    ItemStackElement.of(
-                        itemStack,
-                        (clickHandler) -> {
-                          showQuestProgressGUI(questPlayer, activeQuest);
-                        }));
-              }
-            }
-          };
+      final GUIPaneCache paneCache = getPaneCache(questPlayer);
+      final ArrayList<ItemStackElement<ChestPane>> list = new ArrayList<>();
+      for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+        final int modificationCount = activeQuest.getModificationCount();
+        final String name =
+            main.getLanguageManager()
+                .getString("gui.activeQuests.button.activeQuestButton.name", player, activeQuest);
+        final List<String> loreStringList =
+            main.getLanguageManager()
+                .getStringList(
+                    "gui.activeQuests.button.activeQuestButton.lore", player, activeQuest);
+        list.add(
+            getOrRenderElement(
+                paneCache,
+                "activeQuests",
+                activeQuest,
+                new ActiveQuestButtonFingerprint(modificationCount, name, loreStringList),
+                () -> renderActiveQuestButton(questPlayer, activeQuest, name, loreStringList)));
+      }
+      if (paneCache != null) {
+        paneCache.removeUnused("activeQuests", Set.copyOf(questPlayer.getActiveQuests()));
+      }
       PaginatedTransform<ItemStackElement<ChestPane>, ChestPane, PlayerViewer> paginatedTransform =
           new PaginatedTransform<>(Vector2.at(3, 1), Vector2.at(8, 5), list);
       return paginatedTransform.apply(pane, view);
@@ -1278,59 +1328,58 @@ public class GUIManager {
     return pane;
   }
 
+  /**
+   * Everything an active quest button depends on, apart from the active quest itself. The name and
+   * lore are the rendered strings, including PlaceholderAPI placeholders.
+   */
+  private record ActiveQuestButtonFingerprint(
+      int modificationCount, String name, List<String> lore) {}
+
+  private ItemStackElement<ChestPane> renderActiveQuestButton(
+      final QuestPlayer questPlayer,
+      final ActiveQuest activeQuest,
+      final String name,
+      final List<String> loreStringList) {
+    ItemStack itemStack = new ItemStack(Material.BOOK);
+    ItemMeta itemMeta = itemStack.getItemMeta();
+
+    final List<Component> lore = new ArrayList<>();
+    for (final String loreString : loreStringList) {
+      for (final String splitPart : loreString.split("\n")) {
+        lore.add(main.parse(splitPart).decoration(TextDecoration.ITALIC, false));
+      }
+    }
+
+    itemMeta.displayName(main.parse(name).decoration(TextDecoration.ITALIC, false));
+    itemMeta.lore(lore);
+
+    itemStack.setItemMeta(itemMeta);
+
+    return ItemStackElement.of(
+        itemStack,
+        (clickHandler) -> {
+          showQuestProgressGUI(questPlayer, activeQuest);
+        });
+  }
+
   public ChestPane getTakeQuestPane(ChestPane pane, InterfaceView<ChestPane, PlayerViewer> view) {
     if (main.getDataManager().getCategories().size() == 1) {
       return getTakeQuestPaneOfCategory(pane, view, main.getDataManager().getDefaultCategory());
     }
 
-    final Player player = view.arguments().get(ArgumentKey.of("player", Player.class));
     QuestPlayer questPlayer = null;
     if (view.arguments().contains(ArgumentKey.of("questPlayer", QuestPlayer.class))) {
       questPlayer = view.arguments().get(ArgumentKey.of("questPlayer", QuestPlayer.class));
     }
     if (questPlayer != null) {
-      ArrayList<ItemStackElement<ChestPane>> list =
-          new ArrayList<>() {
-            {
-              for (final Category category : main.getDataManager().getCategories()) {
-
-                final ItemStack itemStack = category.getGuiItem();
-
-                ItemMeta itemMeta = itemStack.getItemMeta();
-
-                itemMeta.displayName(
-                    main.parse(category.getFinalName()).decoration(TextDecoration.ITALIC, false));
-
-                itemStack.setItemMeta(itemMeta);
-
-                add(
-                    ItemStackElement.of(
-                        itemStack,
-                        (clickHandler) -> {
-                          final HashMapInterfaceArguments arguments =
-                              HashMapInterfaceArguments.with(
-                                      ArgumentKey.of("player", Player.class),
-                                      clickHandler
-                                          .view()
-                                          .arguments()
-                                          .get(ArgumentKey.of("player", Player.class)))
-                                  .with(
-                                      ArgumentKey.of("questPlayer", QuestPlayer.class),
-                                      clickHandler
-                                          .view()
-                                          .arguments()
-                                          .get(ArgumentKey.of("questPlayer", QuestPlayer.class)))
-                                  .with(ArgumentKey.of("paneType", String.class), "takequest")
-                                  .with(ArgumentKey.of("category", Category.class), category)
-                                  .build();
-                          constructMainInterface(
-                                  main.getLanguageManager()
-                                      .getComponent("gui.takeQuestChoose.title", null))
-                              .open(clickHandler.viewer(), arguments);
-                        }));
-              }
-            }
-          };
+      final GUIPaneCache paneCache = getPaneCache(questPlayer);
+      final ArrayList<ItemStackElement<ChestPane>> list = new ArrayList<>();
+      for (final Category category : main.getDataManager().getCategories()) {
+        // Category buttons only depend on the category itself, which is only replaced when the quests are reloaded
+        list.add(
+            getOrRenderElement(
+                paneCache, "categories", category, Boolean.TRUE, () -> renderCategoryButton(category)));
+      }
       PaginatedTransform<ItemStackElement<ChestPane>, ChestPane, PlayerViewer> paginatedTransform =
           new PaginatedTransform<>(
               Vector2.at(
@@ -1345,6 +1394,38 @@ public class GUIManager {
     return pane;
   }
 
+  private ItemStackElement<ChestPane> renderCategoryButton(final Category category) {
+    final ItemStack itemStack = category.getGuiItem();
+
+    ItemMeta itemMeta = itemStack.getItemMeta();
+
+    itemMeta.displayName(
+        main.parseCached(category.getFinalName()).decoration(TextDecoration.ITALIC, false));
+
+    itemStack.setItemMeta(itemMeta);
+
+    return ItemStackElement.of(
+        itemStack,
+        (clickHandler) -> {
+          final HashMapInterfaceArguments arguments =
+              HashMapInterfaceArguments.with(
+                      ArgumentKey.of("player", Player.class),
+                      clickHandler.view().arguments().get(ArgumentKey.of("player", Player.class)))
+                  .with(
+                      ArgumentKey.of("questPlayer", QuestPlayer.class),
+                      clickHandler
+                          .view()
+                          .arguments()
+                          .get(ArgumentKey.of("questPlayer", QuestPlayer.class)))
+                  .with(ArgumentKey.of("paneType", String.class), "takequest")
+                  .with(ArgumentKey.of("category", Category.class), category)
+                  .build();
+          constructMainInterface(
+                  main.getLanguageManager().getComponent("gui.takeQuestChoose.title", null))
+              .open(clickHandler.viewer(), arguments);
+        });
+  }
+
   public ChestPane getTakeQuestPaneOfCategory(
       ChestPane pane, InterfaceView<ChestPane, PlayerViewer> view, Category category) {
 
@@ -1353,93 +1434,52 @@ public class GUIManager {
     if (view.arguments().contains(ArgumentKey.of("questPlayer", QuestPlayer.class))) {
       final QuestPlayer questPlayer =
           view.arguments().get(ArgumentKey.of("questPlayer", QuestPlayer.class));
-      ArrayList<ItemStackElement<ChestPane>> list =
-          new ArrayList<>() {
-            {
-              int count = 1;
-              for (final Quest quest :
-                  main.getQuestManager().getAllQuestsWithVisibilityEvaluations(questPlayer)) {
-                if (quest.isTakeEnabled()
-                    && quest
-                        .getCategory()
-                        .getCategoryFullName()
-                        .equalsIgnoreCase(category.getCategoryFullName())) {
-                  final ItemStack materialToUse = quest.getTakeItem();
-
-                  ItemStack itemStack = new ItemStack(materialToUse);
-                  ItemMeta itemMeta = itemStack.getItemMeta();
-
-                  itemStack.setAmount(count);
-
-                  List<String> loreStringList =
-                      main.getLanguageManager()
-                          .getStringList(
-                              "gui.takeQuestChoose.button.questPreview.lore", player, quest);
-                  List<Component> lore = new ArrayList<>();
-
-                  for (String loreString : loreStringList) {
-                    // main.getLogManager().info("Found line: " + loreString);
-
-                    if (loreString.contains("%WRAPPEDQUESTDESCRIPTION%")) {
-                      if (!quest.getObjectiveHolderDescription().isBlank()) {
-                        int counter = 0;
-                        for (String questDescriptionLine :
-                            quest.getQuestDescriptionList(
-                                main.getConfiguration().guiQuestDescriptionMaxLineLength)) {
-                          // main.getLogManager().info("Found d line: " + questDescriptionLine);
-                          counter++;
-                          lore.add(
-                              main.parse(
-                                      loreString.replace("%WRAPPEDQUESTDESCRIPTION%", "")
-                                          + questDescriptionLine)
-                                  .decoration(TextDecoration.ITALIC, false));
-                        }
-                      }
-                    } else {
-                      lore.add(main.parse(loreString).decoration(TextDecoration.ITALIC, false));
-                    }
-                  }
-
-                  /*if (!quest.getQuestDescription().isBlank()) {
-                      description = main.getLanguageManager().getString("gui.takeQuestChoose.button.questPreview.lore", player, quest)
-                              + quest.getQuestDescription(main.getConfiguration().guiQuestDescriptionMaxLineLength
-                      );
-                  }*/
-
-                  if (questPlayer != null && questPlayer.hasAcceptedQuest(quest)) {
-                    itemMeta.displayName(
-                        main.getLanguageManager()
-                            .getComponent(
-                                "gui.takeQuestChoose.button.questPreview.name-if-accepted",
-                                player,
-                                quest));
-                  } else {
-                    itemMeta.displayName(
-                        main.getLanguageManager()
-                            .getComponent(
-                                "gui.takeQuestChoose.button.questPreview.name-if-not-accepted",
-                                player,
-                                quest));
-                  }
-
-                  itemMeta.lore(lore);
-
-                  itemStack.setItemMeta(itemMeta);
-
-                  add(
-                      ItemStackElement.of(
-                          itemStack,
-                          (clickHandler) -> {
-                            showPreviewQuestGUI(questPlayer, quest);
-                          }));
-
-                  if (main.getConfiguration().showQuestItemAmount) {
-                    count++;
-                  }
-                }
-              }
-            }
-          };
+      final GUIPaneCache paneCache = getPaneCache(questPlayer);
+      final String paneType = "takeQuest:" + category.getCategoryFullName();
+
+      final ArrayList<ItemStackElement<ChestPane>> list = new ArrayList<>();
+      final Set<Quest> questsInUse = new HashSet<>();
+      int count = 1;
+      for (final Quest quest : getVisibleQuests(paneCache, questPlayer)) {
+        if (quest.isTakeEnabled()
+            && quest
+                .getCategory()
+                .getCategoryFullName()
+                .equalsIgnoreCase(category.getCategoryFullName())) {
+          final int amount = count;
+          final boolean accepted = questPlayer != null && questPlayer.hasAcceptedQuest(quest);
+          // Rendering the strings is cheap compared to building the item. Having them in the
+          // fingerprint makes PlaceholderAPI and time-dependent placeholders re-render the button.
+          final String name =
+              main.getLanguageManager()
+                  .getString(
+                      accepted
+                          ? "gui.takeQuestChoose.button.questPreview.name-if-accepted"
+                          : "gui.takeQuestChoose.button.questPreview.name-if-not-accepted",
+                      player,
+                      quest);
+          final List<String> loreStringList =
+              main.getLanguageManager()
+                  .getStringList("gui.takeQuestChoose.button.questPreview.lore", player, quest);
+          list.add(
+              getOrRenderElement(
+                  paneCache,
+                  paneType,
+                  quest,
+                  new TakeQuestButtonFingerprint(
+                      amount, name, loreStringList, quest.getObjectiveHolderDescription()),
+                  () ->
+                      renderTakeQuestButton(questPlayer, quest, amount, name, loreStringList)));
+          questsInUse.add(quest);
+
+          if (main.getConfiguration().showQuestItemAmount) {
+            count++;
+          }
+        }
+      }
+      if (paneCache != null) {
+        paneCache.removeUnused(paneType, questsInUse);
+      }
       PaginatedTransform<ItemStackElement<ChestPane>, ChestPane, PlayerViewer> paginatedTransform =
           new PaginatedTransform<>(
               Vector2.at(
@@ -1454,6 +1494,67 @@ public class GUIManager {
     return pane;
   }
 
+  /**
+   * Everything a take quest button depends on, apart from the quest itself. The name and lore are
+   * the rendered strings, including PlaceholderAPI placeholders.
+   */
+  private record TakeQuestButtonFingerprint(
+      int amount, String name, List<String> lore, String questDescription) {}
+
+  private ItemStackElement<ChestPane> renderTakeQuestButton(
+      final QuestPlayer questPlayer,
+      final Quest quest,
+      final int amount,
+      final String name,
+      final List<String> loreStringList) {
+    final ItemStack materialToUse = quest.getTakeItem();
+
+    ItemStack itemStack = new ItemStack(materialToUse);
+    ItemMeta itemMeta = itemStack.getItemMeta();
+
+    itemStack.setAmount(amount);
+
+    List<Component> lore = new ArrayList<>();
+
+    for (String loreString : loreStringList) {
+      // main.getLogManager().info("Found line: " + loreString);
+
+      if (loreString.contains("%WRAPPEDQUESTDESCRIPTION%")) {
+        if (!quest.getObjectiveHolderDescription().isBlank()) {
+          for (String questDescriptionLine :
+              quest.getQuestDescriptionList(
+                  main.getConfiguration().guiQuestDescriptionMaxLineLength)) {
+            // main.getLogManager().info("Found d line: " + questDescriptionLine);
+            lore.add(
+                main.parse(
+                        loreString.replace("%WRAPPEDQUESTDESCRIPTION%", "") + questDescriptionLine)
+                    .decoration(TextDecoration.ITALIC, false));
+          }
+        }
+      } else {
+        lore.add(main.parse(loreString).decoration(TextDecoration.ITALIC, false));
+      }
+    }
+
+    /*if (!quest.getQuestDescription().isBlank()) {
+        description = main.getLanguageManager().getString("gui.takeQuestChoose.button.questPreview.lore", player, quest)
+                + quest.getQuestDescription(main.getConfiguration().guiQuestDescriptionMaxLineLength
+        );
+    }*/
+
+    itemMeta.displayName(main.parse(name).decoration(TextDecoration.ITALIC, false));
+
+    itemMeta.lore(lore);
+
+    itemStack.setItemMeta(itemMeta);
+
+    return ItemStackElement.of(
+        itemStack,
+        (clickHandler) -> {
+          showPreviewQuestGUI(questPlayer, quest);
+        });
+  }
+
   public ChestPane getAbortQuestPane(ChestPane pane, InterfaceView<ChestPane, PlayerViewer> view) {
     final Player player = view.arguments().get(ArgumentKey.of("player", Player.class));
 
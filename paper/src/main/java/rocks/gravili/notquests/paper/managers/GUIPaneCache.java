@@ -0,0 +1,116 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.incendo.interfaces.paper.element.ItemStackElement;
+import org.incendo.interfaces.paper.pane.ChestPane;
+import rocks.gravili.notquests.paper.structs.Quest;
+
+/**
+ * GUI buttons of a single player which have already been rendered, so opening a GUI or switching its page again doesn't
+ * have to re-render every button.
+ * <p>
+ * Every button is stored together with a fingerprint of everything it was rendered from (for example the modification count
+ * of an ActiveQuest, or whether a quest has been accepted). A button is only rendered again if its fingerprint changed.
+ * Everything is dropped if the quests or the language config are reloaded.
+ */
+public class GUIPaneCache {
+
+    /**
+     * @param paneType the GUI the button belongs to, like "activeQuests"
+     * @param subject the object the button was rendered from, like an ActiveQuest, Quest or Category
+     */
+    public record ElementKey(String paneType, Object subject) {
+    }
+
+    private record CachedElement(ItemStackElement<ChestPane> element, Object fingerprint) {
+    }
+
+    private record CachedVisibleQuests(List<Quest> quests, int questStateModificationCount, int expiresAtTick) {
+    }
+
+    private final ConcurrentHashMap<ElementKey, CachedElement> elements = new ConcurrentHashMap<>();
+    private volatile CachedVisibleQuests visibleQuests = null;
+
+    private int questsModificationCount = -1;
+    private int languageModificationCount = -1;
+
+    /**
+     * Drops everything if the quests or the language config have been reloaded since the last call
+     */
+    public synchronized void validate(final int questsModificationCount, final int languageModificationCount) {
+        if (this.questsModificationCount != questsModificationCount || this.languageModificationCount != languageModificationCount) {
+            clear();
+            this.questsModificationCount = questsModificationCount;
+            this.languageModificationCount = languageModificationCount;
+        }
+    }
+
+    /**
+     * @param key the button
+     * @param fingerprint everything the button is rendered from. Has to implement equals()
+     * @param elementRenderer renders the button if there is no up-to-date one
+     * @return the cached button if its fingerprint is unchanged, otherwise the newly rendered one
+     */
+    public final ItemStackElement<ChestPane> getOrRender(final ElementKey key, final Object fingerprint, final Supplier<ItemStackElement<ChestPane>> elementRenderer) {
+        final CachedElement cachedElement = elements.get(key);
+        if (cachedElement != null && cachedElement.fingerprint().equals(fingerprint)) {
+            return cachedElement.element();
+        }
+        final ItemStackElement<ChestPane> element = elementRenderer.get();
+        elements.put(key, new CachedElement(element, fingerprint));
+        return element;
+    }
+
+    /**
+     * Removes the buttons of a GUI which have not been used in its latest rendering, like buttons of quests which are not active anymore
+     *
+     * @param paneType the GUI
+     * @param subjectsInUse the subjects of all buttons used in the latest rendering of that GUI
+     */
+    public void removeUnused(final String paneType, final Set<?> subjectsInUse) {
+        elements.keySet().removeIf(key -> key.paneType().equals(paneType) && !subjectsInUse.contains(key.subject()));
+    }
+
+    /**
+     * @return the result of the latest quest visibility evaluation, or null if it's outdated
+     */
+    public final List<Quest> getVisibleQuests(final int questStateModificationCount, final int currentTick) {
+        final CachedVisibleQuests cachedVisibleQuests = visibleQuests;
+        if (cachedVisibleQuests == null
+                || cachedVisibleQuests.questStateModificationCount() != questStateModificationCount
+                || currentTick >= cachedVisibleQuests.expiresAtTick()) {
+            return null;
+        }
+        return cachedVisibleQuests.quests();
+    }
+
+    public void setVisibleQuests(final List<Quest> quests, final int questStateModificationCount, final int expiresAtTick) {
+        visibleQuests = new CachedVisibleQuests(List.copyOf(quests), questStateModificationCount, expiresAtTick);
+    }
+
+    public void clear() {
+        elements.clear();
+        visibleQuests = null;
+    }
+}
@@ -26,11 +26,10 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
@@ -74,6 +73,17 @@ public class LanguageManager {
     private String currentLanguage = "en";
     private FileConfiguration defaultLanguageConfig = null;
 
+    /**
+     * Parsed language strings and string lists, keyed by their language string path. Cleared whenever the language config is (re-)loaded.
+     */
+    private final ConcurrentHashMap<String, LanguageTemplate> stringTemplates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, List<LanguageTemplate>> stringListTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Increased every time the language config is (re-)loaded, so caches of rendered language strings can tell that they are outdated
+     */
+    private volatile int languageModificationCount = 0;
+
 
 
     public LanguageManager(final NotQuests main) {
@@ -206,6 +216,7 @@ public class LanguageManager {
             return;
         }
         loadMissingDefaultLanguageFiles();
+        main.getMessageManager().clearParsedComponentCache(); //Components of the old language strings won't be used anymore
 
         final String languageCode = main.getConfiguration().getLanguageCode();
         main.getLogManager().info(LogCategory.LANGUAGE, "Loading language config <highlight>" + languageCode + ".yml");
@@ -277,6 +288,13 @@ public class LanguageManager {
 
         currentLanguage = languageCode;
 
+        stringTemplates.clear();
+        stringListTemplates.clear();
+        languageModificationCount++;
+    }
+
+    public final int getLanguageModificationCount() {
+        return languageModificationCount;
     }
 
     public boolean setupDefaultStrings() {
@@ -340,27 +358,15 @@ public class LanguageManager {
 
     //Usually used for GUI
     public final List<Component> getComponentList(final String languageString, final Player targetPlayer, Object... internalPlaceholderObjects){
-        List<Component> components = new ArrayList<>();
-        if (!getLanguageConfig().isList(languageString)) {
+        final List<LanguageTemplate> templates = getStringListTemplates(languageString);
+        if (templates == null) {
             return Collections.singletonList(Component.text("Language string not found: " + languageString));
-        } else {
-            final List<String> translatedString = getLanguageConfig().getStringList(languageString);
-            if (translatedString.isEmpty()) {
-                return Collections.singletonList(Component.text("Language string not found: " + languageString));
-            }
+        }
 
-            if (!main.getConfiguration().supportPlaceholderAPIInTranslationStrings || !main.getIntegrationsManager().isPlaceholderAPIEnabled() || targetPlayer == null) {
-                for(String componentPart : applySpecial(applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects))){
-                    for(String splitPart : componentPart.split("\n")){
-                        components.add(main.parse(splitPart).decoration(TextDecoration.ITALIC, false));
-                    }
-                }
-            } else {
-                for(String componentPart : applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)))) {
-                    for(String splitPart : componentPart.split("\n")){
-                        components.add(main.parse(splitPart).decoration(TextDecoration.ITALIC, false));
-                    }
-                }
+        final List<Component> components = new ArrayList<>();
+        for (final LanguageTemplate template : templates) {
+            for (final String splitPart : renderTemplate(template, targetPlayer, internalPlaceholderObjects).split("\n")) {
+                components.add(main.parse(splitPart).decoration(TextDecoration.ITALIC, false));
             }
         }
         return components;
@@ -389,35 +395,89 @@ public class LanguageManager {
     }
 
     public final String getString(final String languageString, @Nullable final Player targetPlayer, @Nullable Object... internalPlaceholderObjects) {
-        if (!getLanguageConfig().isString(languageString)) {
+        final LanguageTemplate template = getStringTemplate(languageString);
+        if (template == null) {
             return "Language string not found: " + languageString;
-        } else {
-            final String translatedString = getLanguageConfig().getString(languageString);
-            if (translatedString == null) {
-                return "Language string not found: " + languageString;
-            }
-            if (!main.getConfiguration().supportPlaceholderAPIInTranslationStrings || !main.getIntegrationsManager().isPlaceholderAPIEnabled() || targetPlayer == null) {
-                return applySpecial(applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)); //Removed applyColor( for minimessage support
-            } else {
-                return applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)));
-            }
         }
+        return renderTemplate(template, targetPlayer, internalPlaceholderObjects);
     }
 
     public final List<String> getStringList(final String languageString, @Nullable final Player targetPlayer, Object... internalPlaceholderObjects) {
-        if (!getLanguageConfig().isList(languageString)) {
+        final List<LanguageTemplate> templates = getStringListTemplates(languageString);
+        if (templates == null) {
             return Collections.singletonList("Language string list not found: " + languageString);
-        } else {
-            final List<String> translatedString = getLanguageConfig().getStringList(languageString);
-            if (translatedString.isEmpty()) {
-                return Collections.singletonList("Language string list not found: " + languageString);
-            }
-            if (!main.getConfiguration().supportPlaceholderAPIInTranslationStrings || !main.getIntegrationsManager().isPlaceholderAPIEnabled() || targetPlayer == null) {
-                return applySpecial(applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)); //Removed applyColor( for minimessage support
-            } else {
-                return applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)));
-            }
         }
+
+        final List<String> toReturn = new ArrayList<>(templates.size());
+        for (final LanguageTemplate template : templates) {
+            toReturn.add(renderTemplate(template, targetPlayer, internalPlaceholderObjects));
+        }
+        return toReturn;
+    }
+
+    /**
+     * @return the parsed language string, or null if it doesn't exist in the language config
+     */
+    private @Nullable LanguageTemplate getStringTemplate(final String languageString) {
+        final LanguageTemplate cachedTemplate = stringTemplates.get(languageString);
+        if (cachedTemplate != null) {
+            return cachedTemplate;
+        }
+        if (!getLanguageConfig().isString(languageString)) {
+            return null;
+        }
+        final String translatedString = getLanguageConfig().getString(languageString);
+        if (translatedString == null) {
+            return null;
+        }
+        final LanguageTemplate template = LanguageTemplate.parse(translatedString.replace("<EMPTY>", " "));
+        stringTemplates.put(languageString, template);
+        return template;
+    }
+
+    /**
+     * @return the parsed language string list, or null if it doesn't exist in the language config or is empty
+     */
+    private @Nullable List<LanguageTemplate> getStringListTemplates(final String languageString) {
+        final List<LanguageTemplate> cachedTemplates = stringListTemplates.get(languageString);
+        if (cachedTemplates != null) {
+            return cachedTemplates;
+        }
+        if (!getLanguageConfig().isList(languageString)) {
+            return null;
+        }
+        final List<String> translatedStrings = getLanguageConfig().getStringList(languageString);
+        if (translatedStrings.isEmpty()) {
+            return null;
+        }
+        final List<LanguageTemplate> templates = new ArrayList<>(translatedStrings.size());
+        for (final String translatedString : translatedStrings) {
+            templates.add(LanguageTemplate.parse(translatedString.replace("<EMPTY>", " ")));
+        }
+        final List<LanguageTemplate> unmodifiableTemplates = Collections.unmodifiableList(templates);
+        stringListTemplates.put(languageString, unmodifiableTemplates);
+        return unmodifiableTemplates;
+    }
+
+    /**
+     * Renders a parsed language string: internal placeholders, PlaceholderAPI placeholders (if enabled) and centering (only if the string contains &lt;CENTER&gt;).
+     */
+    private String renderTemplate(final LanguageTemplate template, @Nullable final Player targetPlayer, @Nullable final Object... internalPlaceholderObjects) {
+        String rendered = applyInternalPlaceholders(template, targetPlayer, internalPlaceholderObjects);
+
+        if (main.getConfiguration().supportPlaceholderAPIInTranslationStrings && main.getIntegrationsManager().isPlaceholderAPIEnabled() && targetPlayer != null) {
+            rendered = PlaceholderAPI.setPlaceholders(targetPlayer, rendered);
+        }
+
+        if (template.isCentered()) {
+            return applySpecial(rendered);
+        }
+        //applySpecial splits the message by lines, which drops trailing line breaks
+        int end = rendered.length();
+        while (end > 0 && rendered.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return end == rendered.length() ? rendered : rendered.substring(0, end);
     }
 
     public List<String> applyInternalPlaceholders(List<String> initialMessage, @Nullable final Player player, Object... internalPlaceholderObjects) {
@@ -441,115 +501,132 @@ public class LanguageManager {
         if (internalPlaceholderObjects == null || internalPlaceholderObjects.length == 0) {
             return initialMessage;
         }
+        return applyInternalPlaceholders(LanguageTemplate.parse(initialMessage), player, internalPlaceholderObjects);
+    }
 
-        final Map<String, Supplier<String>> internalPlaceholderReplacements = new HashMap<>(); //With this method probably being used simultaneously, we cannot just have 1 HashMap and clear it. It would get cleared while another thing is processing
-
-
-        //main.getLogManager().severe("Initial: " + initialMessage);
-
-        //internalPlaceholderReplacements.clear();
-        internalPlaceholderReplacements.put("%QUESTPOINTS%", () -> "0");
+    public final String applyInternalPlaceholders(final LanguageTemplate template, @Nullable final Player player, final @Nullable Object... internalPlaceholderObjects) {
+        if (internalPlaceholderObjects == null || internalPlaceholderObjects.length == 0 || !template.hasPlaceholders()) {
+            return template.renderRaw();
+        }
+        return template.render(placeholder -> resolveInternalPlaceholder(placeholder, player, internalPlaceholderObjects));
+    }
 
-        Quest foundQuest = null;
-        QuestPlayer foundQuestPlayer = null;
+    /**
+     * Resolves a single internal placeholder from the given placeholder objects. If multiple objects provide the same placeholder,
+     * the last one wins.
+     *
+     * @param placeholder the placeholder including its % signs, like %QUESTNAME%
+     * @return the placeholder value, or null if none of the objects provide it
+     */
+    private @Nullable String resolveInternalPlaceholder(final String placeholder, @Nullable final Player player, final Object... internalPlaceholderObjects) {
+        if (placeholder.equals("%QUESTCOOLDOWNLEFTFORMATTED%")) {
+            Quest foundQuest = null;
+            QuestPlayer foundQuestPlayer = null;
+            for (final @Nullable Object internalPlaceholderObject : internalPlaceholderObjects) {
+                if (internalPlaceholderObject instanceof final Quest quest) {
+                    foundQuest = quest;
+                } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
+                    foundQuestPlayer = questPlayer;
+                }
+            }
+            if (foundQuest != null && foundQuestPlayer != null) {
+                return foundQuestPlayer.getCooldownFormatted(foundQuest);
+            }
+        }
 
-        for (final @Nullable Object internalPlaceholderObject : internalPlaceholderObjects) {
-            if(internalPlaceholderObject == null){
-                continue;
+        for (int index = internalPlaceholderObjects.length - 1; index >= 0; index--) {
+            final @Nullable String value = resolveInternalPlaceholder(placeholder, player, internalPlaceholderObjects[index]);
+            if (value != null) {
+                return value;
             }
+        }
 
-            //main.getLogManager().severe("Object: " + internalPlaceholderObject.toString());
-            if (internalPlaceholderObject instanceof final ActiveQuest activeQuest) {
-                // main.getLogManager().info("Quest placeholders...");
-                internalPlaceholderReplacements.put("%QUESTNAME%", () -> activeQuest.getQuest().getDisplayNameOrIdentifier());
-                internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> activeQuest.getQuest().getObjectiveHolderDescription());
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVESCOUNT%", () -> "" + activeQuest.getCompletedObjectives().size());
-                internalPlaceholderReplacements.put("%ALLOBJECTIVESCOUNT%", () -> "" + activeQuest.getQuest().getObjectives().size());
-            } else if (internalPlaceholderObject instanceof final ActiveObjective activeObjective) {
-
-                final ActiveQuest activeQuest = findTopLevelActiveQuestOfActiveObjective(activeObjective);
-                if(activeQuest != null){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", () -> activeQuest.getQuest().getDisplayNameOrIdentifier());
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> activeQuest.getQuest().getObjectiveHolderDescription());
-                }
+        if (placeholder.equals("%QUESTPOINTS%")) {
+            return "0";
+        }
+        return null;
+    }
 
-                internalPlaceholderReplacements.put("%OBJECTIVEID%", () -> "" + activeObjective.getObjective().getObjectiveID());
-                internalPlaceholderReplacements.put("%ACTIVEOBJECTIVEID%", () -> "" + activeObjective.getObjective().getObjectiveID());
-                internalPlaceholderReplacements.put("%OBJECTIVENAME%", () -> "" + activeObjective.getObjective().getDisplayNameOrIdentifier());
-                internalPlaceholderReplacements.put("%ACTIVEOBJECTIVEPROGRESS%", () -> {
-                    String formatted = String.format("%.2f", activeObjective.getCurrentProgress());
-                    if(formatted.endsWith(".00") || formatted.endsWith(",00")){
-                        formatted = formatted.substring(0, formatted.length()-3);
-                    }
-                    return formatted;
-                });
-                internalPlaceholderReplacements.put("%OBJECTIVEPROGRESSNEEDED%", () -> {
-                    String formatted = String.format("%.2f", activeObjective.getProgressNeeded());
-                    if(formatted.endsWith(".00") || formatted.endsWith(",00")){
-                        formatted = formatted.substring(0, formatted.length()-3);
-                    }
-                    return formatted;
-                });
-                internalPlaceholderReplacements.put("%OBJECTIVEPROGRESSPERCENTAGE%", () -> "" + (int) ((float) ((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
-                internalPlaceholderReplacements.put("%OBJECTIVETASKDESCRIPTION%", () -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), false, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective));
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVETASKDESCRIPTION%", () -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), true, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective));
-                internalPlaceholderReplacements.put("%OBJECTIVEDESCRIPTION%", () -> activeObjective.getObjective().getObjectiveHolderDescription());
-            } else if (internalPlaceholderObject instanceof final ActiveObjectiveHolder activeObjectiveHolder) {
-                // main.getLogManager().info("Quest placeholders...");
-                if(activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%",
-                        quest::getDisplayNameOrIdentifier);
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%",
-                        quest::getObjectiveHolderDescription);
-                }
+    private @Nullable String resolveInternalPlaceholder(final String placeholder, @Nullable final Player player, final @Nullable Object internalPlaceholderObject) {
+        if (internalPlaceholderObject == null) {
+            return null;
+        }
 
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVESCOUNT%", () -> "" + activeObjectiveHolder.getCompletedObjectives().size());
-                internalPlaceholderReplacements.put("%ALLOBJECTIVESCOUNT%", () -> "" + activeObjectiveHolder.getObjectiveHolder().getObjectives().size());
-            } else if (internalPlaceholderObject instanceof final Quest quest) {
-                //main.getLogManager().info("Applying Quest placeholders...");
-                internalPlaceholderReplacements.put("%QUESTNAME%", quest::getDisplayNameOrIdentifier);
-                internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", quest::getObjectiveHolderDescription);
-                foundQuest = quest;
-            }  else if (internalPlaceholderObject instanceof final Objective objective) {
-                //main.getLogManager().info("Applying Objective placeholders...");
-                if(objective.getObjectiveHolder() instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", () -> quest.getDisplayNameOrIdentifier());
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> quest.getObjectiveHolderDescription());
-                }
-                internalPlaceholderReplacements.put("%OBJECTIVEID%", () -> "" + objective.getObjectiveID());
-                internalPlaceholderReplacements.put("%OBJECTIVENAME%", () -> "" + objective.getDisplayNameOrIdentifier());
-            } else if (internalPlaceholderObject instanceof final ObjectiveHolder objectiveHolder) {
-                //main.getLogManager().info("Applying Quest placeholders...");
-                if(objectiveHolder instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", quest::getDisplayNameOrIdentifier);
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", quest::getObjectiveHolderDescription);
+        if (internalPlaceholderObject instanceof final ActiveQuest activeQuest) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> activeQuest.getQuest().getDisplayNameOrIdentifier();
+                case "%QUESTDESCRIPTION%" -> activeQuest.getQuest().getObjectiveHolderDescription();
+                case "%COMPLETEDOBJECTIVESCOUNT%" -> "" + activeQuest.getCompletedObjectives().size();
+                case "%ALLOBJECTIVESCOUNT%" -> "" + activeQuest.getQuest().getObjectives().size();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final ActiveObjective activeObjective) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> {
+                    final ActiveQuest activeQuest = findTopLevelActiveQuestOfActiveObjective(activeObjective);
+                    yield activeQuest != null ? activeQuest.getQuest().getDisplayNameOrIdentifier() : null;
                 }
-
-            }else if (internalPlaceholderObject instanceof final Trigger trigger) {
-                //main.getLogManager().log(Level.INFO, "Applying Trigger placeholders...");
-            } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
-                //main.getLogManager().log(Level.INFO, "Applying QuestPlayer placeholders...");
-                internalPlaceholderReplacements.put("%QUESTPOINTS%", () -> "" + questPlayer.getQuestPoints());
-                internalPlaceholderReplacements.put("%PROFILENAME%", () -> "" + questPlayer.getProfile());
-                foundQuestPlayer = questPlayer;
-            } else if (internalPlaceholderObject instanceof final Map providedInternalPlaceholderReplacements) {
-                for (final Object key : providedInternalPlaceholderReplacements.keySet()) {
-                    internalPlaceholderReplacements.put((String) key, () -> (String) providedInternalPlaceholderReplacements.get(key));
+                case "%QUESTDESCRIPTION%" -> {
+                    final ActiveQuest activeQuest = findTopLevelActiveQuestOfActiveObjective(activeObjective);
+                    yield activeQuest != null ? activeQuest.getQuest().getObjectiveHolderDescription() : null;
                 }
-            }
-
+                case "%OBJECTIVEID%", "%ACTIVEOBJECTIVEID%" -> "" + activeObjective.getObjective().getObjectiveID();
+                case "%OBJECTIVENAME%" -> "" + activeObjective.getObjective().getDisplayNameOrIdentifier();
+                case "%ACTIVEOBJECTIVEPROGRESS%" -> formatProgress(activeObjective.getCurrentProgress());
+                case "%OBJECTIVEPROGRESSNEEDED%" -> formatProgress(activeObjective.getProgressNeeded());
+                case "%OBJECTIVEPROGRESSPERCENTAGE%" -> "" + (int) ((float) ((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100);
+                case "%OBJECTIVETASKDESCRIPTION%" -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), false, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective);
+                case "%COMPLETEDOBJECTIVETASKDESCRIPTION%" -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), true, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective);
+                case "%OBJECTIVEDESCRIPTION%" -> activeObjective.getObjective().getObjectiveHolderDescription();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final ActiveObjectiveHolder activeObjectiveHolder) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest ? quest.getDisplayNameOrIdentifier() : null;
+                case "%QUESTDESCRIPTION%" -> activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest ? quest.getObjectiveHolderDescription() : null;
+                case "%COMPLETEDOBJECTIVESCOUNT%" -> "" + activeObjectiveHolder.getCompletedObjectives().size();
+                case "%ALLOBJECTIVESCOUNT%" -> "" + activeObjectiveHolder.getObjectiveHolder().getObjectives().size();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final Quest quest) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> quest.getDisplayNameOrIdentifier();
+                case "%QUESTDESCRIPTION%" -> quest.getObjectiveHolderDescription();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final Objective objective) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> objective.getObjectiveHolder() instanceof final Quest quest ? quest.getDisplayNameOrIdentifier() : null;
+                case "%QUESTDESCRIPTION%" -> objective.getObjectiveHolder() instanceof final Quest quest ? quest.getObjectiveHolderDescription() : null;
+                case "%OBJECTIVEID%" -> "" + objective.getObjectiveID();
+                case "%OBJECTIVENAME%" -> "" + objective.getDisplayNameOrIdentifier();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final ObjectiveHolder objectiveHolder) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> objectiveHolder instanceof final Quest quest ? quest.getDisplayNameOrIdentifier() : null;
+                case "%QUESTDESCRIPTION%" -> objectiveHolder instanceof final Quest quest ? quest.getObjectiveHolderDescription() : null;
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
+            return switch (placeholder) {
+                case "%QUESTPOINTS%" -> "" + questPlayer.getQuestPoints();
+                case "%PROFILENAME%" -> "" + questPlayer.getProfile();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final Map<?, ?> providedInternalPlaceholderReplacements) {
+            final Object value = providedInternalPlaceholderReplacements.get(placeholder);
+            return value != null ? value.toString() : null;
         }
+        return null;
+    }
 
-        if (foundQuest != null && foundQuestPlayer != null) {
-            final QuestPlayer finalFoundQuestPlayer = foundQuestPlayer;
-            final Quest finalFoundQuest = foundQuest;
-            internalPlaceholderReplacements.put("%QUESTCOOLDOWNLEFTFORMATTED%", () -> finalFoundQuestPlayer.getCooldownFormatted(finalFoundQuest));
+    private String formatProgress(final double progress) {
+        String formatted = String.format("%.2f", progress);
+        if(formatted.endsWith(".00") || formatted.endsWith(",00")){
+            formatted = formatted.substring(0, formatted.length()-3);
         }
-        /*main.getLogManager().warn("initialMessage: " + initialMessage);
-        main.getLogManager().warn(" Keys: " + Arrays.toString(internalPlaceholderReplacements.keySet().toArray()));
-        main.getLogManager().severe("  Contains %QUESTNAME%: " + internalPlaceholderReplacements.containsKey("%QUESTNAME%"));
-        */
-        return main.getUtilManager().replaceFromMap(initialMessage, internalPlaceholderReplacements);
+        return formatted;
     }
 
     public final List<String> applySpecial(final List<String> initialMessage) {
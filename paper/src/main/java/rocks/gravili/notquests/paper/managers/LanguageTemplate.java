@@ -0,0 +1,169 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayList;
+import java.util.function.Function;
+
+/**
+ * A language string which has been split once into literal and placeholder segments, so it can be rendered in a single pass
+ * without searching the whole message for every possible placeholder.
+ * <p>
+ * A placeholder segment is anything in the form of %KEY%, where KEY contains neither whitespace nor %. Placeholders which
+ * cannot be resolved are rendered as they are, which keeps PlaceholderAPI placeholders intact for later.
+ * <p>
+ * If the string contains a &lt;CENTER&gt; marker, {@link #isCentered()} is true and the rendered string still needs to be
+ * centered by LanguageManager.applySpecial().
+ */
+public class LanguageTemplate {
+
+    /**
+     * StringBuilders are re-used per thread. A renderer takes it out of the ThreadLocal while rendering, so a placeholder
+     * which renders another template while being resolved simply gets a new one.
+     */
+    private static final ThreadLocal<StringBuilder> reusableStringBuilder = new ThreadLocal<>();
+
+    /**
+     * StringBuilders which grew larger than this are not kept around
+     */
+    private static final int maxReusedStringBuilderCapacity = 8192;
+
+    /**
+     * literals[i] comes right before placeholders[i]. There is always one literal more than there are placeholders.
+     */
+    private final String[] literals;
+    private final String[] placeholders;
+
+    private final boolean centered;
+    private final int estimatedLength;
+
+    private LanguageTemplate(final String[] literals, final String[] placeholders, final boolean centered, final int estimatedLength) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.centered = centered;
+        this.estimatedLength = estimatedLength;
+    }
+
+    /**
+     * @param rawString the raw, unprocessed language string
+     * @return the parsed template
+     */
+    public static LanguageTemplate parse(final String rawString) {
+        final ArrayList<String> literals = new ArrayList<>();
+        final ArrayList<String> placeholders = new ArrayList<>();
+
+        int literalStart = 0;
+        int searchStart = 0;
+        while (true) {
+            final int placeholderStart = rawString.indexOf('%', searchStart);
+            if (placeholderStart == -1) {
+                break;
+            }
+            final int placeholderEnd = findPlaceholderEnd(rawString, placeholderStart);
+            if (placeholderEnd == -1) {
+                //Just a % sign. The next one might still start a placeholder
+                searchStart = placeholderStart + 1;
+                continue;
+            }
+            literals.add(rawString.substring(literalStart, placeholderStart));
+            placeholders.add(rawString.substring(placeholderStart, placeholderEnd + 1));
+            literalStart = placeholderEnd + 1;
+            searchStart = literalStart;
+        }
+        literals.add(rawString.substring(literalStart));
+
+        return new LanguageTemplate(
+                literals.toArray(new String[0]),
+                placeholders.toArray(new String[0]),
+                rawString.contains("<CENTER>"),
+                rawString.length()
+        );
+    }
+
+    /**
+     * @return the index of the closing % of the placeholder starting at placeholderStart, or -1 if it's not a placeholder
+     */
+    private static int findPlaceholderEnd(final String rawString, final int placeholderStart) {
+        for (int index = placeholderStart + 1; index < rawString.length(); index++) {
+            final char c = rawString.charAt(index);
+            if (c == '%') {
+                return index > placeholderStart + 1 ? index : -1;
+            }
+            if (Character.isWhitespace(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the template contains at least one placeholder segment
+     */
+    public final boolean hasPlaceholders() {
+        return placeholders.length > 0;
+    }
+
+    /**
+     * @return true if the template contains a &lt;CENTER&gt; marker
+     */
+    public final boolean isCentered() {
+        return centered;
+    }
+
+    /**
+     * Renders the template. The resolver is only called for placeholders which are actually present.
+     *
+     * @param placeholderResolver resolves a placeholder (including its % signs) to its value, or returns null if it's unknown
+     * @return the rendered string
+     */
+    public final String render(final Function<String, String> placeholderResolver) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder stringBuilder = reusableStringBuilder.get();
+        if (stringBuilder == null) {
+            stringBuilder = new StringBuilder(estimatedLength + 32);
+        } else {
+            reusableStringBuilder.set(null);
+        }
+
+        try {
+            for (int index = 0; index < placeholders.length; index++) {
+                stringBuilder.append(literals[index]);
+                final String value = placeholderResolver.apply(placeholders[index]);
+                stringBuilder.append(value != null ? value : placeholders[index]);
+            }
+            stringBuilder.append(literals[placeholders.length]);
+            return stringBuilder.toString();
+        } finally {
+            if (stringBuilder.capacity() <= maxReusedStringBuilderCapacity) {
+                stringBuilder.setLength(0);
+                reusableStringBuilder.set(stringBuilder);
+            }
+        }
+    }
+
+    /**
+     * @return the template without resolving any placeholders
+     */
+    public final String renderRaw() {
+        return render(placeholder -> null);
+    }
+}
@@ -80,7 +80,7 @@ public class LogManager {
       } else {
         final Component component = main.parse(message);
         consoleSender.sendMessage(
-            prefixDownsampled.append(main.parse(color)).append(
+            prefixDownsampled.append(main.parseCached(color)).append(
             GsonComponentSerializer.gson()
                 .deserializeFromTree( // Convert back to component
                     GsonComponentSerializer.builder()
@@ -0,0 +1,235 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayList;
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.expressions.NumberExpression;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+import rocks.gravili.notquests.paper.structs.objectives.ObjectiveHolder;
+
+/**
+ * A string with the placeholders of UtilManager.applyPlaceholders() ({QUEST}, {PLAYER}, {PLAYERUUID}, {PLAYERX},
+ * {PLAYERY}, {PLAYERZ}, {WORLD} and {{expression}} / {{~expression}}), split once into segments so it can be rendered in a
+ * single pass.
+ * <p>
+ * Only the placeholders which are actually present are resolved, the player location is only fetched once, expressions
+ * are compiled only once, and PlaceholderAPI is only called if the rendered string contains a %.
+ */
+public class PlaceholderTemplate {
+
+    private enum Placeholder {
+        QUEST("{QUEST}"),
+        PLAYER("{PLAYER}"),
+        PLAYERUUID("{PLAYERUUID}"),
+        PLAYERX("{PLAYERX}"),
+        PLAYERY("{PLAYERY}"),
+        PLAYERZ("{PLAYERZ}"),
+        WORLD("{WORLD}");
+
+        private final String raw;
+
+        Placeholder(final String raw) {
+            this.raw = raw;
+        }
+    }
+
+    /**
+     * An {{expression}} or a rounded {{~expression}}. If the expression contains other placeholders (like {PLAYERX}), they
+     * are resolved first and the expression is compiled every time. Otherwise, it's compiled the first time it's rendered.
+     */
+    private static final class ExpressionSegment {
+        private final String raw;
+        private final String expression;
+        private final boolean rounded;
+        private final PlaceholderTemplate expressionTemplate;
+        private volatile NumberExpression compiledExpression;
+
+        private ExpressionSegment(final String raw, final String expression, final boolean rounded) {
+            this.raw = raw;
+            this.expression = expression;
+            this.rounded = rounded;
+            this.expressionTemplate = expression.indexOf('{') != -1 ? PlaceholderTemplate.parse(expression, false) : null;
+        }
+    }
+
+    /**
+     * Each segment is either a literal String, a Placeholder or an ExpressionSegment
+     */
+    private final Object[] segments;
+
+    private final boolean hasLocationPlaceholders;
+    private final int estimatedLength;
+
+    private PlaceholderTemplate(final Object[] segments, final boolean hasLocationPlaceholders, final int estimatedLength) {
+        this.segments = segments;
+        this.hasLocationPlaceholders = hasLocationPlaceholders;
+        this.estimatedLength = estimatedLength;
+    }
+
+    /**
+     * @param rawString the raw string, like a console command or a message
+     * @return the parsed template
+     */
+    public static PlaceholderTemplate parse(final String rawString) {
+        return parse(rawString, true);
+    }
+
+    private static PlaceholderTemplate parse(final String rawString, final boolean parseExpressions) {
+        final ArrayList<Object> segments = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        boolean hasLocationPlaceholders = false;
+
+        int index = 0;
+        while (index < rawString.length()) {
+            final char c = rawString.charAt(index);
+            if (c != '{') {
+                literal.append(c);
+                index++;
+                continue;
+            }
+
+            if (parseExpressions && rawString.startsWith("{{", index)) {
+                final int expressionEnd = rawString.indexOf("}}", index + 2);
+                if (expressionEnd != -1) {
+                    final boolean rounded = rawString.startsWith("{{~", index);
+                    final String expression = rawString.substring(index + (rounded ? 3 : 2), expressionEnd);
+                    addLiteral(segments, literal);
+                    segments.add(new ExpressionSegment(rawString.substring(index, expressionEnd + 2), expression, rounded));
+                    index = expressionEnd + 2;
+                    continue;
+                }
+            }
+
+            Placeholder foundPlaceholder = null;
+            for (final Placeholder placeholder : Placeholder.values()) {
+                if (rawString.startsWith(placeholder.raw, index)) {
+                    foundPlaceholder = placeholder;
+                    break;
+                }
+            }
+            if (foundPlaceholder == null) {
+                literal.append(c);
+                index++;
+                continue;
+            }
+            addLiteral(segments, literal);
+            segments.add(foundPlaceholder);
+            if (foundPlaceholder == Placeholder.PLAYERX || foundPlaceholder == Placeholder.PLAYERY || foundPlaceholder == Placeholder.PLAYERZ) {
+                hasLocationPlaceholders = true;
+            }
+            index += foundPlaceholder.raw.length();
+        }
+        addLiteral(segments, literal);
+
+        return new PlaceholderTemplate(segments.toArray(), hasLocationPlaceholders, rawString.length());
+    }
+
+    private static void addLiteral(final ArrayList<Object> segments, final StringBuilder literal) {
+        if (!literal.isEmpty()) {
+            segments.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+
+    /**
+     * Renders the template. This gives the same result as UtilManager.applyPlaceholders() with the same player and objective holder.
+     *
+     * @param main the plugin
+     * @param player the player to resolve the player placeholders and expressions for. If it's null, they are kept as they are.
+     * @param questPlayer the QuestPlayer of the player, or null if it should be looked up when it's needed for an expression
+     * @param objectiveHolder the quest or objective to resolve {QUEST} with. If it's null, {QUEST} is kept as it is.
+     * @return the rendered string
+     */
+    public final String render(final NotQuests main, @Nullable final Player player, @Nullable final QuestPlayer questPlayer, @Nullable final ObjectiveHolder objectiveHolder) {
+        final String rendered = renderWithoutPlaceholderAPI(main, player, questPlayer, objectiveHolder);
+        if (rendered.indexOf('%') != -1 && main.getIntegrationsManager().isPlaceholderAPIEnabled()) {
+            return PlaceholderAPI.setPlaceholders(player, rendered);
+        }
+        return rendered;
+    }
+
+    private String renderWithoutPlaceholderAPI(final NotQuests main, @Nullable final Player player, @Nullable final QuestPlayer questPlayer, @Nullable final ObjectiveHolder objectiveHolder) {
+        if (segments.length == 0) {
+            return "";
+        }
+        if (segments.length == 1 && segments[0] instanceof final String literal) {
+            return literal;
+        }
+
+        final Location playerLocation = player != null && hasLocationPlaceholders ? player.getLocation() : null;
+        final StringBuilder stringBuilder = new StringBuilder(estimatedLength + 32);
+        for (final Object segment : segments) {
+            if (segment instanceof final String literal) {
+                stringBuilder.append(literal);
+            } else if (segment instanceof final Placeholder placeholder) {
+                if (placeholder == Placeholder.QUEST) {
+                    stringBuilder.append(objectiveHolder != null ? objectiveHolder.getIdentifier() : placeholder.raw);
+                } else if (player == null) {
+                    stringBuilder.append(placeholder.raw);
+                } else {
+                    switch (placeholder) {
+                        case PLAYER -> stringBuilder.append(player.getName());
+                        case PLAYERUUID -> stringBuilder.append(player.getUniqueId());
+                        case PLAYERX -> stringBuilder.append(playerLocation.getX());
+                        case PLAYERY -> stringBuilder.append(playerLocation.getY());
+                        case PLAYERZ -> stringBuilder.append(playerLocation.getZ());
+                        case WORLD -> stringBuilder.append(player.getWorld().getName());
+                        default -> stringBuilder.append(placeholder.raw);
+                    }
+                }
+            } else if (segment instanceof final ExpressionSegment expressionSegment) {
+                if (player == null) {
+                    stringBuilder.append(expressionSegment.raw);
+                    continue;
+                }
+                final double calculatedExpression = calculateExpression(main, expressionSegment, player, questPlayer, objectiveHolder);
+                if (expressionSegment.rounded) {
+                    stringBuilder.append((int) Math.round(calculatedExpression));
+                } else {
+                    stringBuilder.append(calculatedExpression);
+                }
+            }
+        }
+        return stringBuilder.toString();
+    }
+
+    private double calculateExpression(final NotQuests main, final ExpressionSegment expressionSegment, final Player player, @Nullable final QuestPlayer questPlayer, @Nullable final ObjectiveHolder objectiveHolder) {
+        final QuestPlayer questPlayerToEvaluate = questPlayer != null ? questPlayer : main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId());
+
+        if (expressionSegment.expressionTemplate != null) {
+            final String expression = expressionSegment.expressionTemplate.renderWithoutPlaceholderAPI(main, player, questPlayer, objectiveHolder);
+            return new NumberExpression(main, expression).calculateValue(questPlayerToEvaluate);
+        }
+
+        NumberExpression compiledExpression = expressionSegment.compiledExpression;
+        if (compiledExpression == null) {
+            compiledExpression = new NumberExpression(main, expressionSegment.expression);
+            expressionSegment.compiledExpression = compiledExpression;
+        }
+        //The NumberExpression keeps the QuestPlayer it evaluates for in a field, so it cannot be evaluated concurrently
+        synchronized (compiledExpression) {
+            return compiledExpression.calculateValue(questPlayerToEvaluate);
+        }
+    }
+}
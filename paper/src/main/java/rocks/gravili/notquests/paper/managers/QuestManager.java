@@ -28,14 +28,11 @@ import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.NamespacedKey;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
-import org.bukkit.persistence.PersistentDataContainer;
-import org.bukkit.persistence.PersistentDataType;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.managers.data.Category;
@@ -67,6 +64,11 @@ public class QuestManager {
 
     private final ArrayList<UUID> debugEnabledPlayers;
 
+    /**
+     * Incremented whenever a quest is added or removed, so caches holding Quest references (like the parsed placeholders) know when to re-resolve them
+     */
+    private volatile int questsModificationCount = 0;
+
 
     private void loadObjectiveConditionsAndRewards(ObjectiveHolder objectiveHolder, final Category category) {
         main.getLogManager().debug("Loading objective conditions and rewards...");
@@ -339,6 +341,7 @@ public class QuestManager {
             }
             Quest newQuest = new Quest(main, questName, category);
             quests.add(newQuest);
+            questsModificationCount++;
             category.getQuestsConfig().set("quests." + questName, "");
             category.saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully created!");
@@ -354,6 +357,7 @@ public class QuestManager {
             }
             final Quest newQuest = new Quest(main, questName);
             quests.add(newQuest);
+            questsModificationCount++;
             newQuest.getCategory().getQuestsConfig().set("quests." + questName, "");
             newQuest.getCategory().saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully created!");
@@ -367,6 +371,7 @@ public class QuestManager {
 
         if (questToDelete != null) {
             quests.remove(questToDelete);
+            questsModificationCount++;
             questToDelete.getCategory().getQuestsConfig().set("quests." + questName, null);
             questToDelete.getCategory().saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully deleted!");
@@ -388,6 +393,10 @@ public class QuestManager {
         return quests;
     }
 
+    public final int getQuestsModificationCount() {
+        return questsModificationCount;
+    }
+
     public void loadQuestsFromConfig() {
         try{
             if (main.getIntegrationsManager().isCitizensEnabled()) {
@@ -409,6 +418,7 @@ public class QuestManager {
         main.getLogManager().info("Scheduled Quest Data load for following categories: <highlight>" + categoriesStringList);
 
         quests.clear();
+        questsModificationCount++;
         for (final Category category : main.getDataManager().getCategories()) {
             loadQuestsFromConfig(category);
         }
@@ -635,6 +645,7 @@ public class QuestManager {
                     quest.setTakeItem(category.getQuestsConfig().getItemStack("quests." + questName + ".takeItem"), false);
 
                     quests.add(quest);
+                    questsModificationCount++;
                 }
             }
             main.getDataManager().setAlreadyLoadedQuests(true);
@@ -649,78 +660,18 @@ public class QuestManager {
 
 
     public final ArrayList<Quest> getAllQuestsAttachedToArmorstand(final ArmorStand armorstand) {
-        return new ArrayList<>() {{
-            final PersistentDataContainer armorstandPDB = armorstand.getPersistentDataContainer();
-            final NamespacedKey attachedShowingQuestsKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-showing");
-            final NamespacedKey attachedNonShowingQuestsKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-nonshowing");
-
-            //Showing
-            if (armorstandPDB.has(attachedShowingQuestsKey, PersistentDataType.STRING)) {
-                final String existingAttachedQuests = armorstandPDB.get(attachedShowingQuestsKey, PersistentDataType.STRING);
-                if (existingAttachedQuests != null && existingAttachedQuests.length() >= 1) {
-                    for (final String split : existingAttachedQuests.split("°")) {
-                        final Quest foundQuest = getQuest(split);
-                        if (foundQuest != null) {
-                            add(foundQuest);
-                        }
-                    }
-                }
-            }
-
-            //Nonshowing
-            if (armorstandPDB.has(attachedNonShowingQuestsKey, PersistentDataType.STRING)) {
-                final String existingAttachedQuests = armorstandPDB.get(attachedNonShowingQuestsKey, PersistentDataType.STRING);
-                if (existingAttachedQuests != null && existingAttachedQuests.length() >= 1) {
-                    for (final String split : existingAttachedQuests.split("°")) {
-                        final Quest foundQuest = getQuest(split);
-                        if (foundQuest != null) {
-                            add(foundQuest);
-                        }
-                    }
-                }
-            }
-
-        }};
-
+        final ArmorStandManager.ArmorStandAttachments attachments = main.getArmorStandManager().getAttachments(armorstand);
+        final ArrayList<Quest> questsAttached = new ArrayList<>(attachments.showingQuests());
+        questsAttached.addAll(attachments.nonShowingQuests());
+        return questsAttached;
     }
 
     public final ArrayList<Quest> getQuestsAttachedToArmorstandWithShowing(final ArmorStand armorstand) {
-        return new ArrayList<>() {{
-            final PersistentDataContainer armorstandPDB = armorstand.getPersistentDataContainer();
-            final NamespacedKey attachedQuestsKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-showing");
-
-            if (armorstandPDB.has(attachedQuestsKey, PersistentDataType.STRING)) {
-                final String existingAttachedQuests = armorstandPDB.get(attachedQuestsKey, PersistentDataType.STRING);
-                if (existingAttachedQuests != null && existingAttachedQuests.length() >= 1) {
-                    for (final String split : existingAttachedQuests.split("°")) {
-                        final Quest foundQuest = getQuest(split);
-                        if (foundQuest != null) {
-                            add(foundQuest);
-                        }
-                    }
-                }
-            }
-        }};
-
+        return new ArrayList<>(main.getArmorStandManager().getAttachments(armorstand).showingQuests());
     }
 
     public final ArrayList<Quest> getQuestsAttachedToArmorstandWithoutShowing(final ArmorStand armorstand) {
-        return new ArrayList<>() {{
-            PersistentDataContainer armorstandPDB = armorstand.getPersistentDataContainer();
-            NamespacedKey attachedQuestsKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-nonshowing");
-
-            if (armorstandPDB.has(attachedQuestsKey, PersistentDataType.STRING)) {
-                String existingAttachedQuests = armorstandPDB.get(attachedQuestsKey, PersistentDataType.STRING);
-                if (existingAttachedQuests != null && existingAttachedQuests.length() >= 1) {
-                    for (String split : existingAttachedQuests.split("°")) {
-                        final Quest foundQuest = getQuest(split);
-                        if (foundQuest != null) {
-                            add(foundQuest);
-                        }
-                    }
-                }
-            }
-        }};
+        return new ArrayList<>(main.getArmorStandManager().getAttachments(armorstand).nonShowingQuests());
     }
 
     public final ArrayList<Quest> getAllQuestsAttachedToNPC(final NQNPC npc) {
@@ -897,7 +848,7 @@ public class QuestManager {
             return;
         }
 
-        final ArrayList<Quest> questsAttachedToNPC = getQuestsAttachedToNPCWithShowing(npc);
+        final ArrayList<Quest> questsAttachedToNPC = new ArrayList<>(main.getNPCManager().getInteractionProfile(npc).questsAttachedWithShowing());
 
         //No quests attached or all quests are set to not showing (more likely). THen nothing should show. That should make it work with Interactions plugin and takeEnabled = false.
         if (questsAttachedToNPC.isEmpty()) {
@@ -1393,32 +1344,17 @@ public class QuestManager {
 
 
             if(main.getConfiguration().isQuestVisibilityEvaluationLimits() || main.getConfiguration().isQuestVisibilityEvaluationAcceptCooldown()){
-                int completedAmount = 0;
+                long completedAmount = 0;
                 long mostRecentCompleteTime = 0;
 
-                int failedAmount = 0;
-                long mostRecentFailTime = 0;
+                long failedAmount = 0;
 
-                int acceptedAmount = 0;
+                long acceptedAmount = 0;
                 if(questPlayer != null){
-                    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-                        if (completedQuest.getQuest().equals(quest)) {
-                            completedAmount += 1;
-                            acceptedAmount += 1;
-                            if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-                                mostRecentCompleteTime = completedQuest.getTimeCompleted();
-                            }
-                        }
-                    }
-                    for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-                        if (failedQuest.getQuest().equals(quest)) {
-                            failedAmount += 1;
-                            acceptedAmount += 1;
-                            if (failedQuest.getTimeFailed() > mostRecentFailTime) {
-                                mostRecentFailTime = failedQuest.getTimeFailed();
-                            }
-                        }
-                    }
+                    completedAmount = questPlayer.getCompletedAmount(quest.getIdentifier());
+                    mostRecentCompleteTime = questPlayer.getLastCompletedTime(quest.getIdentifier());
+                    failedAmount = questPlayer.getFailedAmount(quest.getIdentifier());
+                    acceptedAmount = completedAmount + failedAmount;
                     for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
                         if (activeQuest.getQuest().equals(quest)) {
                             acceptedAmount += 1;
@@ -18,54 +18,383 @@
 
 package rocks.gravili.notquests.paper.managers;
 
-import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.common.managers.LogCategory;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveObjectiveData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveTriggerData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.QuestHistoryChange;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataStorage;
+import rocks.gravili.notquests.paper.managers.storage.StoredPlayerData;
+import rocks.gravili.notquests.paper.managers.storage.StoredPlayerData.QuestHistoryEntry;
+import rocks.gravili.notquests.paper.managers.tags.PlayerTags;
 import rocks.gravili.notquests.paper.structs.*;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
 
 public class QuestPlayerManager {
   private final NotQuests main;
 
-  private final HashMap<UUID, List<QuestPlayer>> questPlayersAndUUIDs; //Can contain multiple profiles since one UUID can have multiple profiles => multiple QuestPlayer
-  private final HashMap<UUID, QuestPlayer> activeQuestPlayersAndUUIDs; //Only stores the current active profile
+  //Both are modified by the async join and quit handling while the main thread reads them
+  private final ConcurrentHashMap<UUID, List<QuestPlayer>> questPlayersAndUUIDs; //Can contain multiple profiles since one UUID can have multiple profiles => multiple QuestPlayer
+  private final ConcurrentHashMap<UUID, QuestPlayer> activeQuestPlayersAndUUIDs; //Only stores the current active profile
+
+  /**
+   * A snapshot together with the QuestPlayer it has been taken of
+   */
+  private record PendingSnapshot(QuestPlayer questPlayer, PlayerDataSnapshot snapshot) {}
+
+  /**
+   * The snapshots of a quitting player, taken on the main thread
+   *
+   * @param questPlayers all profiles of the player, or null if they don't have any
+   * @param activeQuestPlayer the active profile of the player
+   * @param complete false if not all profiles could be copied, because one of them didn't finish loading yet
+   */
+  private record QuittingPlayerData(@Nullable List<QuestPlayer> questPlayers, @Nullable QuestPlayer activeQuestPlayer, List<PendingSnapshot> pendingSnapshots, boolean complete) {}
+
+  /**
+   * Held while saving, so snapshots of the same player are never saved at the same time. It's fair, and large saves only hold
+   * it for {@link #saveChunkSize} snapshots at a time, so the save of a player who quits never has to wait for a whole autosave.
+   */
+  private final ReentrantLock saveLock = new ReentrantLock(true);
+  private static final int saveChunkSize = 32;
+
+  private BukkitTask autosaveTask = null;
+  private final AtomicBoolean autosaveRunning = new AtomicBoolean(false);
+  private int autosaveCursor = 0;
+
+  private volatile long lastCheckpointTime = 0;
+  private volatile int lastAutosaveSnapshots = 0;
+  private volatile int lastAutosaveRemainingQuestPlayers = 0;
+  private volatile long lastAutosaveSnapshotNanos = 0;
+
+  private final AtomicLong storageLoads = new AtomicLong();
+  private final AtomicLong storageLoadNanos = new AtomicLong();
+  private final AtomicLong storageSavedSnapshots = new AtomicLong();
+  private final AtomicLong storageSaveNanos = new AtomicLong();
+
+  /**
+   * Player data and tags of a player who is about to join, loaded in AsyncPlayerPreLoginEvent
+   *
+   * @param tagsByProfile the tags of all profiles in playerData (or of the default profile, if there are none)
+   */
+  private record PrefetchedPlayerData(List<StoredPlayerData> playerData, Map<String, Map<String, Object>> tagsByProfile) {}
+
+  /**
+   * A prefetch which has been started in AsyncPlayerPreLoginEvent. It may still be running (e.g. waiting for the server the
+   * player came from to save their data) when they join.
+   */
+  private record Prefetch(CompletableFuture<PrefetchedPlayerData> playerData, long startedAtNanos) {}
+
+  /**
+   * Prefetches which haven't been attached by joining yet. Entries of logins which have been denied after they've been
+   * prefetched expire after {@link #prefetchExpiryNanos}.
+   */
+  private final ConcurrentHashMap<UUID, Prefetch> prefetches = new ConcurrentHashMap<>();
+  private static final long prefetchExpiryNanos = 60_000_000_000L;
+
+  private final AtomicLong joins = new AtomicLong();
+  private final AtomicLong prefetchedJoins = new AtomicLong();
+  private final AtomicLong joinToReadyNanos = new AtomicLong();
+
+  /**
+   * Quit saves which are still running, by player UUID. Completed once everything of that player has been saved.
+   */
+  private final ConcurrentHashMap<UUID, CompletableFuture<Void>> quitSaves = new ConcurrentHashMap<>();
+
+  private final AtomicLong handoffClaims = new AtomicLong();
+  private final AtomicLong handoffClaimNanos = new AtomicLong();
 
 
   public QuestPlayerManager(NotQuests notQuests) {
     this.main = notQuests;
-    questPlayersAndUUIDs = new HashMap<>();
-    activeQuestPlayersAndUUIDs = new HashMap<>();
+    questPlayersAndUUIDs = new ConcurrentHashMap<>();
+    activeQuestPlayersAndUUIDs = new ConcurrentHashMap<>();
   }
 
   public void loadSinglePlayerData(final UUID uuid) {
+    loadSinglePlayerData(uuid, null);
+  }
+
+  private void loadSinglePlayerData(final UUID uuid, @Nullable final PrefetchedPlayerData prefetchedPlayerData) {
     if (!main.getConfiguration().loadPlayerData) {
       return;
     }
     if(main.getConfiguration().isVerboseStartupMessages()){
-      main.getLogManager().info("Loading PlayerData of player %s...", uuid.toString());
+      main.getLogManager().info("Loading PlayerData of player %s%s...", uuid.toString(), prefetchedPlayerData != null ? " (prefetched)" : "");
     }
     questPlayersAndUUIDs.remove(uuid);
     activeQuestPlayersAndUUIDs.remove(uuid);
 
-    loadPlayerDataInternal(uuid);
+    loadPlayerDataInternal(uuid, prefetchedPlayerData);
 
 
   }
 
+  /**
+   * Loads the player data and tags of a player who is about to join, so joining only has to attach them instead of waiting for
+   * the storage. Called in AsyncPlayerPreLoginEvent, which it blocks for up to storage.prefetch.timeout-ms. If loading takes
+   * longer, joining waits for the prefetch to finish instead of claiming and loading the data again. If it fails, the player
+   * data is loaded after joining like without prefetching.
+   */
+  public void prefetchPlayerData(final UUID uuid) {
+    final long prefetchTimeoutMillis = main.getConfiguration().getPrefetchTimeoutMillis();
+    if (!main.getConfiguration().loadPlayerData || prefetchTimeoutMillis <= 0 || main.getDataManager().getPlayerDataStorage() == null) {
+      return;
+    }
+    final long now = System.nanoTime();
+    prefetches.values().removeIf(expiredPrefetch -> now - expiredPrefetch.startedAtNanos() > prefetchExpiryNanos);
+    prefetches.remove(uuid);
+
+    if (questPlayersAndUUIDs.containsKey(uuid)) {
+      //Still loaded from their previous session, which might not have been saved yet. What's stored might be outdated.
+      return;
+    }
+
+    final CompletableFuture<PrefetchedPlayerData> prefetch = new CompletableFuture<>();
+    prefetches.put(uuid, new Prefetch(prefetch, now));
+    Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
+      try {
+        claimPlayerData(uuid);
+        final PlayerDataStorage playerDataStorage = main.getDataManager().getPlayerDataStorage();
+        final long startNanos = System.nanoTime();
+        final List<StoredPlayerData> storedPlayerDataList = playerDataStorage.loadPlayerData(uuid);
+        storageLoads.incrementAndGet();
+        storageLoadNanos.addAndGet(System.nanoTime() - startNanos);
+
+        final HashMap<String, Map<String, Object>> tagsByProfile = new HashMap<>();
+        for (final StoredPlayerData storedPlayerData : storedPlayerDataList) {
+          tagsByProfile.put(storedPlayerData.profile(), playerDataStorage.loadTags(uuid, storedPlayerData.profile()));
+        }
+        if (storedPlayerDataList.isEmpty()) {
+          tagsByProfile.put("default", playerDataStorage.loadTags(uuid, "default"));
+        }
+        prefetch.complete(new PrefetchedPlayerData(storedPlayerDataList, tagsByProfile));
+      } catch (final Throwable e) {
+        prefetch.completeExceptionally(e);
+      }
+    });
+
+    try {
+      prefetch.get(prefetchTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (final TimeoutException e) {
+      //Usually because the server they came from is still saving their data (see storage.handoff.timeout-ms)
+      main.getLogManager().debug("Prefetching the player data of %s took longer than %sms. Joining will wait for it to finish.", uuid, prefetchTimeoutMillis);
+    } catch (final ExecutionException e) {
+      //Logged when they join
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Loads the player data of a player who just joined, from what has been prefetched in AsyncPlayerPreLoginEvent if possible.
+   * Should not be called on the main thread, as it may have to wait for the storage.
+   *
+   * @param joinNanos System.nanoTime() at the PlayerJoinEvent, to measure how long it took until the player was ready
+   */
+  public void loadJoinedPlayerData(final UUID uuid, final long joinNanos) {
+    final Prefetch prefetch = prefetches.remove(uuid);
+    final PrefetchedPlayerData prefetchedPlayerData = prefetch != null ? awaitPrefetch(uuid, prefetch) : null;
+    if (prefetchedPlayerData == null) {
+      claimPlayerData(uuid);
+    }
+    loadSinglePlayerData(uuid, prefetchedPlayerData);
+
+    joins.incrementAndGet();
+    if (prefetchedPlayerData != null) {
+      prefetchedJoins.incrementAndGet();
+    }
+    joinToReadyNanos.addAndGet(System.nanoTime() - joinNanos);
+  }
+
+  /**
+   * Waits for a prefetch which is still running. It has already claimed the player data, or is still waiting for the claim
+   * (which takes at most storage.handoff.timeout-ms), so claiming and loading it again would only wait for the same things.
+   *
+   * @return the prefetched player data, or null if the prefetch failed
+   */
+  private @Nullable PrefetchedPlayerData awaitPrefetch(final UUID uuid, final Prefetch prefetch) {
+    try {
+      return prefetch.playerData().get();
+    } catch (final ExecutionException e) {
+      main.getLogManager().warn(LogCategory.DATA, "Could not prefetch the player data of %s. Loading it again. Stacktrace:", uuid);
+      e.getCause().printStackTrace();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  public final long getJoins() {
+    return joins.get();
+  }
+
+  public final long getPrefetchedJoins() {
+    return prefetchedJoins.get();
+  }
+
+  /**
+   * @return the average time from joining until the player data of a player had been loaded
+   */
+  public final double getAverageJoinToReadyMillis() {
+    final long joins = this.joins.get();
+    return joins == 0 ? 0 : joinToReadyNanos.get() / 1_000_000d / joins;
+  }
+
+  /**
+   * @return true if joining players have to wait until the server they came from has saved their data (see storage.handoff.timeout-ms)
+   */
+  private boolean isHandoffEnabled() {
+    return main.getConfiguration().getHandoffTimeoutMillis() > 0
+        && main.getConfiguration().loadPlayerData
+        && main.getConfiguration().savePlayerData
+        && main.getConfiguration().isLoadPlayerDataOnJoin()
+        && main.getConfiguration().isSavePlayerDataOnQuit()
+        && main.getDataManager().getPlayerDataStorage() != null;
+  }
+
+  /**
+   * Claims the stored data of a joining player for this server before it's loaded. If the player has just left another server
+   * which shares the storage (or this server, and their quit save is still running), this first waits until their data has been
+   * saved there, for up to storage.handoff.timeout-ms. After that, it's loaded anyway, so joining never gets stuck.
+   * Should not be called on the main thread.
+   */
+  public void claimPlayerData(final UUID uuid) {
+    if (!isHandoffEnabled()) {
+      return;
+    }
+    final long timeoutMillis = main.getConfiguration().getHandoffTimeoutMillis();
+    final long startNanos = System.nanoTime();
+
+    final CompletableFuture<Void> quitSave = quitSaves.get(uuid);
+    if (quitSave != null) {
+      try {
+        quitSave.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (final TimeoutException e) {
+        main.getLogManager().warn(LogCategory.DATA, "The player data of %s from their previous session is still being saved after %sms. Loading it anyway.", uuid, timeoutMillis);
+      } catch (final ExecutionException ignored) {
+        //Quit saves are never completed exceptionally
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+
+    try {
+      final long remainingMillis = Math.max(0, timeoutMillis - (System.nanoTime() - startNanos) / 1_000_000L);
+      final long version = main.getDataManager().getPlayerDataStorage().claimPlayerData(uuid, remainingMillis);
+      main.getLogManager().debug("Claimed the player data of %s (version %s) after %sms", uuid, version, (System.nanoTime() - startNanos) / 1_000_000L);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final Exception e) {
+      main.getLogManager().warn(LogCategory.DATA, "Could not claim the player data of %s. Loading it anyway. Stacktrace:", uuid);
+      e.printStackTrace();
+    }
+    handoffClaims.incrementAndGet();
+    handoffClaimNanos.addAndGet(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Releases the claim of this server on the stored data of a player who left, so the server they switched to can load it
+   */
+  private void releasePlayerData(final UUID uuid) {
+    if (!isHandoffEnabled()) {
+      return;
+    }
+    try {
+      main.getDataManager().getPlayerDataStorage().releasePlayerData(uuid);
+    } catch (final Exception e) {
+      main.getLogManager().warn(LogCategory.DATA, "Could not release the player data of %s. Other servers will only load it after storage.handoff.timeout-ms. Stacktrace:", uuid);
+      e.printStackTrace();
+    }
+  }
+
+  public final long getHandoffClaims() {
+    return handoffClaims.get();
+  }
+
+  /**
+   * @return the average time joining players had to wait for their data to be saved by the server they came from
+   */
+  public final double getAverageHandoffClaimMillis() {
+    final long handoffClaims = this.handoffClaims.get();
+    return handoffClaims == 0 ? 0 : handoffClaimNanos.get() / 1_000_000d / handoffClaims;
+  }
+
   /**
    * Saves the player data of a single player. If saving player data on quit is enabled, this would
    * run in saveData() of DataManager where it would loop through all the players
+   * <p>
+   * Once everything (including tags) has been saved, the claim of this server on their data is released, so the server they
+   * switched to can load it (see {@link #claimPlayerData(UUID)}).
+   * <p>
+   * Must be called on the main thread, as the player data is copied here. Use {@link #saveQuittingPlayerDataAsync(Player)} to
+   * save it without blocking the main thread.
    * @param player player whose data should be saved (for all their different QuestPlayer profiles)
    */
   public void saveSinglePlayerData(final Player player) {
+    final QuittingPlayerData quittingPlayerData = snapshotQuittingPlayerData(player);
+    if (quittingPlayerData != null) {
+      saveQuittingPlayerData(player, quittingPlayerData, registerQuitSave(player.getUniqueId()));
+    }
+  }
+
+  /**
+   * Like {@link #saveSinglePlayerData(Player)}, but only copies the player data right away (so it must be called on the main
+   * thread, e.g. in PlayerQuitEvent). The copies are saved asynchronously.
+   */
+  public void saveQuittingPlayerDataAsync(final Player player) {
+    final QuittingPlayerData quittingPlayerData = snapshotQuittingPlayerData(player);
+    if (quittingPlayerData == null) {
+      return;
+    }
+    //Registered before the save is scheduled, so a player who rejoins before it even started still waits for it
+    final CompletableFuture<Void> quitSave = registerQuitSave(player.getUniqueId());
+    try {
+      Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> saveQuittingPlayerData(player, quittingPlayerData, quitSave));
+    } catch (final RuntimeException e) {
+      completeQuitSave(player.getUniqueId(), quitSave);
+      throw e;
+    }
+  }
+
+  private CompletableFuture<Void> registerQuitSave(final UUID uuid) {
+    final CompletableFuture<Void> quitSave = new CompletableFuture<>();
+    quitSaves.put(uuid, quitSave);
+    return quitSave;
+  }
+
+  private void completeQuitSave(final UUID uuid, final CompletableFuture<Void> quitSave) {
+    quitSaves.remove(uuid, quitSave);
+    quitSave.complete(null);
+  }
+
+  /**
+   * Copies the player data of all profiles of a quitting player. Must be called on the main thread.
+   *
+   * @return the copies, or null if nothing should be saved
+   */
+  private @Nullable QuittingPlayerData snapshotQuittingPlayerData(final Player player) {
     if(player == null){
       main.getLogManager().warn("Saving of single PlayerData has been skipped for a certain player, as they are null");
-      return;
+      return null;
     }
     if(main.getConfiguration().isVerboseStartupMessages()){
       main.getLogManager().info("Saving PlayerData of player %s...", player.getName());
@@ -73,22 +402,19 @@ public class QuestPlayerManager {
 
     if (!main.getConfiguration().savePlayerData) {
       main.getLogManager().info("Saving of PlayerData has been skipped...");
-      return;
+      return null;
     }
 
-
     final List<QuestPlayer> allProfileQuestPlayersForQuestPlayers = getQuestPlayersForUUIDs().get(player.getUniqueId());
-
+    final ArrayList<PendingSnapshot> pendingSnapshots = new ArrayList<>();
     if(allProfileQuestPlayersForQuestPlayers == null) {
-      main.getLogManager().debug("Saving of single PlayerData for " + player.getName() + " has been skipped, because they don't have any quest players / profiles.");
-      return;
+      return new QuittingPlayerData(null, null, pendingSnapshots, true);
     }
 
-    final ArrayList<QuestPlayer> questPlayersToLoad = new ArrayList<>();
-
-    for(final QuestPlayer questPlayer : allProfileQuestPlayersForQuestPlayers){ //Error
+    final QuestPlayer activeQuestPlayer = activeQuestPlayersAndUUIDs.get(player.getUniqueId());
+    for(final QuestPlayer questPlayer : allProfileQuestPlayersForQuestPlayers){
       if (questPlayer == null) {
-        return;
+        return new QuittingPlayerData(allProfileQuestPlayersForQuestPlayers, activeQuestPlayer, pendingSnapshots, false);
       }
       if(!questPlayer.isFinishedLoadingGeneralData()){
         main.getLogManager().info("Saving of PlayerData (Player UUID: %s, Player name: %s, Profile: %s) has been skipped, because PlayerData didn't even finish loading yet.",
@@ -96,12 +422,43 @@ public class QuestPlayerManager {
                 player.getName(),
                 questPlayer.getProfile()
         );
-        return;
+        return new QuittingPlayerData(allProfileQuestPlayersForQuestPlayers, activeQuestPlayer, pendingSnapshots, false);
       }
-      questPlayersToLoad.add(questPlayer);
+      pendingSnapshots.add(new PendingSnapshot(questPlayer, createSnapshot(questPlayer)));
+    }
+    return new QuittingPlayerData(allProfileQuestPlayersForQuestPlayers, activeQuestPlayer, pendingSnapshots, true);
+  }
 
-      savePlayerDataInternal(questPlayersToLoad);
+  private void saveQuittingPlayerData(final Player player, final QuittingPlayerData quittingPlayerData, final CompletableFuture<Void> quitSave) {
+    final UUID uuid = player.getUniqueId();
+    try {
+      if (saveSnapshotsOfQuittingPlayer(player, quittingPlayerData)) {
+        releasePlayerData(uuid);
+      } else if (isHandoffEnabled()) {
+        main.getLogManager().warn(LogCategory.DATA, "Not all player data of %s could be saved. Other servers will only load it after storage.handoff.timeout-ms.", player.getName());
+      }
+    } finally {
+      completeQuitSave(uuid, quitSave);
+    }
+  }
 
+  /**
+   * @return true if all player data of the player has been saved (or there was nothing to save)
+   */
+  private boolean saveSnapshotsOfQuittingPlayer(final Player player, final QuittingPlayerData quittingPlayerData) {
+    final List<QuestPlayer> allProfileQuestPlayersForQuestPlayers = quittingPlayerData.questPlayers();
+
+    if(allProfileQuestPlayersForQuestPlayers == null) {
+      main.getLogManager().debug("Saving of single PlayerData for " + player.getName() + " has been skipped, because they don't have any quest players / profiles.");
+      return true;
+    }
+
+    final boolean savedAll = savePlayerDataInternal(quittingPlayerData.pendingSnapshots());
+    if (!quittingPlayerData.complete()) {
+      return savedAll;
+    }
+
+    for(final QuestPlayer questPlayer : allProfileQuestPlayersForQuestPlayers){
       if(main.getConfiguration().isVerboseStartupMessages()){
         main.getLogManager().info("PlayerData of player %s was saved (%s QuestPoints, Profile: %s)",
                 player.getName(),
@@ -123,18 +480,13 @@ public class QuestPlayerManager {
     }
 
 
-    questPlayersAndUUIDs.remove(player.getUniqueId());
-    activeQuestPlayersAndUUIDs.remove(player.getUniqueId());
-  }
-
-  private boolean isColumnThere(final ResultSet rs, final String column){
-    try{
-      rs.findColumn(column);
-      return true;
-    } catch (SQLException ignored){
-      return false;
+    //Only the QuestPlayers which have been saved are removed. If the player rejoined and has been loaded again in the meantime
+    //(because saving took longer than storage.handoff.timeout-ms), the freshly loaded ones are kept.
+    questPlayersAndUUIDs.computeIfPresent(player.getUniqueId(), (uuid, questPlayers) -> questPlayers == allProfileQuestPlayersForQuestPlayers ? null : questPlayers);
+    if (quittingPlayerData.activeQuestPlayer() != null) {
+      activeQuestPlayersAndUUIDs.remove(player.getUniqueId(), quittingPlayerData.activeQuestPlayer());
     }
-
+    return savedAll;
   }
 
   public void loadAllPlayerDataAtOnce() {
@@ -158,18 +510,146 @@ public class QuestPlayerManager {
 
     main.getLogManager().info("Saving player data...");
 
-    savePlayerDataInternal(getAllQuestPlayersForAllProfiles());
+    final long snapshotTime = System.currentTimeMillis();
+    final ArrayList<PendingSnapshot> pendingSnapshots = new ArrayList<>();
+    for (final QuestPlayer questPlayer : getAllQuestPlayersForAllProfiles()) {
+      pendingSnapshots.add(new PendingSnapshot(questPlayer, createSnapshot(questPlayer)));
+    }
+    if (savePlayerDataInternal(pendingSnapshots)) {
+      lastCheckpointTime = snapshotTime;
+    }
 
     main.getLogManager().info("PlayerData of all players saved");
   }
 
+  /**
+   * (Re-)starts the autosave, which periodically saves the data of all players whose data changed since it has last been saved.
+   * <p>
+   * Every run copies the data of the changed players on the main thread (see {@link #createSnapshot(QuestPlayer)}), until the
+   * configured time budget is used up. The copies are then saved asynchronously. Players which didn't fit into the time budget
+   * are copied first in the next run.
+   */
+  public void startAutosave() {
+    if (autosaveTask != null) {
+      autosaveTask.cancel();
+      autosaveTask = null;
+    }
+    final int autosaveIntervalSeconds = main.getConfiguration().getAutosaveIntervalSeconds();
+    if (autosaveIntervalSeconds <= 0 || !main.getConfiguration().savePlayerData) {
+      return;
+    }
+    final long autosaveIntervalTicks = autosaveIntervalSeconds * 20L;
+    autosaveTask = Bukkit.getScheduler().runTaskTimer(main.getMain(), this::runAutosave, autosaveIntervalTicks, autosaveIntervalTicks);
+  }
+
+  private void runAutosave() {
+    if (main.getDataManager().isDisabled() || !main.getDataManager().isSavingEnabled()) {
+      return;
+    }
+    if (!autosaveRunning.compareAndSet(false, true)) {
+      main.getLogManager().debug("Skipping autosave, because the previous one is still saving.");
+      return;
+    }
+    boolean savingAsync = false;
+    try {
+      savingAsync = snapshotAndSaveAsync();
+    } finally {
+      //Otherwise, the async save resets it once it's done
+      if (!savingAsync) {
+        autosaveRunning.set(false);
+      }
+    }
+  }
+
+  /**
+   * Copies the data of the changed players and starts saving it asynchronously
+   *
+   * @return true if an async save has been started
+   */
+  private boolean snapshotAndSaveAsync() {
+    final long snapshotTime = System.currentTimeMillis();
+    final long startNanos = System.nanoTime();
+    final long timeBudgetNanos = main.getConfiguration().getAutosaveTimeBudgetMillis() * 1_000_000L;
+
+    final ArrayList<QuestPlayer> questPlayers = getAllQuestPlayersForAllProfiles();
+    final ArrayList<PendingSnapshot> pendingSnapshots = new ArrayList<>();
+    int remainingQuestPlayers = 0;
+    int checkedQuestPlayers = 0;
+    for (int i = 0; i < questPlayers.size(); i++) {
+      final QuestPlayer questPlayer = questPlayers.get((autosaveCursor + i) % questPlayers.size());
+      if (!questPlayer.isFinishedLoadingGeneralData() || !questPlayer.hasUnsavedData()) {
+        if (remainingQuestPlayers == 0) {
+          checkedQuestPlayers++;
+        }
+        continue;
+      }
+      if (remainingQuestPlayers > 0 || (!pendingSnapshots.isEmpty() && System.nanoTime() - startNanos > timeBudgetNanos)) {
+        remainingQuestPlayers++;
+        continue;
+      }
+      try {
+        pendingSnapshots.add(new PendingSnapshot(questPlayer, createSnapshot(questPlayer)));
+      } catch (final RuntimeException e) {
+        //Nothing is saved by this run, so the tag changes of the snapshots taken so far must be saved by the next one
+        for (final PendingSnapshot pendingSnapshot : pendingSnapshots) {
+          restoreTagChanges(pendingSnapshot.questPlayer(), pendingSnapshot.snapshot());
+        }
+        throw e;
+      }
+      checkedQuestPlayers++;
+    }
+    autosaveCursor = questPlayers.isEmpty() ? 0 : (autosaveCursor + checkedQuestPlayers) % questPlayers.size();
+
+    lastAutosaveSnapshotNanos = System.nanoTime() - startNanos;
+    lastAutosaveSnapshots = pendingSnapshots.size();
+    lastAutosaveRemainingQuestPlayers = remainingQuestPlayers;
+
+    final boolean isCheckpoint = remainingQuestPlayers == 0;
+    if (pendingSnapshots.isEmpty()) {
+      lastCheckpointTime = snapshotTime;
+      return false;
+    }
+
+    Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
+      try {
+        if (savePlayerDataInternal(pendingSnapshots) && isCheckpoint) {
+          lastCheckpointTime = snapshotTime;
+        }
+        main.getLogManager().debug("Autosave: saved %s players (%s left for the next autosave)", pendingSnapshots.size(), lastAutosaveRemainingQuestPlayers);
+      } finally {
+        autosaveRunning.set(false);
+      }
+    });
+    return true;
+  }
+
+  /**
+   * @return the milliseconds since the data of all players has last been saved completely, or -1 if it hasn't been saved yet
+   */
+  public final long getLastCheckpointAgeMillis() {
+    final long lastCheckpointTime = this.lastCheckpointTime;
+    return lastCheckpointTime == 0 ? -1 : System.currentTimeMillis() - lastCheckpointTime;
+  }
+
+  public final int getLastAutosaveSnapshots() {
+    return lastAutosaveSnapshots;
+  }
+
+  public final int getLastAutosaveRemainingQuestPlayers() {
+    return lastAutosaveRemainingQuestPlayers;
+  }
+
+  public final double getLastAutosaveSnapshotMillis() {
+    return lastAutosaveSnapshotNanos / 1_000_000d;
+  }
+
   public final ArrayList<QuestPlayer> getAllQuestPlayersForAllProfiles(){
     return new ArrayList<>(){{
       questPlayersAndUUIDs.forEach((uuid, questPlayers) -> addAll(questPlayers));
     }};
   }
 
-  public final HashMap<UUID, List<QuestPlayer>> getQuestPlayersForUUIDs() {
+  public final Map<UUID, List<QuestPlayer>> getQuestPlayersForUUIDs() {
     return questPlayersAndUUIDs;
   }
 
@@ -203,11 +683,7 @@ public class QuestPlayerManager {
       foundQuestPlayer.setFinishedLoadingGeneralData(true);
       foundQuestPlayer.setFinishedLoadingTags(true);
       foundQuestPlayer.setCurrentlyLoading(false);
-      if(questPlayersAndUUIDs.containsKey(uuid)){
-        questPlayersAndUUIDs.get(uuid).add(foundQuestPlayer);
-      } else {
-        questPlayersAndUUIDs.put(uuid, List.of(foundQuestPlayer));
-      }
+      questPlayersAndUUIDs.computeIfAbsent(uuid, questPlayers -> new CopyOnWriteArrayList<>()).add(foundQuestPlayer);
       activeQuestPlayersAndUUIDs.put(uuid, foundQuestPlayer);
     }
     return foundQuestPlayer;
@@ -227,13 +703,8 @@ public class QuestPlayerManager {
 
 
 
-      if(questPlayersAndUUIDs.containsKey(uuid)){
-        questPlayersAndUUIDs.get(uuid).add(questPlayer);
-      } else {
-        final ArrayList<QuestPlayer> newQuestPlayers = new ArrayList<>();
-        newQuestPlayers.add(questPlayer);
-        questPlayersAndUUIDs.put(uuid, newQuestPlayers);
-      }
+      //Copy-on-write, as the profiles are iterated by the main thread while they're loaded asynchronously
+      questPlayersAndUUIDs.computeIfAbsent(uuid, questPlayers -> new CopyOnWriteArrayList<>()).add(questPlayer);
       if(setAsCurrentProfile){
         activeQuestPlayersAndUUIDs.put(uuid, questPlayer);
       }
@@ -250,6 +721,7 @@ public class QuestPlayerManager {
 
   public void changeProfile(final UUID uuid, final QuestPlayer newQuestPlayer){
     activeQuestPlayersAndUUIDs.put(uuid, newQuestPlayer);
+    newQuestPlayer.markDataModified(); //The current profile is saved with it
   }
 
   public String acceptQuest(
@@ -292,286 +764,72 @@ public class QuestPlayerManager {
 
 
   private void loadPlayerDataInternal(final @Nullable UUID playerUUID) {
-    try (Connection connection = main.getDataManager().getConnection();
-         final PreparedStatement questPlayerDataIfPlayerProvidedPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerData WHERE PlayerUUID = ?;
-          """);
-         final PreparedStatement questPlayerDataIfPlayerNotProvidedPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerData;
-          """);
-         final PreparedStatement questPlayerProfileDataPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
-          """);
-         final PreparedStatement completedQuestsPS = connection.prepareStatement("""
-            SELECT QuestName, TimeCompleted FROM CompletedQuests
-            WHERE PlayerUUID = ? AND Profile = ?;
-          """);
-         final PreparedStatement failedQuestsPS = connection.prepareStatement("""
-            SELECT QuestName, TimeFailed FROM FailedQuests
-            WHERE PlayerUUID = ? AND Profile = ?;
-          """);
-         final PreparedStatement activeQuestsPS = connection.prepareStatement("""
-            SELECT QuestName FROM ActiveQuests
-            WHERE PlayerUUID = ? AND Profile = ?;
-          """);
-         final PreparedStatement activeQuestTriggersPS = connection.prepareStatement("""
-            SELECT * FROM ActiveTriggers
-            WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
-          """);
-         final PreparedStatement activeQuestObjectivesPS = connection.prepareStatement("""
-            SELECT * FROM ActiveObjectives
-            WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
-          """)
-    ) {
-
-
-      ResultSet questPlayerDataResult = null;
-      try {
-        if(playerUUID != null){
-          questPlayerDataIfPlayerProvidedPS.setString(1, playerUUID.toString());
-          questPlayerDataResult = questPlayerDataIfPlayerProvidedPS.executeQuery();
-        } else {
-          questPlayerDataResult = questPlayerDataIfPlayerNotProvidedPS.executeQuery();
-        }
-
-
-
-
-        main.getLogManager().debug("Before questPlayerDataResult.next()");
-        while (questPlayerDataResult.next()) {
-          main.getLogManager().debug("Next result!");
-
-          final UUID uuid;
-          if(playerUUID != null){
-            uuid = playerUUID;
-          }else{
-            uuid = UUID.fromString(questPlayerDataResult.getString("PlayerUUID"));
-          }
-          completedQuestsPS.setString(1, uuid.toString());
-          failedQuestsPS.setString(1, uuid.toString());
-          activeQuestsPS.setString(1, uuid.toString());
-          activeQuestTriggersPS.setString(1, uuid.toString());
-          activeQuestObjectivesPS.setString(1, uuid.toString());
-
-          String profile;
-          if(isColumnThere(questPlayerDataResult, "Profile")){
-            profile = questPlayerDataResult.getString("Profile");
-            if(profile == null || profile.isBlank()){
-              profile = "default";
-            }
-          }else{
-            profile = "default";
-          }
-
-          main.getLogManager().debug("Profile: %s", profile);
-
-          completedQuestsPS.setString(2, profile);
-          failedQuestsPS.setString(2, profile);
-          activeQuestsPS.setString(2, profile);
-          activeQuestTriggersPS.setString(2, profile);
-          activeQuestObjectivesPS.setString(2, profile);
-
-
-          questPlayerProfileDataPS.setString(1, uuid.toString());
-
-          try (final ResultSet currentQuestPlayerProfile = questPlayerProfileDataPS.executeQuery()) {
-            String currentProfile = "default";
-            while (currentQuestPlayerProfile.next()) {
-              currentProfile = currentQuestPlayerProfile.getString("CurrentProfile");
-              createQuestPlayer(uuid, profile, currentProfile == null || profile.equals(currentProfile) || currentProfile.isBlank(), true);
-              final QuestPlayer questPlayer = getQuestPlayer(uuid, profile);
-
-              final long questPoints = questPlayerDataResult.getLong("QuestPoints");
-              if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager()
-                        .info(
-                                "Loaded player with uuid <highlight>%s</highlight> (Profile: %s) and questPoints: %s",
-                                uuid.toString(),
-                                profile,
-                                questPoints);
-              }
-
-
-              if (questPlayer != null) {
-                // QuestPoints
-                questPlayer.setQuestPoints(questPoints, false);
-
-              } else {
-                main.getLogManager()
-                        .severe(
-                                "ERROR: QuestPlayer with the UUID <highlight>%s</highlight> for profile %s could not be loaded from database because it's null",
-                                uuid.toString(),
-                                profile
-                        );
-
-                return;
-              }
-
-
-              // Active Quests
-              final ArrayList<ActiveQuest> activeQuests = new ArrayList<>();
-
-              // Completed Quests
-              try (final ResultSet completedQuestsResults = completedQuestsPS.executeQuery()) {
-                while (completedQuestsResults.next()) {
-                  final String questName = completedQuestsResults.getString("QuestName");
-                  final Quest quest = main.getQuestManager().getQuest(questName);
-                  if (quest != null) {
-                    final long timeCompleted = completedQuestsResults.getLong("TimeCompleted");
-                    if (timeCompleted > 0) {
-                      final CompletedQuest completedQuest =
-                              new CompletedQuest(quest, questPlayer, timeCompleted);
-                      questPlayer.addCompletedQuest(completedQuest);
-
-                    } else {
-                      main.getLogManager()
-                              .warn(
-                                      "ERROR: TimeCompleted from Quest with name <highlight>"
-                                              + questName
-                                              + "</highlight> could not be loaded from database (requested for loading completed Quests)");
-                    }
-
-                  } else {
-                    main.getLogManager()
-                            .warn(
-                                    "ERROR: Quest with name <highlight>"
-                                            + questName
-                                            + "</highlight> could not be loaded from database (requested for loading completed Quests)");
-                  }
-                }
-              }
-
-
-
-
-
-              // Failed Quests
-              try (final ResultSet failedQuestsResults = failedQuestsPS.executeQuery()) {
-                while (failedQuestsResults.next()) {
-                  final String questName = failedQuestsResults.getString("QuestName");
-                  final Quest quest = main.getQuestManager().getQuest(questName);
-                  if (quest != null) {
-                    final long timeFailed = failedQuestsResults.getLong("TimeFailed");
-                    if (timeFailed > 0) {
-                      final FailedQuest failedQuest =
-                              new FailedQuest(quest, questPlayer, timeFailed);
-                      questPlayer.addFailedQuest(failedQuest);
-
-                    } else {
-                      main.getLogManager()
-                              .warn(
-                                      "ERROR: TimeFailed from Quest with name <highlight>"
-                                              + questName
-                                              + "</highlight> could not be loaded from database (requested for loading failed Quests)");
-                    }
-
-                  } else {
-                    main.getLogManager()
-                            .warn(
-                                    "ERROR: Quest with name <highlight>"
-                                            + questName
-                                            + "</highlight> could not be loaded from database (requested for loading failed Quests)");
-                  }
-                }
-              }
-
-
-
-              // Active Quests
-              try (final ResultSet activeQuestsResults = activeQuestsPS.executeQuery()) {
-                while (activeQuestsResults.next()) {
-                  final String questName = activeQuestsResults.getString("QuestName");
-                  final Quest quest = main.getQuestManager().getQuest(questName);
-                  if (quest != null) {
-                    final ActiveQuest activeQuest = new ActiveQuest(main, quest, questPlayer);
-                    activeQuests.add(activeQuest);
-                    questPlayer.forceAddActiveQuestSilent(
-                            activeQuest, false); // Run begin/accept trigger when plugin reloads if true
-
-                  } else {
-                    main.getLogManager()
-                            .warn(
-                                    "ERROR: Quest with name <highlight>"
-                                            + questName
-                                            + "</highlight> could not be loaded from database");
-                  }
-                }
-              }
-
-
-
-              for (final ActiveQuest activeQuest : activeQuests) {
-
-                // Active Triggers
-                activeQuestTriggersPS.setString(3, activeQuest.getQuest().getIdentifier());
-                try (final ResultSet activeQuestTriggerResults = activeQuestTriggersPS.executeQuery()) {
-                  while (activeQuestTriggerResults.next()) {
-                    final String triggerTypeString = activeQuestTriggerResults.getString("TriggerType");
-                    final long currentProgress = activeQuestTriggerResults.getLong("CurrentProgress");
-
-                    if (triggerTypeString != null) {
-                      final int triggerID = activeQuestTriggerResults.getInt("TriggerID");
-
-                      for (ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-                        if (activeTrigger.getTrigger().getTriggerType().equals(triggerTypeString)
-                                && activeTrigger.getTriggerID() == triggerID) {
-                          activeTrigger.addProgressSilent(currentProgress);
-                        }
-                      }
+    loadPlayerDataInternal(playerUUID, null);
+  }
 
-                    } else {
-                      main.getLogManager()
-                              .warn(
-                                      "ERROR: TriggerType for the Quest <highlight>"
-                                              + activeQuest.getQuest().getIdentifier()
-                                              + "</highlight> could not be loaded from database");
-                    }
-                  }
-                }
+  /**
+   * @param prefetchedPlayerData the prefetched player data and tags of the player, or null to load them from the storage
+   */
+  private void loadPlayerDataInternal(final @Nullable UUID playerUUID, final @Nullable PrefetchedPlayerData prefetchedPlayerData) {
+    try {
+      final List<StoredPlayerData> storedPlayerDataList;
+      if (prefetchedPlayerData != null) {
+        storedPlayerDataList = prefetchedPlayerData.playerData();
+      } else {
+        final long startNanos = System.nanoTime();
+        storedPlayerDataList = main.getDataManager().getPlayerDataStorage().loadPlayerData(playerUUID);
+        storageLoads.incrementAndGet();
+        storageLoadNanos.addAndGet(System.nanoTime() - startNanos);
+      }
 
+      for (final StoredPlayerData storedPlayerData : storedPlayerDataList) {
+        final UUID uuid = storedPlayerData.uuid();
+        final String profile = storedPlayerData.profile();
+        main.getLogManager().debug("Profile: %s", profile);
 
-                // Active Objectives
-                handleLoadingOfActiveObjectives(activeQuestObjectivesPS, activeQuest);
+        createQuestPlayer(uuid, profile, profile.equals(storedPlayerData.currentProfile()), true);
+        final QuestPlayer questPlayer = getQuestPlayer(uuid, profile);
 
-              }
+        if (main.getConfiguration().isVerboseStartupMessages()) {
+          main.getLogManager()
+                  .info(
+                          "Loaded player with uuid <highlight>%s</highlight> (Profile: %s) and questPoints: %s",
+                          uuid.toString(),
+                          profile,
+                          storedPlayerData.questPoints());
+        }
 
-              questPlayer.removeCompletedQuests();
+        if (questPlayer == null) {
+          main.getLogManager()
+                  .severe(
+                          "ERROR: QuestPlayer with the UUID <highlight>%s</highlight> for profile %s could not be loaded from database because it's null",
+                          uuid.toString(),
+                          profile
+                  );
 
-              questPlayer.setCurrentlyLoading(false);
-              questPlayer.setFinishedLoadingGeneralData(true);
+          return;
+        }
 
+        applyStoredPlayerData(questPlayer, storedPlayerData);
+        rollUpQuestHistory(questPlayer);
 
-              if(playerUUID != null){
-                //Load single player data => player actually joined and tagmanager wont load automatically after that
-                final Player player = Bukkit.getPlayer(playerUUID);
-                if(player != null){
-                  questPlayer.onJoinAsync(player);
-                  Bukkit.getScheduler()
-                          .runTask(
-                                  main.getMain(),
-                                  () -> {
-                                    questPlayer.onJoin(player);
-                                  });
-                }
+        questPlayer.setCurrentlyLoading(false);
+        questPlayer.setFinishedLoadingGeneralData(true);
 
-              }
-            }
 
+        if(playerUUID != null){
+          //Load single player data => player actually joined and tagmanager wont load automatically after that
+          final Player player = Bukkit.getPlayer(playerUUID);
+          if(player != null){
+            joinQuestPlayerAsync(questPlayer, player, prefetchedPlayerData);
+            Bukkit.getScheduler()
+                    .runTask(
+                            main.getMain(),
+                            () -> {
+                              questPlayer.onJoin(player);
+                            });
           }
 
-
-
-
-
-
-        }
-
-
-
-
-      } finally {
-        if (questPlayerDataResult != null) {
-          questPlayerDataResult.close();
         }
       }
 
@@ -583,7 +841,7 @@ public class QuestPlayerManager {
           questPlayer.setFinishedLoadingGeneralData(true);
           final Player player = Bukkit.getPlayer(playerUUID);
           if(player != null){
-            questPlayer.onJoinAsync(player);
+            joinQuestPlayerAsync(questPlayer, player, prefetchedPlayerData);
             Bukkit.getScheduler()
                     .runTask(
                             main.getMain(),
@@ -609,7 +867,149 @@ public class QuestPlayerManager {
     }
   }
 
-  private void handleLoadingOfActiveObjectives(final PreparedStatement activeQuestObjectivesPS, final ActiveObjectiveHolder activeObjectiveHolder) throws SQLException {
+  private void joinQuestPlayerAsync(final QuestPlayer questPlayer, final Player player, final @Nullable PrefetchedPlayerData prefetchedPlayerData) {
+    if (prefetchedPlayerData != null) {
+      questPlayer.onJoinAsync(player, prefetchedPlayerData.tagsByProfile().getOrDefault(questPlayer.getProfile(), Map.of()));
+    } else {
+      questPlayer.onJoinAsync(player);
+    }
+  }
+
+  /**
+   * Fills a freshly created QuestPlayer with its stored data
+   */
+  private void applyStoredPlayerData(final QuestPlayer questPlayer, final StoredPlayerData storedPlayerData) {
+    // QuestPoints
+    questPlayer.setQuestPoints(storedPlayerData.questPoints(), false);
+
+    // Completed Quests
+    for (final QuestHistoryEntry completedQuestEntry : storedPlayerData.completedQuests()) {
+      final String questName = completedQuestEntry.questName();
+      final Quest quest = questName != null ? main.getQuestManager().getQuest(questName) : null;
+      if (quest != null) {
+        if (completedQuestEntry.time() > 0) {
+          questPlayer.addCompletedQuest(new CompletedQuest(quest, questPlayer, completedQuestEntry.time()));
+        } else {
+          main.getLogManager()
+                  .warn(
+                          "ERROR: TimeCompleted from Quest with name <highlight>"
+                                  + questName
+                                  + "</highlight> could not be loaded from database (requested for loading completed Quests)");
+        }
+      } else {
+        main.getLogManager()
+                .warn(
+                        "ERROR: Quest with name <highlight>"
+                                + questName
+                                + "</highlight> could not be loaded from database (requested for loading completed Quests)");
+      }
+    }
+
+    // Failed Quests
+    for (final QuestHistoryEntry failedQuestEntry : storedPlayerData.failedQuests()) {
+      final String questName = failedQuestEntry.questName();
+      final Quest quest = questName != null ? main.getQuestManager().getQuest(questName) : null;
+      if (quest != null) {
+        if (failedQuestEntry.time() > 0) {
+          questPlayer.addFailedQuest(new FailedQuest(quest, questPlayer, failedQuestEntry.time()));
+        } else {
+          main.getLogManager()
+                  .warn(
+                          "ERROR: TimeFailed from Quest with name <highlight>"
+                                  + questName
+                                  + "</highlight> could not be loaded from database (requested for loading failed Quests)");
+        }
+      } else {
+        main.getLogManager()
+                .warn(
+                        "ERROR: Quest with name <highlight>"
+                                + questName
+                                + "</highlight> could not be loaded from database (requested for loading failed Quests)");
+      }
+    }
+
+    // Rolled up Completed and Failed Quests
+    for (final Map.Entry<String, QuestHistorySummary> questHistorySummary : storedPlayerData.questHistorySummaries().entrySet()) {
+      questPlayer.getQuestHistorySummaries().merge(questHistorySummary.getKey(), questHistorySummary.getValue(), QuestHistorySummary::merge);
+    }
+
+    // Active Quests
+    final ArrayList<ActiveQuest> activeQuests = new ArrayList<>();
+    for (final String questName : storedPlayerData.activeQuests()) {
+      final Quest quest = questName != null ? main.getQuestManager().getQuest(questName) : null;
+      if (quest != null) {
+        final ActiveQuest activeQuest = new ActiveQuest(main, quest, questPlayer);
+        activeQuests.add(activeQuest);
+        questPlayer.forceAddActiveQuestSilent(
+                activeQuest, false); // Run begin/accept trigger when plugin reloads if true
+
+      } else {
+        main.getLogManager()
+                .warn(
+                        "ERROR: Quest with name <highlight>"
+                                + questName
+                                + "</highlight> could not be loaded from database");
+      }
+    }
+
+    final HashMap<String, List<ActiveTriggerData>> activeTriggersByQuestName = new HashMap<>();
+    for (final ActiveTriggerData activeTriggerData : storedPlayerData.activeTriggers()) {
+      activeTriggersByQuestName.computeIfAbsent(activeTriggerData.questName(), questName -> new ArrayList<>()).add(activeTriggerData);
+    }
+    final HashMap<String, List<ActiveObjectiveData>> activeObjectivesByHolderName = new HashMap<>();
+    for (final ActiveObjectiveData activeObjectiveData : storedPlayerData.activeObjectives()) {
+      activeObjectivesByHolderName.computeIfAbsent(activeObjectiveData.questName(), holderName -> new ArrayList<>()).add(activeObjectiveData);
+    }
+
+    for (final ActiveQuest activeQuest : activeQuests) {
+
+      // Active Triggers
+      for (final ActiveTriggerData activeTriggerData : activeTriggersByQuestName.getOrDefault(activeQuest.getQuest().getIdentifier(), List.of())) {
+        if (activeTriggerData.triggerType() != null) {
+          for (ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
+            if (activeTrigger.getTrigger().getTriggerType().equals(activeTriggerData.triggerType())
+                    && activeTrigger.getTriggerID() == activeTriggerData.triggerID()) {
+              activeTrigger.addProgressSilent(activeTriggerData.currentProgress());
+            }
+          }
+
+        } else {
+          main.getLogManager()
+                  .warn(
+                          "ERROR: TriggerType for the Quest <highlight>"
+                                  + activeQuest.getQuest().getIdentifier()
+                                  + "</highlight> could not be loaded from database");
+        }
+      }
+
+
+      // Active Objectives
+      handleLoadingOfActiveObjectives(activeObjectivesByHolderName, activeQuest);
+
+    }
+
+    questPlayer.removeCompletedQuests();
+  }
+
+  /**
+   * Rolls the oldest completed and failed quests of a freshly loaded player up in the storage, if storage.quest-history.keep-recent
+   * is enabled.
+   */
+  private void rollUpQuestHistory(final QuestPlayer questPlayer) throws Exception {
+    final HashMap<String, QuestHistorySummary> rolledUp = questPlayer.trimQuestHistory();
+    if (rolledUp.isEmpty() || !main.getConfiguration().savePlayerData) {
+      return;
+    }
+    saveLock.lock();
+    try {
+      main.getDataManager().getPlayerDataStorage().saveQuestHistoryRollup(questPlayer.getUniqueId(), questPlayer.getProfile(), rolledUp, questPlayer.getQuestHistorySummaries());
+    } finally {
+      saveLock.unlock();
+    }
+    main.getLogManager().debug("Rolled up the quest history of %s quests of player %s (Profile: %s)", rolledUp.size(), questPlayer.getUniqueId(), questPlayer.getProfile());
+  }
+
+  private void handleLoadingOfActiveObjectives(final Map<String, List<ActiveObjectiveData>> activeObjectivesByHolderName, final ActiveObjectiveHolder activeObjectiveHolder) {
     String questName;
     if(activeObjectiveHolder instanceof final ActiveQuest activeQuest){
       questName = activeQuest.getQuestIdentifier();
@@ -644,86 +1044,78 @@ public class QuestPlayerManager {
 
     main.getLogManager().debug("Loading active objectives for quest/objective holder name <highlight>%s</highlight>. ActiveObjectiveHolder: <highlight2>%s</highlight2>", questName, activeObjectiveHolder);
 
-    activeQuestObjectivesPS.setString(3, questName);
-
-    try (final ResultSet activeQuestObjectiveResults = activeQuestObjectivesPS.executeQuery()){
-      final ArrayList<ActiveObjective> activeObjectivesWithSubObjectives = new ArrayList<>();
-
-      while (activeQuestObjectiveResults.next()) {
-        final String objectiveTypeString =
-                activeQuestObjectiveResults.getString("ObjectiveType");
-        final double currentProgress = activeQuestObjectiveResults.getDouble("CurrentProgress");
-        final boolean hasBeenCompleted =
-                activeQuestObjectiveResults.getBoolean("HasBeenCompleted");
-        final double progressNeeded = activeQuestObjectiveResults.getDouble("ProgressNeeded");
-        final boolean progressNeededNull = activeQuestObjectiveResults.wasNull();
-
-        if (objectiveTypeString != null) {
-          final int objectiveID = activeQuestObjectiveResults.getInt("ObjectiveID");
-
-          // So the active objectives are already there - we just need to fill them with
-          // progress data.
-          main.getLogManager().debug("  Active objective count (.next() for %s): %s", objectiveID, activeObjectiveHolder.getActiveObjectives().size());
-          for (final ActiveObjective activeObjective : activeObjectiveHolder.getActiveObjectives()) {
-            if (activeObjective.getObjective().getClass()
-                    == main.getObjectiveManager().getObjectiveClass(objectiveTypeString)
-                    && activeObjective.getObjectiveID() == objectiveID) {
-              main.getLogManager().debug("  >Handling active objective <highlight>%s</highlight> (ID: %s) of holder <highlight2>%s</highlight2>", activeObjective.getObjective().getIdentifier(), activeObjective.getObjectiveID(), activeObjectiveHolder.getObjectiveHolder().getIdentifier());
-              main.getLogManager().debug("  Has been completed: %s, currentProgress: %s, progressNeeded: %s", hasBeenCompleted, currentProgress, progressNeeded);
-              // System.out.println("§4§lHAS BEEN COMPLETED: §b" + hasBeenCompleted + " §c- ID:
-              // §b" + objectiveID);
-              if (!progressNeededNull) {
-                activeObjective.setProgressNeeded(progressNeeded);
-              }
-              activeObjective.setHasBeenCompleted(hasBeenCompleted);
-              if (activeObjective.getObjective().getCompletionNPC() == null) { // Complete automatically
+    final ArrayList<ActiveObjective> activeObjectivesWithSubObjectives = new ArrayList<>();
+
+    for (final ActiveObjectiveData activeObjectiveData : activeObjectivesByHolderName.getOrDefault(questName, List.of())) {
+      final String objectiveTypeString = activeObjectiveData.objectiveType();
+      final double currentProgress = activeObjectiveData.currentProgress();
+      final boolean hasBeenCompleted = activeObjectiveData.hasBeenCompleted();
+
+      if (objectiveTypeString != null) {
+        final int objectiveID = activeObjectiveData.objectiveID();
+
+        // So the active objectives are already there - we just need to fill them with
+        // progress data.
+        main.getLogManager().debug("  Active objective count (.next() for %s): %s", objectiveID, activeObjectiveHolder.getActiveObjectives().size());
+        for (final ActiveObjective activeObjective : activeObjectiveHolder.getActiveObjectives()) {
+          if (activeObjective.getObjective().getClass()
+                  == main.getObjectiveManager().getObjectiveClass(objectiveTypeString)
+                  && activeObjective.getObjectiveID() == objectiveID) {
+            main.getLogManager().debug("  >Handling active objective <highlight>%s</highlight> (ID: %s) of holder <highlight2>%s</highlight2>", activeObjective.getObjective().getIdentifier(), activeObjective.getObjectiveID(), activeObjectiveHolder.getObjectiveHolder().getIdentifier());
+            main.getLogManager().debug("  Has been completed: %s, currentProgress: %s, progressNeeded: %s", hasBeenCompleted, currentProgress, activeObjectiveData.progressNeeded());
+            // System.out.println("§4§lHAS BEEN COMPLETED: §b" + hasBeenCompleted + " §c- ID:
+            // §b" + objectiveID);
+            if (activeObjectiveData.progressNeeded() != null) {
+              activeObjective.setProgressNeeded(activeObjectiveData.progressNeeded());
+            }
+            activeObjective.setHasBeenCompleted(hasBeenCompleted);
+            if (activeObjective.getObjective().getCompletionNPC() == null) { // Complete automatically
+              activeObjective.addProgress(currentProgress, true);
+            } else { // Only complete if player has talked to the completion NPC
+              if (activeObjective.hasBeenCompleted()) {
+                activeObjective.addProgress(
+                        currentProgress,
+                        activeObjective.getObjective().getCompletionNPC(),
+                        true);
+
+              } else {
                 activeObjective.addProgress(currentProgress, true);
-              } else { // Only complete if player has talked to the completion NPC
-                if (activeObjective.hasBeenCompleted()) {
-                  activeObjective.addProgress(
-                          currentProgress,
-                          activeObjective.getObjective().getCompletionNPC(),
-                          true);
-
-                } else {
-                  activeObjective.addProgress(currentProgress, true);
-                }
-              }
-              if(!activeObjective.getActiveObjectives().isEmpty()){
-                main.getLogManager().debug("    Active objective %s has %s more activeobjectives!", activeObjective.getObjective().getIdentifier(), activeObjective.getActiveObjectives().size());
-                activeObjectivesWithSubObjectives.add(activeObjective);
               }
-            }else{
-              main.getLogManager().debug("  >Skipping active objective <highlight>%s</highlight> (ID: %s) of holder <highlight2>%s</highlight2>", activeObjective.getObjective().getIdentifier(), activeObjective.getObjectiveID(), activeObjectiveHolder.getObjectiveHolder().getIdentifier());
-
             }
+            if(!activeObjective.getActiveObjectives().isEmpty()){
+              main.getLogManager().debug("    Active objective %s has %s more activeobjectives!", activeObjective.getObjective().getIdentifier(), activeObjective.getActiveObjectives().size());
+              activeObjectivesWithSubObjectives.add(activeObjective);
+            }
+          }else{
+            main.getLogManager().debug("  >Skipping active objective <highlight>%s</highlight> (ID: %s) of holder <highlight2>%s</highlight2>", activeObjective.getObjective().getIdentifier(), activeObjective.getObjectiveID(), activeObjectiveHolder.getObjectiveHolder().getIdentifier());
+
           }
-          activeObjectiveHolder.removeCompletedObjectives(false);
+        }
+        activeObjectiveHolder.removeCompletedObjectives(false);
 
 
 
-        } else {
-          main.getLogManager()
-                  .warn(
-                          "ERROR: ObjectiveType for the Quest <highlight>"
-                                  + activeObjectiveHolder.getObjectiveHolder().getIdentifier()
-                                  + "</highlight> could not be loaded from database");
-        }
+      } else {
+        main.getLogManager()
+                .warn(
+                        "ERROR: ObjectiveType for the Quest <highlight>"
+                                + activeObjectiveHolder.getObjectiveHolder().getIdentifier()
+                                + "</highlight> could not be loaded from database");
       }
+    }
 
-      // Update all active objectives to see if they are unlocked
-      for (final ActiveObjective activeObjectiveToCheckForIfUnlocked :
-              activeObjectiveHolder.getActiveObjectives()) {
-        activeObjectiveToCheckForIfUnlocked.updateUnlocked(false, true);
-      }
+    // Update all active objectives to see if they are unlocked
+    for (final ActiveObjective activeObjectiveToCheckForIfUnlocked :
+            activeObjectiveHolder.getActiveObjectives()) {
+      activeObjectiveToCheckForIfUnlocked.updateUnlocked(false, true);
+    }
 
-      for(final ActiveObjective activeObjectiveWithSubObjectives : activeObjectivesWithSubObjectives){
-        main.getLogManager().debug("Loading active objective with sub-objectives...");
-        handleLoadingOfActiveObjectives(activeQuestObjectivesPS, activeObjectiveWithSubObjectives);
-        main.getLogManager().debug("    Done loading sub-aO's");
+    for(final ActiveObjective activeObjectiveWithSubObjectives : activeObjectivesWithSubObjectives){
+      main.getLogManager().debug("Loading active objective with sub-objectives...");
+      handleLoadingOfActiveObjectives(activeObjectivesByHolderName, activeObjectiveWithSubObjectives);
+      main.getLogManager().debug("    Done loading sub-aO's");
 
-        activeObjectiveWithSubObjectives.removeCompletedObjectives(false);
-      }
+      activeObjectiveWithSubObjectives.removeCompletedObjectives(false);
     }
 
 
@@ -732,157 +1124,60 @@ public class QuestPlayerManager {
 
 
 
-  private void savePlayerDataInternal(final List<QuestPlayer> questPlayers) {
-    try (Connection connection = main.getDataManager().getConnection();
-         final PreparedStatement deleteFromQuestPlayerProfileDataPS = connection.prepareStatement("""
-            DELETE FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
-         """);
-
-         final PreparedStatement insertIntoQuestPlayerProfileDataPS = connection.prepareStatement("""
-            INSERT INTO QuestPlayerProfileData (PlayerUUID, CurrentProfile) VALUES (?, ?);
-          """);
-
-         final PreparedStatement deleteFromQuestPlayerDataPS = connection.prepareStatement("""
-            DELETE FROM QuestPlayerData WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-         final PreparedStatement insertIntoQuestPlayerDataPS = connection.prepareStatement("""
-            INSERT INTO QuestPlayerData (PlayerUUID, QuestPoints, Profile) VALUES (?, ?, ?);
-         """);
-
-         final PreparedStatement deleteFromActiveQuestsPS = connection.prepareStatement("""
-            DELETE FROM ActiveQuests WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-         final PreparedStatement deleteFromActiveObjectivesPS = connection.prepareStatement("""
-            DELETE FROM ActiveObjectives WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-
-         final PreparedStatement insertIntoActiveQuestsPS = connection.prepareStatement("""
-            INSERT INTO ActiveQuests (QuestName, PlayerUUID, Profile) VALUES (?, ?, ?);
-         """);
-
-         final PreparedStatement insertIntoActiveTriggersPS = connection.prepareStatement("""
-            INSERT INTO ActiveTriggers (TriggerType, QuestName, PlayerUUID, CurrentProgress, TriggerID, Profile) VALUES (?, ?, ?, ?, ?, ?);
-         """);
-
-         final PreparedStatement insertIntoActiveObjectivesPS = connection.prepareStatement("""
-            INSERT INTO ActiveObjectives (ObjectiveType, QuestName, PlayerUUID, CurrentProgress, ObjectiveID, HasBeenCompleted, ProgressNeeded, Profile) VALUES (?, ?, ?, ?, ?, ?, ?, ?);
-         """);
-
-         final PreparedStatement deleteFromCompletedQuestsPS = connection.prepareStatement("""
-            DELETE FROM CompletedQuests WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-         final PreparedStatement insertIntoCompletedQuestsPS = connection.prepareStatement("""
-            INSERT INTO CompletedQuests (QuestName, PlayerUUID, TimeCompleted, Profile) VALUES (?, ?, ?, ?);
-         """);
-
-         final PreparedStatement deleteFromFailedQuestsPS = connection.prepareStatement("""
-            DELETE FROM FailedQuests WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-        final PreparedStatement insertIntoFailedQuestsPS = connection.prepareStatement("""
-            INSERT INTO FailedQuests (QuestName, PlayerUUID, TimeFailed, Profile) VALUES (?, ?, ?, ?);
-         """)
-    ) {
-      for (final QuestPlayer questPlayer : questPlayers) {
-        final long questPoints = questPlayer.getQuestPoints();
-        final UUID questPlayerUUID = questPlayer.getUniqueId();
-        final String profile = questPlayer.getProfile();
-
-        //Current Profile
-        deleteFromQuestPlayerProfileDataPS.setString(1, questPlayerUUID.toString());
-        deleteFromQuestPlayerProfileDataPS.executeUpdate();
-
-        insertIntoQuestPlayerProfileDataPS.setString(1, questPlayerUUID.toString());
-        final QuestPlayer activeQuestPlayer = activeQuestPlayersAndUUIDs.get(questPlayerUUID);
-        insertIntoQuestPlayerProfileDataPS.setString(2, activeQuestPlayer != null ? activeQuestPlayer.getProfile() : "default");
-        insertIntoQuestPlayerProfileDataPS.executeUpdate();
-
-        // QuestPoints
-        deleteFromQuestPlayerDataPS.setString(1, questPlayerUUID.toString());
-        deleteFromQuestPlayerDataPS.setString(2, profile);
-        deleteFromQuestPlayerDataPS.executeUpdate();
-
-        insertIntoQuestPlayerDataPS.setString(1, questPlayerUUID.toString());
-        insertIntoQuestPlayerDataPS.setLong(2, questPoints);
-        insertIntoQuestPlayerDataPS.setString(3, profile);
-        insertIntoQuestPlayerDataPS.executeUpdate();
-
-        // Active Quests and Active Objectives
-        deleteFromActiveQuestsPS.setString(1, questPlayerUUID.toString());
-        deleteFromActiveQuestsPS.setString(2, profile);
-        deleteFromActiveQuestsPS.executeUpdate();
-        deleteFromActiveObjectivesPS.setString(1, questPlayerUUID.toString());
-        deleteFromActiveObjectivesPS.setString(2, profile);
-        deleteFromActiveObjectivesPS.executeUpdate();
-
-        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-          insertIntoActiveQuestsPS.setString(1, activeQuest.getQuest().getIdentifier());
-          insertIntoActiveQuestsPS.setString(2, questPlayerUUID.toString());
-          insertIntoActiveQuestsPS.setString(3, profile);
-          insertIntoActiveQuestsPS.executeUpdate();
-
-          // Active Triggers
-          for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-            insertIntoActiveTriggersPS.setString(1, activeTrigger.getTrigger().getTriggerType());
-            insertIntoActiveTriggersPS.setString(2, activeTrigger.getActiveQuest().getQuest().getIdentifier());
-            insertIntoActiveTriggersPS.setString(3, questPlayerUUID.toString());
-            insertIntoActiveTriggersPS.setLong(4, activeTrigger.getCurrentProgress());
-            insertIntoActiveTriggersPS.setInt(5, activeTrigger.getTriggerID());
-            insertIntoActiveTriggersPS.setString(6, profile);
-            insertIntoActiveTriggersPS.executeUpdate();
-          }
-
-          // Active Objectives
-          for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-            handleSavingOfActiveObjectives(insertIntoActiveObjectivesPS, activeObjective, questPlayerUUID, profile);
-          }
-          // Active Objectives from completed Objective list
-          for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
-            handleSavingOfCompletedActiveObjectives(insertIntoActiveObjectivesPS, completedObjective, questPlayerUUID, profile);
-          }
-        }
-
-        // Completed Quests
-        deleteFromCompletedQuestsPS.setString(1, questPlayerUUID.toString());
-        deleteFromCompletedQuestsPS.setString(2, profile);
-        deleteFromCompletedQuestsPS.executeUpdate();
-
-        for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-          insertIntoCompletedQuestsPS.setString(1, completedQuest.getQuest().getIdentifier());
-          insertIntoCompletedQuestsPS.setString(2, questPlayerUUID.toString());
-          insertIntoCompletedQuestsPS.setLong(3, completedQuest.getTimeCompleted());
-          insertIntoCompletedQuestsPS.setString(4, profile);
-          insertIntoCompletedQuestsPS.executeUpdate();
-        }
+  /**
+   * Copies everything of the QuestPlayer which is saved in the database. Must be called on the main thread (or while the
+   * QuestPlayer can't change otherwise), so the snapshot is consistent.
+   */
+  public final PlayerDataSnapshot createSnapshot(final QuestPlayer questPlayer) {
+    //Read first: Changes made while copying make the player dirty again, so they are picked up by the next save
+    final int modificationCount = questPlayer.getDataModificationCount();
+    //Taken, so that tags changed from now on are saved by the next snapshot. They are restored if this snapshot isn't saved.
+    final PlayerTags.Changes tagChanges = questPlayer.isFinishedLoadingTags() ? questPlayer.getTags().takeChanges() : new PlayerTags.Changes(Map.of(), Set.of());
+    final QuestPlayer activeQuestPlayer = activeQuestPlayersAndUUIDs.get(questPlayer.getUniqueId());
+
+    final ArrayList<String> activeQuests = new ArrayList<>();
+    final ArrayList<ActiveTriggerData> activeTriggers = new ArrayList<>();
+    final ArrayList<ActiveObjectiveData> activeObjectives = new ArrayList<>();
+    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+      activeQuests.add(activeQuest.getQuest().getIdentifier());
+
+      for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
+        activeTriggers.add(new ActiveTriggerData(
+            activeTrigger.getTrigger().getTriggerType(),
+            activeTrigger.getActiveQuest().getQuest().getIdentifier(),
+            activeTrigger.getCurrentProgress(),
+            activeTrigger.getTriggerID()
+        ));
+      }
 
-        // Failed Quests
-        deleteFromFailedQuestsPS.setString(1, questPlayerUUID.toString());
-        deleteFromFailedQuestsPS.setString(2, profile);
-        deleteFromFailedQuestsPS.executeUpdate();
-
-        for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-          insertIntoFailedQuestsPS.setString(1, failedQuest.getQuest().getIdentifier());
-          insertIntoFailedQuestsPS.setString(2, questPlayerUUID.toString());
-          insertIntoFailedQuestsPS.setLong(3, failedQuest.getTimeFailed());
-          insertIntoFailedQuestsPS.setString(4, profile);
-          insertIntoFailedQuestsPS.executeUpdate();
-        }
+      for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
+        addActiveObjectiveData(activeObjectives, activeObjective, false);
       }
-    } catch (Exception e) {
-      if(questPlayers.size() == 1){
-        main.getLogManager()
-                .warn(
-                        "There was an error saving the PlayerData of player with UUID <highlight>%s</highlight>! Stacktrace:", questPlayers.get(0).getUniqueId());
-      }else{
-        main.getLogManager().warn("There was an error loading the PlayerData! Stacktrace:");
+      // Active Objectives from completed Objective list
+      for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
+        addActiveObjectiveData(activeObjectives, completedObjective, true);
       }
-      e.printStackTrace();
     }
 
+    return new PlayerDataSnapshot(
+        questPlayer.getUniqueId(),
+        questPlayer.getProfile(),
+        activeQuestPlayer != null ? activeQuestPlayer.getProfile() : "default",
+        questPlayer.getQuestPoints(),
+        activeQuests,
+        activeTriggers,
+        activeObjectives,
+        questPlayer.getUnsavedQuestHistoryChanges(),
+        tagChanges.changedTags(),
+        tagChanges.removedTags(),
+        modificationCount
+    );
   }
 
-  private void handleSavingOfActiveObjectives(final PreparedStatement insertIntoActiveObjectivesPS, final ActiveObjective activeObjective, final UUID questPlayerUUID, final String profile) throws SQLException {
-    insertIntoActiveObjectivesPS.setString(1, main.getObjectiveManager().getObjectiveType(activeObjective.getObjective().getClass()));
-
+  /**
+   * Adds the objective and all its sub-objectives. For completed objectives, only their completed sub-objectives are added.
+   */
+  private void addActiveObjectiveData(final List<ActiveObjectiveData> activeObjectives, final ActiveObjective activeObjective, final boolean completed) {
     ActiveObjective lastActiveObjective = activeObjective;
     String counterWithSubId = "";
     for(int i = 0; i < activeObjective.getLevel(); i++){
@@ -898,56 +1193,101 @@ public class QuestPlayerManager {
       counterWithSubId = counterWithSubId.substring(0, counterWithSubId.length()-1);
     }
 
-    insertIntoActiveObjectivesPS.setString(2, /*activeObjective.getActiveObjectiveHolder().getObjectiveHolder().getIdentifier()*/counterWithSubId);
-    insertIntoActiveObjectivesPS.setString(3, questPlayerUUID.toString());
-    insertIntoActiveObjectivesPS.setDouble(4, activeObjective.getCurrentProgress());
-    insertIntoActiveObjectivesPS.setInt(5, activeObjective.getObjectiveID());
-    insertIntoActiveObjectivesPS.setBoolean(6, activeObjective.hasBeenCompleted());
-    insertIntoActiveObjectivesPS.setDouble(7, activeObjective.getProgressNeeded());
-    insertIntoActiveObjectivesPS.setString(8, profile);
-    insertIntoActiveObjectivesPS.executeUpdate();
+    activeObjectives.add(new ActiveObjectiveData(
+        main.getObjectiveManager().getObjectiveType(activeObjective.getObjective().getClass()),
+        counterWithSubId,
+        activeObjective.getCurrentProgress(),
+        activeObjective.getObjectiveID(),
+        activeObjective.hasBeenCompleted(),
+        activeObjective.getProgressNeeded()
+    ));
+
+    //Handle sub-objectives here
+    for(final ActiveObjective subActiveObjective : completed ? activeObjective.getCompletedObjectives() : activeObjective.getActiveObjectives()){
+      addActiveObjectiveData(activeObjectives, subActiveObjective, completed);
+    }
+  }
 
-    if(!activeObjective.getActiveObjectives().isEmpty()){
-      //Handle active sub-objectives here
-      for(final ActiveObjective subActiveObjective : activeObjective.getActiveObjectives()){
-        handleSavingOfActiveObjectives(insertIntoActiveObjectivesPS, subActiveObjective, questPlayerUUID, profile);
-      }
+  /**
+   * Saves the snapshots. Each player is saved atomically on its own, so a crash never leaves half-saved player data behind.
+   * Snapshots which are older than the latest saved snapshot of their player are skipped.
+   *
+   * @return true if all snapshots have been saved successfully
+   */
+  private boolean savePlayerDataInternal(final List<PendingSnapshot> pendingSnapshots) {
+    boolean savedAll = true;
+    for (int chunkStart = 0; chunkStart < pendingSnapshots.size(); chunkStart += saveChunkSize) {
+      savedAll &= savePlayerDataChunk(pendingSnapshots.subList(chunkStart, Math.min(chunkStart + saveChunkSize, pendingSnapshots.size())));
     }
+    return savedAll;
   }
 
-  private void handleSavingOfCompletedActiveObjectives(final PreparedStatement insertIntoActiveObjectivesPS, final ActiveObjective completedObjective, final UUID questPlayerUUID, final String profile) throws SQLException {
-    insertIntoActiveObjectivesPS.setString(1, main.getObjectiveManager().getObjectiveType(completedObjective.getObjective().getClass()));
+  private boolean savePlayerDataChunk(final List<PendingSnapshot> pendingSnapshots) {
+    saveLock.lock();
+    try {
+      final ArrayList<PlayerDataSnapshot> snapshots = new ArrayList<>(pendingSnapshots.size());
+      final IdentityHashMap<PlayerDataSnapshot, QuestPlayer> questPlayersOfSnapshots = new IdentityHashMap<>();
+      for (final PendingSnapshot pendingSnapshot : pendingSnapshots) {
+        final QuestPlayer questPlayer = pendingSnapshot.questPlayer();
+        if (pendingSnapshot.snapshot().modificationCount() - questPlayer.getSavedDataModificationCount() < 0) {
+          //A newer snapshot of this player has already been saved. It was taken after this one, so it doesn't contain these tag changes.
+          restoreTagChanges(questPlayer, pendingSnapshot.snapshot());
+          continue;
+        }
+        //Quest history changes which have already been saved by a newer snapshot must not be saved again
+        final long savedQuestHistoryChangeSequence = questPlayer.getSavedQuestHistoryChangeSequence();
+        final PlayerDataSnapshot snapshot = pendingSnapshot.snapshot().withQuestHistoryChanges(
+            pendingSnapshot.snapshot().questHistoryChanges().stream()
+                .filter(questHistoryChange -> questHistoryChange.sequence() > savedQuestHistoryChangeSequence)
+                .toList()
+        );
+        snapshots.add(snapshot);
+        questPlayersOfSnapshots.put(snapshot, questPlayer);
+      }
 
-    ActiveObjective lastActiveObjective = completedObjective;
-    String counterWithSubId = "";
-    for(int i = 0; i < completedObjective.getLevel(); i++){
-      if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveObjective parentActiveObjective){
-        lastActiveObjective = parentActiveObjective;
-        counterWithSubId = lastActiveObjective.getObjectiveID() + "."+counterWithSubId;
-      }else if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveQuest activeQuest){
-        counterWithSubId = activeQuest.getQuestIdentifier() + "."+counterWithSubId;
-        break;
+      final long startNanos = System.nanoTime();
+      final boolean savedAll = main.getDataManager().getPlayerDataStorage().savePlayerData(snapshots, savedSnapshot -> {
+        final QuestPlayer questPlayer = questPlayersOfSnapshots.remove(savedSnapshot);
+        questPlayer.markDataSaved(savedSnapshot.modificationCount());
+        for (final QuestHistoryChange questHistoryChange : savedSnapshot.questHistoryChanges()) {
+          questPlayer.markQuestHistorySaved(questHistoryChange.sequence());
+        }
+      });
+      storageSavedSnapshots.addAndGet(snapshots.size());
+      storageSaveNanos.addAndGet(System.nanoTime() - startNanos);
+      //Only the snapshots which haven't been saved are left
+      for (final Map.Entry<PlayerDataSnapshot, QuestPlayer> unsavedSnapshot : questPlayersOfSnapshots.entrySet()) {
+        restoreTagChanges(unsavedSnapshot.getValue(), unsavedSnapshot.getKey());
       }
+      return savedAll;
+    } finally {
+      saveLock.unlock();
     }
-    if(counterWithSubId.endsWith(".")){
-      counterWithSubId = counterWithSubId.substring(0, counterWithSubId.length()-1);
+  }
+
+  /**
+   * Marks the tags of a snapshot which hasn't been saved as changed again, so they are saved by the next snapshot
+   */
+  private void restoreTagChanges(final QuestPlayer questPlayer, final PlayerDataSnapshot snapshot) {
+    if (!snapshot.changedTags().isEmpty() || !snapshot.removedTags().isEmpty()) {
+      questPlayer.getTags().restoreChanges(new PlayerTags.Changes(snapshot.changedTags(), snapshot.removedTags()));
     }
+  }
 
-    insertIntoActiveObjectivesPS.setString(2, /*completedObjective.getActiveObjectiveHolder().getObjectiveHolder().getIdentifier()*/counterWithSubId);
-    insertIntoActiveObjectivesPS.setString(3, questPlayerUUID.toString());
-    insertIntoActiveObjectivesPS.setDouble(4, completedObjective.getCurrentProgress());
-    insertIntoActiveObjectivesPS.setInt(5, completedObjective.getObjectiveID());
-    insertIntoActiveObjectivesPS.setBoolean(6,  completedObjective.hasBeenCompleted());
-    insertIntoActiveObjectivesPS.setDouble(7, completedObjective.getProgressNeeded());
-    insertIntoActiveObjectivesPS.setString(8, profile);
-    insertIntoActiveObjectivesPS.executeUpdate();
+  /**
+   * @return the average time loading the data of a player (or of all players, if player data isn't loaded on join) from the storage took
+   */
+  public final double getAverageStorageLoadMillis() {
+    final long storageLoads = this.storageLoads.get();
+    return storageLoads == 0 ? 0 : storageLoadNanos.get() / 1_000_000d / storageLoads;
+  }
 
-    if(!completedObjective.getCompletedObjectives().isEmpty()){
-      //Handle active sub-objectives here
-      for(final ActiveObjective subCompletedActiveObjective : completedObjective.getCompletedObjectives()){
-        handleSavingOfCompletedActiveObjectives(insertIntoActiveObjectivesPS, subCompletedActiveObjective, questPlayerUUID, profile);
-      }
-    }
+  /**
+   * @return the average time saving the data of a single QuestPlayer (profile) to the storage took
+   */
+  public final double getAverageStorageSaveMillis() {
+    final long storageSavedSnapshots = this.storageSavedSnapshots.get();
+    return storageSavedSnapshots == 0 ? 0 : storageSaveNanos.get() / 1_000_000d / storageSavedSnapshots;
   }
 
 
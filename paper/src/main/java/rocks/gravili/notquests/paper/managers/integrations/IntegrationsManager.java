@@ -82,6 +82,8 @@ public class IntegrationsManager {
 
   private ZNPCsManager zNPCsManager;
 
+  private QuestPlaceholders questPlaceholders;
+
 
   public IntegrationsManager(final NotQuests main) {
     this.main = main;
@@ -137,7 +139,10 @@ public class IntegrationsManager {
                   placeholderAPIEnabled = true;
                   return true;
                 })
-            .setRunAfterDataLoad(() -> new QuestPlaceholders(main).register()));
+            .setRunAfterDataLoad(() -> {
+              questPlaceholders = new QuestPlaceholders(main);
+              questPlaceholders.register();
+            }));
 
     integrations.add(
         new Integration(main, "Vault")
@@ -584,6 +589,10 @@ public class IntegrationsManager {
     return vaultManager;
   }
 
+  public final @Nullable QuestPlaceholders getQuestPlaceholders() {
+    return questPlaceholders;
+  }
+
   public void onPluginEnable(final PluginEnableEvent event) {
     for (final Integration disabledIntegration : getDisabledIntegrations()) {
       if (!event.getPlugin().getName().equals(disabledIntegration.getExactName())) {
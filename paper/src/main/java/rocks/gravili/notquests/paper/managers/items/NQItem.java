@@ -19,6 +19,7 @@
 package rocks.gravili.notquests.paper.managers.items;
 
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -31,6 +32,12 @@ public class NQItem {
   private final ItemStack itemStack;
   private Category category;
 
+  /**
+   * Increased whenever the item stack of any NQItem is changed, so compiled ItemStackSelections know they have to be
+   * rebuilt. A single counter for all items, so checking it stays cheap no matter how many NQItems a selection has.
+   */
+  private static final AtomicInteger itemsModificationCount = new AtomicInteger();
+
   public NQItem(final NotQuests main, final String itemName, final ItemStack itemStack) {
     this.main = main;
     this.itemName = itemName.toLowerCase(Locale.ROOT);
@@ -54,11 +61,16 @@ public class NQItem {
     this.category = category;
   }
 
+  public static int getItemsModificationCount() {
+    return itemsModificationCount.get();
+  }
+
   public void setDisplayName(@Nullable final String displayName, boolean save) {
     if (displayName == null || displayName.isBlank()) {
       ItemMeta itemMeta = itemStack.getItemMeta();
       itemMeta.displayName(null);
       itemStack.setItemMeta(itemMeta);
+      itemsModificationCount.incrementAndGet();
       if (save) {
         getCategory().getItemsConfig().set("items." + getItemName() + ".displayName", null);
         getCategory().saveItemsConfig();
@@ -68,6 +80,7 @@ public class NQItem {
     ItemMeta itemMeta = itemStack.getItemMeta();
     itemMeta.displayName(main.parse("<!italic>" + displayName));
     itemStack.setItemMeta(itemMeta);
+    itemsModificationCount.incrementAndGet();
     if (save) {
       getCategory().getItemsConfig().set("items." + getItemName() + ".displayName", displayName);
       getCategory().saveItemsConfig();
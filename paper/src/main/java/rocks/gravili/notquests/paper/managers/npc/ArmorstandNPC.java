@@ -108,6 +108,7 @@ public class ArmorstandNPC extends NQNPC {
       }
       return "<RED>This armor stand has no quests attached to it!";
     }
+    main.getArmorStandManager().refreshAttachments(cachedArmorstand);
     if(showQuestInNPC == null){
       return removeQuestGiverNPCTrait(false, quest);
     }
@@ -164,6 +165,7 @@ public class ArmorstandNPC extends NQNPC {
       main.getArmorStandManager().addArmorStandWithQuestsOrConversationAttachedToThem(cachedArmorstand);
 
     }
+    main.getArmorStandManager().refreshAttachments(cachedArmorstand);
     if(showQuestInNPC == null){
       return addQuestGiverNPCTrait(false, quest);
     }
@@ -0,0 +1,36 @@
+package rocks.gravili.notquests.paper.managers.npc;
+
+import java.util.List;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.conversation.Conversation;
+import rocks.gravili.notquests.paper.structs.Quest;
+
+/**
+ * Everything which is bound to a single NQNPC and needed when a player interacts with it. This is built once per NPC and
+ * re-used until quests, conversations or objectives are bound to / unbound from any NPC (see
+ * NPCManager.markInteractionBindingsModified()).
+ *
+ * @param questsAttachedWithShowing the quests attached to the NPC which are shown in the quest preview
+ * @param questsAttachedWithoutShowing the quests attached to the NPC which are not shown in the quest preview
+ * @param conversation the conversation of the NPC, or null if it has none
+ * @param hasObjectivesInteractingWithNPC true if any objective of any quest refers to the NPC (for example as the NPC to
+ *     talk to, to deliver items to or as its completion NPC). If this is false, clicking the NPC cannot progress any objective.
+ * @param questsModificationCount QuestManager.getQuestsModificationCount() when this profile was built
+ * @param interactionBindingsModificationCount NPCManager.getInteractionBindingsModificationCount() when this profile was built
+ */
+public record NPCInteractionProfile(
+    List<Quest> questsAttachedWithShowing,
+    List<Quest> questsAttachedWithoutShowing,
+    @Nullable Conversation conversation,
+    boolean hasObjectivesInteractingWithNPC,
+    int questsModificationCount,
+    int interactionBindingsModificationCount) {
+
+  public final boolean hasAttachedQuests() {
+    return !questsAttachedWithShowing.isEmpty() || !questsAttachedWithoutShowing.isEmpty();
+  }
+
+  public final boolean isUpToDate(final int questsModificationCount, final int interactionBindingsModificationCount) {
+    return this.questsModificationCount == questsModificationCount && this.interactionBindingsModificationCount == interactionBindingsModificationCount;
+  }
+}
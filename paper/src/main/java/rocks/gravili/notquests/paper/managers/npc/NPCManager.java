@@ -3,6 +3,7 @@ package rocks.gravili.notquests.paper.managers.npc;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
@@ -17,8 +18,10 @@ import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.conversation.Conversation;
 import rocks.gravili.notquests.paper.managers.data.Category;
 import rocks.gravili.notquests.paper.structs.Quest;
+import rocks.gravili.notquests.paper.structs.objectives.Objective;
 
 public class NPCManager {
   private final NotQuests main;
@@ -26,9 +29,17 @@ public class NPCManager {
   private final ArrayList<Consumer<NQNPC>> npcSelectionActions;
 
   private final ArrayList<NQNPC> npcs;
+
+  /**
+   * NQNPCs are pooled (see getOrCreateNQNpc()), so they can be used as keys by identity
+   */
+  private final ConcurrentHashMap<NQNPC, NPCInteractionProfile> interactionProfiles;
+  private volatile int interactionBindingsModificationCount = 0;
+
   public NPCManager(final NotQuests main){
     this.main = main;
     npcs = new ArrayList<>();
+    interactionProfiles = new ConcurrentHashMap<>();
     npcSelectionActions = new ArrayList<>();
   }
 
@@ -247,4 +258,66 @@ public class NPCManager {
       //npcSelectionActions.remove(npcSelectionActionID); //This can shift the IDs badly. lets just leave it, else we'd need to use a hashmap
     }
   }
+
+  public final int getInteractionBindingsModificationCount() {
+    return interactionBindingsModificationCount;
+  }
+
+  /**
+   * Has to be called whenever a quest, conversation or objective is bound to or unbound from an NPC, so all cached
+   * NPCInteractionProfiles are rebuilt.
+   */
+  public void markInteractionBindingsModified() {
+    interactionBindingsModificationCount++;
+  }
+
+  /**
+   * @return the cached interaction profile of the NPC. It's rebuilt if anything has been bound to or unbound from an NPC
+   *     since it was built.
+   */
+  public final NPCInteractionProfile getInteractionProfile(final @NotNull NQNPC nqnpc) {
+    final int questsModificationCount = main.getQuestManager().getQuestsModificationCount();
+    final int interactionBindingsModificationCount = this.interactionBindingsModificationCount;
+
+    final NPCInteractionProfile cachedInteractionProfile = interactionProfiles.get(nqnpc);
+    if (cachedInteractionProfile != null && cachedInteractionProfile.isUpToDate(questsModificationCount, interactionBindingsModificationCount)) {
+      return cachedInteractionProfile;
+    }
+
+    final ArrayList<Quest> questsAttachedWithShowing = new ArrayList<>();
+    final ArrayList<Quest> questsAttachedWithoutShowing = new ArrayList<>();
+    boolean hasObjectivesInteractingWithNPC = false;
+    for (final Quest quest : main.getQuestManager().getAllQuests()) {
+      if (quest.getAttachedNPCsWithQuestShowing().contains(nqnpc)) {
+        questsAttachedWithShowing.add(quest);
+      } else if (quest.getAttachedNPCsWithoutQuestShowing().contains(nqnpc)) {
+        questsAttachedWithoutShowing.add(quest);
+      }
+      if (!hasObjectivesInteractingWithNPC) {
+        hasObjectivesInteractingWithNPC = hasObjectivesInteractingWithNPC(quest.getObjectives(), nqnpc);
+      }
+    }
+
+    final Conversation conversation = main.getConversationManager() != null ? main.getConversationManager().getConversationForNPC(nqnpc) : null;
+
+    final NPCInteractionProfile interactionProfile = new NPCInteractionProfile(
+        List.copyOf(questsAttachedWithShowing),
+        List.copyOf(questsAttachedWithoutShowing),
+        conversation,
+        hasObjectivesInteractingWithNPC,
+        questsModificationCount,
+        interactionBindingsModificationCount
+    );
+    interactionProfiles.put(nqnpc, interactionProfile);
+    return interactionProfile;
+  }
+
+  private boolean hasObjectivesInteractingWithNPC(final List<Objective> objectives, final NQNPC nqnpc) {
+    for (final Objective objective : objectives) {
+      if (objective.isInteractingWithNPC(nqnpc) || hasObjectivesInteractingWithNPC(objective.getObjectives(), nqnpc)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
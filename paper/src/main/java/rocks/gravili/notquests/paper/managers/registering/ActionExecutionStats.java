@@ -0,0 +1,98 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.registering;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How often each action type has been executed since the server started, and how long executing it took.
+ */
+public class ActionExecutionStats {
+
+  private final ConcurrentHashMap<String, ActionTypeStats> statsByActionType = new ConcurrentHashMap<>();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder objectiveUnlockChecks = new LongAdder();
+
+  /**
+   * @param executions how often actions of this type have been executed
+   * @param totalNanos the summed up execution time of all executions
+   * @param maxNanos the execution time of the slowest execution
+   */
+  public record ActionTypeSnapshot(long executions, long totalNanos, long maxNanos) {
+    public final double getAverageMillis() {
+      return executions == 0 ? 0 : (totalNanos / (double) executions) / 1_000_000d;
+    }
+
+    public final double getMaxMillis() {
+      return maxNanos / 1_000_000d;
+    }
+  }
+
+  private static final class ActionTypeStats {
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+  }
+
+  public void recordExecution(final String actionType, final long nanos) {
+    final ActionTypeStats actionTypeStats = statsByActionType.computeIfAbsent(actionType != null ? actionType : "unknown", type -> new ActionTypeStats());
+    actionTypeStats.executions.increment();
+    actionTypeStats.totalNanos.add(nanos);
+    actionTypeStats.maxNanos.accumulate(nanos);
+  }
+
+  public void recordBatch() {
+    batches.increment();
+  }
+
+  public void recordObjectiveUnlockCheck() {
+    objectiveUnlockChecks.increment();
+  }
+
+  /**
+   * @return how many reward batches have been executed
+   */
+  public final long getBatches() {
+    return batches.sum();
+  }
+
+  /**
+   * @return how often the objective unlock conditions of all active quests have been re-checked after actions were executed
+   */
+  public final long getObjectiveUnlockChecks() {
+    return objectiveUnlockChecks.sum();
+  }
+
+  /**
+   * @return the stats of every action type which has been executed at least once, sorted by action type
+   */
+  public final Map<String, ActionTypeSnapshot> getSnapshot() {
+    final TreeMap<String, ActionTypeSnapshot> snapshot = new TreeMap<>();
+    statsByActionType.forEach((actionType, actionTypeStats) -> snapshot.put(actionType, new ActionTypeSnapshot(
+        actionTypeStats.executions.sum(),
+        actionTypeStats.totalNanos.sum(),
+        actionTypeStats.maxNanos.get()
+    )));
+    return snapshot;
+  }
+}
@@ -28,15 +28,21 @@ import cloud.commandframework.paper.PaperCommandManager;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.managers.data.Category;
+import rocks.gravili.notquests.paper.structs.ActiveQuest;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.actions.Action;
@@ -71,10 +77,12 @@ public class ActionManager {
   private final NotQuests main;
   private final CommandFlag<SinglePlayerSelector> playerSelectorCommandFlag;
   private final HashMap<String, Class<? extends Action>> actions;
+  private final ActionExecutionStats actionExecutionStats;
 
   public ActionManager(final NotQuests main) {
     this.main = main;
     actions = new HashMap<>();
+    actionExecutionStats = new ActionExecutionStats();
     playerSelectorCommandFlag = CommandFlag
         .newBuilder("player")
         .withArgument(SinglePlayerSelectorArgument.of("player"))
@@ -253,6 +261,24 @@ public class ActionManager {
     return actions.keySet();
   }
 
+  public final ActionExecutionStats getActionExecutionStats() {
+    return actionExecutionStats;
+  }
+
+  /**
+   * Re-checks the objective unlock conditions of all active quests of the player, if that's enabled in the config. Should
+   * be called once after one or more actions have been executed.
+   */
+  public void checkObjectiveUnlockConditions(@Nullable final QuestPlayer questPlayer) {
+    if (questPlayer == null || !main.getConfiguration().isObjectiveUnlockConditionsCheckOnAnyAction()) {
+      return;
+    }
+    actionExecutionStats.recordObjectiveUnlockCheck();
+    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+      activeQuest.updateObjectivesUnlocked(true, true);
+    }
+  }
+
   public void addAction(final Action action, final CommandContext<CommandSender> context, final ActionFor actionFor) {
     final Quest quest = context.getOrDefault("quest", null);
     Objective objectiveOfQuest = null;
@@ -385,19 +411,92 @@ public class ActionManager {
             + action.getActionType()
             + " with conditions!");
 
-    if (action.getConditions().size() == 0) {
-      main.getLogManager().debug("   Skipping Conditions");
-      action.execute(questPlayer, delay, objects);
-      if (!silent) {
-        sender.sendMessage(
-            main.parse(
-                "<success>Action with the name <highlight>"
-                    + action.getActionName()
-                    + "</highlight> has been executed!"));
-      }
+    if (!areConditionsFulfilled(action, questPlayer, sender, silent)) {
       return;
     }
 
+    action.execute(questPlayer, delay, objects);
+    if (!silent) {
+      sender.sendMessage(
+          main.parse(
+              "<success>Action with the name <highlight>"
+                  + action.getActionName()
+                  + "</highlight> has been executed!"));
+    }
+  }
+
+  /**
+   * Executes a list of actions (like the rewards of a quest or objective) silently, as a single batch.
+   * <p>
+   * The conditions of all actions are checked right away. Actions without a delay are executed right away, actions with a
+   * delay are grouped by their delay, so all actions due in the same tick are executed by a single scheduled task. The
+   * objective unlock conditions are only re-checked once after every group, instead of once after every single action.
+   */
+  public void executeActionsWithConditions(
+      final List<Action> actionsToExecute,
+      final QuestPlayer questPlayer,
+      final Object... objects) {
+    if (actionsToExecute.isEmpty() || main.getDataManager().isDisabled()) {
+      return;
+    }
+    if (!Bukkit.isPrimaryThread()) {
+      final List<Action> actionsToExecuteCopy = List.copyOf(actionsToExecute);
+      Bukkit.getScheduler().runTask(main.getMain(), () -> executeActionsWithConditions(actionsToExecuteCopy, questPlayer, objects));
+      return;
+    }
+    actionExecutionStats.recordBatch();
+
+    boolean executedAny = false;
+    final TreeMap<Long, ArrayList<Action>> delayedActionsByTicks = new TreeMap<>();
+    for (final Action action : actionsToExecute) {
+      questPlayer.sendDebugMessage(
+          "Executing Action "
+              + action.getActionName()
+              + " of type "
+              + action.getActionType()
+              + " with conditions!");
+      if (!areConditionsFulfilled(action, questPlayer, null, true)) {
+        continue;
+      }
+      if (action.getExecutionDelay() == -1) {
+        action.executeNow(questPlayer, objects);
+        executedAny = true;
+      } else {
+        delayedActionsByTicks.computeIfAbsent(action.getExecutionDelay() / 50, ticks -> new ArrayList<>()).add(action);
+      }
+    }
+    if (executedAny) {
+      checkObjectiveUnlockConditions(questPlayer);
+    }
+
+    for (final Map.Entry<Long, ArrayList<Action>> delayedActions : delayedActionsByTicks.entrySet()) {
+      Bukkit.getScheduler().runTaskLater(main.getMain(), () -> {
+        if (main.getDataManager().isDisabled()) {
+          return;
+        }
+        actionExecutionStats.recordBatch();
+        for (final Action action : delayedActions.getValue()) {
+          action.executeNow(questPlayer, objects);
+        }
+        checkObjectiveUnlockConditions(questPlayer);
+      }, delayedActions.getKey());
+    }
+  }
+
+  /**
+   * @return true if the action has no conditions, or all of them are fulfilled. If not, the sender is told which ones are
+   * unfulfilled (unless silent is true).
+   */
+  private boolean areConditionsFulfilled(
+      final Action action,
+      final QuestPlayer questPlayer,
+      final CommandSender sender,
+      final boolean silent) {
+    if (action.getConditions().isEmpty()) {
+      main.getLogManager().debug("   Skipping Conditions");
+      return true;
+    }
+
     final StringBuilder unfulfilledConditions = new StringBuilder();
     for (final Condition condition : action.getConditions()) {
       final ConditionResult check = condition.check(questPlayer);
@@ -423,18 +522,10 @@ public class ActionManager {
               + action.getActionName()
               + ". Unfulfilled conditions: "
               + unfulfilledConditions);
-    } else {
-      main.getLogManager().debug("   All Conditions fulfilled!");
-
-      action.execute(questPlayer, objects);
-      if (!silent) {
-        sender.sendMessage(
-            main.parse(
-                "<success>Action with the name <highlight>"
-                    + action.getActionName()
-                    + "</highlight> has been executed!"));
-      }
+      return false;
     }
+    main.getLogManager().debug("   All Conditions fulfilled!");
+    return true;
   }
 
   public void updateVariableActions() {
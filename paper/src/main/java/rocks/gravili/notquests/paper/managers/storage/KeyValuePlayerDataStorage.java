@@ -0,0 +1,541 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataCodec.Profile;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.QuestHistoryChange;
+import rocks.gravili.notquests.paper.managers.storage.StoredPlayerData.QuestHistoryEntry;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
+
+/**
+ * Stores player data and tags in a single append-only file, for servers which don't share their player data with other servers.
+ * <p>
+ * Every save appends one record with the whole profile (its player data and tags, encoded by the {@link PlayerDataCodec}), and
+ * an in-memory index remembers where the latest record of each profile is. Loading a profile is a single read at that position, and saving it a single write at the end of the
+ * file. Older records of the same profile are garbage, which is removed by compacting the file when it's opened.
+ * <p>
+ * Each record is [payload length][CRC32 of the payload][payload]. When the file is opened, everything from the first incomplete or
+ * corrupt record on (which is what a crash while writing leaves behind) is cut off.
+ */
+public class KeyValuePlayerDataStorage implements PlayerDataStorage {
+  private static final int fileMagic = 0x4E514B56; //"NQKV"
+  private static final int fileFormatVersion = 1;
+  private static final int fileHeaderLength = 8;
+  private static final int recordHeaderLength = 8;
+  private static final int maxPayloadLength = 64 * 1024 * 1024;
+
+  /**
+   * The file is compacted when it's opened, if it's larger than this and more than half of it is garbage
+   */
+  private static final long compactionMinimumFileSize = 1024 * 1024;
+
+  /**
+   * The player data and tags of a profile, encoded by the {@link PlayerDataCodec}
+   */
+  private static final byte recordKindProfile = 1;
+  /**
+   * The current profile of a player. It's the same for all their profiles, so it's stored separately.
+   */
+  private static final byte recordKindCurrentProfile = 2;
+
+  private record RecordKey(byte kind, UUID uuid, String profile) {}
+
+  private record RecordLocation(long position, int payloadLength) {}
+
+  private final PlayerDataLog log;
+  private final File file;
+  private FileChannel fileChannel;
+
+  /**
+   * Where the next record is written. Everything after it is left over from a write which failed partway, and is overwritten.
+   */
+  private long endPosition;
+
+  private final HashMap<RecordKey, RecordLocation> index = new HashMap<>();
+  private final HashMap<UUID, LinkedHashSet<String>> profiles = new HashMap<>();
+  private final HashMap<UUID, String> currentProfiles = new HashMap<>();
+  private long liveBytes = 0;
+
+  public KeyValuePlayerDataStorage(final NotQuests main, final File file) throws IOException {
+    this(PlayerDataLog.of(main), file);
+  }
+
+  public KeyValuePlayerDataStorage(final PlayerDataLog log, final File file) throws IOException {
+    this.log = log;
+    this.file = file;
+    open();
+    if (fileChannel.size() > compactionMinimumFileSize && liveBytes < fileChannel.size() / 2) {
+      compact();
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "kv";
+  }
+
+  private void open() throws IOException {
+    fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    index.clear();
+    profiles.clear();
+    currentProfiles.clear();
+    liveBytes = fileHeaderLength;
+
+    if (fileChannel.size() == 0) {
+      final ByteBuffer header = ByteBuffer.allocate(fileHeaderLength).putInt(fileMagic).putInt(fileFormatVersion).flip();
+      fileChannel.write(header, 0);
+      fileChannel.force(true);
+      endPosition = fileHeaderLength;
+      return;
+    }
+
+    long position = 0;
+    try (final DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), 64 * 1024))) {
+      if (inputStream.readInt() != fileMagic) {
+        fileChannel.close();
+        throw new IOException("The file " + file.getName() + " is not a NotQuests player data file");
+      }
+      final int version = inputStream.readInt();
+      if (version != fileFormatVersion) {
+        fileChannel.close();
+        throw new IOException("The file " + file.getName() + " has been written by a newer version of NotQuests (file format version " + version + ")");
+      }
+      position = fileHeaderLength;
+
+      final CRC32 crc32 = new CRC32();
+      while (true) {
+        final int payloadLength;
+        final int checksum;
+        final byte[] payload;
+        try {
+          payloadLength = inputStream.readInt();
+          checksum = inputStream.readInt();
+          if (payloadLength <= 0 || payloadLength > maxPayloadLength) {
+            break;
+          }
+          payload = new byte[payloadLength];
+          inputStream.readFully(payload);
+        } catch (final EOFException e) {
+          break;
+        }
+        crc32.reset();
+        crc32.update(payload);
+        if ((int) crc32.getValue() != checksum) {
+          break;
+        }
+
+        final DataInputStream payloadInputStream = new DataInputStream(new ByteArrayInputStream(payload));
+        final RecordKey recordKey = readRecordKey(payloadInputStream);
+        if (recordKey.kind() == recordKindCurrentProfile) {
+          currentProfiles.put(recordKey.uuid(), payloadInputStream.readUTF());
+        }
+        putIndex(recordKey, new RecordLocation(position, payloadLength));
+        position += recordHeaderLength + payloadLength;
+      }
+    }
+
+    if (position < fileChannel.size()) {
+      log.warn("The player data file %s ends with %s bytes of incomplete or corrupt data (probably from a crash while saving). They have been removed.", file.getName(), fileChannel.size() - position);
+      fileChannel.truncate(position);
+      fileChannel.force(true);
+    }
+    endPosition = position;
+  }
+
+  private void putIndex(final RecordKey recordKey, final RecordLocation recordLocation) {
+    removeIndex(recordKey);
+    index.put(recordKey, recordLocation);
+    liveBytes += recordHeaderLength + recordLocation.payloadLength();
+    if (recordKey.kind() == recordKindProfile) {
+      profiles.computeIfAbsent(recordKey.uuid(), uuid -> new LinkedHashSet<>()).add(recordKey.profile());
+    }
+  }
+
+  private void removeIndex(final RecordKey recordKey) {
+    final RecordLocation previousRecordLocation = index.remove(recordKey);
+    if (previousRecordLocation != null) {
+      liveBytes -= recordHeaderLength + previousRecordLocation.payloadLength();
+    }
+  }
+
+  /**
+   * Re-writes the file with only the latest record of each profile, and replaces the old file with it
+   */
+  private void compact() throws IOException {
+    final long previousFileSize = fileChannel.size();
+    final File compactedFile = new File(file.getParentFile(), file.getName() + ".compact");
+    try (final FileChannel compactedFileChannel = FileChannel.open(compactedFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      compactedFileChannel.write(ByteBuffer.allocate(fileHeaderLength).putInt(fileMagic).putInt(fileFormatVersion).flip());
+      for (final RecordLocation recordLocation : index.values()) {
+        final ByteBuffer record = ByteBuffer.allocate(recordHeaderLength + recordLocation.payloadLength());
+        readFully(record, recordLocation.position());
+        compactedFileChannel.write(record.flip());
+      }
+      compactedFileChannel.force(true);
+    }
+    fileChannel.close();
+    Files.move(compactedFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    open();
+    log.info("Compacted the player data file %s from %s to %s KB.", file.getName(), previousFileSize / 1024, fileChannel.size() / 1024);
+  }
+
+  private void readFully(final ByteBuffer byteBuffer, final long position) throws IOException {
+    long readPosition = position;
+    while (byteBuffer.hasRemaining()) {
+      final int read = fileChannel.read(byteBuffer, readPosition);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of the player data file " + file.getName());
+      }
+      readPosition += read;
+    }
+  }
+
+  /**
+   * @return the payload of the latest record of the key (starting right after the key), or null if there is none
+   */
+  private @Nullable DataInputStream readRecord(final RecordKey recordKey, final Map<RecordKey, RecordLocation> pendingRecords) throws IOException {
+    RecordLocation recordLocation = pendingRecords.get(recordKey);
+    if (recordLocation == null) {
+      recordLocation = index.get(recordKey);
+    }
+    if (recordLocation == null) {
+      return null;
+    }
+    final ByteBuffer payload = ByteBuffer.allocate(recordLocation.payloadLength());
+    readFully(payload, recordLocation.position() + recordHeaderLength);
+    final DataInputStream payloadInputStream = new DataInputStream(new ByteArrayInputStream(payload.array()));
+    readRecordKey(payloadInputStream);
+    return payloadInputStream;
+  }
+
+  /**
+   * Appends a record at the end of the file. It's not forced to the disk yet.
+   */
+  private RecordLocation appendRecord(final RecordKey recordKey, final byte[] body) throws IOException {
+    final ByteArrayOutputStream payloadOutputStream = new ByteArrayOutputStream(body.length + 64);
+    final DataOutputStream payload = new DataOutputStream(payloadOutputStream);
+    payload.writeByte(recordKey.kind());
+    payload.writeLong(recordKey.uuid().getMostSignificantBits());
+    payload.writeLong(recordKey.uuid().getLeastSignificantBits());
+    payload.writeUTF(recordKey.profile());
+    payload.write(body);
+    payload.flush();
+
+    final byte[] payloadBytes = payloadOutputStream.toByteArray();
+    final CRC32 crc32 = new CRC32();
+    crc32.update(payloadBytes);
+    final ByteBuffer record = ByteBuffer.allocate(recordHeaderLength + payloadBytes.length)
+        .putInt(payloadBytes.length)
+        .putInt((int) crc32.getValue())
+        .put(payloadBytes)
+        .flip();
+
+    final long position = endPosition;
+    long writePosition = position;
+    try {
+      while (record.hasRemaining()) {
+        writePosition += fileChannel.write(record, writePosition);
+      }
+    } catch (final IOException e) {
+      discardFrom(position);
+      throw e;
+    }
+    endPosition = writePosition;
+    return new RecordLocation(position, payloadBytes.length);
+  }
+
+  /**
+   * Cuts off everything from the position on, after writing failed partway (e.g. because the disk is full). Otherwise, the
+   * incomplete record would end up in the middle of the file once more records are appended, and everything after it would be
+   * cut off the next time the file is opened.
+   */
+  private void discardFrom(final long position) {
+    endPosition = position;
+    try {
+      if (fileChannel.size() > position) {
+        fileChannel.truncate(position);
+      }
+    } catch (final IOException e) {
+      //The next record is written at endPosition anyway, so it overwrites what's left
+      log.warn("Could not cut off an incomplete record of the player data file %s: %s", file.getName(), e.getMessage());
+    }
+  }
+
+  private RecordKey readRecordKey(final DataInputStream inputStream) throws IOException {
+    final byte kind = inputStream.readByte();
+    final UUID uuid = new UUID(inputStream.readLong(), inputStream.readLong());
+    return new RecordKey(kind, uuid, inputStream.readUTF());
+  }
+
+  @Override
+  public synchronized List<StoredPlayerData> loadPlayerData(@Nullable final UUID playerUUID) throws IOException {
+    final ArrayList<StoredPlayerData> storedPlayerData = new ArrayList<>();
+    final List<UUID> uuids = playerUUID != null ? List.of(playerUUID) : new ArrayList<>(profiles.keySet());
+    for (final UUID uuid : uuids) {
+      final LinkedHashSet<String> profilesOfPlayer = profiles.get(uuid);
+      if (profilesOfPlayer == null) {
+        continue;
+      }
+      for (final String profile : profilesOfPlayer) {
+        final Profile storedProfile = readProfile(uuid, profile, Map.of());
+        if (storedProfile == null || storedProfile.playerData() == null) {
+          continue;
+        }
+        final StoredPlayerData playerData = storedProfile.playerData();
+        //The current profile is stored separately, as it's the same for all profiles of the player
+        storedPlayerData.add(new StoredPlayerData(
+            uuid,
+            profile,
+            currentProfiles.getOrDefault(uuid, profile),
+            playerData.questPoints(),
+            playerData.activeQuests(),
+            playerData.activeTriggers(),
+            playerData.activeObjectives(),
+            playerData.completedQuests(),
+            playerData.failedQuests(),
+            playerData.questHistorySummaries()
+        ));
+      }
+    }
+    return storedPlayerData;
+  }
+
+  /**
+   * @return the player data and tags of the profile, or null if nothing has been stored for it yet
+   */
+  private @Nullable Profile readProfile(final UUID uuid, final String profile, final Map<RecordKey, RecordLocation> pendingRecords) throws IOException {
+    final DataInputStream inputStream = readRecord(new RecordKey(recordKindProfile, uuid, profile), pendingRecords);
+    return inputStream != null ? PlayerDataCodec.decode(inputStream.readAllBytes()) : null;
+  }
+
+  /**
+   * Appends the encoded profile at the end of the file. It's not forced to the disk yet.
+   */
+  private RecordLocation appendProfile(final Profile profile) throws IOException {
+    return appendRecord(new RecordKey(recordKindProfile, profile.uuid(), profile.profile()), PlayerDataCodec.encode(profile));
+  }
+
+  @Override
+  public synchronized boolean savePlayerData(final List<PlayerDataSnapshot> snapshots, final Consumer<PlayerDataSnapshot> onSaved) {
+    if (snapshots.isEmpty()) {
+      return true;
+    }
+    boolean savedAll = true;
+    final LinkedHashMap<RecordKey, RecordLocation> pendingRecords = new LinkedHashMap<>();
+    final HashMap<UUID, String> pendingCurrentProfiles = new HashMap<>();
+    final ArrayList<PlayerDataSnapshot> writtenSnapshots = new ArrayList<>();
+    try {
+      for (final PlayerDataSnapshot snapshot : snapshots) {
+        final long snapshotPosition = endPosition;
+        try {
+          final Profile storedProfile = readProfile(snapshot.uuid(), snapshot.profile(), pendingRecords);
+          final StoredPlayerData playerData = applySnapshot(storedProfile != null ? storedProfile.playerData() : null, snapshot);
+          final RecordLocation profileRecordLocation = appendProfile(new Profile(snapshot.uuid(), snapshot.profile(), playerData,
+              applyTagChanges(storedProfile != null ? storedProfile.tags() : Map.of(), snapshot.changedTags(), snapshot.removedTags())));
+
+          final RecordKey currentProfileRecordKey = new RecordKey(recordKindCurrentProfile, snapshot.uuid(), "");
+          @Nullable RecordLocation currentProfileRecordLocation = null;
+          final String currentProfile = pendingCurrentProfiles.getOrDefault(snapshot.uuid(), currentProfiles.get(snapshot.uuid()));
+          if (!snapshot.currentProfile().equals(currentProfile)) {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            new DataOutputStream(body).writeUTF(snapshot.currentProfile());
+            currentProfileRecordLocation = appendRecord(currentProfileRecordKey, body.toByteArray());
+          }
+
+          //Only once all records of the snapshot have been written, so a failed snapshot leaves nothing behind
+          pendingRecords.put(new RecordKey(recordKindProfile, snapshot.uuid(), snapshot.profile()), profileRecordLocation);
+          if (currentProfileRecordLocation != null) {
+            pendingRecords.put(currentProfileRecordKey, currentProfileRecordLocation);
+            pendingCurrentProfiles.put(snapshot.uuid(), snapshot.currentProfile());
+          }
+          writtenSnapshots.add(snapshot);
+        } catch (final IOException e) {
+          savedAll = false;
+          discardFrom(snapshotPosition);
+          log.warn("There was an error saving the PlayerData of player with UUID <highlight>%s</highlight> (Profile: %s)! Stacktrace:", snapshot.uuid(), snapshot.profile());
+          e.printStackTrace();
+        }
+      }
+      fileChannel.force(false);
+    } catch (final IOException e) {
+      log.warn("There was an error saving the PlayerData! Stacktrace:");
+      e.printStackTrace();
+      return false;
+    }
+
+    for (final Map.Entry<RecordKey, RecordLocation> pendingRecord : pendingRecords.entrySet()) {
+      putIndex(pendingRecord.getKey(), pendingRecord.getValue());
+    }
+    currentProfiles.putAll(pendingCurrentProfiles);
+    for (final PlayerDataSnapshot writtenSnapshot : writtenSnapshots) {
+      onSaved.accept(writtenSnapshot);
+    }
+    return savedAll;
+  }
+
+  /**
+   * @return the stored data with everything of the snapshot applied to it. The quest history changes are applied on top of the
+   * stored quest history.
+   */
+  private StoredPlayerData applySnapshot(@Nullable final StoredPlayerData storedPlayerData, final PlayerDataSnapshot snapshot) {
+    final ArrayList<QuestHistoryEntry> completedQuests = storedPlayerData != null ? new ArrayList<>(storedPlayerData.completedQuests()) : new ArrayList<>();
+    final ArrayList<QuestHistoryEntry> failedQuests = storedPlayerData != null ? new ArrayList<>(storedPlayerData.failedQuests()) : new ArrayList<>();
+    final HashMap<String, QuestHistorySummary> questHistorySummaries = storedPlayerData != null ? new HashMap<>(storedPlayerData.questHistorySummaries()) : new HashMap<>();
+    for (final QuestHistoryChange questHistoryChange : snapshot.questHistoryChanges()) {
+      switch (questHistoryChange.type()) {
+        case COMPLETED -> completedQuests.add(new QuestHistoryEntry(questHistoryChange.questName(), questHistoryChange.time()));
+        case FAILED -> failedQuests.add(new QuestHistoryEntry(questHistoryChange.questName(), questHistoryChange.time()));
+        case CLEAR_COMPLETED -> {
+          completedQuests.removeIf(completedQuest -> completedQuest.questName().equals(questHistoryChange.questName()));
+          questHistorySummaries.computeIfPresent(questHistoryChange.questName(), (questName, questHistorySummary) -> questHistorySummary.withoutCompletions());
+        }
+      }
+    }
+    return new StoredPlayerData(
+        snapshot.uuid(),
+        snapshot.profile(),
+        snapshot.currentProfile(),
+        snapshot.questPoints(),
+        snapshot.activeQuests(),
+        snapshot.activeTriggers(),
+        snapshot.activeObjectives(),
+        completedQuests,
+        failedQuests,
+        questHistorySummaries
+    );
+  }
+
+  @Override
+  public synchronized void saveQuestHistoryRollup(final UUID uuid, final String profile, final Map<String, QuestHistorySummary> rolledUp, final Map<String, QuestHistorySummary> questHistorySummaries) throws IOException {
+    final Profile storedProfile = readProfile(uuid, profile, Map.of());
+    if (storedProfile == null || storedProfile.playerData() == null) {
+      return;
+    }
+    final StoredPlayerData storedPlayerData = storedProfile.playerData();
+    final ArrayList<QuestHistoryEntry> completedQuests = new ArrayList<>(storedPlayerData.completedQuests());
+    final ArrayList<QuestHistoryEntry> failedQuests = new ArrayList<>(storedPlayerData.failedQuests());
+    final HashMap<String, QuestHistorySummary> newQuestHistorySummaries = new HashMap<>(storedPlayerData.questHistorySummaries());
+    for (final Map.Entry<String, QuestHistorySummary> rolledUpEntry : rolledUp.entrySet()) {
+      final String questName = rolledUpEntry.getKey();
+      final QuestHistorySummary rolledUpSummary = rolledUpEntry.getValue();
+      if (rolledUpSummary.completions() > 0) {
+        completedQuests.removeIf(completedQuest -> completedQuest.questName().equals(questName) && completedQuest.time() <= rolledUpSummary.lastCompleted());
+      }
+      if (rolledUpSummary.fails() > 0) {
+        failedQuests.removeIf(failedQuest -> failedQuest.questName().equals(questName) && failedQuest.time() <= rolledUpSummary.lastFailed());
+      }
+      newQuestHistorySummaries.put(questName, questHistorySummaries.get(questName));
+    }
+
+    final RecordLocation recordLocation = appendProfile(new Profile(uuid, profile, new StoredPlayerData(
+        uuid,
+        profile,
+        storedPlayerData.currentProfile(),
+        storedPlayerData.questPoints(),
+        storedPlayerData.activeQuests(),
+        storedPlayerData.activeTriggers(),
+        storedPlayerData.activeObjectives(),
+        completedQuests,
+        failedQuests,
+        newQuestHistorySummaries
+    ), storedProfile.tags()));
+    fileChannel.force(false);
+    putIndex(new RecordKey(recordKindProfile, uuid, profile), recordLocation);
+  }
+
+  @Override
+  public synchronized Map<String, Object> loadTags(final UUID uuid, final String profile) throws IOException {
+    final Profile storedProfile = readProfile(uuid, profile, Map.of());
+    return storedProfile != null ? new LinkedHashMap<>(storedProfile.tags()) : new LinkedHashMap<>();
+  }
+
+  @Override
+  public synchronized void saveTags(final UUID uuid, final String profile, final Map<String, Object> changedTags, final Set<String> removedTags) throws IOException {
+    final Profile storedProfile = readProfile(uuid, profile, Map.of());
+    final Map<String, Object> tagsToSave = applyTagChanges(storedProfile != null ? storedProfile.tags() : Map.of(), changedTags, removedTags);
+
+    final RecordLocation recordLocation = appendProfile(new Profile(uuid, profile, storedProfile != null ? storedProfile.playerData() : null, tagsToSave));
+    fileChannel.force(false);
+    putIndex(new RecordKey(recordKindProfile, uuid, profile), recordLocation);
+  }
+
+  /**
+   * @return the stored tags with the changed and removed tags applied
+   */
+  private Map<String, Object> applyTagChanges(final Map<String, Object> storedTags, final Map<String, Object> changedTags, final Set<String> removedTags) {
+    if (changedTags.isEmpty() && removedTags.isEmpty()) {
+      return storedTags;
+    }
+    final LinkedHashMap<String, Object> tagsToSave = new LinkedHashMap<>(storedTags);
+    for (final String removedTag : removedTags) {
+      tagsToSave.remove(removedTag);
+    }
+    for (final Map.Entry<String, Object> tag : changedTags.entrySet()) {
+      final Object tagValue = tag.getValue();
+      if (PlayerDataCodec.getTagType(tagValue) == null) {
+        log.warn("Encountered an unknown tag value type when saving tag %s. Tag value type: %s",
+            tag.getKey(),
+            tagValue.getClass().toString()
+        );
+        continue;
+      }
+      tagsToSave.put(tag.getKey(), tagValue);
+    }
+    return tagsToSave;
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      if (fileChannel != null && fileChannel.isOpen()) {
+        fileChannel.force(true);
+        fileChannel.close();
+      }
+    } catch (final IOException e) {
+      log.severe("Error closing the player data file %s:", file.getName());
+      e.printStackTrace();
+    }
+  }
+}
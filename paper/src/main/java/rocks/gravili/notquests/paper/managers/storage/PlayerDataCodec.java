@@ -0,0 +1,447 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveObjectiveData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveTriggerData;
+import rocks.gravili.notquests.paper.managers.storage.StoredPlayerData.QuestHistoryEntry;
+import rocks.gravili.notquests.paper.managers.tags.TagType;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
+
+/**
+ * Encodes everything of a single QuestPlayer (profile) - its player data and its tags - into one compact, self-contained
+ * byte array, which can be stored as a single blob or file. Loading a profile is then a single read followed by {@link #decode(byte[])}.
+ * <p>
+ * The encoded profile starts with its format version, so older versions can still be decoded after the format changed. All
+ * names (quests, objective holders, objective and trigger types, tag identifiers) are only stored once, in a string table at
+ * the beginning, and referenced by their index. Numbers are stored as variable-length integers, and the times of the quest
+ * history as differences to the previous time, so most of them only take one or two bytes.
+ * <p>
+ * Decoding never trusts the data: Anything which is truncated, out of range or otherwise corrupt results in an IOException.
+ */
+public final class PlayerDataCodec {
+  /**
+   * The format version written by {@link #encode(Profile)}. Increase it (and keep decoding the older versions) when the format changes.
+   */
+  public static final int formatVersion = 1;
+
+  private static final int flagHasPlayerData = 1;
+
+  private static final int objectiveFlagCompleted = 1;
+  private static final int objectiveFlagHasProgressNeeded = 2;
+
+  /**
+   * @param playerData the player data, or null if only tags have been stored for the profile yet
+   * @param tags the tag values, by tag identifier. Only values of a {@link TagType} are allowed, and no null values.
+   */
+  public record Profile(UUID uuid, String profile, @Nullable StoredPlayerData playerData, Map<String, Object> tags) {}
+
+  private PlayerDataCodec() {
+  }
+
+  /**
+   * @return the tag type of the tag value, or null if it cannot be stored
+   */
+  public static @Nullable TagType getTagType(@Nullable final Object tagValue) {
+    if (tagValue instanceof Boolean) {
+      return TagType.BOOLEAN;
+    } else if (tagValue instanceof Integer) {
+      return TagType.INTEGER;
+    } else if (tagValue instanceof Float) {
+      return TagType.FLOAT;
+    } else if (tagValue instanceof Double) {
+      return TagType.DOUBLE;
+    } else if (tagValue instanceof String) {
+      return TagType.STRING;
+    }
+    return null;
+  }
+
+  public static byte[] encode(final Profile profile) throws IOException {
+    final Writer body = new Writer();
+    final StoredPlayerData playerData = profile.playerData();
+    body.writeVarInt(playerData != null ? flagHasPlayerData : 0);
+
+    if (playerData != null) {
+      body.writeString(playerData.currentProfile());
+      body.writeVarLong(playerData.questPoints());
+
+      body.writeVarInt(playerData.activeQuests().size());
+      for (final String activeQuest : playerData.activeQuests()) {
+        body.writeName(activeQuest);
+      }
+
+      body.writeVarInt(playerData.activeTriggers().size());
+      for (final ActiveTriggerData activeTrigger : playerData.activeTriggers()) {
+        body.writeNullableName(activeTrigger.triggerType());
+        body.writeName(activeTrigger.questName());
+        body.writeVarLong(activeTrigger.currentProgress());
+        body.writeVarLong(activeTrigger.triggerID());
+      }
+
+      body.writeVarInt(playerData.activeObjectives().size());
+      for (final ActiveObjectiveData activeObjective : playerData.activeObjectives()) {
+        body.writeNullableName(activeObjective.objectiveType());
+        body.writeName(activeObjective.questName());
+        body.writeVarLong(activeObjective.objectiveID());
+        body.writeDouble(activeObjective.currentProgress());
+        body.writeVarInt((activeObjective.hasBeenCompleted() ? objectiveFlagCompleted : 0)
+            | (activeObjective.progressNeeded() != null ? objectiveFlagHasProgressNeeded : 0));
+        if (activeObjective.progressNeeded() != null) {
+          body.writeDouble(activeObjective.progressNeeded());
+        }
+      }
+
+      writeQuestHistoryEntries(body, playerData.completedQuests());
+      writeQuestHistoryEntries(body, playerData.failedQuests());
+
+      body.writeVarInt(playerData.questHistorySummaries().size());
+      for (final Map.Entry<String, QuestHistorySummary> questHistorySummary : playerData.questHistorySummaries().entrySet()) {
+        body.writeName(questHistorySummary.getKey());
+        body.writeVarLong(questHistorySummary.getValue().completions());
+        body.writeVarLong(questHistorySummary.getValue().lastCompleted());
+        body.writeVarLong(questHistorySummary.getValue().fails());
+        body.writeVarLong(questHistorySummary.getValue().lastFailed());
+      }
+    }
+
+    body.writeVarInt(profile.tags().size());
+    for (final Map.Entry<String, Object> tag : profile.tags().entrySet()) {
+      final TagType tagType = getTagType(tag.getValue());
+      if (tagType == null) {
+        throw new IOException("The tag " + tag.getKey() + " has a value which cannot be stored: " + tag.getValue());
+      }
+      body.writeName(tag.getKey());
+      body.writeVarInt(tagType.ordinal());
+      switch (tagType) {
+        case BOOLEAN -> body.writeVarInt((Boolean) tag.getValue() ? 1 : 0);
+        case INTEGER -> body.writeVarLong((Integer) tag.getValue());
+        case FLOAT -> body.writeInt(Float.floatToRawIntBits((Float) tag.getValue()));
+        case DOUBLE -> body.writeDouble((Double) tag.getValue());
+        case STRING -> body.writeString((String) tag.getValue());
+      }
+    }
+
+    final Writer header = new Writer();
+    header.writeVarInt(formatVersion);
+    header.writeLong(profile.uuid().getMostSignificantBits());
+    header.writeLong(profile.uuid().getLeastSignificantBits());
+    header.writeString(profile.profile());
+    header.writeVarInt(body.names.size());
+    for (final String name : body.names.keySet()) {
+      header.writeString(name);
+    }
+    body.writeTo(header);
+    return header.toByteArray();
+  }
+
+  private static void writeQuestHistoryEntries(final Writer writer, final List<QuestHistoryEntry> questHistoryEntries) {
+    writer.writeVarInt(questHistoryEntries.size());
+    long previousTime = 0;
+    for (final QuestHistoryEntry questHistoryEntry : questHistoryEntries) {
+      writer.writeName(questHistoryEntry.questName());
+      writer.writeVarLong(questHistoryEntry.time() - previousTime);
+      previousTime = questHistoryEntry.time();
+    }
+  }
+
+  public static Profile decode(final byte[] encodedProfile) throws IOException {
+    try {
+      final Reader reader = new Reader(ByteBuffer.wrap(encodedProfile));
+      final int version = reader.readVarInt();
+      if (version != formatVersion) {
+        throw new IOException("Unknown player data format version " + version);
+      }
+      final UUID uuid = new UUID(reader.readLong(), reader.readLong());
+      final String profile = reader.readString();
+
+      final int namesAmount = reader.readAmount();
+      final String[] names = new String[namesAmount];
+      for (int i = 0; i < namesAmount; i++) {
+        names[i] = reader.readString();
+      }
+      reader.names = names;
+
+      final int flags = reader.readVarInt();
+      StoredPlayerData playerData = null;
+      if ((flags & flagHasPlayerData) != 0) {
+        final String currentProfile = reader.readString();
+        final long questPoints = reader.readVarLong();
+
+        final int activeQuestsAmount = reader.readAmount();
+        final ArrayList<String> activeQuests = new ArrayList<>(activeQuestsAmount);
+        for (int i = 0; i < activeQuestsAmount; i++) {
+          activeQuests.add(reader.readName());
+        }
+
+        final int activeTriggersAmount = reader.readAmount();
+        final ArrayList<ActiveTriggerData> activeTriggers = new ArrayList<>(activeTriggersAmount);
+        for (int i = 0; i < activeTriggersAmount; i++) {
+          activeTriggers.add(new ActiveTriggerData(reader.readNullableName(), reader.readName(), reader.readVarLong(), reader.readIntVarLong()));
+        }
+
+        final int activeObjectivesAmount = reader.readAmount();
+        final ArrayList<ActiveObjectiveData> activeObjectives = new ArrayList<>(activeObjectivesAmount);
+        for (int i = 0; i < activeObjectivesAmount; i++) {
+          final String objectiveType = reader.readNullableName();
+          final String questName = reader.readName();
+          final int objectiveID = reader.readIntVarLong();
+          final double currentProgress = reader.readDouble();
+          final int objectiveFlags = reader.readVarInt();
+          final Double progressNeeded = (objectiveFlags & objectiveFlagHasProgressNeeded) != 0 ? reader.readDouble() : null;
+          activeObjectives.add(new ActiveObjectiveData(objectiveType, questName, currentProgress, objectiveID, (objectiveFlags & objectiveFlagCompleted) != 0, progressNeeded));
+        }
+
+        final ArrayList<QuestHistoryEntry> completedQuests = readQuestHistoryEntries(reader);
+        final ArrayList<QuestHistoryEntry> failedQuests = readQuestHistoryEntries(reader);
+
+        final int questHistorySummariesAmount = reader.readAmount();
+        final HashMap<String, QuestHistorySummary> questHistorySummaries = new HashMap<>();
+        for (int i = 0; i < questHistorySummariesAmount; i++) {
+          questHistorySummaries.put(reader.readName(), new QuestHistorySummary(reader.readVarLong(), reader.readVarLong(), reader.readVarLong(), reader.readVarLong()));
+        }
+
+        playerData = new StoredPlayerData(
+            uuid,
+            profile,
+            currentProfile,
+            questPoints,
+            activeQuests,
+            activeTriggers,
+            activeObjectives,
+            completedQuests,
+            failedQuests,
+            questHistorySummaries
+        );
+      }
+
+      final int tagsAmount = reader.readAmount();
+      final LinkedHashMap<String, Object> tags = new LinkedHashMap<>();
+      final TagType[] tagTypes = TagType.values();
+      for (int i = 0; i < tagsAmount; i++) {
+        final String tagIdentifier = reader.readName();
+        final int tagTypeOrdinal = reader.readVarInt();
+        if (tagTypeOrdinal < 0 || tagTypeOrdinal >= tagTypes.length) {
+          throw new IOException("Unknown tag type " + tagTypeOrdinal + " of tag " + tagIdentifier);
+        }
+        tags.put(tagIdentifier, switch (tagTypes[tagTypeOrdinal]) {
+          case BOOLEAN -> reader.readVarInt() != 0;
+          case INTEGER -> reader.readIntVarLong();
+          case FLOAT -> Float.intBitsToFloat(reader.readInt());
+          case DOUBLE -> reader.readDouble();
+          case STRING -> reader.readString();
+        });
+      }
+
+      if (reader.byteBuffer.hasRemaining()) {
+        throw new IOException("Unexpected " + reader.byteBuffer.remaining() + " bytes at the end of the player data");
+      }
+      return new Profile(uuid, profile, playerData, tags);
+    } catch (final BufferUnderflowException e) {
+      throw new IOException("The player data is truncated", e);
+    }
+  }
+
+  private static ArrayList<QuestHistoryEntry> readQuestHistoryEntries(final Reader reader) throws IOException {
+    final int amount = reader.readAmount();
+    final ArrayList<QuestHistoryEntry> questHistoryEntries = new ArrayList<>(amount);
+    long time = 0;
+    for (int i = 0; i < amount; i++) {
+      final String questName = reader.readName();
+      time += reader.readVarLong();
+      questHistoryEntries.add(new QuestHistoryEntry(questName, time));
+    }
+    return questHistoryEntries;
+  }
+
+  private static final class Writer extends ByteArrayOutputStream {
+    private final LinkedHashMap<String, Integer> names = new LinkedHashMap<>();
+
+    private Writer() {
+      super(256);
+    }
+
+    /**
+     * Writes a zig-zag encoded variable-length integer, so small negative numbers are short as well
+     */
+    private void writeVarLong(final long value) {
+      long zigZag = (value << 1) ^ (value >> 63);
+      while ((zigZag & ~0x7FL) != 0) {
+        write((int) ((zigZag & 0x7F) | 0x80));
+        zigZag >>>= 7;
+      }
+      write((int) zigZag);
+    }
+
+    /**
+     * Writes a variable-length integer which is never negative
+     */
+    private void writeVarInt(final int value) {
+      int remaining = value;
+      while ((remaining & ~0x7F) != 0) {
+        write((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      write(remaining);
+    }
+
+    private void writeInt(final int value) {
+      write(value >>> 24);
+      write(value >>> 16);
+      write(value >>> 8);
+      write(value);
+    }
+
+    private void writeLong(final long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    private void writeDouble(final double value) {
+      writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    private void writeString(final String value) {
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length);
+      write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes a reference to the name in the string table
+     */
+    private void writeName(final String name) {
+      writeVarInt(names.computeIfAbsent(name, newName -> names.size()));
+    }
+
+    private void writeNullableName(@Nullable final String name) {
+      if (name == null) {
+        writeVarInt(0);
+      } else {
+        writeVarInt(names.computeIfAbsent(name, newName -> names.size()) + 1);
+      }
+    }
+  }
+
+  private static final class Reader {
+    private final ByteBuffer byteBuffer;
+    private String[] names = new String[0];
+
+    private Reader(final ByteBuffer byteBuffer) {
+      this.byteBuffer = byteBuffer;
+    }
+
+    private long readVarLong() throws IOException {
+      long zigZag = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        final byte b = byteBuffer.get();
+        zigZag |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+      }
+      throw new IOException("Malformed variable-length integer");
+    }
+
+    private int readIntVarLong() throws IOException {
+      final long value = readVarLong();
+      if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+        throw new IOException("Integer out of range: " + value);
+      }
+      return (int) value;
+    }
+
+    private int readVarInt() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        final byte b = byteBuffer.get();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          if (value < 0) {
+            break;
+          }
+          return value;
+        }
+      }
+      throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Reads the amount of the following elements. Every element takes at least one byte, so larger amounts can only be corrupt
+     * (and would otherwise allocate huge lists).
+     */
+    private int readAmount() throws IOException {
+      final int amount = readVarInt();
+      if (amount > byteBuffer.remaining()) {
+        throw new IOException("Amount " + amount + " is larger than the remaining player data");
+      }
+      return amount;
+    }
+
+    private int readInt() {
+      return byteBuffer.getInt();
+    }
+
+    private long readLong() {
+      return byteBuffer.getLong();
+    }
+
+    private double readDouble() {
+      return byteBuffer.getDouble();
+    }
+
+    private String readString() throws IOException {
+      final int length = readAmount();
+      final String value = new String(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), length, StandardCharsets.UTF_8);
+      byteBuffer.position(byteBuffer.position() + length);
+      return value;
+    }
+
+    private String readName() throws IOException {
+      final int nameIndex = readVarInt();
+      if (nameIndex >= names.length) {
+        throw new IOException("Unknown name " + nameIndex);
+      }
+      return names[nameIndex];
+    }
+
+    private @Nullable String readNullableName() throws IOException {
+      final int nameIndex = readVarInt();
+      if (nameIndex == 0) {
+        return null;
+      }
+      if (nameIndex > names.length) {
+        throw new IOException("Unknown name " + (nameIndex - 1));
+      }
+      return names[nameIndex - 1];
+    }
+  }
+}
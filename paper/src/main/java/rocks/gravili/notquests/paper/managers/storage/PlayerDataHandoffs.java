@@ -0,0 +1,165 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The statements of the PlayerDataHandoff table, which keeps track of which server has claimed the data of a player (see
+ * {@link PlayerDataStorage#claimPlayerData(UUID, long)}).
+ * <p>
+ * Claims are only ever taken over with a single conditional UPDATE, so two servers can never both claim the data of a player:
+ * The data can be claimed if it has been released, if it's already claimed by this server, or if it's still claimed by exactly
+ * the stale claim which the caller has been waiting for. All statements need a connection in auto-commit mode.
+ */
+public class PlayerDataHandoffs {
+  private final PlayerDataSchema playerDataSchema;
+  private final String serverID;
+
+  /**
+   * A row of the PlayerDataHandoff table: which server has claimed the data of a player (and when), and whether it has released it again
+   */
+  public record Handoff(String serverID, long version, boolean released, long claimedAt) {}
+
+  public PlayerDataHandoffs(final PlayerDataSchema playerDataSchema, final String serverID) {
+    this.playerDataSchema = playerDataSchema;
+    this.serverID = serverID;
+  }
+
+  public final String getServerID() {
+    return serverID;
+  }
+
+  /**
+   * @return the claim on the data of the player, or null if it has never been claimed
+   */
+  public @Nullable Handoff read(final Connection connection, final UUID uuid) throws SQLException {
+    try (final PreparedStatement selectFromHandoffPS = connection.prepareStatement("""
+        SELECT ServerID, Version, Released, ClaimedAt FROM PlayerDataHandoff WHERE PlayerUUID = ?;
+    """)) {
+      playerDataSchema.setPlayerUUID(selectFromHandoffPS, 1, uuid);
+      try (final ResultSet result = selectFromHandoffPS.executeQuery()) {
+        if (!result.next()) {
+          return null;
+        }
+        return new Handoff(result.getString("ServerID"), result.getLong("Version"), result.getBoolean("Released"), result.getLong("ClaimedAt"));
+      }
+    }
+  }
+
+  /**
+   * @return true if the data of the player could be claimed by another server right now, without taking over a claim
+   */
+  public final boolean isClaimable(@Nullable final Handoff handoff) {
+    return handoff == null || handoff.released() || handoff.serverID().equals(serverID);
+  }
+
+  /**
+   * Claims the data of the player for this server, if it's released, already claimed by this server, or still claimed by
+   * staleClaim.
+   *
+   * @param staleClaim a claim of another server which can be taken over, because it hasn't been released in time, or null
+   * @return the claim of this server, or null if the data is claimed by another server (or it has been claimed by another
+   *         server at the same time)
+   */
+  public @Nullable Handoff tryClaim(final Connection connection, final UUID uuid, @Nullable final Handoff staleClaim) throws SQLException {
+    final long claimedAt = System.currentTimeMillis();
+    try (final PreparedStatement updateHandoffPS = connection.prepareStatement("""
+        UPDATE PlayerDataHandoff SET ServerID = ?, Released = ?, ClaimedAt = ?
+        WHERE PlayerUUID = ? AND (Released = ? OR ServerID = ? OR (ServerID = ? AND ClaimedAt = ?));
+    """)) {
+      updateHandoffPS.setString(1, serverID);
+      updateHandoffPS.setBoolean(2, false);
+      updateHandoffPS.setLong(3, claimedAt);
+      playerDataSchema.setPlayerUUID(updateHandoffPS, 4, uuid);
+      updateHandoffPS.setBoolean(5, true);
+      updateHandoffPS.setString(6, serverID);
+      if (staleClaim != null) {
+        updateHandoffPS.setString(7, staleClaim.serverID());
+        updateHandoffPS.setLong(8, staleClaim.claimedAt());
+      } else {
+        //Never matches anything
+        updateHandoffPS.setNull(7, Types.VARCHAR);
+        updateHandoffPS.setNull(8, Types.BIGINT);
+      }
+      if (updateHandoffPS.executeUpdate() == 1) {
+        return read(connection, uuid);
+      }
+    }
+
+    if (read(connection, uuid) != null) {
+      return null; //Claimed by another server
+    }
+    try (final PreparedStatement insertIntoHandoffPS = connection.prepareStatement("""
+        INSERT INTO PlayerDataHandoff (PlayerUUID, ServerID, Version, Released, ClaimedAt) VALUES (?, ?, 0, ?, ?);
+    """)) {
+      playerDataSchema.setPlayerUUID(insertIntoHandoffPS, 1, uuid);
+      insertIntoHandoffPS.setString(2, serverID);
+      insertIntoHandoffPS.setBoolean(3, false);
+      insertIntoHandoffPS.setLong(4, claimedAt);
+      insertIntoHandoffPS.executeUpdate();
+      return new Handoff(serverID, 0, false, claimedAt);
+    } catch (final SQLException e) {
+      if (read(connection, uuid) != null) {
+        return null; //Another server claimed it for the first time at the same time, so the primary key prevented this insert
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Releases the claim of this server on the data of the player and increases its version
+   *
+   * @return false if the data wasn't claimed by this server anymore
+   */
+  public boolean release(final Connection connection, final UUID uuid) throws SQLException {
+    try (final PreparedStatement releaseHandoffPS = connection.prepareStatement("""
+        UPDATE PlayerDataHandoff SET Released = ?, Version = Version + 1 WHERE PlayerUUID = ? AND ServerID = ? AND Released = ?;
+    """)) {
+      releaseHandoffPS.setBoolean(1, true);
+      playerDataSchema.setPlayerUUID(releaseHandoffPS, 2, uuid);
+      releaseHandoffPS.setString(3, serverID);
+      releaseHandoffPS.setBoolean(4, false);
+      return releaseHandoffPS.executeUpdate() == 1;
+    }
+  }
+
+  /**
+   * Releases all claims of this server. Used on startup, as claims which are left over from before then (because the server
+   * crashed or was killed) can never be released otherwise, and all of their data which could be saved has been saved.
+   *
+   * @return the amount of released claims
+   */
+  public int releaseAll(final Connection connection) throws SQLException {
+    try (final PreparedStatement releaseHandoffsPS = connection.prepareStatement("""
+        UPDATE PlayerDataHandoff SET Released = ?, Version = Version + 1 WHERE ServerID = ? AND Released = ?;
+    """)) {
+      releaseHandoffsPS.setBoolean(1, true);
+      releaseHandoffsPS.setString(2, serverID);
+      releaseHandoffsPS.setBoolean(3, false);
+      return releaseHandoffsPS.executeUpdate();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import rocks.gravili.notquests.common.managers.LogCategory;
+import rocks.gravili.notquests.paper.NotQuests;
+
+/**
+ * Where the player data storages log to. The storages only need these few methods, so they can be used without the rest of the
+ * plugin (e.g. by tests and benchmarks).
+ */
+public interface PlayerDataLog {
+
+  void info(String message, Object... interpolatedStrings);
+
+  void warn(String message, Object... interpolatedStrings);
+
+  void severe(String message, Object... interpolatedStrings);
+
+  void debug(String message, Object... interpolatedStrings);
+
+  /**
+   * @return a log which writes to the LogManager of the plugin, in the data category
+   */
+  static PlayerDataLog of(final NotQuests main) {
+    return new PlayerDataLog() {
+      @Override
+      public void info(final String message, final Object... interpolatedStrings) {
+        main.getLogManager().info(LogCategory.DATA, message, interpolatedStrings);
+      }
+
+      @Override
+      public void warn(final String message, final Object... interpolatedStrings) {
+        main.getLogManager().warn(LogCategory.DATA, message, interpolatedStrings);
+      }
+
+      @Override
+      public void severe(final String message, final Object... interpolatedStrings) {
+        main.getLogManager().severe(LogCategory.DATA, message, interpolatedStrings);
+      }
+
+      @Override
+      public void debug(final String message, final Object... interpolatedStrings) {
+        main.getLogManager().debug(LogCategory.DATA, message, interpolatedStrings);
+      }
+    };
+  }
+}
@@ -0,0 +1,774 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.common.managers.LogCategory;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.tags.TagType;
+
+/**
+ * The layout of the player data tables, and how values are encoded in them.
+ * <p>
+ * There are two encodings. TEXT is the original layout: UUIDs, quest names, objective types, trigger types, profiles and tag
+ * identifiers are stored as strings, and tag values as strings next to their tag type. COMPACT stores UUIDs as 16 bytes, all those
+ * repeated strings as integer IDs of the Dictionary table, and tag values in typed columns.
+ * <p>
+ * Both encodings use the same table and column names, so every query works with both. Only the values need to be set and read
+ * through this class.
+ */
+public class PlayerDataSchema {
+
+  public enum Encoding {
+    TEXT,
+    COMPACT
+  }
+
+  /**
+   * What a column stores. This decides its SQL type and how its values are encoded.
+   */
+  public enum ColumnType {
+    PLAYER_UUID,
+    QUEST_NAME,
+    OBJECTIVE_TYPE,
+    TRIGGER_TYPE,
+    PROFILE,
+    TAG_IDENTIFIER,
+    TAG_VALUE,
+    PLAIN;
+
+    /**
+     * @return true if the values of this column are stored as Dictionary IDs in the compact encoding
+     */
+    public final boolean isDictionaryValue() {
+      return this != PLAYER_UUID && this != TAG_VALUE && this != PLAIN;
+    }
+  }
+
+  /**
+   * @param plainSqlType the SQL type of PLAIN columns. Ignored for all other column types, as their SQL type depends on the encoding
+   */
+  public record Column(String name, ColumnType type, @Nullable String plainSqlType) {}
+
+  public record Table(String name, List<Column> columns, @Nullable String primaryKey) {}
+
+  public static final List<Table> playerDataTables = List.of(
+      new Table("QuestPlayerProfileData", List.of(
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("CurrentProfile", ColumnType.PROFILE, null)
+      ), "PlayerUUID"),
+      new Table("QuestPlayerData", List.of(
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("QuestPoints", ColumnType.PLAIN, "BIGINT(255)"),
+          new Column("Profile", ColumnType.PROFILE, null)
+      ), null),
+      new Table("ActiveQuests", List.of(
+          new Column("QuestName", ColumnType.QUEST_NAME, null),
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("Profile", ColumnType.PROFILE, null)
+      ), null),
+      new Table("CompletedQuests", List.of(
+          new Column("QuestName", ColumnType.QUEST_NAME, null),
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("TimeCompleted", ColumnType.PLAIN, "BIGINT(255)"),
+          new Column("Profile", ColumnType.PROFILE, null)
+      ), null),
+      new Table("FailedQuests", List.of(
+          new Column("QuestName", ColumnType.QUEST_NAME, null),
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("TimeFailed", ColumnType.PLAIN, "BIGINT(255)"),
+          new Column("Profile", ColumnType.PROFILE, null)
+      ), null),
+      new Table("ActiveTriggers", List.of(
+          new Column("TriggerType", ColumnType.TRIGGER_TYPE, null),
+          new Column("QuestName", ColumnType.QUEST_NAME, null),
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("CurrentProgress", ColumnType.PLAIN, "BIGINT(255)"),
+          new Column("TriggerID", ColumnType.PLAIN, "INT(255)"),
+          new Column("Profile", ColumnType.PROFILE, null)
+      ), null),
+      new Table("ActiveObjectives", List.of(
+          new Column("ObjectiveType", ColumnType.OBJECTIVE_TYPE, null),
+          new Column("QuestName", ColumnType.QUEST_NAME, null),
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("CurrentProgress", ColumnType.PLAIN, "DOUBLE"),
+          new Column("ObjectiveID", ColumnType.PLAIN, "INT(255)"),
+          new Column("HasBeenCompleted", ColumnType.PLAIN, "BOOLEAN"),
+          new Column("ProgressNeeded", ColumnType.PLAIN, "DOUBLE"),
+          new Column("Profile", ColumnType.PROFILE, null)
+      ), null),
+      new Table("Tags", List.of(
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("TagIdentifier", ColumnType.TAG_IDENTIFIER, null),
+          new Column("TagValue", ColumnType.TAG_VALUE, null),
+          new Column("TagType", ColumnType.PLAIN, "varchar(200)"),
+          new Column("Profile", ColumnType.PROFILE, null)
+      ), null),
+      new Table("QuestHistoryRollup", List.of(
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("Profile", ColumnType.PROFILE, null),
+          new Column("QuestName", ColumnType.QUEST_NAME, null),
+          new Column("Completions", ColumnType.PLAIN, "BIGINT(255)"),
+          new Column("LastCompleted", ColumnType.PLAIN, "BIGINT(255)"),
+          new Column("Fails", ColumnType.PLAIN, "BIGINT(255)"),
+          new Column("LastFailed", ColumnType.PLAIN, "BIGINT(255)")
+      ), null),
+      new Table("PlayerDataHandoff", List.of(
+          new Column("PlayerUUID", ColumnType.PLAYER_UUID, null),
+          new Column("ServerID", ColumnType.PLAIN, "varchar(64)"),
+          new Column("Version", ColumnType.PLAIN, "BIGINT(255)"),
+          new Column("Released", ColumnType.PLAIN, "BOOLEAN"),
+          new Column("ClaimedAt", ColumnType.PLAIN, "BIGINT(255)")
+      ), "PlayerUUID")
+  );
+
+  /**
+   * The step of the StorageConversion table which marks that all tables have been copied, and the old ones are being replaced
+   */
+  private static final String swapConversionStep = "*swap*";
+
+  static final String createDictionaryTableStatement = """
+      CREATE TABLE IF NOT EXISTS `Dictionary` (`ID` INT, `Kind` varchar(32), `Value` varchar(200), PRIMARY KEY (`ID`), UNIQUE (`Kind`, `Value`))
+  """;
+
+  private final NotQuests main;
+  private final boolean mySQL;
+  private volatile Encoding encoding = Encoding.TEXT;
+
+  /**
+   * Dictionary IDs by "KIND:value", and dictionary values by ID. Dictionary entries are never changed or removed, so they can be
+   * cached forever.
+   */
+  private final ConcurrentHashMap<String, Integer> dictionaryIDs = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Integer, String> dictionaryValues = new ConcurrentHashMap<>();
+
+  public PlayerDataSchema(final NotQuests main, final boolean mySQL) {
+    this.main = main;
+    this.mySQL = mySQL;
+  }
+
+  public final Encoding getEncoding() {
+    return encoding;
+  }
+
+  public void setEncoding(final Encoding encoding) {
+    this.encoding = encoding;
+  }
+
+  public final boolean isCompact() {
+    return encoding == Encoding.COMPACT;
+  }
+
+  //Tables
+
+  public void createTables(final Statement statement, final Encoding encoding) throws SQLException {
+    for (final Table table : playerDataTables) {
+      if (main.getConfiguration().isVerboseStartupMessages()) {
+        main.getLogManager().info(LogCategory.DATA, "Creating database table '%s' if it doesn't exist yet...", table.name());
+      }
+      statement.executeUpdate(getCreateTableStatement(table, table.name(), encoding));
+    }
+    if (encoding == Encoding.COMPACT) {
+      statement.executeUpdate(createDictionaryTableStatement);
+    }
+  }
+
+  String getCreateTableStatement(final Table table, final String tableName, final Encoding encoding) {
+    final ArrayList<String> columnDefinitions = new ArrayList<>();
+    for (final Column column : table.columns()) {
+      columnDefinitions.add(getColumnDefinition(column, encoding));
+    }
+    if (table.primaryKey() != null) {
+      columnDefinitions.add("PRIMARY KEY (`" + table.primaryKey() + "`)");
+    }
+    return "CREATE TABLE IF NOT EXISTS `" + tableName + "` (" + String.join(", ", columnDefinitions) + ")";
+  }
+
+  private String getColumnDefinition(final Column column, final Encoding encoding) {
+    if (column.type() == ColumnType.PLAIN) {
+      return "`" + column.name() + "` " + column.plainSqlType();
+    }
+    if (column.type() == ColumnType.TAG_VALUE) {
+      return encoding == Encoding.COMPACT
+          ? "`LongValue` BIGINT, `DoubleValue` DOUBLE, `StringValue` varchar(200)"
+          : "`TagValue` varchar(200)";
+    }
+    if (encoding == Encoding.TEXT) {
+      return "`" + column.name() + "` varchar(200)";
+    }
+    if (column.type() == ColumnType.PLAYER_UUID) {
+      //MySQL cannot index BLOB columns without a prefix length. SQLite has no fixed-size binary type.
+      return "`" + column.name() + "` " + (mySQL ? "BINARY(16)" : "BLOB");
+    }
+    return "`" + column.name() + "` INT";
+  }
+
+  private List<String> getColumnNames(final Table table, final Encoding encoding) {
+    final ArrayList<String> columnNames = new ArrayList<>();
+    for (final Column column : table.columns()) {
+      if (column.type() == ColumnType.TAG_VALUE) {
+        columnNames.addAll(encoding == Encoding.COMPACT ? List.of("LongValue", "DoubleValue", "StringValue") : List.of("TagValue"));
+      } else {
+        columnNames.add(column.name());
+      }
+    }
+    return columnNames;
+  }
+
+  /**
+   * @return the encoding the player data tables have been created with, or null if they don't exist yet
+   */
+  public @Nullable Encoding readStoredEncoding(final Statement statement) throws SQLException {
+    statement.executeUpdate("""
+        CREATE TABLE IF NOT EXISTS `StorageEncoding` (`Encoding` varchar(32))
+    """);
+    try (final ResultSet storedEncodingResult = statement.executeQuery("SELECT Encoding FROM StorageEncoding")) {
+      if (storedEncodingResult.next()) {
+        return Encoding.valueOf(storedEncodingResult.getString("Encoding").toUpperCase(Locale.ROOT));
+      }
+    }
+    //Databases which have been created before there was more than one encoding use the text encoding
+    try (final ResultSet ignored = statement.executeQuery("SELECT COUNT(*) FROM QuestPlayerData")) {
+      return Encoding.TEXT;
+    } catch (final SQLException e) {
+      return null;
+    }
+  }
+
+  public void storeEncoding(final Statement statement, final Encoding encoding) throws SQLException {
+    statement.executeUpdate("DELETE FROM StorageEncoding");
+    statement.executeUpdate("INSERT INTO StorageEncoding (Encoding) VALUES ('" + encoding.name() + "')");
+  }
+
+  /**
+   * Re-creates all player data tables in the new encoding, copies all rows over and stores the new encoding.
+   * <p>
+   * This happens in two phases, so it can be interrupted at any point without losing data. First, every table is copied into a
+   * new "...Converted" table, while the old tables stay untouched. Each completely copied table is recorded in the
+   * StorageConversion table, so an interrupted conversion continues with the next table. Only once all tables have been copied,
+   * the old tables are replaced with the converted ones (see {@link #finishInterruptedConversion(Connection)}, which finishes
+   * this if it's interrupted as well). If any row of a table cannot be converted, the conversion is aborted before any old table
+   * has been dropped.
+   * <p>
+   * Indexes of the old tables are dropped with them and need to be created again afterwards.
+   */
+  public void convertTables(final Connection connection, final Encoding fromEncoding, final Encoding toEncoding) throws SQLException {
+    final boolean previousAutoCommit = connection.getAutoCommit();
+    try (final Statement statement = connection.createStatement()) {
+      if (toEncoding == Encoding.COMPACT) {
+        createTables(statement, Encoding.COMPACT); //Only creates the Dictionary, as all other tables exist already
+      }
+      loadDictionary(connection);
+
+      final HashMap<String, String> conversionSteps = readConversionSteps(statement);
+      if (conversionSteps.values().stream().anyMatch(target -> !target.equals(toEncoding.name()))) {
+        //Copies of an interrupted conversion into another encoding. The old tables are still complete, so they are just copied again.
+        discardInterruptedConversion(connection);
+        conversionSteps.clear();
+      }
+
+      for (final Table table : playerDataTables) {
+        final String convertedTableName = table.name() + "Converted";
+        if (conversionSteps.containsKey(table.name())) {
+          main.getLogManager().info(LogCategory.DATA, "Database table '%s' has already been converted by a previous, interrupted conversion.", table.name());
+          continue;
+        }
+        main.getLogManager().info(LogCategory.DATA, "Converting database table '%s' to the %s encoding...", table.name(), toEncoding.name().toLowerCase(Locale.ROOT));
+
+        if (toEncoding == Encoding.COMPACT) {
+          addDictionaryValuesOfTable(connection, table, fromEncoding);
+        }
+        statement.executeUpdate("DROP TABLE IF EXISTS `" + convertedTableName + "`"); //Incomplete copy of an interrupted conversion. The old table is still complete.
+        statement.executeUpdate(getCreateTableStatement(table, convertedTableName, toEncoding));
+
+        final List<String> columnNames = getColumnNames(table, toEncoding);
+        final String insertStatement = "INSERT INTO `" + convertedTableName + "` (" + String.join(", ", columnNames) + ") VALUES ("
+            + String.join(", ", Collections.nCopies(columnNames.size(), "?")) + ")";
+
+        connection.setAutoCommit(false);
+        int copiedRows = 0;
+        try (final Statement selectStatement = connection.createStatement();
+             final ResultSet oldRows = selectStatement.executeQuery("SELECT * FROM `" + table.name() + "`");
+             final PreparedStatement insertIntoConvertedTablePS = connection.prepareStatement(insertStatement)) {
+          while (oldRows.next()) {
+            try {
+              copyRow(table, oldRows, fromEncoding, insertIntoConvertedTablePS, toEncoding);
+            } catch (final IllegalArgumentException e) {
+              throw new SQLException("A row of '" + table.name() + "' could not be converted, so the conversion has been aborted. No data has been changed. Fix or remove the row, or switch storage.compact-encoding back: " + e.getMessage(), e);
+            }
+            insertIntoConvertedTablePS.addBatch();
+            if (++copiedRows % 500 == 0) {
+              insertIntoConvertedTablePS.executeBatch();
+            }
+          }
+          insertIntoConvertedTablePS.executeBatch();
+          connection.commit();
+        } catch (final SQLException e) {
+          connection.rollback();
+          throw e;
+        } finally {
+          connection.setAutoCommit(previousAutoCommit);
+        }
+
+        addConversionStep(connection, table.name(), toEncoding);
+        main.getLogManager().info(LogCategory.DATA, "  Copied %s rows of '%s'", copiedRows, table.name());
+      }
+
+      //From here on, the old tables are dropped. If this is interrupted, finishInterruptedConversion() finishes it on the next start.
+      addConversionStep(connection, swapConversionStep, toEncoding);
+      swapConvertedTables(statement, toEncoding);
+    }
+  }
+
+  /**
+   * Adds the values of all dictionary columns of a table to the Dictionary table, as they cannot be added while copying its rows
+   */
+  private void addDictionaryValuesOfTable(final Connection connection, final Table table, final Encoding fromEncoding) throws SQLException {
+    for (final Column column : table.columns()) {
+      if (!column.type().isDictionaryValue()) {
+        continue;
+      }
+      final HashSet<String> values = new HashSet<>();
+      try (final Statement selectStatement = connection.createStatement();
+           final ResultSet valuesResult = selectStatement.executeQuery("SELECT DISTINCT `" + column.name() + "` FROM `" + table.name() + "`")) {
+        while (valuesResult.next()) {
+          values.add(getValue(valuesResult, column.name(), column.type(), fromEncoding));
+        }
+      }
+      addDictionaryValuesToTable(connection, column.type(), values);
+    }
+  }
+
+  /**
+   * Finishes a conversion which has been interrupted while replacing the old tables with the converted ones. Has to be called
+   * before the tables are created, as some of the old tables might be gone already.
+   *
+   * @return the encoding the tables have been converted to, or null if no conversion had to be finished
+   */
+  public @Nullable Encoding finishInterruptedConversion(final Connection connection) throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      final String target = readConversionSteps(statement).get(swapConversionStep);
+      if (target == null) {
+        return null;
+      }
+      final Encoding toEncoding = Encoding.valueOf(target);
+      main.getLogManager().info(LogCategory.DATA, "Finishing the interrupted conversion of the player data to the %s encoding...", toEncoding.name().toLowerCase(Locale.ROOT));
+      swapConvertedTables(statement, toEncoding);
+      return toEncoding;
+    }
+  }
+
+  /**
+   * Drops the copies of a conversion which has been interrupted before any old table has been replaced. They would be outdated
+   * by the time the conversion is started again.
+   */
+  public void discardInterruptedConversion(final Connection connection) throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      if (readConversionSteps(statement).isEmpty()) {
+        return;
+      }
+      for (final Table table : playerDataTables) {
+        statement.executeUpdate("DROP TABLE IF EXISTS `" + table.name() + "Converted`");
+      }
+      statement.executeUpdate("DELETE FROM StorageConversion");
+    }
+  }
+
+  /**
+   * Replaces every old table which still has a converted copy with that copy, and stores the new encoding. Every step can be
+   * repeated, so this can simply be called again if it's interrupted.
+   */
+  private void swapConvertedTables(final Statement statement, final Encoding toEncoding) throws SQLException {
+    for (final Table table : playerDataTables) {
+      final String convertedTableName = table.name() + "Converted";
+      if (!tableExists(statement, convertedTableName)) {
+        continue; //Already replaced
+      }
+      statement.executeUpdate("DROP TABLE IF EXISTS `" + table.name() + "`");
+      statement.executeUpdate("ALTER TABLE `" + convertedTableName + "` RENAME TO `" + table.name() + "`");
+    }
+    storeEncoding(statement, toEncoding);
+    statement.executeUpdate("DELETE FROM StorageConversion");
+  }
+
+  private boolean tableExists(final Statement statement, final String tableName) {
+    try (final ResultSet ignored = statement.executeQuery("SELECT 1 FROM `" + tableName + "` LIMIT 1")) {
+      return true;
+    } catch (final SQLException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the finished steps of an interrupted conversion (table names, or {@link #swapConversionStep}), and the encoding they converted to
+   */
+  private HashMap<String, String> readConversionSteps(final Statement statement) throws SQLException {
+    statement.executeUpdate("""
+        CREATE TABLE IF NOT EXISTS `StorageConversion` (`Step` varchar(200), `Target` varchar(32))
+    """);
+    final HashMap<String, String> conversionSteps = new HashMap<>();
+    try (final ResultSet conversionStepsResult = statement.executeQuery("SELECT Step, Target FROM StorageConversion")) {
+      while (conversionStepsResult.next()) {
+        conversionSteps.put(conversionStepsResult.getString("Step"), conversionStepsResult.getString("Target"));
+      }
+    }
+    return conversionSteps;
+  }
+
+  private void addConversionStep(final Connection connection, final String step, final Encoding toEncoding) throws SQLException {
+    try (final PreparedStatement insertIntoStorageConversionPS = connection.prepareStatement("INSERT INTO StorageConversion (Step, Target) VALUES (?, ?)")) {
+      insertIntoStorageConversionPS.setString(1, step);
+      insertIntoStorageConversionPS.setString(2, toEncoding.name());
+      insertIntoStorageConversionPS.executeUpdate();
+    }
+  }
+
+  private void copyRow(final Table table, final ResultSet oldRow, final Encoding fromEncoding, final PreparedStatement insertPS, final Encoding toEncoding) throws SQLException {
+    int parameterIndex = 1;
+    for (final Column column : table.columns()) {
+      switch (column.type()) {
+        case PLAYER_UUID -> {
+          setPlayerUUID(insertPS, parameterIndex, getPlayerUUID(oldRow, column.name(), fromEncoding), toEncoding);
+          parameterIndex++;
+        }
+        case TAG_VALUE -> parameterIndex += setTagValue(insertPS, parameterIndex, getTagValue(oldRow, oldRow.getString("TagType"), fromEncoding), toEncoding);
+        case PLAIN -> {
+          insertPS.setObject(parameterIndex, oldRow.getObject(column.name()));
+          parameterIndex++;
+        }
+        default -> {
+          setValue(insertPS, parameterIndex, column.type(), getValue(oldRow, column.name(), column.type(), fromEncoding), toEncoding);
+          parameterIndex++;
+        }
+      }
+    }
+  }
+
+  //Dictionary
+
+  /**
+   * Loads all entries of the Dictionary table into the cache, if the table exists
+   */
+  public void loadDictionary(final Connection connection) {
+    try (final Statement statement = connection.createStatement();
+         final ResultSet dictionaryResult = statement.executeQuery("SELECT ID, Kind, Value FROM Dictionary")) {
+      while (dictionaryResult.next()) {
+        cacheDictionaryEntry(dictionaryResult.getInt("ID"), dictionaryResult.getString("Kind"), dictionaryResult.getString("Value"));
+      }
+    } catch (final SQLException ignored) {
+      //No Dictionary table, as the compact encoding has never been used
+    }
+  }
+
+  private void cacheDictionaryEntry(final int id, final String kind, final String value) {
+    dictionaryIDs.put(kind + ":" + value, id);
+    dictionaryValues.put(id, value);
+  }
+
+  /**
+   * Adds all values which aren't in the Dictionary table yet, if the compact encoding is used. Values can only be added outside of
+   * transactions, so that a cached ID always belongs to a committed entry. So this has to be called with all values a transaction
+   * is going to set before it's started.
+   */
+  public void addDictionaryValues(final Connection connection, final ColumnType kind, final Collection<String> values) throws SQLException {
+    if (encoding == Encoding.COMPACT && kind.isDictionaryValue()) {
+      addDictionaryValuesToTable(connection, kind, values);
+    }
+  }
+
+  private void addDictionaryValuesToTable(final Connection connection, final ColumnType kind, final Collection<String> values) throws SQLException {
+    for (final String value : values) {
+      if (value != null && !dictionaryIDs.containsKey(kind.name() + ":" + value)) {
+        addDictionaryValue(connection, kind, value);
+      }
+    }
+  }
+
+  private synchronized int addDictionaryValue(final Connection connection, final ColumnType kind, final String value) throws SQLException {
+    if (!connection.getAutoCommit()) {
+      throw new SQLException("Cannot add " + kind.name() + " '" + value + "' to the Dictionary table inside of a transaction. It has to be added before the transaction is started.");
+    }
+    for (int attempt = 0; attempt < 5; attempt++) {
+      final Integer existingID = selectDictionaryID(connection, kind, value);
+      if (existingID != null) {
+        return existingID;
+      }
+      //The next ID is determined by the insert itself, so no other server can take it in between. As the connection is in
+      //auto-commit mode, every statement sees the latest committed entries, even with MySQL's REPEATABLE READ isolation level.
+      try (final PreparedStatement insertIntoDictionaryPS = connection.prepareStatement("INSERT INTO Dictionary (ID, Kind, Value) SELECT COALESCE(MAX(ID), 0) + 1, ?, ? FROM Dictionary")) {
+        insertIntoDictionaryPS.setString(1, kind.name());
+        insertIntoDictionaryPS.setString(2, value);
+        insertIntoDictionaryPS.executeUpdate();
+      } catch (final SQLException e) {
+        //Another server sharing this database added the same ID or value at the same time. Selecting it again picks up its entry.
+        main.getLogManager().debug("Retrying to add '%s' to the Dictionary table: %s", value, e.getMessage());
+      }
+    }
+    //Only cached by selectDictionaryID() once it has been committed
+    final Integer addedID = selectDictionaryID(connection, kind, value);
+    if (addedID != null) {
+      return addedID;
+    }
+    throw new SQLException("Could not add " + kind.name() + " '" + value + "' to the Dictionary table");
+  }
+
+  private int getDictionaryID(final Connection connection, final ColumnType kind, final String value) throws SQLException {
+    final Integer cachedID = dictionaryIDs.get(kind.name() + ":" + value);
+    if (cachedID != null) {
+      return cachedID;
+    }
+    if (connection.getAutoCommit()) {
+      return addDictionaryValue(connection, kind, value);
+    }
+    //Added by another server sharing this database, or addDictionaryValues() wasn't called before the transaction
+    final Integer existingID = selectDictionaryID(connection, kind, value);
+    if (existingID != null) {
+      return existingID;
+    }
+    throw new SQLException(kind.name() + " '" + value + "' is not in the Dictionary table yet and cannot be added inside of a transaction");
+  }
+
+  private @Nullable Integer selectDictionaryID(final Connection connection, final ColumnType kind, final String value) throws SQLException {
+    try (final PreparedStatement selectFromDictionaryPS = connection.prepareStatement("SELECT ID FROM Dictionary WHERE Kind = ? AND Value = ?")) {
+      selectFromDictionaryPS.setString(1, kind.name());
+      selectFromDictionaryPS.setString(2, value);
+      try (final ResultSet dictionaryResult = selectFromDictionaryPS.executeQuery()) {
+        if (dictionaryResult.next()) {
+          final int id = dictionaryResult.getInt("ID");
+          cacheDictionaryEntry(id, kind.name(), value);
+          return id;
+        }
+      }
+    }
+    return null;
+  }
+
+  private @Nullable String getDictionaryValue(final Connection connection, final int id) throws SQLException {
+    final String cachedValue = dictionaryValues.get(id);
+    if (cachedValue != null) {
+      return cachedValue;
+    }
+    //Added by another server sharing this database
+    try (final PreparedStatement selectFromDictionaryPS = connection.prepareStatement("SELECT Kind, Value FROM Dictionary WHERE ID = ?")) {
+      selectFromDictionaryPS.setInt(1, id);
+      try (final ResultSet dictionaryResult = selectFromDictionaryPS.executeQuery()) {
+        if (dictionaryResult.next()) {
+          cacheDictionaryEntry(id, dictionaryResult.getString("Kind"), dictionaryResult.getString("Value"));
+          return dictionaryResult.getString("Value");
+        }
+      }
+    }
+    return null;
+  }
+
+  //Values
+
+  public void setPlayerUUID(final PreparedStatement preparedStatement, final int parameterIndex, final UUID uuid) throws SQLException {
+    setPlayerUUID(preparedStatement, parameterIndex, uuid, encoding);
+  }
+
+  private void setPlayerUUID(final PreparedStatement preparedStatement, final int parameterIndex, @Nullable final UUID uuid, final Encoding encoding) throws SQLException {
+    if (uuid == null) {
+      preparedStatement.setNull(parameterIndex, encoding == Encoding.COMPACT ? Types.BINARY : Types.VARCHAR);
+    } else if (encoding == Encoding.COMPACT) {
+      preparedStatement.setBytes(parameterIndex, ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array());
+    } else {
+      preparedStatement.setString(parameterIndex, uuid.toString());
+    }
+  }
+
+  public @Nullable UUID getPlayerUUID(final ResultSet resultSet, final String columnName) throws SQLException {
+    return getPlayerUUID(resultSet, columnName, encoding);
+  }
+
+  private @Nullable UUID getPlayerUUID(final ResultSet resultSet, final String columnName, final Encoding encoding) throws SQLException {
+    if (encoding == Encoding.COMPACT) {
+      final byte[] uuidBytes = resultSet.getBytes(columnName);
+      if (uuidBytes == null) {
+        return null;
+      }
+      if (uuidBytes.length != 16) {
+        throw new IllegalArgumentException("Binary UUID with " + uuidBytes.length + " instead of 16 bytes");
+      }
+      final ByteBuffer uuidBuffer = ByteBuffer.wrap(uuidBytes);
+      return new UUID(uuidBuffer.getLong(), uuidBuffer.getLong());
+    }
+    final String uuidString = resultSet.getString(columnName);
+    return uuidString != null ? UUID.fromString(uuidString) : null;
+  }
+
+  /**
+   * Sets the value of a quest name, objective type, trigger type, profile or tag identifier column
+   */
+  public void setValue(final PreparedStatement preparedStatement, final int parameterIndex, final ColumnType columnType, @Nullable final String value) throws SQLException {
+    setValue(preparedStatement, parameterIndex, columnType, value, encoding);
+  }
+
+  /**
+   * Like {@link #setValue(PreparedStatement, int, ColumnType, String)}, but never adds the value to the Dictionary table, so it can
+   * be used with read-only connections. A value which isn't in the Dictionary table yet doesn't match any row.
+   */
+  public void setExistingValue(final PreparedStatement preparedStatement, final int parameterIndex, final ColumnType columnType, final String value) throws SQLException {
+    if (encoding == Encoding.TEXT || !columnType.isDictionaryValue()) {
+      preparedStatement.setString(parameterIndex, value);
+      return;
+    }
+    Integer id = dictionaryIDs.get(columnType.name() + ":" + value);
+    if (id == null) {
+      id = selectDictionaryID(preparedStatement.getConnection(), columnType, value);
+    }
+    preparedStatement.setInt(parameterIndex, id != null ? id : -1);
+  }
+
+  private void setValue(final PreparedStatement preparedStatement, final int parameterIndex, final ColumnType columnType, @Nullable final String value, final Encoding encoding) throws SQLException {
+    if (encoding == Encoding.TEXT || !columnType.isDictionaryValue()) {
+      preparedStatement.setString(parameterIndex, value);
+    } else if (value == null) {
+      preparedStatement.setNull(parameterIndex, Types.INTEGER);
+    } else {
+      preparedStatement.setInt(parameterIndex, getDictionaryID(preparedStatement.getConnection(), columnType, value));
+    }
+  }
+
+  /**
+   * @return the value of a quest name, objective type, trigger type, profile or tag identifier column
+   */
+  public @Nullable String getValue(final ResultSet resultSet, final String columnName, final ColumnType columnType) throws SQLException {
+    return getValue(resultSet, columnName, columnType, encoding);
+  }
+
+  private @Nullable String getValue(final ResultSet resultSet, final String columnName, final ColumnType columnType, final Encoding encoding) throws SQLException {
+    if (encoding == Encoding.TEXT || !columnType.isDictionaryValue()) {
+      return resultSet.getString(columnName);
+    }
+    final int id = resultSet.getInt(columnName);
+    if (resultSet.wasNull()) {
+      return null;
+    }
+    return getDictionaryValue(resultSet.getStatement().getConnection(), id);
+  }
+
+  /**
+   * @return the names of the columns which store the tag value, to be used in INSERT statements
+   */
+  public final String getTagValueColumns() {
+    return isCompact() ? "LongValue, DoubleValue, StringValue" : "TagValue";
+  }
+
+  /**
+   * @return the placeholders for {@link #getTagValueColumns()}
+   */
+  public final String getTagValuePlaceholders() {
+    return isCompact() ? "?, ?, ?" : "?";
+  }
+
+  /**
+   * Sets the parameters of the tag value columns
+   *
+   * @return the amount of parameters which have been set
+   */
+  public int setTagValue(final PreparedStatement preparedStatement, final int parameterIndex, @Nullable final Object tagValue) throws SQLException {
+    return setTagValue(preparedStatement, parameterIndex, tagValue, encoding);
+  }
+
+  private int setTagValue(final PreparedStatement preparedStatement, final int parameterIndex, @Nullable final Object tagValue, final Encoding encoding) throws SQLException {
+    if (encoding == Encoding.TEXT) {
+      preparedStatement.setString(parameterIndex, tagValue != null ? tagValue.toString() : null);
+      return 1;
+    }
+    preparedStatement.setNull(parameterIndex, Types.BIGINT);
+    preparedStatement.setNull(parameterIndex + 1, Types.DOUBLE);
+    preparedStatement.setNull(parameterIndex + 2, Types.VARCHAR);
+    if (tagValue instanceof final Boolean booleanTagValue) {
+      preparedStatement.setLong(parameterIndex, booleanTagValue ? 1 : 0);
+    } else if (tagValue instanceof final Integer integerTagValue) {
+      preparedStatement.setLong(parameterIndex, integerTagValue);
+    } else if (tagValue instanceof final Float floatTagValue) {
+      preparedStatement.setDouble(parameterIndex + 1, floatTagValue);
+    } else if (tagValue instanceof final Double doubleTagValue) {
+      preparedStatement.setDouble(parameterIndex + 1, doubleTagValue);
+    } else if (tagValue != null) {
+      preparedStatement.setString(parameterIndex + 2, tagValue.toString());
+    }
+    return 3;
+  }
+
+  /**
+   * @param tagType the name of the TagType stored in the TagType column
+   * @return the tag value, or null if it's unset or its type is unknown
+   */
+  public @Nullable Object getTagValue(final ResultSet resultSet, final String tagType) throws SQLException {
+    return getTagValue(resultSet, tagType, encoding);
+  }
+
+  private @Nullable Object getTagValue(final ResultSet resultSet, final String tagType, final Encoding encoding) throws SQLException {
+    final TagType resolvedTagType;
+    try {
+      resolvedTagType = TagType.valueOf(tagType);
+    } catch (final IllegalArgumentException | NullPointerException e) {
+      return null;
+    }
+    if (encoding == Encoding.TEXT) {
+      final String tagValue = resultSet.getString("TagValue");
+      if (tagValue == null) {
+        return null;
+      }
+      return switch (resolvedTagType) {
+        case INTEGER -> Integer.parseInt(tagValue);
+        case FLOAT -> Float.parseFloat(tagValue);
+        case BOOLEAN -> Boolean.parseBoolean(tagValue);
+        case DOUBLE -> Double.parseDouble(tagValue);
+        case STRING -> tagValue;
+      };
+    }
+    return switch (resolvedTagType) {
+      case INTEGER, BOOLEAN -> {
+        final long longValue = resultSet.getLong("LongValue");
+        if (resultSet.wasNull()) {
+          yield null;
+        }
+        yield resolvedTagType == TagType.BOOLEAN ? (Object) (longValue != 0) : (Object) (int) longValue;
+      }
+      case FLOAT, DOUBLE -> {
+        final double doubleValue = resultSet.getDouble("DoubleValue");
+        if (resultSet.wasNull()) {
+          yield null;
+        }
+        yield resolvedTagType == TagType.FLOAT ? (Object) (float) doubleValue : (Object) doubleValue;
+      }
+      case STRING -> resultSet.getString("StringValue");
+    };
+  }
+}
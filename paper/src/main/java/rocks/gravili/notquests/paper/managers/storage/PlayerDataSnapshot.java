@@ -0,0 +1,86 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A copy of everything of a single QuestPlayer (profile) which is stored by the {@link PlayerDataStorage}, as plain values.
+ * <p>
+ * Snapshots are taken on the main thread, where the QuestPlayer can't change while it's being copied, and can then be
+ * persisted in any thread without touching the QuestPlayer again.
+ *
+ * @param currentProfile the profile which is currently selected by the player
+ * @param activeObjectives active and completed objectives of all active quests, including sub-objectives. Their quest name
+ *                         is the path of the objective (like "quest.1" for sub-objectives of objective 1). Their
+ *                         progressNeeded is null if it hasn't been stored (by older versions)
+ * @param questHistoryChanges completed and failed quests which haven't been saved yet. The quest history is append-only,
+ *                            so it's never saved as a whole
+ * @param changedTags the values of all tags which have been set since the tags have last been saved, by tag identifier
+ * @param removedTags the identifiers of all tags which have been removed since the tags have last been saved
+ * @param modificationCount the data modification count of the QuestPlayer at the time the snapshot was taken
+ */
+public record PlayerDataSnapshot(
+    UUID uuid,
+    String profile,
+    String currentProfile,
+    long questPoints,
+    List<String> activeQuests,
+    List<ActiveTriggerData> activeTriggers,
+    List<ActiveObjectiveData> activeObjectives,
+    List<QuestHistoryChange> questHistoryChanges,
+    Map<String, Object> changedTags,
+    Set<String> removedTags,
+    int modificationCount
+) {
+
+  /**
+   * @return this snapshot with only the given quest history changes
+   */
+  public PlayerDataSnapshot withQuestHistoryChanges(final List<QuestHistoryChange> questHistoryChanges) {
+    if (questHistoryChanges.size() == this.questHistoryChanges.size()) {
+      return this;
+    }
+    return new PlayerDataSnapshot(uuid, profile, currentProfile, questPoints, activeQuests, activeTriggers, activeObjectives, questHistoryChanges, changedTags, removedTags, modificationCount);
+  }
+
+  public record ActiveTriggerData(String triggerType, String questName, long currentProgress, int triggerID) {}
+
+  public record ActiveObjectiveData(String objectiveType, String questName, double currentProgress, int objectiveID, boolean hasBeenCompleted, @Nullable Double progressNeeded) {}
+
+  /**
+   * @param sequence increases with every change of the quest history of a QuestPlayer. Changes are saved in this order, and
+   *                 each change is only saved once.
+   * @param time the time the quest has been completed or failed at. Unused for {@link Type#CLEAR_COMPLETED}
+   */
+  public record QuestHistoryChange(long sequence, Type type, String questName, long time) {
+    public enum Type {
+      COMPLETED,
+      FAILED,
+      /**
+       * All completions of the quest have been removed, including rolled up ones
+       */
+      CLEAR_COMPLETED
+    }
+  }
+}
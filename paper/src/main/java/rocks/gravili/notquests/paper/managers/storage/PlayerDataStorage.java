@@ -0,0 +1,118 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
+
+/**
+ * Where player data and tags are stored. QuestPlayerManager and TagManager only talk to this interface, so they don't need to
+ * know whether the data ends up in SQL tables or somewhere else.
+ * <p>
+ * Implementations have to be thread-safe. They are called from asynchronous threads only (apart from when the server shuts
+ * down), and never need to touch a QuestPlayer.
+ */
+public interface PlayerDataStorage {
+
+  /**
+   * @return the name of the storage backend, like it's set in storage.backend
+   */
+  String getName();
+
+  /**
+   * @param uuid the player whose profiles should be loaded, or null to load all profiles of all players
+   * @return all stored profiles
+   */
+  List<StoredPlayerData> loadPlayerData(@Nullable UUID uuid) throws Exception;
+
+  /**
+   * Saves the snapshots. Each snapshot is saved atomically on its own, so an error only loses the snapshots it happened in.
+   * Errors are logged by the storage.
+   * <p>
+   * The quest history changes of the snapshots are applied to the stored quest history, so every change has to be passed
+   * exactly once.
+   *
+   * @param onSaved called for every snapshot once it has been saved
+   * @return true if all snapshots have been saved
+   */
+  boolean savePlayerData(List<PlayerDataSnapshot> snapshots, Consumer<PlayerDataSnapshot> onSaved);
+
+  /**
+   * Replaces the stored completed and failed quests which have been rolled up by QuestPlayer.trimQuestHistory() with their
+   * summaries, atomically.
+   *
+   * @param rolledUp what has been rolled up, by quest name. Its latest completion and fail times are the times up to which
+   *                 completions and fails of that quest have been rolled up
+   * @param questHistorySummaries the new summaries, by quest name. Contains at least the quests of rolledUp
+   */
+  void saveQuestHistoryRollup(UUID uuid, String profile, Map<String, QuestHistorySummary> rolledUp, Map<String, QuestHistorySummary> questHistorySummaries) throws Exception;
+
+  /**
+   * @return the tag values of the profile, by tag identifier
+   */
+  Map<String, Object> loadTags(UUID uuid, String profile) throws Exception;
+
+  /**
+   * Saves the tags of the profile which have been set or removed since they have last been saved, atomically. All other stored
+   * tags of the profile are kept as they are.
+   *
+   * @param changedTags the values of all set tags, by tag identifier
+   * @param removedTags the identifiers of all removed tags
+   */
+  void saveTags(UUID uuid, String profile, Map<String, Object> changedTags, Set<String> removedTags) throws Exception;
+
+  /**
+   * Claims the stored data and tags of a joining player for this server (see storage.handoff.server-id). If another server which
+   * shares the storage still has them claimed, because the player just left that server and it hasn't finished saving them yet,
+   * this first waits until that server released them, but for no longer than timeoutMillis.
+   * <p>
+   * Storages which can only be used by a single server don't need to do anything.
+   *
+   * @return the version of the stored data, which is increased every time it's released, or -1 if the storage doesn't keep track of it
+   */
+  default long claimPlayerData(UUID uuid, long timeoutMillis) throws Exception {
+    return -1;
+  }
+
+  /**
+   * Releases the claim of this server on the stored data and tags of a player who left, after all of them have been saved. A
+   * server which is waiting in {@link #claimPlayerData(UUID, long)} for them can load them right away.
+   */
+  default void releasePlayerData(UUID uuid) throws Exception {
+  }
+
+  /**
+   * Releases all claims of this server, which are left over from before it has been restarted. Called once the storage has been
+   * opened, before the data of any player is claimed.
+   */
+  default void releaseAllPlayerData() throws Exception {
+  }
+
+  /**
+   * Called when the plugin shuts down. Nothing can be loaded or saved afterwards.
+   */
+  default void close() {
+  }
+}
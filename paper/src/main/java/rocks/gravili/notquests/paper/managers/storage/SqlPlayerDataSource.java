@@ -0,0 +1,43 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The database SqlPlayerDataStorage works on. Implemented by the DataManager.
+ */
+public interface SqlPlayerDataSource {
+
+  /**
+   * @return a connection for writing (and reading). With SQLite, there is only one, so callers wait for each other here.
+   */
+  Connection getConnection() throws SQLException;
+
+  /**
+   * @return a connection which is only used for reading
+   */
+  Connection getReadConnection() throws SQLException;
+
+  /**
+   * @return the layout of the player data tables, which has to be used to set and read their values
+   */
+  PlayerDataSchema getPlayerDataSchema();
+}
@@ -0,0 +1,699 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataHandoffs.Handoff;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.ColumnType;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveObjectiveData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveTriggerData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.QuestHistoryChange;
+import rocks.gravili.notquests.paper.managers.storage.StoredPlayerData.QuestHistoryEntry;
+import rocks.gravili.notquests.paper.managers.tags.TagType;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
+
+/**
+ * Stores player data and tags in the SQLite or MySQL database of the DataManager, using the tables of {@link PlayerDataSchema}.
+ */
+public class SqlPlayerDataStorage implements PlayerDataStorage {
+  private final SqlPlayerDataSource dataSource;
+  private final PlayerDataLog log;
+  private final Supplier<String> handoffServerID;
+
+  /**
+   * How often a joining player's data is checked while waiting for another server to release it
+   */
+  private static final long handoffPollIntervalMillis = 50;
+
+  /**
+   * The Tags table has no unique key (older databases might even contain duplicate rows), so a changed tag is upserted by deleting
+   * its rows and inserting it again
+   */
+  private static final String deleteFromTagsStatement = """
+      DELETE FROM Tags WHERE PlayerUUID = ? AND Profile = ? AND TagIdentifier = ?;
+  """;
+
+  public SqlPlayerDataStorage(final NotQuests main) {
+    this(main.getDataManager(), PlayerDataLog.of(main), () -> main.getConfiguration().getHandoffServerID());
+  }
+
+  /**
+   * @param handoffServerID the ID this server claims player data with (storage.handoff.server-id)
+   */
+  public SqlPlayerDataStorage(final SqlPlayerDataSource dataSource, final PlayerDataLog log, final Supplier<String> handoffServerID) {
+    this.dataSource = dataSource;
+    this.log = log;
+    this.handoffServerID = handoffServerID;
+  }
+
+  @Override
+  public String getName() {
+    return "sql";
+  }
+
+  private boolean isColumnThere(final ResultSet rs, final String column){
+    try{
+      rs.findColumn(column);
+      return true;
+    } catch (SQLException ignored){
+      return false;
+    }
+  }
+
+  @Override
+  public List<StoredPlayerData> loadPlayerData(@Nullable final UUID playerUUID) throws SQLException {
+    final PlayerDataSchema playerDataSchema = dataSource.getPlayerDataSchema();
+    final ArrayList<StoredPlayerData> storedPlayerData = new ArrayList<>();
+    try (Connection connection = dataSource.getReadConnection();
+         final PreparedStatement questPlayerDataPS = connection.prepareStatement(playerUUID != null ? """
+            SELECT * FROM QuestPlayerData WHERE PlayerUUID = ?;
+          """ : """
+            SELECT * FROM QuestPlayerData;
+          """);
+         final PreparedStatement questPlayerProfileDataPS = connection.prepareStatement("""
+            SELECT * FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
+          """);
+         final PreparedStatement completedQuestsPS = connection.prepareStatement("""
+            SELECT QuestName, TimeCompleted FROM CompletedQuests
+            WHERE PlayerUUID = ? AND Profile = ? ORDER BY TimeCompleted;
+          """);
+         final PreparedStatement failedQuestsPS = connection.prepareStatement("""
+            SELECT QuestName, TimeFailed FROM FailedQuests
+            WHERE PlayerUUID = ? AND Profile = ? ORDER BY TimeFailed;
+          """);
+         final PreparedStatement questHistoryRollupPS = connection.prepareStatement("""
+            SELECT * FROM QuestHistoryRollup
+            WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+         final PreparedStatement activeQuestsPS = connection.prepareStatement("""
+            SELECT QuestName FROM ActiveQuests
+            WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+         final PreparedStatement activeTriggersPS = connection.prepareStatement("""
+            SELECT * FROM ActiveTriggers
+            WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+         final PreparedStatement activeObjectivesPS = connection.prepareStatement("""
+            SELECT * FROM ActiveObjectives
+            WHERE PlayerUUID = ? AND Profile = ?;
+          """)
+    ) {
+      if (playerUUID != null) {
+        playerDataSchema.setPlayerUUID(questPlayerDataPS, 1, playerUUID);
+      }
+
+      try (final ResultSet questPlayerDataResult = questPlayerDataPS.executeQuery()) {
+        while (questPlayerDataResult.next()) {
+          final UUID uuid = playerUUID != null ? playerUUID : playerDataSchema.getPlayerUUID(questPlayerDataResult, "PlayerUUID");
+          if (uuid == null) {
+            continue;
+          }
+
+          String profile;
+          if(isColumnThere(questPlayerDataResult, "Profile")){
+            profile = playerDataSchema.getValue(questPlayerDataResult, "Profile", ColumnType.PROFILE);
+            if(profile == null || profile.isBlank()){
+              profile = "default";
+            }
+          }else{
+            profile = "default";
+          }
+
+          log.debug("Profile: %s", profile);
+
+          // Current Profile. Players without one have never been saved completely and are skipped
+          playerDataSchema.setPlayerUUID(questPlayerProfileDataPS, 1, uuid);
+          String currentProfile;
+          try (final ResultSet currentQuestPlayerProfile = questPlayerProfileDataPS.executeQuery()) {
+            if (!currentQuestPlayerProfile.next()) {
+              continue;
+            }
+            currentProfile = playerDataSchema.getValue(currentQuestPlayerProfile, "CurrentProfile", ColumnType.PROFILE);
+          }
+          if (currentProfile == null || currentProfile.isBlank()) {
+            currentProfile = profile;
+          }
+
+          for (final PreparedStatement preparedStatement : List.of(completedQuestsPS, failedQuestsPS, questHistoryRollupPS, activeQuestsPS, activeTriggersPS, activeObjectivesPS)) {
+            playerDataSchema.setPlayerUUID(preparedStatement, 1, uuid);
+            playerDataSchema.setExistingValue(preparedStatement, 2, ColumnType.PROFILE, profile);
+          }
+
+          // Completed Quests
+          final ArrayList<QuestHistoryEntry> completedQuests = new ArrayList<>();
+          try (final ResultSet completedQuestsResults = completedQuestsPS.executeQuery()) {
+            while (completedQuestsResults.next()) {
+              completedQuests.add(new QuestHistoryEntry(
+                  playerDataSchema.getValue(completedQuestsResults, "QuestName", ColumnType.QUEST_NAME),
+                  completedQuestsResults.getLong("TimeCompleted")
+              ));
+            }
+          }
+
+          // Failed Quests
+          final ArrayList<QuestHistoryEntry> failedQuests = new ArrayList<>();
+          try (final ResultSet failedQuestsResults = failedQuestsPS.executeQuery()) {
+            while (failedQuestsResults.next()) {
+              failedQuests.add(new QuestHistoryEntry(
+                  playerDataSchema.getValue(failedQuestsResults, "QuestName", ColumnType.QUEST_NAME),
+                  failedQuestsResults.getLong("TimeFailed")
+              ));
+            }
+          }
+
+          // Rolled up Completed and Failed Quests
+          final HashMap<String, QuestHistorySummary> questHistorySummaries = new HashMap<>();
+          try (final ResultSet questHistoryRollupResults = questHistoryRollupPS.executeQuery()) {
+            while (questHistoryRollupResults.next()) {
+              final String questName = playerDataSchema.getValue(questHistoryRollupResults, "QuestName", ColumnType.QUEST_NAME);
+              if (questName != null) {
+                questHistorySummaries.merge(questName, new QuestHistorySummary(
+                    questHistoryRollupResults.getLong("Completions"),
+                    questHistoryRollupResults.getLong("LastCompleted"),
+                    questHistoryRollupResults.getLong("Fails"),
+                    questHistoryRollupResults.getLong("LastFailed")
+                ), QuestHistorySummary::merge);
+              }
+            }
+          }
+
+          // Active Quests
+          final ArrayList<String> activeQuests = new ArrayList<>();
+          try (final ResultSet activeQuestsResults = activeQuestsPS.executeQuery()) {
+            while (activeQuestsResults.next()) {
+              activeQuests.add(playerDataSchema.getValue(activeQuestsResults, "QuestName", ColumnType.QUEST_NAME));
+            }
+          }
+
+          // Active Triggers
+          final ArrayList<ActiveTriggerData> activeTriggers = new ArrayList<>();
+          try (final ResultSet activeTriggersResults = activeTriggersPS.executeQuery()) {
+            while (activeTriggersResults.next()) {
+              activeTriggers.add(new ActiveTriggerData(
+                  playerDataSchema.getValue(activeTriggersResults, "TriggerType", ColumnType.TRIGGER_TYPE),
+                  playerDataSchema.getValue(activeTriggersResults, "QuestName", ColumnType.QUEST_NAME),
+                  activeTriggersResults.getLong("CurrentProgress"),
+                  activeTriggersResults.getInt("TriggerID")
+              ));
+            }
+          }
+
+          // Active Objectives
+          final ArrayList<ActiveObjectiveData> activeObjectives = new ArrayList<>();
+          try (final ResultSet activeObjectivesResults = activeObjectivesPS.executeQuery()) {
+            while (activeObjectivesResults.next()) {
+              final String objectiveType = playerDataSchema.getValue(activeObjectivesResults, "ObjectiveType", ColumnType.OBJECTIVE_TYPE);
+              final String questName = playerDataSchema.getValue(activeObjectivesResults, "QuestName", ColumnType.QUEST_NAME);
+              final double currentProgress = activeObjectivesResults.getDouble("CurrentProgress");
+              final int objectiveID = activeObjectivesResults.getInt("ObjectiveID");
+              final boolean hasBeenCompleted = activeObjectivesResults.getBoolean("HasBeenCompleted");
+              final double progressNeeded = activeObjectivesResults.getDouble("ProgressNeeded");
+              final boolean progressNeededNull = activeObjectivesResults.wasNull();
+              activeObjectives.add(new ActiveObjectiveData(
+                  objectiveType,
+                  questName,
+                  currentProgress,
+                  objectiveID,
+                  hasBeenCompleted,
+                  progressNeededNull ? null : progressNeeded
+              ));
+            }
+          }
+
+          storedPlayerData.add(new StoredPlayerData(
+              uuid,
+              profile,
+              currentProfile,
+              questPlayerDataResult.getLong("QuestPoints"),
+              activeQuests,
+              activeTriggers,
+              activeObjectives,
+              completedQuests,
+              failedQuests,
+              questHistorySummaries
+          ));
+        }
+      }
+    }
+    return storedPlayerData;
+  }
+
+  @Override
+  public boolean savePlayerData(final List<PlayerDataSnapshot> snapshots, final Consumer<PlayerDataSnapshot> onSaved) {
+    if (snapshots.isEmpty()) {
+      return true;
+    }
+    final PlayerDataSchema playerDataSchema = dataSource.getPlayerDataSchema();
+    boolean savedAll = true;
+    try (Connection connection = dataSource.getConnection();
+         final PreparedStatement deleteFromQuestPlayerProfileDataPS = connection.prepareStatement("""
+            DELETE FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
+         """);
+
+         final PreparedStatement insertIntoQuestPlayerProfileDataPS = connection.prepareStatement("""
+            INSERT INTO QuestPlayerProfileData (PlayerUUID, CurrentProfile) VALUES (?, ?);
+          """);
+
+         final PreparedStatement deleteFromQuestPlayerDataPS = connection.prepareStatement("""
+            DELETE FROM QuestPlayerData WHERE PlayerUUID = ? AND Profile = ?;
+         """);
+         final PreparedStatement insertIntoQuestPlayerDataPS = connection.prepareStatement("""
+            INSERT INTO QuestPlayerData (PlayerUUID, QuestPoints, Profile) VALUES (?, ?, ?);
+         """);
+
+         final PreparedStatement deleteFromActiveQuestsPS = connection.prepareStatement("""
+            DELETE FROM ActiveQuests WHERE PlayerUUID = ? AND Profile = ?;
+         """);
+         final PreparedStatement deleteFromActiveObjectivesPS = connection.prepareStatement("""
+            DELETE FROM ActiveObjectives WHERE PlayerUUID = ? AND Profile = ?;
+         """);
+         final PreparedStatement deleteFromActiveTriggersPS = connection.prepareStatement("""
+            DELETE FROM ActiveTriggers WHERE PlayerUUID = ? AND Profile = ?;
+         """);
+
+         final PreparedStatement insertIntoActiveQuestsPS = connection.prepareStatement("""
+            INSERT INTO ActiveQuests (QuestName, PlayerUUID, Profile) VALUES (?, ?, ?);
+         """);
+
+         final PreparedStatement insertIntoActiveTriggersPS = connection.prepareStatement("""
+            INSERT INTO ActiveTriggers (TriggerType, QuestName, PlayerUUID, CurrentProgress, TriggerID, Profile) VALUES (?, ?, ?, ?, ?, ?);
+         """);
+
+         final PreparedStatement insertIntoActiveObjectivesPS = connection.prepareStatement("""
+            INSERT INTO ActiveObjectives (ObjectiveType, QuestName, PlayerUUID, CurrentProgress, ObjectiveID, HasBeenCompleted, ProgressNeeded, Profile) VALUES (?, ?, ?, ?, ?, ?, ?, ?);
+         """);
+
+         final PreparedStatement deleteFromCompletedQuestsPS = connection.prepareStatement("""
+            DELETE FROM CompletedQuests WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
+         """);
+         final PreparedStatement clearCompletionsOfQuestHistoryRollupPS = connection.prepareStatement("""
+            UPDATE QuestHistoryRollup SET Completions = 0, LastCompleted = 0 WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
+         """);
+         final PreparedStatement insertIntoCompletedQuestsPS = connection.prepareStatement("""
+            INSERT INTO CompletedQuests (QuestName, PlayerUUID, TimeCompleted, Profile) VALUES (?, ?, ?, ?);
+         """);
+
+         final PreparedStatement insertIntoFailedQuestsPS = connection.prepareStatement("""
+            INSERT INTO FailedQuests (QuestName, PlayerUUID, TimeFailed, Profile) VALUES (?, ?, ?, ?);
+         """);
+
+         final PreparedStatement deleteFromTagsPS = connection.prepareStatement(deleteFromTagsStatement);
+         final PreparedStatement insertIntoTagsPS = connection.prepareStatement(getInsertIntoTagsStatement(playerDataSchema))
+    ) {
+      addDictionaryValues(connection, playerDataSchema, snapshots);
+      connection.setAutoCommit(false);
+      for (final PlayerDataSnapshot snapshot : snapshots) {
+        final UUID questPlayerUUID = snapshot.uuid();
+        final String profile = snapshot.profile();
+
+        try {
+          //Current Profile
+          playerDataSchema.setPlayerUUID(deleteFromQuestPlayerProfileDataPS, 1, questPlayerUUID);
+          deleteFromQuestPlayerProfileDataPS.executeUpdate();
+
+          playerDataSchema.setPlayerUUID(insertIntoQuestPlayerProfileDataPS, 1, questPlayerUUID);
+          playerDataSchema.setValue(insertIntoQuestPlayerProfileDataPS, 2, ColumnType.PROFILE, snapshot.currentProfile());
+          insertIntoQuestPlayerProfileDataPS.executeUpdate();
+
+          // QuestPoints
+          playerDataSchema.setPlayerUUID(deleteFromQuestPlayerDataPS, 1, questPlayerUUID);
+          playerDataSchema.setValue(deleteFromQuestPlayerDataPS, 2, ColumnType.PROFILE, profile);
+          deleteFromQuestPlayerDataPS.executeUpdate();
+
+          playerDataSchema.setPlayerUUID(insertIntoQuestPlayerDataPS, 1, questPlayerUUID);
+          insertIntoQuestPlayerDataPS.setLong(2, snapshot.questPoints());
+          playerDataSchema.setValue(insertIntoQuestPlayerDataPS, 3, ColumnType.PROFILE, profile);
+          insertIntoQuestPlayerDataPS.executeUpdate();
+
+          // Active Quests, Active Objectives and Active Triggers
+          playerDataSchema.setPlayerUUID(deleteFromActiveQuestsPS, 1, questPlayerUUID);
+          playerDataSchema.setValue(deleteFromActiveQuestsPS, 2, ColumnType.PROFILE, profile);
+          deleteFromActiveQuestsPS.executeUpdate();
+          playerDataSchema.setPlayerUUID(deleteFromActiveObjectivesPS, 1, questPlayerUUID);
+          playerDataSchema.setValue(deleteFromActiveObjectivesPS, 2, ColumnType.PROFILE, profile);
+          deleteFromActiveObjectivesPS.executeUpdate();
+          playerDataSchema.setPlayerUUID(deleteFromActiveTriggersPS, 1, questPlayerUUID);
+          playerDataSchema.setValue(deleteFromActiveTriggersPS, 2, ColumnType.PROFILE, profile);
+          deleteFromActiveTriggersPS.executeUpdate();
+
+          for (final String activeQuest : snapshot.activeQuests()) {
+            playerDataSchema.setValue(insertIntoActiveQuestsPS, 1, ColumnType.QUEST_NAME, activeQuest);
+            playerDataSchema.setPlayerUUID(insertIntoActiveQuestsPS, 2, questPlayerUUID);
+            playerDataSchema.setValue(insertIntoActiveQuestsPS, 3, ColumnType.PROFILE, profile);
+            insertIntoActiveQuestsPS.executeUpdate();
+          }
+
+          for (final ActiveTriggerData activeTrigger : snapshot.activeTriggers()) {
+            playerDataSchema.setValue(insertIntoActiveTriggersPS, 1, ColumnType.TRIGGER_TYPE, activeTrigger.triggerType());
+            playerDataSchema.setValue(insertIntoActiveTriggersPS, 2, ColumnType.QUEST_NAME, activeTrigger.questName());
+            playerDataSchema.setPlayerUUID(insertIntoActiveTriggersPS, 3, questPlayerUUID);
+            insertIntoActiveTriggersPS.setLong(4, activeTrigger.currentProgress());
+            insertIntoActiveTriggersPS.setInt(5, activeTrigger.triggerID());
+            playerDataSchema.setValue(insertIntoActiveTriggersPS, 6, ColumnType.PROFILE, profile);
+            insertIntoActiveTriggersPS.executeUpdate();
+          }
+
+          for (final ActiveObjectiveData activeObjective : snapshot.activeObjectives()) {
+            playerDataSchema.setValue(insertIntoActiveObjectivesPS, 1, ColumnType.OBJECTIVE_TYPE, activeObjective.objectiveType());
+            playerDataSchema.setValue(insertIntoActiveObjectivesPS, 2, ColumnType.QUEST_NAME, activeObjective.questName());
+            playerDataSchema.setPlayerUUID(insertIntoActiveObjectivesPS, 3, questPlayerUUID);
+            insertIntoActiveObjectivesPS.setDouble(4, activeObjective.currentProgress());
+            insertIntoActiveObjectivesPS.setInt(5, activeObjective.objectiveID());
+            insertIntoActiveObjectivesPS.setBoolean(6, activeObjective.hasBeenCompleted());
+            if (activeObjective.progressNeeded() != null) {
+              insertIntoActiveObjectivesPS.setDouble(7, activeObjective.progressNeeded());
+            } else {
+              insertIntoActiveObjectivesPS.setNull(7, Types.DOUBLE);
+            }
+            playerDataSchema.setValue(insertIntoActiveObjectivesPS, 8, ColumnType.PROFILE, profile);
+            insertIntoActiveObjectivesPS.executeUpdate();
+          }
+
+          // Completed and Failed Quests. They are append-only, so only the changes since the last save are written
+          for (final QuestHistoryChange questHistoryChange : snapshot.questHistoryChanges()) {
+            switch (questHistoryChange.type()) {
+              case COMPLETED -> {
+                playerDataSchema.setValue(insertIntoCompletedQuestsPS, 1, ColumnType.QUEST_NAME, questHistoryChange.questName());
+                playerDataSchema.setPlayerUUID(insertIntoCompletedQuestsPS, 2, questPlayerUUID);
+                insertIntoCompletedQuestsPS.setLong(3, questHistoryChange.time());
+                playerDataSchema.setValue(insertIntoCompletedQuestsPS, 4, ColumnType.PROFILE, profile);
+                insertIntoCompletedQuestsPS.executeUpdate();
+              }
+              case FAILED -> {
+                playerDataSchema.setValue(insertIntoFailedQuestsPS, 1, ColumnType.QUEST_NAME, questHistoryChange.questName());
+                playerDataSchema.setPlayerUUID(insertIntoFailedQuestsPS, 2, questPlayerUUID);
+                insertIntoFailedQuestsPS.setLong(3, questHistoryChange.time());
+                playerDataSchema.setValue(insertIntoFailedQuestsPS, 4, ColumnType.PROFILE, profile);
+                insertIntoFailedQuestsPS.executeUpdate();
+              }
+              case CLEAR_COMPLETED -> {
+                playerDataSchema.setPlayerUUID(deleteFromCompletedQuestsPS, 1, questPlayerUUID);
+                playerDataSchema.setValue(deleteFromCompletedQuestsPS, 2, ColumnType.PROFILE, profile);
+                playerDataSchema.setValue(deleteFromCompletedQuestsPS, 3, ColumnType.QUEST_NAME, questHistoryChange.questName());
+                deleteFromCompletedQuestsPS.executeUpdate();
+                playerDataSchema.setPlayerUUID(clearCompletionsOfQuestHistoryRollupPS, 1, questPlayerUUID);
+                playerDataSchema.setValue(clearCompletionsOfQuestHistoryRollupPS, 2, ColumnType.PROFILE, profile);
+                playerDataSchema.setValue(clearCompletionsOfQuestHistoryRollupPS, 3, ColumnType.QUEST_NAME, questHistoryChange.questName());
+                clearCompletionsOfQuestHistoryRollupPS.executeUpdate();
+              }
+            }
+          }
+
+          writeTags(playerDataSchema, deleteFromTagsPS, insertIntoTagsPS, questPlayerUUID, profile, snapshot.changedTags(), snapshot.removedTags());
+
+          connection.commit();
+          onSaved.accept(snapshot);
+        } catch (final SQLException e) {
+          connection.rollback();
+          savedAll = false;
+          log.warn("There was an error saving the PlayerData of player with UUID <highlight>%s</highlight> (Profile: %s)! Stacktrace:", questPlayerUUID, profile);
+          e.printStackTrace();
+        }
+      }
+    } catch (Exception e) {
+      if(snapshots.size() == 1){
+        log.warn("There was an error saving the PlayerData of player with UUID <highlight>%s</highlight>! Stacktrace:", snapshots.get(0).uuid());
+      }else{
+        log.warn("There was an error saving the PlayerData! Stacktrace:");
+      }
+      e.printStackTrace();
+      return false;
+    }
+    return savedAll;
+  }
+
+  /**
+   * Adds all dictionary values the snapshots are going to set, as they cannot be added inside of the transactions which save them
+   */
+  private void addDictionaryValues(final Connection connection, final PlayerDataSchema playerDataSchema, final List<PlayerDataSnapshot> snapshots) throws SQLException {
+    final HashSet<String> profiles = new HashSet<>();
+    final HashSet<String> questNames = new HashSet<>();
+    final HashSet<String> triggerTypes = new HashSet<>();
+    final HashSet<String> objectiveTypes = new HashSet<>();
+    final HashSet<String> tagIdentifiers = new HashSet<>();
+    for (final PlayerDataSnapshot snapshot : snapshots) {
+      profiles.add(snapshot.profile());
+      profiles.add(snapshot.currentProfile());
+      questNames.addAll(snapshot.activeQuests());
+      for (final ActiveTriggerData activeTrigger : snapshot.activeTriggers()) {
+        triggerTypes.add(activeTrigger.triggerType());
+        questNames.add(activeTrigger.questName());
+      }
+      for (final ActiveObjectiveData activeObjective : snapshot.activeObjectives()) {
+        objectiveTypes.add(activeObjective.objectiveType());
+        questNames.add(activeObjective.questName());
+      }
+      for (final QuestHistoryChange questHistoryChange : snapshot.questHistoryChanges()) {
+        questNames.add(questHistoryChange.questName());
+      }
+      tagIdentifiers.addAll(snapshot.changedTags().keySet());
+    }
+    playerDataSchema.addDictionaryValues(connection, ColumnType.PROFILE, profiles);
+    playerDataSchema.addDictionaryValues(connection, ColumnType.QUEST_NAME, questNames);
+    playerDataSchema.addDictionaryValues(connection, ColumnType.TRIGGER_TYPE, triggerTypes);
+    playerDataSchema.addDictionaryValues(connection, ColumnType.OBJECTIVE_TYPE, objectiveTypes);
+    playerDataSchema.addDictionaryValues(connection, ColumnType.TAG_IDENTIFIER, tagIdentifiers);
+  }
+
+  @Override
+  public void saveQuestHistoryRollup(final UUID uuid, final String profile, final Map<String, QuestHistorySummary> rolledUp, final Map<String, QuestHistorySummary> questHistorySummaries) throws SQLException {
+    final PlayerDataSchema playerDataSchema = dataSource.getPlayerDataSchema();
+    try (Connection connection = dataSource.getConnection();
+         final PreparedStatement deleteFromCompletedQuestsPS = connection.prepareStatement("""
+            DELETE FROM CompletedQuests WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ? AND TimeCompleted <= ?;
+         """);
+         final PreparedStatement deleteFromFailedQuestsPS = connection.prepareStatement("""
+            DELETE FROM FailedQuests WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ? AND TimeFailed <= ?;
+         """);
+         final PreparedStatement deleteFromQuestHistoryRollupPS = connection.prepareStatement("""
+            DELETE FROM QuestHistoryRollup WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
+         """);
+         final PreparedStatement insertIntoQuestHistoryRollupPS = connection.prepareStatement("""
+            INSERT INTO QuestHistoryRollup (PlayerUUID, Profile, QuestName, Completions, LastCompleted, Fails, LastFailed) VALUES (?, ?, ?, ?, ?, ?, ?);
+         """)
+    ) {
+      playerDataSchema.addDictionaryValues(connection, ColumnType.PROFILE, List.of(profile));
+      playerDataSchema.addDictionaryValues(connection, ColumnType.QUEST_NAME, rolledUp.keySet());
+      connection.setAutoCommit(false);
+      try {
+        for (final Map.Entry<String, QuestHistorySummary> rolledUpEntry : rolledUp.entrySet()) {
+          final String questName = rolledUpEntry.getKey();
+          final QuestHistorySummary rolledUpSummary = rolledUpEntry.getValue();
+          if (rolledUpSummary.completions() > 0) {
+            playerDataSchema.setPlayerUUID(deleteFromCompletedQuestsPS, 1, uuid);
+            playerDataSchema.setValue(deleteFromCompletedQuestsPS, 2, ColumnType.PROFILE, profile);
+            playerDataSchema.setValue(deleteFromCompletedQuestsPS, 3, ColumnType.QUEST_NAME, questName);
+            deleteFromCompletedQuestsPS.setLong(4, rolledUpSummary.lastCompleted());
+            deleteFromCompletedQuestsPS.executeUpdate();
+          }
+          if (rolledUpSummary.fails() > 0) {
+            playerDataSchema.setPlayerUUID(deleteFromFailedQuestsPS, 1, uuid);
+            playerDataSchema.setValue(deleteFromFailedQuestsPS, 2, ColumnType.PROFILE, profile);
+            playerDataSchema.setValue(deleteFromFailedQuestsPS, 3, ColumnType.QUEST_NAME, questName);
+            deleteFromFailedQuestsPS.setLong(4, rolledUpSummary.lastFailed());
+            deleteFromFailedQuestsPS.executeUpdate();
+          }
+
+          final QuestHistorySummary questHistorySummary = questHistorySummaries.get(questName);
+          playerDataSchema.setPlayerUUID(deleteFromQuestHistoryRollupPS, 1, uuid);
+          playerDataSchema.setValue(deleteFromQuestHistoryRollupPS, 2, ColumnType.PROFILE, profile);
+          playerDataSchema.setValue(deleteFromQuestHistoryRollupPS, 3, ColumnType.QUEST_NAME, questName);
+          deleteFromQuestHistoryRollupPS.executeUpdate();
+
+          playerDataSchema.setPlayerUUID(insertIntoQuestHistoryRollupPS, 1, uuid);
+          playerDataSchema.setValue(insertIntoQuestHistoryRollupPS, 2, ColumnType.PROFILE, profile);
+          playerDataSchema.setValue(insertIntoQuestHistoryRollupPS, 3, ColumnType.QUEST_NAME, questName);
+          insertIntoQuestHistoryRollupPS.setLong(4, questHistorySummary.completions());
+          insertIntoQuestHistoryRollupPS.setLong(5, questHistorySummary.lastCompleted());
+          insertIntoQuestHistoryRollupPS.setLong(6, questHistorySummary.fails());
+          insertIntoQuestHistoryRollupPS.setLong(7, questHistorySummary.lastFailed());
+          insertIntoQuestHistoryRollupPS.executeUpdate();
+        }
+        connection.commit();
+      } catch (final SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+    }
+  }
+
+  @Override
+  public Map<String, Object> loadTags(final UUID uuid, final String profile) throws SQLException {
+    final PlayerDataSchema playerDataSchema = dataSource.getPlayerDataSchema();
+    final LinkedHashMap<String, Object> tags = new LinkedHashMap<>();
+    try (Connection connection = dataSource.getReadConnection();
+         final PreparedStatement tagsStatement = connection.prepareStatement(
+            "SELECT TagIdentifier, " + playerDataSchema.getTagValueColumns() + ", TagType FROM Tags WHERE PlayerUUID = ? AND Profile = ?;"
+         )
+    ) {
+      playerDataSchema.setPlayerUUID(tagsStatement, 1, uuid);
+      playerDataSchema.setExistingValue(tagsStatement, 2, ColumnType.PROFILE, profile);
+
+      try(final ResultSet result = tagsStatement.executeQuery()) {
+        while (result.next()) {
+          final String tagIdentifier = playerDataSchema.getValue(result, "TagIdentifier", ColumnType.TAG_IDENTIFIER);
+          final String tagType = result.getString("TagType");
+          tags.put(tagIdentifier, playerDataSchema.getTagValue(result, tagType));
+        }
+      }
+    }
+    return tags;
+  }
+
+  @Override
+  public void saveTags(final UUID uuid, final String profile, final Map<String, Object> changedTags, final Set<String> removedTags) throws SQLException {
+    final PlayerDataSchema playerDataSchema = dataSource.getPlayerDataSchema();
+    try (final Connection connection = dataSource.getConnection();
+         final PreparedStatement deleteFromTagsPS = connection.prepareStatement(deleteFromTagsStatement);
+         final PreparedStatement insertIntoTagsPS = connection.prepareStatement(getInsertIntoTagsStatement(playerDataSchema))
+    ) {
+      playerDataSchema.addDictionaryValues(connection, ColumnType.PROFILE, List.of(profile));
+      playerDataSchema.addDictionaryValues(connection, ColumnType.TAG_IDENTIFIER, changedTags.keySet());
+      connection.setAutoCommit(false);
+      try {
+        writeTags(playerDataSchema, deleteFromTagsPS, insertIntoTagsPS, uuid, profile, changedTags, removedTags);
+        connection.commit();
+      } catch (final SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+    }
+  }
+
+  private String getInsertIntoTagsStatement(final PlayerDataSchema playerDataSchema) {
+    return "INSERT INTO Tags (PlayerUUID, TagIdentifier, " + playerDataSchema.getTagValueColumns() + ", TagType, Profile) VALUES (?, ?, " + playerDataSchema.getTagValuePlaceholders() + ", ?, ?);";
+  }
+
+  /**
+   * Writes the changed and removed tags of a profile. Doesn't commit, so it can be part of a bigger transaction.
+   */
+  private void writeTags(final PlayerDataSchema playerDataSchema, final PreparedStatement deleteFromTagsPS, final PreparedStatement insertIntoTagsPS,
+      final UUID uuid, final String profile, final Map<String, Object> changedTags, final Set<String> removedTags) throws SQLException {
+    if (changedTags.isEmpty() && removedTags.isEmpty()) {
+      return;
+    }
+    final ArrayList<String> tagsToDelete = new ArrayList<>(removedTags);
+    tagsToDelete.addAll(changedTags.keySet());
+    for (final String tagIdentifier : tagsToDelete) {
+      playerDataSchema.setPlayerUUID(deleteFromTagsPS, 1, uuid);
+      playerDataSchema.setValue(deleteFromTagsPS, 2, ColumnType.PROFILE, profile);
+      playerDataSchema.setExistingValue(deleteFromTagsPS, 3, ColumnType.TAG_IDENTIFIER, tagIdentifier);
+      deleteFromTagsPS.addBatch();
+    }
+    deleteFromTagsPS.executeBatch();
+
+    for (final Map.Entry<String, Object> tag : changedTags.entrySet()) {
+      final TagType tagType = PlayerDataCodec.getTagType(tag.getValue());
+      if (tagType == null) {
+        log.warn("Encountered an unknown tag value type when saving tag %s. Tag value type: %s",
+                tag.getKey(),
+                tag.getValue() != null ? tag.getValue().getClass().toString() : "null"
+        );
+        continue;
+      }
+
+      playerDataSchema.setPlayerUUID(insertIntoTagsPS, 1, uuid);
+      playerDataSchema.setValue(insertIntoTagsPS, 2, ColumnType.TAG_IDENTIFIER, tag.getKey());
+      final int tagValueParameters = playerDataSchema.setTagValue(insertIntoTagsPS, 3, tag.getValue());
+      insertIntoTagsPS.setString(3 + tagValueParameters, tagType.name());
+      playerDataSchema.setValue(insertIntoTagsPS, 4 + tagValueParameters, ColumnType.PROFILE, profile);
+      insertIntoTagsPS.addBatch();
+    }
+    insertIntoTagsPS.executeBatch();
+  }
+
+  @Override
+  public long claimPlayerData(final UUID uuid, final long timeoutMillis) throws SQLException, InterruptedException {
+    final PlayerDataHandoffs handoffs = getHandoffs();
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    @Nullable Handoff waitingForClaim = null;
+    while (true) {
+      //Waiting only reads, so the writer connection stays free for the server which is still saving
+      final @Nullable Handoff handoff = readHandoff(handoffs, uuid);
+      @Nullable Handoff staleClaim = null;
+      if (!handoffs.isClaimable(handoff)) {
+        if (waitingForClaim != null && !waitingForClaim.equals(handoff)) {
+          deadline = System.currentTimeMillis() + timeoutMillis; //Claimed by yet another server in the meantime, which gets the full timeout as well
+        }
+        waitingForClaim = handoff;
+        if (System.currentTimeMillis() < deadline) {
+          Thread.sleep(handoffPollIntervalMillis);
+          continue;
+        }
+        log.warn("The player data of %s is still claimed by server %s, which didn't release it within %sms. Loading the last saved version (%s) anyway.",
+            uuid, handoff.serverID(), timeoutMillis, handoff.version());
+        staleClaim = handoff;
+      }
+
+      try (final Connection connection = dataSource.getConnection()) {
+        final @Nullable Handoff claim = handoffs.tryClaim(connection, uuid, staleClaim);
+        if (claim != null) {
+          return claim.version();
+        }
+      }
+      //Another server claimed it between reading and claiming it, so it's waited for again
+    }
+  }
+
+  private @Nullable Handoff readHandoff(final PlayerDataHandoffs handoffs, final UUID uuid) throws SQLException {
+    try (final Connection connection = dataSource.getReadConnection()) {
+      return handoffs.read(connection, uuid);
+    }
+  }
+
+  private PlayerDataHandoffs getHandoffs() {
+    return new PlayerDataHandoffs(dataSource.getPlayerDataSchema(), handoffServerID.get());
+  }
+
+  @Override
+  public void releasePlayerData(final UUID uuid) throws SQLException {
+    try (final Connection connection = dataSource.getConnection()) {
+      if (!getHandoffs().release(connection, uuid)) {
+        log.warn("The player data of %s was not claimed by this server anymore when it was released. Another server might have loaded it before it had been saved completely (see storage.handoff.timeout-ms).", uuid);
+      }
+    }
+  }
+
+  @Override
+  public void releaseAllPlayerData() throws SQLException {
+    try (final Connection connection = dataSource.getConnection()) {
+      final int releasedClaims = getHandoffs().releaseAll(connection);
+      if (releasedClaims > 0) {
+        log.info("Released %s player data claims of this server which were left over from before it was restarted.", releasedClaims);
+      }
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveObjectiveData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveTriggerData;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
+
+/**
+ * Everything which has been stored for a single QuestPlayer (profile), as it's been loaded from a {@link PlayerDataStorage}.
+ * Unlike a {@link PlayerDataSnapshot}, this contains the whole quest history.
+ *
+ * @param currentProfile the profile which is currently selected by the player
+ * @param activeObjectives active and completed objectives of all active quests, including sub-objectives. Their quest name
+ *                         is the path of the objective (like "quest.1" for sub-objectives of objective 1)
+ * @param completedQuests the completed quests which haven't been rolled up, oldest first
+ * @param failedQuests the failed quests which haven't been rolled up, oldest first
+ * @param questHistorySummaries the rolled up completions and fails, by quest name
+ */
+public record StoredPlayerData(
+    UUID uuid,
+    String profile,
+    String currentProfile,
+    long questPoints,
+    List<String> activeQuests,
+    List<ActiveTriggerData> activeTriggers,
+    List<ActiveObjectiveData> activeObjectives,
+    List<QuestHistoryEntry> completedQuests,
+    List<QuestHistoryEntry> failedQuests,
+    Map<String, QuestHistorySummary> questHistorySummaries
+) {
+
+  /**
+   * @param time the time the quest has been completed or failed at
+   */
+  public record QuestHistoryEntry(String questName, long time) {}
+}
@@ -0,0 +1,232 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.tags;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The tag values of a single QuestPlayer.
+ * <p>
+ * Values are kept unboxed: booleans, integers, floats and doubles as the raw bits of a long, and strings as they are. Every tag
+ * which has been set or removed since the tags have last been saved is remembered, so saving only needs to write those (see
+ * {@link #takeChanges()}).
+ * <p>
+ * Tags are changed on the main thread and saved asynchronously, so all methods are synchronized.
+ */
+public class PlayerTags {
+
+    /**
+     * The value of a single tag. Strings are stored in stringValue, all other tag types in primitiveValue.
+     */
+    private static final class TagValue {
+        private TagType tagType;
+        private long primitiveValue;
+        private String stringValue;
+    }
+
+    /**
+     * The tags which have been set or removed since the tags have last been saved
+     *
+     * @param changedTags the values of all set tags, by tag identifier
+     * @param removedTags the identifiers of all removed tags
+     */
+    public record Changes(Map<String, Object> changedTags, Set<String> removedTags) {
+        public final boolean isEmpty() {
+            return changedTags.isEmpty() && removedTags.isEmpty();
+        }
+    }
+
+    private final HashMap<String, TagValue> tagValues = new HashMap<>();
+    private final HashSet<String> changedTagIdentifiers = new HashSet<>();
+
+    private static String normalize(final String tagIdentifier) {
+        return tagIdentifier.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the value of the tag as Boolean, Integer, Float, Double or String, or null if the player doesn't have it
+     */
+    public synchronized @Nullable Object get(final String tagIdentifier) {
+        final TagValue tagValue = tagValues.get(normalize(tagIdentifier));
+        return tagValue != null ? box(tagValue) : null;
+    }
+
+    public synchronized @Nullable TagType getTagType(final String tagIdentifier) {
+        final TagValue tagValue = tagValues.get(normalize(tagIdentifier));
+        return tagValue != null ? tagValue.tagType : null;
+    }
+
+    public synchronized boolean getBoolean(final String tagIdentifier, final boolean defaultValue) {
+        final TagValue tagValue = tagValues.get(normalize(tagIdentifier));
+        return tagValue != null && tagValue.tagType == TagType.BOOLEAN ? tagValue.primitiveValue != 0 : defaultValue;
+    }
+
+    public synchronized int getInteger(final String tagIdentifier, final int defaultValue) {
+        final TagValue tagValue = tagValues.get(normalize(tagIdentifier));
+        return tagValue != null && tagValue.tagType == TagType.INTEGER ? (int) tagValue.primitiveValue : defaultValue;
+    }
+
+    public synchronized float getFloat(final String tagIdentifier, final float defaultValue) {
+        final TagValue tagValue = tagValues.get(normalize(tagIdentifier));
+        return tagValue != null && tagValue.tagType == TagType.FLOAT ? Float.intBitsToFloat((int) tagValue.primitiveValue) : defaultValue;
+    }
+
+    public synchronized double getDouble(final String tagIdentifier, final double defaultValue) {
+        final TagValue tagValue = tagValues.get(normalize(tagIdentifier));
+        return tagValue != null && tagValue.tagType == TagType.DOUBLE ? Double.longBitsToDouble(tagValue.primitiveValue) : defaultValue;
+    }
+
+    public synchronized String getString(final String tagIdentifier, final String defaultValue) {
+        final TagValue tagValue = tagValues.get(normalize(tagIdentifier));
+        return tagValue != null && tagValue.tagType == TagType.STRING ? tagValue.stringValue : defaultValue;
+    }
+
+    public synchronized void setBoolean(final String tagIdentifier, final boolean value) {
+        setValue(tagIdentifier, TagType.BOOLEAN, value ? 1 : 0, null);
+    }
+
+    public synchronized void setInteger(final String tagIdentifier, final int value) {
+        setValue(tagIdentifier, TagType.INTEGER, value, null);
+    }
+
+    public synchronized void setFloat(final String tagIdentifier, final float value) {
+        setValue(tagIdentifier, TagType.FLOAT, Float.floatToRawIntBits(value), null);
+    }
+
+    public synchronized void setDouble(final String tagIdentifier, final double value) {
+        setValue(tagIdentifier, TagType.DOUBLE, Double.doubleToRawLongBits(value), null);
+    }
+
+    public synchronized void setString(final String tagIdentifier, final String value) {
+        setValue(tagIdentifier, TagType.STRING, 0, value);
+    }
+
+    /**
+     * Sets the tag to a Boolean, Integer, Float, Double or String value, or removes it if the value is null
+     *
+     * @throws IllegalArgumentException if the value has any other type
+     */
+    public synchronized void set(final String tagIdentifier, @Nullable final Object value) {
+        if (value == null) {
+            remove(tagIdentifier);
+        } else if (value instanceof final Boolean booleanValue) {
+            setBoolean(tagIdentifier, booleanValue);
+        } else if (value instanceof final Integer integerValue) {
+            setInteger(tagIdentifier, integerValue);
+        } else if (value instanceof final Float floatValue) {
+            setFloat(tagIdentifier, floatValue);
+        } else if (value instanceof final Double doubleValue) {
+            setDouble(tagIdentifier, doubleValue);
+        } else if (value instanceof final String stringValue) {
+            setString(tagIdentifier, stringValue);
+        } else {
+            throw new IllegalArgumentException("Unknown tag value type " + value.getClass().getName() + " of tag " + tagIdentifier);
+        }
+    }
+
+    public synchronized void remove(final String tagIdentifier) {
+        final String normalizedTagIdentifier = normalize(tagIdentifier);
+        tagValues.remove(normalizedTagIdentifier);
+        changedTagIdentifiers.add(normalizedTagIdentifier);
+    }
+
+    private void setValue(final String tagIdentifier, final TagType tagType, final long primitiveValue, @Nullable final String stringValue) {
+        final String normalizedTagIdentifier = normalize(tagIdentifier);
+        final TagValue tagValue = tagValues.computeIfAbsent(normalizedTagIdentifier, ignored -> new TagValue());
+        tagValue.tagType = tagType;
+        tagValue.primitiveValue = primitiveValue;
+        tagValue.stringValue = stringValue;
+        changedTagIdentifiers.add(normalizedTagIdentifier);
+    }
+
+    private static Object box(final TagValue tagValue) {
+        return switch (tagValue.tagType) {
+            case BOOLEAN -> tagValue.primitiveValue != 0;
+            case INTEGER -> (int) tagValue.primitiveValue;
+            case FLOAT -> Float.intBitsToFloat((int) tagValue.primitiveValue);
+            case DOUBLE -> Double.longBitsToDouble(tagValue.primitiveValue);
+            case STRING -> tagValue.stringValue;
+        };
+    }
+
+    public synchronized int size() {
+        return tagValues.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return tagValues.isEmpty();
+    }
+
+    /**
+     * @return the identifiers of all tags the player has
+     */
+    public synchronized List<String> getTagIdentifiers() {
+        return new ArrayList<>(tagValues.keySet());
+    }
+
+    /**
+     * Replaces all tags with the ones which have just been loaded. As they are already stored, they are not marked as changed.
+     */
+    public synchronized void load(final Map<String, Object> loadedTags) {
+        tagValues.clear();
+        for (final Map.Entry<String, Object> loadedTag : loadedTags.entrySet()) {
+            if (loadedTag.getValue() != null) {
+                set(loadedTag.getKey(), loadedTag.getValue());
+            }
+        }
+        changedTagIdentifiers.clear();
+    }
+
+    /**
+     * @return all tags which have been set or removed since the last call. They are not marked as changed anymore afterwards.
+     */
+    public synchronized Changes takeChanges() {
+        if (changedTagIdentifiers.isEmpty()) {
+            return new Changes(Map.of(), Set.of());
+        }
+        final LinkedHashMap<String, Object> changedTags = new LinkedHashMap<>();
+        final HashSet<String> removedTags = new HashSet<>();
+        for (final String tagIdentifier : changedTagIdentifiers) {
+            final TagValue tagValue = tagValues.get(tagIdentifier);
+            if (tagValue != null) {
+                changedTags.put(tagIdentifier, box(tagValue));
+            } else {
+                removedTags.add(tagIdentifier);
+            }
+        }
+        changedTagIdentifiers.clear();
+        return new Changes(changedTags, removedTags);
+    }
+
+    /**
+     * Marks the tags of changes which could not be saved as changed again, so they are saved the next time
+     */
+    public synchronized void restoreChanges(final Changes changes) {
+        changedTagIdentifiers.addAll(changes.changedTags().keySet());
+        changedTagIdentifiers.addAll(changes.removedTags());
+    }
+}
@@ -18,13 +18,11 @@
 
 package rocks.gravili.notquests.paper.managers.tags;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
@@ -98,6 +96,13 @@ public class TagManager {
 
 
     public void onJoin(final QuestPlayer questPlayer, final Player player) {
+        onJoin(questPlayer, player, null);
+    }
+
+    /**
+     * @param prefetchedTags the tags of the profile if they have already been loaded, or null to load them from the storage
+     */
+    public void onJoin(final QuestPlayer questPlayer, final Player player, @Nullable final Map<String, Object> prefetchedTags) {
         if (!questPlayer.getTags().isEmpty()) {
             if (main.getConfiguration().isVerboseStartupMessages()) {
                 main.getLogManager().info("Skip Loading tags for " + player.getName() + "! Size: " + questPlayer.getTags().size());
@@ -111,49 +116,22 @@ public class TagManager {
         }
         final UUID uuid = player.getUniqueId();
 
-        try (Connection connection = main.getDataManager().getConnection();
-             final PreparedStatement tagsStatement = connection.prepareStatement("""
-                SELECT TagIdentifier, TagValue, TagType FROM Tags
-                WHERE PlayerUUID = ? AND Profile = ?;
-             """)
-        ) {
-            tagsStatement.setString(1, uuid.toString());
-            tagsStatement.setString(2, questPlayer.getProfile());
-
-            try(final ResultSet result = tagsStatement.executeQuery()) {
-                while (result.next()) {
-
-                    final String tagIdentifier = result.getString("TagIdentifier");
-                    final String tagValue = result.getString("TagValue");
-                    final String tagType = result.getString("TagType");
-
-
-                    if (tagValue == null) {
-                        questPlayer.setTagValue(tagIdentifier, null);
-                        continue;
-                    }
-                    if (main.getConfiguration().isVerboseStartupMessages()) {
+        try {
+            final Map<String, Object> tags = prefetchedTags != null ? prefetchedTags : main.getDataManager().getPlayerDataStorage().loadTags(uuid, questPlayer.getProfile());
+            if (main.getConfiguration().isVerboseStartupMessages()) {
+                for (final Map.Entry<String, Object> tag : tags.entrySet()) {
+                    if (tag.getValue() != null) {
                         main.getLogManager().info("  Loaded <highlight>%s</highlight> %s tag for player <highlight2>%s</highlight2> with the value <highlight2>%s</highlight2>.",
-                                tagIdentifier,
-                                tagType,
+                                tag.getKey(),
+                                tag.getValue().getClass().getSimpleName(),
                                 player.getName(),
-                                tagValue
+                                tag.getValue()
                         );
                     }
-
-
-                    switch (tagType) {
-                        case "INTEGER" -> questPlayer.setTagValue(tagIdentifier, Integer.parseInt(tagValue));
-                        case "FLOAT" -> questPlayer.setTagValue(tagIdentifier, Float.parseFloat(tagValue));
-                        case "BOOLEAN" -> questPlayer.setTagValue(tagIdentifier, Boolean.parseBoolean(tagValue));
-                        case "STRING" -> questPlayer.setTagValue(tagIdentifier, tagValue);
-                        case "DOUBLE" -> questPlayer.setTagValue(tagIdentifier, Double.parseDouble(tagValue));
-                    }
-
                 }
             }
-
-
+            questPlayer.getTags().load(tags);
+            questPlayer.markQuestStateModified(); //Only placeholders need to be updated, the loaded tags don't need to be saved again
         } catch (Exception e) {
             main.getLogManager().severe("ERROR: Could not load tags for player with uuid <highlight>%s</highlight>. Error: ", uuid);
             e.printStackTrace();
@@ -172,7 +150,7 @@ public class TagManager {
 
         }
         if (!questPlayer.getTags().isEmpty()) {
-            for (final String tagIdentifier : questPlayer.getTags().keySet()) {
+            for (final String tagIdentifier : questPlayer.getTags().getTagIdentifiers()) {
                 main.getLogManager().info("    %s: %s (%s)",
                         tagIdentifier,
                         questPlayer.getTagValue(tagIdentifier),
@@ -187,72 +165,26 @@ public class TagManager {
             main.getLogManager().info("Saving of tags has been skipped, because tags didn't even finish loading yet.");
             return;
         }
-        if(questPlayer.getTags().isEmpty()){
+        //Only tags which have been set or removed since they have last been saved need to be written
+        final PlayerTags.Changes changes = questPlayer.getTags().takeChanges();
+        if (changes.isEmpty()) {
             return;
         }
-        final String uuidString = player.getUniqueId().toString();
-
-        try (final Connection connection = main.getDataManager().getConnection();
-             final PreparedStatement deleteTagsPS = connection.prepareStatement("""
-                DELETE FROM Tags WHERE PlayerUUID = ?;
-             """);
-             final PreparedStatement insertIntoTagsPS = connection.prepareStatement("""
-                INSERT INTO Tags (PlayerUUID, TagIdentifier, TagValue, TagType, Profile) VALUES (?, ?, ?, ?, ?);
-             """)
-             ) {
-
-
-            for (final String tagIdentifier : questPlayer.getTags().keySet()) {
-                @Nullable final Object tagValue = questPlayer.getTagValue(tagIdentifier);
-
-                if (main.getConfiguration().isVerboseStartupMessages()) {
-                    main.getLogManager().info("Saving the " + (tagValue != null ? tagValue.getClass().getName() : "null") + " tag <highlight>" + tagIdentifier + "</highlight> with value <highlight>" + (tagValue != null ? tagValue : "null") + "</highlight> for player <highlight2>" + player.getName() + "</highlight2>...");
-                }
-
-                //Remove all tags first before adding all fresh and updated ones
-                deleteTagsPS.setString(1, uuidString);
-                deleteTagsPS.executeUpdate();
-
-                //Skip over adding the tag if it's null (= removing it)
-                if (tagValue == null) {
-                    main.getLogManager().info("Null tag => removing the tag");
-                    //statement.executeUpdate("DELETE FROM Tags WHERE PlayerUUID = '" + uuidString + "' AND TagIdentifier = '" + tagIdentifier + "';");
-                    continue;
-                }
+        final UUID uuid = player.getUniqueId();
 
-                insertIntoTagsPS.setString(1, uuidString);
-                insertIntoTagsPS.setString(2, tagIdentifier);
-                insertIntoTagsPS.setString(5, questPlayer.getProfile());
-
-                if (tagValue instanceof final Boolean booleanTagValue) {
-                    insertIntoTagsPS.setString(3, booleanTagValue.toString());
-                    insertIntoTagsPS.setString(4, "BOOLEAN");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Integer integerTagValue) {
-                    insertIntoTagsPS.setString(3, integerTagValue.toString());
-                    insertIntoTagsPS.setString(4, "INTEGER");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Float floatValue) {
-                    insertIntoTagsPS.setString(3, floatValue.toString());
-                    insertIntoTagsPS.setString(4, "FLOAT");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Double doubleValue) {
-                    insertIntoTagsPS.setString(3, doubleValue.toString());
-                    insertIntoTagsPS.setString(4, "DOUBLE");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final String stringTagValue) {
-                    insertIntoTagsPS.setString(3, stringTagValue);
-                    insertIntoTagsPS.setString(4, "STRING");
-                    insertIntoTagsPS.executeUpdate();
-                } else{
-                    main.getLogManager().warn("Encountered an unknown tag value type when saving tag %s. Tag value type: %s",
-                            tagIdentifier,
-                            tagValue.getClass().toString()
-                    );
-                }
+        if (main.getConfiguration().isVerboseStartupMessages()) {
+            for (final Map.Entry<String, Object> changedTag : changes.changedTags().entrySet()) {
+                main.getLogManager().info("Saving the " + changedTag.getValue().getClass().getName() + " tag <highlight>" + changedTag.getKey() + "</highlight> with value <highlight>" + changedTag.getValue() + "</highlight> for player <highlight2>" + player.getName() + "</highlight2>...");
+            }
+            for (final String removedTag : changes.removedTags()) {
+                main.getLogManager().info("Removing the tag <highlight>" + removedTag + "</highlight> of player <highlight2>" + player.getName() + "</highlight2>...");
             }
+        }
 
+        try {
+            main.getDataManager().getPlayerDataStorage().saveTags(uuid, questPlayer.getProfile(), changes.changedTags(), changes.removedTags());
         } catch (Exception e) {
+            questPlayer.getTags().restoreChanges(changes);
             main.getLogManager().severe("There was an error saving the tag data of player with UUID <highlight>%s</highlight>! Stacktrace:", questPlayer.getUniqueId());
             e.printStackTrace();
         }
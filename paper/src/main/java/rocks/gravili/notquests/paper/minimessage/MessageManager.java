@@ -18,6 +18,10 @@
 
 package rocks.gravili.notquests.paper.minimessage;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import rocks.gravili.notquests.paper.NotQuests;
@@ -27,6 +31,26 @@ public class MessageManager {
   private final MiniMessage miniMessage;
   private final TagResolver tagResolver;
 
+  /**
+   * Maximum amount of parsed components kept in the parsed component cache. The least recently used ones are dropped first.
+   */
+  private static final int parsedComponentCacheMaxSize = 2048;
+
+  /**
+   * Parsed MiniMessage components, keyed by the MiniMessage string they were parsed from. Components are immutable, so they can
+   * safely be shared. Access-ordered, so it works as an LRU cache. Always synchronize on it.
+   */
+  private final LinkedHashMap<String, Component> parsedComponentCache =
+      new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Component> eldest) {
+          return size() > parsedComponentCacheMaxSize;
+        }
+      };
+
+  private final LongAdder parsedComponentCacheHits = new LongAdder();
+  private final LongAdder parsedComponentCacheMisses = new LongAdder();
+
   public MessageManager(final NotQuests main) {
     this.main = main;
 
@@ -68,6 +92,62 @@ public class MessageManager {
     return miniMessage;
   }
 
+  /**
+   * Parses a MiniMessage string, re-using the component if the exact same string has been parsed before.
+   * Only use this for static strings from the configuration, like GUI templates, which are parsed again and again. Strings
+   * with player input, placeholders or progress values are different nearly every time, so they would only push the useful
+   * entries out of the cache - use {@link #getMiniMessage()} for them. The cache is cleared whenever the configuration is reloaded.
+   *
+   * @param miniMessageString the final MiniMessage string, with all placeholders already applied
+   * @return the parsed component
+   */
+  public final Component parseCached(final String miniMessageString) {
+    synchronized (parsedComponentCache) {
+      final Component cachedComponent = parsedComponentCache.get(miniMessageString);
+      if (cachedComponent != null) {
+        parsedComponentCacheHits.increment();
+        return cachedComponent;
+      }
+    }
+    parsedComponentCacheMisses.increment();
+
+    //Parse outside the lock. If two threads parse the same string at once, both results are equal anyways.
+    final Component component = miniMessage.deserialize(miniMessageString);
+    synchronized (parsedComponentCache) {
+      parsedComponentCache.put(miniMessageString, component);
+    }
+    return component;
+  }
+
+  public final long getParsedComponentCacheHits() {
+    return parsedComponentCacheHits.sum();
+  }
+
+  public final long getParsedComponentCacheMisses() {
+    return parsedComponentCacheMisses.sum();
+  }
+
+  /**
+   * @return the share of parseCached() calls which were answered from the cache, between 0 and 1
+   */
+  public final double getParsedComponentCacheHitRate() {
+    final long hits = getParsedComponentCacheHits();
+    final long total = hits + getParsedComponentCacheMisses();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  public final int getParsedComponentCacheSize() {
+    synchronized (parsedComponentCache) {
+      return parsedComponentCache.size();
+    }
+  }
+
+  public void clearParsedComponentCache() {
+    synchronized (parsedComponentCache) {
+      parsedComponentCache.clear();
+    }
+  }
+
   public final TagResolver getTagResolver() {
     return tagResolver;
   }
@@ -0,0 +1,35 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.placeholders;
+
+/**
+ * A resolved placeholder value of a single player, which is re-used until the server reaches the expiry tick or the
+ * player's quest state changes (which clears all cached values of that player).
+ *
+ * @param value the resolved placeholder value
+ * @param expiresAtTick the server tick (see Bukkit.getCurrentTick()) from which on the value has to be resolved again
+ * @param questStateModificationCount the quest state modification count of the player, read before the value was
+ *     resolved. A value which was put into the cache after a concurrent clear is recognized by it
+ */
+public record CachedPlaceholderValue(String value, int expiresAtTick, int questStateModificationCount) {
+
+    public final boolean isValid(final int currentTick, final int currentQuestStateModificationCount) {
+        return currentTick < expiresAtTick && questStateModificationCount == currentQuestStateModificationCount;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.placeholders;
+
+import org.bukkit.entity.Player;
+
+/**
+ * A placeholder identifier which has already been parsed once. Everything which can be derived from the identifier alone
+ * (quest, objective ID, compiled expression, variable...) is bound when it's created, so resolving it only has to do the
+ * per-player evaluation.
+ */
+@FunctionalInterface
+public interface ParsedPlaceholder {
+
+    /**
+     * Handler for identifiers which don't belong to any NotQuests placeholder
+     */
+    ParsedPlaceholder INVALID = player -> null;
+
+    /**
+     * @param player the player the placeholder is requested for. Never null
+     * @return the placeholder value, or null if the identifier is not a valid NotQuests placeholder
+     */
+    String resolve(final Player player);
+}
@@ -18,7 +18,10 @@
 
 package rocks.gravili.notquests.paper.placeholders;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import rocks.gravili.notquests.paper.NotQuests;
@@ -35,6 +38,29 @@ public class QuestPlaceholders extends PlaceholderExpansion {
 
     private final NotQuests main;
 
+    /**
+     * Maximum amount of parsed placeholders kept around. Identifiers come from other plugins' configs, so there is no natural
+     * limit to how many different ones are requested. The least recently used ones are dropped first.
+     */
+    private static final int parsedPlaceholdersMaxSize = 1024;
+
+    /**
+     * Parsed placeholders, keyed by their identifier. Parsing (finding the quest, objective ID, compiling expressions...) only
+     * happens the first time an identifier is requested. Access-ordered, so it works as an LRU cache. Always synchronize on it.
+     */
+    private final LinkedHashMap<String, ParsedPlaceholder> parsedPlaceholders = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, ParsedPlaceholder> eldest) {
+            return size() > parsedPlaceholdersMaxSize;
+        }
+    };
+
+    /**
+     * The quests modification count at the time the parsed placeholders were created. If quests are added, removed or reloaded,
+     * the parsed placeholders are dropped, as they would still reference the old Quest objects. Guarded by parsedPlaceholders.
+     */
+    private int parsedPlaceholdersQuestsModificationCount = -1;
+
     /**
      * Since we register the expansion inside our own plugin, we
      * can simply use this method here to get an instance of our
@@ -126,349 +152,399 @@ public class QuestPlaceholders extends PlaceholderExpansion {
             return "";
         }
 
+        final ParsedPlaceholder parsedPlaceholder = getParsedPlaceholder(identifier);
 
-        if (identifier.startsWith("player_questpoints")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                return "" + questPlayer.getQuestPoints();
-            }
-            return "0";
+        final int refreshIntervalTicks = main.getConfiguration().getPlaceholderCacheRefreshIntervalTicks();
+        if (refreshIntervalTicks <= 0) {
+            return parsedPlaceholder.resolve(player);
         }
-
-        if (identifier.startsWith("player_completed_quests_amount")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                return "" + questPlayer.getCompletedQuests().size();
-            }
-            return "0";
+        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        if (questPlayer == null) {
+            return parsedPlaceholder.resolve(player);
         }
 
-        if (identifier.startsWith("player_active_quests_amount")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                return "" + questPlayer.getActiveQuests().size();
-            }
-            return "0";
+        final int currentTick = Bukkit.getCurrentTick();
+        final int questStateModificationCount = questPlayer.getQuestStateModificationCount();
+        final CachedPlaceholderValue cachedPlaceholderValue = questPlayer.getPlaceholderValueCache().get(identifier);
+        if (cachedPlaceholderValue != null && cachedPlaceholderValue.isValid(currentTick, questStateModificationCount)) {
+            return cachedPlaceholderValue.value();
         }
 
-        if (identifier.startsWith("player_active_quests_list_horizontal")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                StringBuilder list = new StringBuilder();
-                int amount = 0;
-                for (ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                    amount++;
-                    //return if it's bigger than limit
-                    if (main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit >= 0 && amount > main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit) {
-                        return list.toString();
-                    }
-
-                    String nameToAdd = activeQuest.getQuest().getIdentifier();
-                    if (main.getConfiguration().placeholder_player_active_quests_list_horizontal_use_displayname_if_available) {
-                        if (!activeQuest.getQuest().getQuestDisplayName().isBlank()) {
-                            nameToAdd = activeQuest.getQuest().getQuestDisplayName();
-                        }
-                    }
-
-                    if(amount == 1){
-                        list = new StringBuilder(nameToAdd);
-                    }else{
-                        list.append(main.getConfiguration().placeholder_player_active_quests_list_horizontal_separator).append(nameToAdd);
-                    }
+        final String value = parsedPlaceholder.resolve(player);
+        // If the quest state changed while resolving, the value might already be outdated
+        if (value != null && questPlayer.getQuestStateModificationCount() == questStateModificationCount) {
+            questPlayer.getPlaceholderValueCache().put(identifier, new CachedPlaceholderValue(value, currentTick + refreshIntervalTicks, questStateModificationCount));
+        }
+        return value;
+    }
 
+    /**
+     * Returns the parsed placeholder of an identifier, parsing it if it hasn't been requested before.
+     *
+     * @param identifier the placeholder identifier, without the notquests_ prefix
+     * @return the parsed placeholder. Never null - invalid identifiers return {@link ParsedPlaceholder#INVALID}
+     */
+    public final ParsedPlaceholder getParsedPlaceholder(final String identifier) {
+        final int questsModificationCount = main.getQuestManager().getQuestsModificationCount();
+        synchronized (parsedPlaceholders) {
+            if (questsModificationCount != parsedPlaceholdersQuestsModificationCount) {
+                parsedPlaceholders.clear();
+                parsedPlaceholdersQuestsModificationCount = questsModificationCount;
+            } else {
+                final ParsedPlaceholder parsedPlaceholder = parsedPlaceholders.get(identifier);
+                if (parsedPlaceholder != null) {
+                    return parsedPlaceholder;
                 }
-                return list.toString();
             }
-            return "-";
-
         }
-        if (identifier.startsWith("player_active_quests_list_vertical")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                StringBuilder list = new StringBuilder();
-                int amount = 0;
-                for(ActiveQuest activeQuest : questPlayer.getActiveQuests()){
-                    amount++;
-                    //return if it's bigger than limit
-                    if (main.getConfiguration().placeholder_player_active_quests_list_vertical_limit >= 0 && amount > main.getConfiguration().placeholder_player_active_quests_list_vertical_limit) {
-                        return list.toString();
-                    }
 
-                    String nameToAdd = activeQuest.getQuest().getIdentifier();
-                    if (main.getConfiguration().placeholder_player_active_quests_list_vertical_use_displayname_if_available) {
-                        if (!activeQuest.getQuest().getQuestDisplayName().isBlank()) {
-                            nameToAdd = activeQuest.getQuest().getQuestDisplayName();
-                        }
-                    }
+        //Parse outside the lock. If two threads parse the same identifier at once, both results are equivalent anyways.
+        final ParsedPlaceholder parsedPlaceholder = parsePlaceholder(identifier);
+        synchronized (parsedPlaceholders) {
+            //Quests changed while parsing - the result might reference the old Quest objects, so it isn't kept
+            if (questsModificationCount == parsedPlaceholdersQuestsModificationCount
+                    && questsModificationCount == main.getQuestManager().getQuestsModificationCount()) {
+                parsedPlaceholders.put(identifier, parsedPlaceholder);
+            }
+        }
+        return parsedPlaceholder;
+    }
 
-                    if(amount == 1){
-                        list = new StringBuilder(nameToAdd);
-                    }else{
-                        list.append("\n").append(nameToAdd);
-                    }
+    /**
+     * Drops all parsed placeholders, so they will be parsed again the next time they are requested
+     */
+    public void clearParsedPlaceholders() {
+        synchronized (parsedPlaceholders) {
+            parsedPlaceholders.clear();
+        }
+    }
 
+    private ParsedPlaceholder parsePlaceholder(final String identifier) {
+        if (identifier.startsWith("player_questpoints")) {
+            return player -> {
+                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+                if (questPlayer != null) {
+                    return "" + questPlayer.getQuestPoints();
                 }
-                return list.toString();
-            }
-            return "-";
+                return "0";
+            };
+        }
 
+        if (identifier.startsWith("player_completed_quests_amount")) {
+            return player -> {
+                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+                if (questPlayer != null) {
+                    return "" + questPlayer.getTotalCompletedAmount();
+                }
+                return "0";
+            };
         }
 
-        if (identifier.startsWith("player_has_completed_quest_")) {
-            final String questName = identifier.replace("player_has_completed_quest_", "");
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
+        if (identifier.startsWith("player_active_quests_amount")) {
+            return player -> {
                 final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
                 if (questPlayer != null) {
-                    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-                        if (completedQuest.getQuest().equals(quest)) {
-                            return "Yes";
-                        }
-                    }
+                    return "" + questPlayer.getActiveQuests().size();
                 }
-            }
-            return "No";
+                return "0";
+            };
+        }
 
+        if (identifier.startsWith("player_active_quests_list_horizontal")) {
+            return player -> {
+                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+                if (questPlayer != null) {
+                    return getActiveQuestsList(questPlayer,
+                            main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit,
+                            main.getConfiguration().placeholder_player_active_quests_list_horizontal_use_displayname_if_available,
+                            main.getConfiguration().placeholder_player_active_quests_list_horizontal_separator
+                    );
+                }
+                return "-";
+            };
         }
-        if (identifier.startsWith("player_has_current_active_quest_")) {
-            final String questName = identifier.replace("player_has_current_active_quest_", "");
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
+        if (identifier.startsWith("player_active_quests_list_vertical")) {
+            return player -> {
                 final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
                 if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            return "Yes";
-                        }
-                    }
+                    return getActiveQuestsList(questPlayer,
+                            main.getConfiguration().placeholder_player_active_quests_list_vertical_limit,
+                            main.getConfiguration().placeholder_player_active_quests_list_vertical_use_displayname_if_available,
+                            "\n"
+                    );
                 }
+                return "-";
+            };
+        }
+
+        if (identifier.startsWith("player_has_completed_quest_")) {
+            final Quest quest = main.getQuestManager().getQuest(identifier.replace("player_has_completed_quest_", ""));
+            if (quest == null) {
+                return player -> "No";
             }
-            return "No";
+            return player -> {
+                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+                if (questPlayer != null && questPlayer.hasCompletedQuest(quest)) {
+                    return "Yes";
+                }
+                return "No";
+            };
+        }
+        if (identifier.startsWith("player_has_current_active_quest_")) {
+            final Quest quest = main.getQuestManager().getQuest(identifier.replace("player_has_current_active_quest_", ""));
+            if (quest == null) {
+                return player -> "No";
+            }
+            return player -> {
+                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+                if (questPlayer != null && getActiveQuest(questPlayer, quest) != null) {
+                    return "Yes";
+                }
+                return "No";
+            };
         }
 
         if (identifier.startsWith("player_is_objective_unlocked_and_active") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_unlocked_and_active_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_unlocked_and_active_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getActiveObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-
-                            return "No";
+            final int objectiveID = parseObjectiveID(identifier, "player_is_objective_unlocked_and_active_");
+            final Quest quest = parseObjectiveQuest(identifier);
+            if (objectiveID < 0) {
+                return ParsedPlaceholder.INVALID;
+            }
+            if (quest == null) {
+                return player -> "No";
+            }
+            return player -> {
+                final ActiveQuest activeQuest = getActiveQuest(player, quest);
+                if (activeQuest != null) {
+                    for (final ActiveObjective objective : activeQuest.getActiveObjectives()) {
+                        if (objective.getObjectiveID() == objectiveID && objective.isUnlocked()) {
+                            return "Yes";
                         }
                     }
-                    return "No";
                 }
                 return "No";
-            }
-            return "No";
-
+            };
         } else if (identifier.startsWith("player_is_objective_unlocked_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_unlocked_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_unlocked_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getActiveObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-                            return "No";
+            final int objectiveID = parseObjectiveID(identifier, "player_is_objective_unlocked_");
+            final Quest quest = parseObjectiveQuest(identifier);
+            if (objectiveID < 0) {
+                return ParsedPlaceholder.INVALID;
+            }
+            if (quest == null) {
+                return player -> "No";
+            }
+            return player -> {
+                final ActiveQuest activeQuest = getActiveQuest(player, quest);
+                if (activeQuest != null) {
+                    for (final ActiveObjective objective : activeQuest.getActiveObjectives()) {
+                        if (objective.getObjectiveID() == objectiveID && objective.isUnlocked()) {
+                            return "Yes";
+                        }
+                    }
+                    for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
+                        if (objective.getObjectiveID() == objectiveID && objective.isUnlocked()) {
+                            return "Yes";
                         }
                     }
-                    return "No";
                 }
                 return "No";
-            }
-            return "No";
-
+            };
         } else if (identifier.startsWith("player_is_objective_completed_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_completed_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_completed_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    return "Yes";
-                                }
-                            }
-                            return "No";
+            final int objectiveID = parseObjectiveID(identifier, "player_is_objective_completed_");
+            final Quest quest = parseObjectiveQuest(identifier);
+            if (objectiveID < 0) {
+                return ParsedPlaceholder.INVALID;
+            }
+            if (quest == null) {
+                return player -> "No";
+            }
+            return player -> {
+                final ActiveQuest activeQuest = getActiveQuest(player, quest);
+                if (activeQuest != null) {
+                    for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
+                        if (objective.getObjectiveID() == objectiveID) {
+                            return "Yes";
                         }
-
-
                     }
-                    return "No";
                 }
                 return "No";
-            }
-            return "No";
+            };
         } else if (identifier.startsWith("player_expression_")) {
-            final String expression = identifier.replace("player_expression_", "");
-
-            final NumberExpression numberExpression = new NumberExpression(main, expression);
-            return "" + numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
+            final NumberExpression numberExpression = new NumberExpression(main, identifier.replace("player_expression_", ""));
+            return player -> {
+                //The NumberExpression stores the QuestPlayer it evaluates for, so it must not be evaluated by two threads at once
+                synchronized (numberExpression) {
+                    return "" + numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
+                }
+            };
         } else if (identifier.startsWith("player_rounded_expression_")) {
-            final String expression = identifier.replace("player_rounded_expression_", "");
-
-            final NumberExpression numberExpression = new NumberExpression(main, expression);
-            return "" + (int) Math.round(numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId())));
+            final NumberExpression numberExpression = new NumberExpression(main, identifier.replace("player_rounded_expression_", ""));
+            return player -> {
+                synchronized (numberExpression) {
+                    return "" + (int) Math.round(numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId())));
+                }
+            };
         } else if (identifier.startsWith("player_variable_")) { //Variables
-            final String variableName = identifier.replace("player_variable_", "");
-            Variable<?> variable = main.getVariablesManager().getVariableFromString(variableName);
-            if (variable != null) {
-                Object value = variable.getValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
-                return value != null ? "" + value : "";
+            final String variableString = identifier.replace("player_variable_", "");
+            if (main.getVariablesManager().getVariableFromString(variableString) == null) {
+                return player -> "";
             }
-            return "";
+            //Variables are stateful, so placeholders which are resolved at the same time can't share an instance
+            return player -> {
+                final Variable<?> variable = main.getVariablesManager().getVariableFromString(variableString);
+                if (variable == null) {
+                    return "";
+                }
+                final Object value = variable.getValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
+                return value != null ? "" + value : "";
+            };
         } else if (identifier.startsWith("player_tag_")) { //Tags
             final String tagName = identifier.replace("player_tag_", "");
-            Tag tag = main.getTagManager().getTag(tagName);
-            if (tag != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    Object tagValue = questPlayer.getTagValue(tagName);
-                    if (tagValue != null) {
-                        return "" + tagValue;
-
+            //Tags are not resolved here, as they can be created and deleted without the quests changing. Looking them up is just a HashMap get.
+            return player -> {
+                final Tag tag = main.getTagManager().getTag(tagName);
+                if (tag != null) {
+                    final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+                    if (questPlayer != null) {
+                        final Object tagValue = questPlayer.getTagValue(tagName);
+                        if (tagValue != null) {
+                            return "" + tagValue;
+                        }
                     }
                 }
-            }
-            return "";
-
+                return "";
+            };
         } else if (identifier.startsWith("player_quest_cooldown_left_formatted_")) {
-            final String questName = identifier.replace("player_quest_cooldown_left_formatted_", "");
-            final Quest quest = main.getQuestManager().getQuest(questName);
-
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    return questPlayer.getCooldownFormatted(quest);
+            final Quest quest = main.getQuestManager().getQuest(identifier.replace("player_quest_cooldown_left_formatted_", ""));
+            return player -> {
+                if (quest != null) {
+                    final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+                    if (questPlayer != null) {
+                        return questPlayer.getCooldownFormatted(quest);
+                    }
                 }
-            }
-            final String prefix = main.getLanguageManager().getString("placeholders.questcooldownleftformatted.prefix", player);
-            return prefix + main.getLanguageManager().getString("placeholders.questcooldownleftformatted.no-cooldown", player);
-
+                final String prefix = main.getLanguageManager().getString("placeholders.questcooldownleftformatted.prefix", player);
+                return prefix + main.getLanguageManager().getString("placeholders.questcooldownleftformatted.no-cooldown", player);
+            };
         } else if (identifier.startsWith("player_objective_progress_percentage_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_objective_progress_percentage_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_objective_progress_percentage_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                                if (activeObjective.getObjectiveID() == objectiveID) {
-                                    if (activeObjective.isUnlocked()) {
-                                        return "" + ((int) (((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "100";
-                                    }
-                                }
-                            }
-                            return "0";
+            final int objectiveID = parseObjectiveID(identifier, "player_objective_progress_percentage_");
+            final Quest quest = parseObjectiveQuest(identifier);
+            if (objectiveID < 0) {
+                return ParsedPlaceholder.INVALID;
+            }
+            if (quest == null) {
+                return player -> "0";
+            }
+            return player -> {
+                final ActiveQuest activeQuest = getActiveQuest(player, quest);
+                if (activeQuest != null) {
+                    for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
+                        if (activeObjective.getObjectiveID() == objectiveID && activeObjective.isUnlocked()) {
+                            return "" + ((int) (((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
+                        }
+                    }
+                    for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
+                        if (objective.getObjectiveID() == objectiveID && objective.isUnlocked()) {
+                            return "100";
                         }
                     }
-                    return "0";
                 }
                 return "0";
-            }
-            return "0";
-
+            };
         } else if (identifier.startsWith("player_objective_progress_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_objective_progress_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_objective_progress_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                                if (activeObjective.getObjectiveID() == objectiveID) {
-                                    if (activeObjective.isUnlocked()) {
-                                        return "" + activeObjective.getCurrentProgress();
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
-                                if (completedObjective.getObjectiveID() == objectiveID) {
-                                    if (completedObjective.isUnlocked()) {
-                                        return "" + completedObjective.getProgressNeeded();
-                                    }
-                                }
-                            }
-                            return "0";
+            final int objectiveID = parseObjectiveID(identifier, "player_objective_progress_");
+            final Quest quest = parseObjectiveQuest(identifier);
+            if (objectiveID < 0) {
+                return ParsedPlaceholder.INVALID;
+            }
+            if (quest == null) {
+                return player -> "0";
+            }
+            return player -> {
+                final ActiveQuest activeQuest = getActiveQuest(player, quest);
+                if (activeQuest != null) {
+                    for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
+                        if (activeObjective.getObjectiveID() == objectiveID && activeObjective.isUnlocked()) {
+                            return "" + activeObjective.getCurrentProgress();
+                        }
+                    }
+                    for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
+                        if (completedObjective.getObjectiveID() == objectiveID && completedObjective.isUnlocked()) {
+                            return "" + completedObjective.getProgressNeeded();
                         }
                     }
-                    return "0";
                 }
                 return "0";
-            }
-            return "0";
-
+            };
         }
 
 
         // We return null if an invalid placeholder (f.e. %someplugin_placeholder3%)
         // was provided
+        return ParsedPlaceholder.INVALID;
+    }
+
+    /**
+     * @return the objective ID between the prefix and "_from_active_quest_", or -1 if it's not a number
+     */
+    private int parseObjectiveID(final String identifier, final String prefix) {
+        final int objectiveIDEnd = identifier.indexOf("_from_active_quest_");
+        if (objectiveIDEnd < prefix.length()) {
+            return -1;
+        }
+        final String objectiveIDName = identifier.substring(prefix.length(), objectiveIDEnd);
+        try {
+            return Integer.parseInt(objectiveIDName);
+        } catch (final NumberFormatException e) {
+            main.getLogManager().debug("Invalid objective ID <highlight>" + objectiveIDName + "</highlight> in placeholder <highlight2>" + identifier);
+            return -1;
+        }
+    }
+
+    /**
+     * @return the quest after "_from_active_quest_", or null if it doesn't exist
+     */
+    private Quest parseObjectiveQuest(final String identifier) {
+        return main.getQuestManager().getQuest(identifier.substring(identifier.indexOf("_from_active_quest_") + "_from_active_quest_".length()));
+    }
+
+    private ActiveQuest getActiveQuest(final Player player, final Quest quest) {
+        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        return questPlayer != null ? getActiveQuest(questPlayer, quest) : null;
+    }
+
+    private ActiveQuest getActiveQuest(final QuestPlayer questPlayer, final Quest quest) {
+        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+            if (activeQuest.getQuest().equals(quest)) {
+                return activeQuest;
+            }
+        }
         return null;
     }
+
+    private String getActiveQuestsList(final QuestPlayer questPlayer, final int limit, final boolean useDisplayNameIfAvailable, final String separator) {
+        final StringBuilder list = new StringBuilder();
+        int amount = 0;
+        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+            amount++;
+            //return if it's bigger than limit
+            if (limit >= 0 && amount > limit) {
+                return list.toString();
+            }
+
+            String nameToAdd = activeQuest.getQuest().getIdentifier();
+            if (useDisplayNameIfAvailable) {
+                if (!activeQuest.getQuest().getQuestDisplayName().isBlank()) {
+                    nameToAdd = activeQuest.getQuest().getQuestDisplayName();
+                }
+            }
+
+            if (amount > 1) {
+                list.append(separator);
+            }
+            list.append(nameToAdd);
+        }
+        return list.toString();
+    }
 }
 //%notquests_player_has_completed_quest_bob_the_king%
@@ -77,6 +77,8 @@ public class ActiveObjective extends ActiveObjectiveHolder {
 
 
             this.unlocked = unlocked;
+            markModified();
+            getQuestPlayer().markQuestStateModified(); //The unlock status isn't saved
             if (unlocked) {
 
                 ObjectiveUnlockEvent objectiveUnlockEvent = new ObjectiveUnlockEvent(getQuestPlayer(), this, activeObjectiveHolder, triggerAcceptQuestTrigger);
@@ -99,10 +101,9 @@ public class ActiveObjective extends ActiveObjectiveHolder {
                 //TODO: What?
                 if (objective instanceof final OtherQuestObjective otherQuestObjective) {
                     if (otherQuestObjective.isCountPreviousCompletions()) {
-                        for (CompletedQuest completedQuest : getQuestPlayer().getCompletedQuests()) {
-                            if (completedQuest.getQuest().equals(otherQuestObjective.getOtherQuest())) {
-                                addProgress(1, (NQNPC) null);
-                            }
+                        final long previousCompletions = getQuestPlayer().getCompletedAmount(otherQuestObjective.getOtherQuest().getIdentifier());
+                        for (long i = 0; i < previousCompletions; i++) {
+                            addProgress(1, (NQNPC) null);
                         }
                     }
                 }
@@ -262,6 +263,9 @@ public class ActiveObjective extends ActiveObjectiveHolder {
             return;
         }
         currentProgress += progressToAdd;
+        markModified();
+        getQuestPlayer().markQuestStateModified();
+        getQuestPlayer().markDataModified();
         getQuestPlayer().setTrackingObjective(this);
 
 
@@ -304,6 +308,9 @@ public class ActiveObjective extends ActiveObjectiveHolder {
         } else {
             currentProgress -= i;
         }
+        markModified();
+        getQuestPlayer().markQuestStateModified();
+        getQuestPlayer().markDataModified();
 
         getQuestPlayer().sendDebugMessage("-" + i + " progress for objective " + NotQuestColors.debugHighlightGradient + getObjective().getDisplayNameOrIdentifier() + "</gradient> of quest " + NotQuestColors.debugHighlightGradient + getActiveObjectiveHolder().getObjectiveHolder().getDisplayNameOrIdentifier() + "</gradient>.");
 
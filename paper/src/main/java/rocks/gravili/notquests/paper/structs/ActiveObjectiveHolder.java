@@ -3,6 +3,7 @@ package rocks.gravili.notquests.paper.structs;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.bukkit.Bukkit;
 import org.bukkit.Sound;
 import org.bukkit.SoundCategory;
@@ -26,6 +27,12 @@ public abstract class ActiveObjectiveHolder {
   private final QuestPlayer questPlayer;
 
   private final int level; //Level in the hierarchy. Quest = 0. 1. sub-objective = 1. etc.
+
+  /**
+   * Increased whenever the progress or state of this holder or one of its (sub-)objectives changes. Used to find out
+   * whether something rendered from it (like a GUI button) is outdated.
+   */
+  private final AtomicInteger modificationCount = new AtomicInteger();
   public ActiveObjectiveHolder(final NotQuests main, final QuestPlayer questPlayer, final ObjectiveHolder objectiveHolder, final int level){
     this.main = main;
     this.objectiveHolder = objectiveHolder;
@@ -75,6 +82,20 @@ public abstract class ActiveObjectiveHolder {
     return getActiveObjectives().isEmpty();
   }
 
+  public final int getModificationCount() {
+    return modificationCount.get();
+  }
+
+  /**
+   * Marks this holder and all holders above it (up to the ActiveQuest) as modified
+   */
+  public void markModified() {
+    modificationCount.incrementAndGet();
+    if (this instanceof ActiveObjective activeObjective && activeObjective.getActiveObjectiveHolder() != null) {
+      activeObjective.getActiveObjectiveHolder().markModified();
+    }
+  }
+
   public void removeCompletedObjectives(final boolean notifyPlayer) {
     if (main.getDataManager().isDisabled()) {
       return;
@@ -86,6 +107,9 @@ public abstract class ActiveObjectiveHolder {
 
     activeObjectives.removeAll(toRemove);
     toRemove.clear();
+    markModified();
+    questPlayer.markQuestStateModified();
+    questPlayer.markDataModified();
 
     // Other active objectives might be unlocked if this objective is completed. This will re-check
     // them all. (This is either due to a dependency or OtherQuest condition (for v3))
@@ -136,11 +160,10 @@ public abstract class ActiveObjectiveHolder {
       // Now execute the objective reward actions:
       String fullRewardString = "";
       int counterWithRewardNames = 0;
+      questPlayer.sendDebugMessage("Executing the rewardActions for an objective");
+      main.getActionManager()
+          .executeActionsWithConditions(activeObjective.getObjective().getRewards(), questPlayer, getObjectiveHolder());
       for (final Action rewardAction : activeObjective.getObjective().getRewards()) {
-        questPlayer.sendDebugMessage("Executing a rewardAction for an objective");
-        main.getActionManager()
-            .executeActionWithConditions(rewardAction, questPlayer, null, true, getObjectiveHolder());
-
         if (main.getConfiguration().showRewardsAfterObjectiveCompletion) {
           if (!rewardAction.getActionName().isBlank()) {
             counterWithRewardNames++;
@@ -19,12 +19,15 @@
 package rocks.gravili.notquests.paper.structs;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import org.bukkit.Bukkit;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.events.notquests.QuestFailEvent;
 import rocks.gravili.notquests.paper.structs.objectives.hooks.citizens.EscortNPCObjective;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
 import rocks.gravili.notquests.paper.structs.triggers.Trigger;
+import rocks.gravili.notquests.paper.structs.triggers.TriggerType;
 
 /**
  * This is a special object for active quests. Apart from the Quest itself, it stores additional
@@ -38,6 +41,7 @@ import rocks.gravili.notquests.paper.structs.triggers.Trigger;
  */
 public class ActiveQuest extends ActiveObjectiveHolder {
   private final ArrayList<ActiveTrigger> activeTriggers;
+  private final EnumMap<TriggerType, List<ActiveTrigger>> activeTriggersByType;
 
   private final Quest quest;
 
@@ -46,11 +50,15 @@ public class ActiveQuest extends ActiveObjectiveHolder {
     super(main, questPlayer, quest, 0);
     this.quest = quest;
     activeTriggers = new ArrayList<>();
+    activeTriggersByType = new EnumMap<>(TriggerType.class);
 
     int triggerID = 1;
     for (final Trigger trigger : quest.getTriggers()) {
       ActiveTrigger activeTrigger = new ActiveTrigger(triggerID, trigger, this);
       activeTriggers.add(activeTrigger);
+      activeTriggersByType
+          .computeIfAbsent(trigger.getResolvedTriggerType(), triggerType -> new ArrayList<>())
+          .add(activeTrigger);
       triggerID++;
     }
   }
@@ -59,6 +67,14 @@ public class ActiveQuest extends ActiveObjectiveHolder {
     return activeTriggers;
   }
 
+  /**
+   * @return the active triggers of this quest which are of the given type
+   */
+  public final List<ActiveTrigger> getActiveTriggers(final TriggerType triggerType) {
+    final List<ActiveTrigger> activeTriggersOfType = activeTriggersByType.get(triggerType);
+    return activeTriggersOfType != null ? activeTriggersOfType : List.of();
+  }
+
   public void fail() {
 
     QuestFailEvent questFailEvent = new QuestFailEvent(getQuestPlayer(), this);
@@ -0,0 +1,42 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs;
+
+import java.util.Locale;
+
+/**
+ * How the beams of tracked locations are shown to the player
+ */
+public enum BeamMode {
+    BEACON,
+    END_GATEWAY,
+    END_CRYSTAL;
+
+    /**
+     * @param beamMode the beam mode as it's written in the configuration, like "end_gateway"
+     * @return the beam mode, or END_GATEWAY if it's unknown
+     */
+    public static BeamMode fromString(final String beamMode) {
+        try {
+            return valueOf(beamMode.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException | NullPointerException ignored) {
+            return END_GATEWAY;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs;
+
+import io.papermc.paper.math.Position;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import rocks.gravili.notquests.paper.NotQuests;
+
+/**
+ * Shows the fake beam blocks of the tracked locations of a single player.
+ * <p>
+ * The renderer remembers which fake blocks it has sent to the player. Every update only sends the blocks which actually changed
+ * (new or moved beams, and the real blocks of beams which are gone) in a single multi block change, which the server splits
+ * into one packet per chunk section. If nothing moved, nothing is sent.
+ * <p>
+ * It never loads chunks: Beams in unloaded chunks are skipped until their chunk is loaded, and the real blocks of removed
+ * beams are only re-sent if their chunk is loaded (otherwise the client doesn't have that chunk anymore either).
+ */
+public class BeamRenderer {
+    /**
+     * Beams further away than this are moved towards the player, so they are still within the view distance
+     */
+    private static final int maxBeamDistance = 88; //Default: 96
+
+    private final NotQuests main;
+    private final QuestPlayer questPlayer;
+
+    private final BlockData beaconBlockData = Material.BEACON.createBlockData();
+    private final BlockData ironBlockData = Material.IRON_BLOCK.createBlockData();
+    private final BlockData endGatewayBlockData = Material.END_GATEWAY.createBlockData();
+
+    /**
+     * All fake blocks which have been sent to the player and not been reverted yet
+     */
+    private final HashMap<Position, BlockData> sentBlocks = new HashMap<>();
+    private UUID sentBlocksWorldUUID = null;
+
+    public BeamRenderer(final NotQuests main, final QuestPlayer questPlayer) {
+        this.main = main;
+        this.questPlayer = questPlayer;
+    }
+
+    /**
+     * Shows the beams of the given locations, and reverts all previously sent beams which are not needed anymore.
+     *
+     * @param player the player to show the beams to
+     * @param beamLocations the locations to show beams at, by their name
+     * @param activeBeamLocations filled with the locations the beams are actually shown at, by their name
+     * @return true if at least one of the beams is shown at its real location (so the player is close to it)
+     */
+    public synchronized boolean render(final Player player, final Map<String, Location> beamLocations, final Map<String, Location> activeBeamLocations) {
+        final BeamMode beamMode = main.getConfiguration().getResolvedBeamMode();
+        final World world = player.getWorld();
+        if (!world.getUID().equals(sentBlocksWorldUUID)) {
+            //The client has already dropped all fake blocks of the previous world
+            sentBlocks.clear();
+            sentBlocksWorldUUID = world.getUID();
+        }
+
+        boolean closeToBeam = false;
+        activeBeamLocations.clear();
+        final HashMap<Position, BlockData> wantedBlocks = new HashMap<>();
+        final HashMap<Position, Location> newBeacons = new HashMap<>();
+
+        for (final Map.Entry<String, Location> beamLocationEntry : beamLocations.entrySet()) {
+            final Location finalLocation = beamLocationEntry.getValue();
+            if (finalLocation.getWorld() == null || !finalLocation.getWorld().getUID().equals(world.getUID())) {
+                continue;
+            }
+
+            final Location playerLocation = player.getLocation();
+            Location beamLocation;
+            if (finalLocation.distance(playerLocation) > maxBeamDistance) {
+                //New Beacon Location should be cur player location + maxDistance blocks in direction of newChunkLocation - playerLocation
+                final org.bukkit.util.Vector normalizedDistanceBetweenPlayerAndNewChunk = finalLocation.toVector().subtract(playerLocation.toVector()).normalize();
+                beamLocation = playerLocation.clone().add(normalizedDistanceBetweenPlayerAndNewChunk.multiply(maxBeamDistance));
+                if (beamMode == BeamMode.BEACON) {
+                    if (!world.isChunkLoaded(beamLocation.getBlockX() >> 4, beamLocation.getBlockZ() >> 4)) {
+                        continue;
+                    }
+                    beamLocation.setY(world.getHighestBlockYAt(beamLocation.getBlockX(), beamLocation.getBlockZ()));
+                } else {
+                    beamLocation.setY(Math.max(playerLocation.getY(), 192));
+                }
+            } else {
+                beamLocation = finalLocation.clone();
+                closeToBeam = true;
+            }
+
+            final int x = beamLocation.getBlockX();
+            final int y = beamLocation.getBlockY();
+            final int z = beamLocation.getBlockZ();
+            if (beamMode == BeamMode.BEACON) {
+                final Position beaconPosition = Position.block(x, y, z);
+                wantedBlocks.put(beaconPosition, beaconBlockData);
+                for (int offsetX = -1; offsetX <= 1; offsetX++) {
+                    for (int offsetZ = -1; offsetZ <= 1; offsetZ++) {
+                        wantedBlocks.put(Position.block(x + offsetX, y - 1, z + offsetZ), ironBlockData);
+                    }
+                }
+                if (sentBlocks.get(beaconPosition) != beaconBlockData) {
+                    newBeacons.put(beaconPosition, beamLocation);
+                }
+            } else if (beamMode == BeamMode.END_GATEWAY) {
+                wantedBlocks.put(Position.block(x, y, z), endGatewayBlockData);
+            }
+            //END_CRYSTAL beams are entities and cannot be shown as block changes, so there is nothing to send for them
+
+            activeBeamLocations.put(beamLocationEntry.getKey(), beamLocation);
+        }
+
+        final HashMap<Position, BlockData> blockChanges = new HashMap<>();
+        for (final Map.Entry<Position, BlockData> sentBlock : sentBlocks.entrySet()) {
+            if (!wantedBlocks.containsKey(sentBlock.getKey())) {
+                final BlockData realBlockData = getRealBlockData(world, sentBlock.getKey());
+                if (realBlockData != null) {
+                    blockChanges.put(sentBlock.getKey(), realBlockData);
+                }
+            }
+        }
+        for (final Map.Entry<Position, BlockData> wantedBlock : wantedBlocks.entrySet()) {
+            if (sentBlocks.get(wantedBlock.getKey()) != wantedBlock.getValue()) {
+                blockChanges.put(wantedBlock.getKey(), wantedBlock.getValue());
+            }
+        }
+
+        sentBlocks.clear();
+        sentBlocks.putAll(wantedBlocks);
+
+        if (!blockChanges.isEmpty()) {
+            questPlayer.sendDebugMessage("Sending " + blockChanges.size() + " changed beam blocks");
+            player.sendMultiBlockChange(blockChanges);
+        }
+
+        for (final Location newBeaconLocation : newBeacons.values()) {
+            //Now send instant packet
+            main.getPacketManager().sendBeaconUpdatePacket(player, newBeaconLocation, beaconBlockData.createBlockState());
+        }
+
+        return closeToBeam;
+    }
+
+    /**
+     * Reverts all fake beam blocks which have been sent to the player
+     *
+     * @param player the player, or null if they are offline (in that case, the sent blocks are just forgotten)
+     */
+    public synchronized void clear(final Player player) {
+        if (player != null && !sentBlocks.isEmpty() && player.getWorld().getUID().equals(sentBlocksWorldUUID)) {
+            final HashMap<Position, BlockData> blockChanges = new HashMap<>();
+            for (final Position position : sentBlocks.keySet()) {
+                final BlockData realBlockData = getRealBlockData(player.getWorld(), position);
+                if (realBlockData != null) {
+                    blockChanges.put(position, realBlockData);
+                }
+            }
+            if (!blockChanges.isEmpty()) {
+                player.sendMultiBlockChange(blockChanges);
+            }
+        }
+        sentBlocks.clear();
+    }
+
+    /**
+     * @return the real block data at that position, or null if its chunk is not loaded
+     */
+    private BlockData getRealBlockData(final World world, final Position position) {
+        if (!world.isChunkLoaded(position.blockX() >> 4, position.blockZ() >> 4)) {
+            return null;
+        }
+        return world.getBlockData(position.blockX(), position.blockY(), position.blockZ());
+    }
+}
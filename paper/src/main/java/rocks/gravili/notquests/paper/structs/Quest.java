@@ -470,6 +470,7 @@ public class Quest extends ObjectiveHolder {
     }
     attachedNPCsWithQuestShowing.clear();
     attachedNPCsWithoutQuestShowing.clear();
+    main.getNPCManager().markInteractionBindingsModified();
     category.getQuestsConfig().set("quests." + questName + ".npcs", null);
     category.saveQuestsConfig();
   }
@@ -487,6 +488,7 @@ public class Quest extends ObjectiveHolder {
       } else {
         attachedNPCsWithoutQuestShowing.add(npc);
       }
+      main.getNPCManager().markInteractionBindingsModified();
     }
 
 
@@ -533,6 +535,7 @@ public class Quest extends ObjectiveHolder {
 
       attachedNPCsWithQuestShowing.remove(npc);
       attachedNPCsWithoutQuestShowing.remove(npc);
+      main.getNPCManager().markInteractionBindingsModified();
     }
   }
 
@@ -741,6 +744,7 @@ public class Quest extends ObjectiveHolder {
   @Override
   public void clearObjectives() {
     super.getObjectives().clear();
+    main.getNPCManager().markInteractionBindingsModified();
     category.getQuestsConfig().set("quests." + questName + ".objectives", null);
     category.saveQuestsConfig();
   }
@@ -762,6 +766,7 @@ public class Quest extends ObjectiveHolder {
         .set("quests." + questName + ".objectives." + objective.getObjectiveID(), null);
     category.saveQuestsConfig();
     super.getObjectives().remove(objective);
+    main.getNPCManager().markInteractionBindingsModified();
   }
 
 
@@ -775,6 +780,7 @@ public class Quest extends ObjectiveHolder {
     }
     if (!dupeID) {
       super.getObjectives().add(objective);
+      main.getNPCManager().markInteractionBindingsModified();
       if (save) {
         category
             .getQuestsConfig()
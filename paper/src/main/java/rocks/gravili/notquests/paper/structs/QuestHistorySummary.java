@@ -0,0 +1,52 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs;
+
+/**
+ * Completions and fails of a single quest which have been rolled up into counts, because they are older than the recent
+ * quest history which is kept for every player (see storage.quest-history.keep-recent). Individual completion and fail
+ * times are lost, apart from the most recent ones, which are still needed for cooldowns.
+ *
+ * @param lastCompleted the time of the most recent rolled up completion, or 0 if there is none
+ * @param lastFailed the time of the most recent rolled up fail, or 0 if there is none
+ */
+public record QuestHistorySummary(long completions, long lastCompleted, long fails, long lastFailed) {
+  public static final QuestHistorySummary EMPTY = new QuestHistorySummary(0, 0, 0, 0);
+
+  public final QuestHistorySummary withCompletion(final long timeCompleted) {
+    return new QuestHistorySummary(completions + 1, Math.max(lastCompleted, timeCompleted), fails, lastFailed);
+  }
+
+  public final QuestHistorySummary withFail(final long timeFailed) {
+    return new QuestHistorySummary(completions, lastCompleted, fails + 1, Math.max(lastFailed, timeFailed));
+  }
+
+  public final QuestHistorySummary withoutCompletions() {
+    return new QuestHistorySummary(0, 0, fails, lastFailed);
+  }
+
+  public final QuestHistorySummary merge(final QuestHistorySummary other) {
+    return new QuestHistorySummary(
+        completions + other.completions,
+        Math.max(lastCompleted, other.lastCompleted),
+        fails + other.fails,
+        Math.max(lastFailed, other.lastFailed)
+    );
+  }
+}
@@ -21,36 +21,43 @@ package rocks.gravili.notquests.paper.structs;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.title.Title;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.SoundCategory;
-import org.bukkit.block.BlockState;
-import org.bukkit.entity.EnderCrystal;
 import org.bukkit.entity.Player;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.NotQuestColors;
 import rocks.gravili.notquests.paper.events.notquests.QuestCompletedEvent;
 import rocks.gravili.notquests.paper.events.notquests.QuestFinishAcceptEvent;
 import rocks.gravili.notquests.paper.events.notquests.QuestPointsChangeEvent;
+import rocks.gravili.notquests.paper.managers.GUIPaneCache;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.QuestHistoryChange;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
+import rocks.gravili.notquests.paper.managers.tags.PlayerTags;
+import rocks.gravili.notquests.paper.placeholders.CachedPlaceholderValue;
 import rocks.gravili.notquests.paper.structs.actions.Action;
 import rocks.gravili.notquests.paper.structs.conditions.Condition;
 import rocks.gravili.notquests.paper.structs.conditions.Condition.ConditionResult;
 import rocks.gravili.notquests.paper.structs.objectives.ConditionObjective;
 import rocks.gravili.notquests.paper.structs.objectives.NumberVariableObjective;
 import rocks.gravili.notquests.paper.structs.objectives.OtherQuestObjective;
+import rocks.gravili.notquests.paper.structs.objectives.ReachLocationObjective;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
+import rocks.gravili.notquests.paper.structs.triggers.ActiveTriggerIndex;
+import rocks.gravili.notquests.paper.structs.triggers.TriggerType;
 
 /**
  * The QuestPlayer Object is initialized for every player, once they join the server - loading its data from the database.
@@ -76,9 +83,24 @@ public class QuestPlayer {
 
     private final ArrayList<FailedQuest> failedQuests; //has to accept multiple entries of the same value
 
+    /**
+     * Completions and fails which are not part of the recent quest history (completedQuests and failedQuests) anymore, by
+     * quest identifier. See storage.quest-history.keep-recent
+     */
+    private final HashMap<String, QuestHistorySummary> questHistorySummaries = new HashMap<>();
+
+    /**
+     * Changes of the quest history which haven't been saved yet. The quest history is append-only in the database, so
+     * only these changes are saved instead of the whole history.
+     */
+    private final ArrayList<QuestHistoryChange> unsavedQuestHistoryChanges = new ArrayList<>();
+    private long questHistoryChangeSequence = 0;
+    private volatile long savedQuestHistoryChangeSequence = 0;
+
     private final HashMap<String, Location> locationsAndBeacons, activeLocationAndBeams;
+    private final BeamRenderer beamRenderer;
     //Tags
-    private final HashMap<String, Object> tags;
+    private final PlayerTags tags;
     private long questPoints;
     private ActiveObjective trackingObjective;
     private BossBar bossBar;
@@ -97,6 +119,46 @@ public class QuestPlayer {
 
     private final ArrayList<Consumer<ActiveObjective>> queuedObjectivesToCheck = new ArrayList<>();
 
+    /**
+     * PlaceholderAPI placeholder values of this player, keyed by placeholder identifier. Only used if placeholders.cache.refresh-interval-ticks is bigger than 0.
+     * Cleared whenever the quest state of this player changes.
+     */
+    private final ConcurrentHashMap<String, CachedPlaceholderValue> placeholderValueCache = new ConcurrentHashMap<>();
+
+    /**
+     * Increased whenever the quest state of this player changes. See {@link #markQuestStateModified()}
+     */
+    private final AtomicInteger questStateModificationCount = new AtomicInteger();
+
+    /**
+     * Increased whenever data of this player which is saved in the database changes. See {@link #markDataModified()}
+     */
+    private final AtomicInteger dataModificationCount = new AtomicInteger();
+
+    /**
+     * The data modification count of the latest snapshot of this player which has been saved. If it differs from the
+     * current data modification count, the player has unsaved changes.
+     */
+    private volatile int savedDataModificationCount = 0;
+
+    /**
+     * Quest buttons of the GUIs of this player, which are re-used as long as they are up-to-date
+     */
+    private final GUIPaneCache guiPaneCache = new GUIPaneCache();
+
+    /**
+     * Active triggers of all active quests by type. Updated whenever an active quest is added or removed
+     */
+    private final ActiveTriggerIndex activeTriggerIndex = new ActiveTriggerIndex();
+
+    /**
+     * Whether this player has at least one unlocked, uncompleted ReachLocation objective, so their PlayerMoveEvents need to be
+     * checked. Re-evaluated lazily after moveInterestsModified has been set, which happens whenever such an objective is
+     * unlocked, locked or completed, and whenever an active quest is added or removed.
+     */
+    private volatile boolean hasActiveReachLocationObjectives = false;
+    private volatile boolean moveInterestsModified = true;
+
 
     public QuestPlayer(final NotQuests main, final UUID uuid, final String profile) {
         this.main = main;
@@ -111,8 +173,9 @@ public class QuestPlayer {
 
         locationsAndBeacons = new HashMap<>();
         activeLocationAndBeams = new HashMap<>();
+        beamRenderer = new BeamRenderer(main, this);
 
-        tags = new HashMap<>();
+        tags = new PlayerTags();
     }
 
     public final String getProfile(){
@@ -135,18 +198,113 @@ public class QuestPlayer {
         this.hasActiveVariableObjectives = hasActiveVariableObjectives;
     }
 
+    public void markMoveInterestsModified() {
+        moveInterestsModified = true;
+    }
+
+    /**
+     * @return true if PlayerMoveEvents of this player can make progress in any of their objectives
+     */
+    public final boolean isInterestedInMoves() {
+        if (moveInterestsModified) {
+            moveInterestsModified = false;
+            boolean foundReachLocationObjective = false;
+            for (final ActiveQuest activeQuest : activeQuests) {
+                if (hasActiveReachLocationObjective(activeQuest.getActiveObjectives())) {
+                    foundReachLocationObjective = true;
+                    break;
+                }
+            }
+            hasActiveReachLocationObjectives = foundReachLocationObjective;
+        }
+        return hasActiveReachLocationObjectives;
+    }
+
+    private boolean hasActiveReachLocationObjective(final List<ActiveObjective> activeObjectives) {
+        for (final ActiveObjective activeObjective : activeObjectives) {
+            if (!activeObjective.isUnlocked() || activeObjective.hasBeenCompleted()) {
+                continue;
+            }
+            if (activeObjective.getObjective() instanceof ReachLocationObjective
+                    || hasActiveReachLocationObjective(activeObjective.getActiveObjectives())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public final Object getTagValue(final String tagIdentifier) {
-        return tags.get(tagIdentifier.toLowerCase(Locale.ROOT));
+        return tags.get(tagIdentifier);
     }
 
+    /**
+     * @param newValue a Boolean, Integer, Float, Double or String value, or null to remove the tag
+     */
     public void setTagValue(final String tagIdentifier, final Object newValue) {
-        tags.put(tagIdentifier.toLowerCase(Locale.ROOT), newValue);
+        tags.set(tagIdentifier, newValue);
+        markQuestStateModified();
+        markDataModified();
     }
 
-    public final HashMap<String, Object> getTags(){
+    public final PlayerTags getTags(){
         return tags;
     }
 
+    /**
+     * @return the cached PlaceholderAPI placeholder values of this player
+     */
+    public final ConcurrentHashMap<String, CachedPlaceholderValue> getPlaceholderValueCache() {
+        return placeholderValueCache;
+    }
+
+    /**
+     * Drops all cached placeholder values of this player and increases the quest state modification count. This is called whenever
+     * something which placeholders or GUIs can display changes, like active quests, completed or failed quests, objective progress,
+     * quest points or tags. Changes which need to be saved have to call {@link #markDataModified()} as well.
+     */
+    public void markQuestStateModified() {
+        questStateModificationCount.incrementAndGet();
+        if (!placeholderValueCache.isEmpty()) {
+            placeholderValueCache.clear();
+        }
+    }
+
+    public final int getQuestStateModificationCount() {
+        return questStateModificationCount.get();
+    }
+
+    /**
+     * Marks the data of this player as modified, so it's saved by the next autosave
+     */
+    public void markDataModified() {
+        dataModificationCount.incrementAndGet();
+    }
+
+    public final int getDataModificationCount() {
+        return dataModificationCount.get();
+    }
+
+    public final int getSavedDataModificationCount() {
+        return savedDataModificationCount;
+    }
+
+    public final boolean hasUnsavedData() {
+        return dataModificationCount.get() != savedDataModificationCount;
+    }
+
+    /**
+     * @param modificationCount the data modification count of the snapshot which has been saved. Older ones are ignored.
+     */
+    public synchronized void markDataSaved(final int modificationCount) {
+        if (modificationCount - savedDataModificationCount > 0) {
+            savedDataModificationCount = modificationCount;
+        }
+    }
+
+    public final GUIPaneCache getGuiPaneCache() {
+        return guiPaneCache;
+    }
+
     public ActiveObjective getTrackingObjective() {
         return trackingObjective;
     }
@@ -181,167 +339,40 @@ public class QuestPlayer {
     }
 
     public void clearBeacons(){
-        for(Location location : getActiveLocationsAndBeacons().values()){
-            scheduleBeaconRemovalAt(location, getPlayer());
-        }
+        beamRenderer.clear(getPlayer());
 
         getLocationsAndBeacons().clear();
         getActiveLocationsAndBeacons().clear();
     }
 
     public void clearActiveBeacons(){
-        for(Location location : getActiveLocationsAndBeacons().values()){
-            scheduleBeaconRemovalAt(location, getPlayer());
-        }
+        beamRenderer.clear(getPlayer());
 
         getActiveLocationsAndBeacons().clear();
     }
 
-    public void scheduleBeaconRemovalAt(final Location location, final Player player){
-
-        if(main.getConfiguration().getBeamMode().equals("beacon")){
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(-1,-1,-1);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(1,0,0);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(1,0,0);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(0,0,1);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(-1,0,0);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(-1,0,0);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(0,0,1);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(1,0,0);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-            location.add(1,0,0);
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-        }else if(main.getConfiguration().getBeamMode().equals("end_gateway")){
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-        }else if(main.getConfiguration().getBeamMode().equals("end_crystal")){
-            player.sendBlockChange(location, location.getBlock().getBlockData());
-        }
-
+    public final BeamRenderer getBeamRenderer() {
+        return beamRenderer;
     }
 
+    /**
+     * Moves the beams of all tracked locations towards the player. Only beam blocks which actually changed since the last
+     * update are sent.
+     *
+     * @return true if at least one beam is shown at its real location
+     */
     public final boolean updateBeaconLocations(final Player player){
-
-        boolean toReturn = false;
-        clearActiveBeacons();
         if(locationsAndBeacons.isEmpty() || player == null){
             //player.sendMessage("Nothing to process!");
+            clearActiveBeacons();
             return false;
         }
-        for(String locationName : locationsAndBeacons.keySet()){
-            sendDebugMessage("Processing " + locationName);
-
-            final Location finalLocation = locationsAndBeacons.get(locationName);
-
-            if(!finalLocation.getWorld().getUID().equals(player.getWorld().getUID())){
-                continue;
-            }
-            Location lowestDistanceLocation = player.getLocation();
-
-            final int distance = 88; //Default: 96
-
-            if(finalLocation.distance(player.getLocation()) > distance){
-
-
-                //New Beacon Location should be cur player location + maxDistance blocks in direction of newChunkLocation - playerLocation
-                org.bukkit.util.Vector normalizedDistanceBetweenPlayerAndNewChunk = finalLocation.toVector().subtract(player.getLocation().toVector()).normalize();
-                lowestDistanceLocation = player.getLocation().add(normalizedDistanceBetweenPlayerAndNewChunk.multiply(distance));
-                if(main.getConfiguration().getBeamMode().equals("beacon")){
-                    lowestDistanceLocation.setY(lowestDistanceLocation.getWorld().getHighestBlockYAt(lowestDistanceLocation.getBlockX(), lowestDistanceLocation.getBlockZ()));
-                }else{
-                    if(player.getLocation().getY() > 192){
-                        lowestDistanceLocation.setY(player.getLocation().getY());
-                    }else {
-                        lowestDistanceLocation.setY(192);
-                    }
-                }
-
-
-            }else{
-                lowestDistanceLocation = finalLocation;
-
-                toReturn = true;
-            }
-
-
-
-
-            if(main.getConfiguration().getBeamMode().equals("beacon")){
-                BlockState beaconBlockState = lowestDistanceLocation.getBlock().getState();
-                beaconBlockState.setType(Material.BEACON);
-
-                BlockState ironBlockState = lowestDistanceLocation.getBlock().getState();
-                ironBlockState.setType(Material.IRON_BLOCK);
-
-                player.sendBlockChange(lowestDistanceLocation, beaconBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(-1,-1,-1), ironBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(1,0,0), ironBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(1,0,0), ironBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(0,0,1), ironBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(-1,0,0), ironBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(-1,0,0), ironBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(0,0,1), ironBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(1,0,0), ironBlockState.getBlockData());
-                player.sendBlockChange(lowestDistanceLocation.add(1,0,0), ironBlockState.getBlockData());
-
-
-                activeLocationAndBeams.put(locationName, lowestDistanceLocation.add(-1, 1, -1));
-                //main.sendMessage(player, "<main> Initial Add: <highlight>" + lowestDistanceLocation.toVector().toString());
-
-
-                //Now send instant packet
-                main.getPacketManager().sendBeaconUpdatePacket(player, lowestDistanceLocation, beaconBlockState);
-            }else if(main.getConfiguration().getBeamMode().equals("end_gateway")){
-                BlockState beaconBlockState = lowestDistanceLocation.getBlock().getState();
-                beaconBlockState.setType(Material.END_GATEWAY);
-
-                player.sendBlockChange(lowestDistanceLocation, beaconBlockState.getBlockData());
-
-                activeLocationAndBeams.put(locationName, lowestDistanceLocation);
-
-
-            }else if(main.getConfiguration().getBeamMode().equals("end_crystal")){
-                BlockState beaconBlockState = lowestDistanceLocation.getBlock().getState();
-                beaconBlockState.setType(Material.END_CRYSTAL);
-
-
-
-                EnderCrystal enderCrystal = (EnderCrystal) beaconBlockState.getBlock();
-                enderCrystal.setShowingBottom(false);
-                enderCrystal.setBeamTarget(lowestDistanceLocation.add(0, 10, 0));
-
-                player.sendBlockChange(lowestDistanceLocation, beaconBlockState.getBlockData());
-
-                activeLocationAndBeams.put(locationName, lowestDistanceLocation);
-            }
-
-
-        }
-
-        return toReturn;
-
-
+        return beamRenderer.render(player, locationsAndBeacons, activeLocationAndBeams);
     }
 
     public final String getCooldownFormatted(final Quest quest) {
 
-        long mostRecentCompleteTime = 0;
-
-
-        for (final CompletedQuest completedQuest : getCompletedQuests()) {
-            if (completedQuest.getQuest().equals(quest)) {
-                if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-                    mostRecentCompleteTime = completedQuest.getTimeCompleted();
-                }
-            }
-        }
+        final long mostRecentCompleteTime = getLastCompletedTime(quest.getIdentifier());
 
         final long completeTimeDifference = System.currentTimeMillis() - mostRecentCompleteTime;
         final long completeTimeDifferenceMinutes = TimeUnit.MILLISECONDS.toMinutes(completeTimeDifference);
@@ -405,31 +436,13 @@ public class QuestPlayer {
                 return main.getLanguageManager().getString("chat.quest-already-accepted", getPlayer());
             }
         }
-        int completedAmount = 0;
-        long mostRecentCompleteTime = 0;
+        final long completedAmount = getCompletedAmount(activeQuest.getQuestIdentifier());
+        final long mostRecentCompleteTime = getLastCompletedTime(activeQuest.getQuestIdentifier());
 
-        int failedAmount = 0;
-        long mostRecentFailTime = 0;
+        final long failedAmount = getFailedAmount(activeQuest.getQuestIdentifier());
+        final long mostRecentFailTime = getLastFailedTime(activeQuest.getQuestIdentifier());
 
-        int acceptedAmount = 0;
-        for (final CompletedQuest completedQuest : getCompletedQuests()) {
-            if (completedQuest.getQuestIdentifier().equals(activeQuest.getQuestIdentifier())) {
-                completedAmount += 1;
-                acceptedAmount += 1;
-                if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-                    mostRecentCompleteTime = completedQuest.getTimeCompleted();
-                }
-            }
-        }
-        for (final FailedQuest failedQuest : getFailedQuests()) {
-            if (failedQuest.getQuestIdentifier().equals(activeQuest.getQuestIdentifier())) {
-                failedAmount += 1;
-                acceptedAmount += 1;
-                if (failedQuest.getTimeFailed() > mostRecentFailTime) {
-                    mostRecentFailTime = failedQuest.getTimeFailed();
-                }
-            }
-        }
+        long acceptedAmount = completedAmount + failedAmount;
         for (final ActiveQuest activeQuest2 : getActiveQuests()) {
             if (activeQuest.getQuestIdentifier().equals(activeQuest2.getQuestIdentifier())) {
                 acceptedAmount += 1;
@@ -585,6 +598,10 @@ public class QuestPlayer {
 
 
         activeQuests.add(activeQuest);
+        activeTriggerIndex.addActiveQuest(activeQuest);
+        markMoveInterestsModified();
+        markQuestStateModified();
+        markDataModified();
 
         activeQuest.updateObjectivesUnlocked(sendUpdateObjectivesUnlocked, triggerAcceptQuestTrigger);
 
@@ -617,6 +634,32 @@ public class QuestPlayer {
         return activeQuests;
     }
 
+    public final ActiveTriggerIndex getActiveTriggerIndex() {
+        return activeTriggerIndex;
+    }
+
+    /**
+     * Removes an active quest without completing or failing it
+     */
+    public void removeActiveQuest(final ActiveQuest activeQuest) {
+        activeQuests.remove(activeQuest);
+        activeTriggerIndex.removeActiveQuest(activeQuest);
+        markMoveInterestsModified();
+        markQuestStateModified();
+        markDataModified();
+    }
+
+    /**
+     * Removes active quests without completing or failing them
+     */
+    public void removeActiveQuests(final Collection<ActiveQuest> activeQuestsToRemove) {
+        activeQuests.removeAll(activeQuestsToRemove);
+        activeTriggerIndex.removeActiveQuests(activeQuestsToRemove);
+        markMoveInterestsModified();
+        markQuestStateModified();
+        markDataModified();
+    }
+
     /*public void updateQuestStatus(){
         for(ActiveQuest activeQuest : activeQuests){
             activeQuest.updateQuestStatus();
@@ -645,9 +688,10 @@ public class QuestPlayer {
 
         String fullRewardString = "";
 
+        main.getActionManager().executeActionsWithConditions(quest.getRewards(), this, quest);
+
         int counterWithRewardNames = 0;
         for (Action action : quest.getRewards()) {
-            main.getActionManager().executeActionWithConditions(action, this, player, true, quest);
             if(main.getConfiguration().showRewardsAfterQuestCompletion){
                 if(!action.getActionName().isBlank()){
                     counterWithRewardNames++;
@@ -726,7 +770,9 @@ public class QuestPlayer {
 
         questsToComplete.add(activeQuest);
 
-        completedQuests.add(new CompletedQuest(activeQuest.getQuest(), this));
+        recordCompletedQuest(new CompletedQuest(activeQuest.getQuest(), this));
+        markQuestStateModified();
+        markDataModified();
 
         final Player player = getPlayer();
         if (player != null) {
@@ -779,7 +825,9 @@ public class QuestPlayer {
             //(Without a ConcurrentModificationException)
             questsToComplete.add(activeQuest);
             //We can safely (without ConcurrentModificationException) add it to the CompletedQuests list already without having to remove it from activeQuests
-            completedQuests.add(new CompletedQuest(activeQuest.getQuest(), this));
+            recordCompletedQuest(new CompletedQuest(activeQuest.getQuest(), this));
+            markQuestStateModified();
+            markDataModified();
 
             //Give Quest completion reward & show Quest completion title
             giveReward(activeQuest.getQuest());
@@ -828,6 +876,8 @@ public class QuestPlayer {
 
         if (!questPointsChangeEvent.isCancelled()) {
             this.questPoints = questPointsChangeEvent.getNewQuestPointsAmount();
+            markQuestStateModified();
+            markDataModified();
 
 
             if (notifyPlayer) {
@@ -890,17 +940,194 @@ public class QuestPlayer {
 
 
         activeQuests.removeAll(questsToComplete);
+        activeTriggerIndex.removeActiveQuests(questsToComplete);
+        markMoveInterestsModified();
 
         questsToComplete.clear();
+        markQuestStateModified();
+        markDataModified();
     }
 
+    /**
+     * Adds a completed quest which has been loaded from the database
+     */
     public void addCompletedQuest(final CompletedQuest completedQuest) {
         completedQuests.add(completedQuest);
     }
+    /**
+     * Adds a failed quest which has been loaded from the database
+     */
     public void addFailedQuest(final FailedQuest failedQuest) {
         failedQuests.add(failedQuest);
     }
 
+    /**
+     * Adds a new completed quest, which is saved together with the other player data
+     */
+    public void recordCompletedQuest(final CompletedQuest completedQuest) {
+        completedQuests.add(completedQuest);
+        recordQuestHistoryChange(QuestHistoryChange.Type.COMPLETED, completedQuest.getQuestIdentifier(), completedQuest.getTimeCompleted());
+        trimQuestHistory();
+    }
+
+    /**
+     * Adds a new failed quest, which is saved together with the other player data
+     */
+    public void recordFailedQuest(final FailedQuest failedQuest) {
+        failedQuests.add(failedQuest);
+        recordQuestHistoryChange(QuestHistoryChange.Type.FAILED, failedQuest.getQuestIdentifier(), failedQuest.getTimeFailed());
+        trimQuestHistory();
+    }
+
+    /**
+     * Removes all completions of a quest, including rolled up ones
+     *
+     * @return the amount of completions which have been removed
+     */
+    public long removeCompletedQuests(final String questIdentifier) {
+        long removedAmount = 0;
+        for (final CompletedQuest completedQuest : new ArrayList<>(completedQuests)) {
+            if (completedQuest.getQuestIdentifier().equals(questIdentifier)) {
+                completedQuests.remove(completedQuest);
+                removedAmount++;
+            }
+        }
+        final QuestHistorySummary questHistorySummary = questHistorySummaries.get(questIdentifier);
+        if (questHistorySummary != null && questHistorySummary.completions() > 0) {
+            removedAmount += questHistorySummary.completions();
+            questHistorySummaries.put(questIdentifier, questHistorySummary.withoutCompletions());
+        }
+        if (removedAmount > 0) {
+            recordQuestHistoryChange(QuestHistoryChange.Type.CLEAR_COMPLETED, questIdentifier, 0);
+            markQuestStateModified();
+            markDataModified();
+        }
+        return removedAmount;
+    }
+
+    private synchronized void recordQuestHistoryChange(final QuestHistoryChange.Type type, final String questIdentifier, final long time) {
+        if (!main.getConfiguration().savePlayerData) {
+            return;
+        }
+        unsavedQuestHistoryChanges.add(new QuestHistoryChange(++questHistoryChangeSequence, type, questIdentifier, time));
+    }
+
+    /**
+     * @return a copy of all changes of the quest history which haven't been saved yet, in the order they have been made
+     */
+    public synchronized List<QuestHistoryChange> getUnsavedQuestHistoryChanges() {
+        return List.copyOf(unsavedQuestHistoryChanges);
+    }
+
+    public final long getSavedQuestHistoryChangeSequence() {
+        return savedQuestHistoryChangeSequence;
+    }
+
+    /**
+     * @param sequence the sequence of the latest quest history change which has been saved
+     */
+    public synchronized void markQuestHistorySaved(final long sequence) {
+        if (sequence > savedQuestHistoryChangeSequence) {
+            savedQuestHistoryChangeSequence = sequence;
+            unsavedQuestHistoryChanges.removeIf(questHistoryChange -> questHistoryChange.sequence() <= sequence);
+        }
+    }
+
+    /**
+     * Rolls the oldest completed and failed quests up into the quest history summaries, until at most storage.quest-history.keep-recent
+     * of each are left. Entries which have been completed or failed at the same time as the last rolled up one are rolled up too,
+     * so the rolled up entries are exactly the ones up to a certain time.
+     *
+     * @return what has been rolled up, by quest identifier. Empty if nothing has been rolled up.
+     */
+    public HashMap<String, QuestHistorySummary> trimQuestHistory() {
+        final HashMap<String, QuestHistorySummary> rolledUp = new HashMap<>();
+        final int keepRecent = main.getConfiguration().getQuestHistoryKeepRecent();
+        if (keepRecent < 0) {
+            return rolledUp;
+        }
+        long lastRolledUpTime = -1;
+        while (!completedQuests.isEmpty() && (completedQuests.size() > keepRecent || completedQuests.get(0).getTimeCompleted() == lastRolledUpTime)) {
+            final CompletedQuest completedQuest = completedQuests.remove(0);
+            lastRolledUpTime = completedQuest.getTimeCompleted();
+            rolledUp.merge(completedQuest.getQuestIdentifier(), QuestHistorySummary.EMPTY.withCompletion(lastRolledUpTime), QuestHistorySummary::merge);
+        }
+        lastRolledUpTime = -1;
+        while (!failedQuests.isEmpty() && (failedQuests.size() > keepRecent || failedQuests.get(0).getTimeFailed() == lastRolledUpTime)) {
+            final FailedQuest failedQuest = failedQuests.remove(0);
+            lastRolledUpTime = failedQuest.getTimeFailed();
+            rolledUp.merge(failedQuest.getQuestIdentifier(), QuestHistorySummary.EMPTY.withFail(lastRolledUpTime), QuestHistorySummary::merge);
+        }
+        for (final Map.Entry<String, QuestHistorySummary> rolledUpEntry : rolledUp.entrySet()) {
+            questHistorySummaries.merge(rolledUpEntry.getKey(), rolledUpEntry.getValue(), QuestHistorySummary::merge);
+        }
+        return rolledUp;
+    }
+
+    /**
+     * @return the rolled up completions and fails, by quest identifier
+     */
+    public final HashMap<String, QuestHistorySummary> getQuestHistorySummaries() {
+        return questHistorySummaries;
+    }
+
+    public final long getCompletedAmount(final String questIdentifier) {
+        long completedAmount = questHistorySummaries.getOrDefault(questIdentifier, QuestHistorySummary.EMPTY).completions();
+        for (final CompletedQuest completedQuest : completedQuests) {
+            if (completedQuest.getQuestIdentifier().equals(questIdentifier)) {
+                completedAmount++;
+            }
+        }
+        return completedAmount;
+    }
+
+    public final long getFailedAmount(final String questIdentifier) {
+        long failedAmount = questHistorySummaries.getOrDefault(questIdentifier, QuestHistorySummary.EMPTY).fails();
+        for (final FailedQuest failedQuest : failedQuests) {
+            if (failedQuest.getQuestIdentifier().equals(questIdentifier)) {
+                failedAmount++;
+            }
+        }
+        return failedAmount;
+    }
+
+    /**
+     * @return the time the quest has last been completed at, or 0 if it has never been completed
+     */
+    public final long getLastCompletedTime(final String questIdentifier) {
+        long lastCompletedTime = questHistorySummaries.getOrDefault(questIdentifier, QuestHistorySummary.EMPTY).lastCompleted();
+        for (final CompletedQuest completedQuest : completedQuests) {
+            if (completedQuest.getQuestIdentifier().equals(questIdentifier) && completedQuest.getTimeCompleted() > lastCompletedTime) {
+                lastCompletedTime = completedQuest.getTimeCompleted();
+            }
+        }
+        return lastCompletedTime;
+    }
+
+    /**
+     * @return the time the quest has last been failed at, or 0 if it has never been failed
+     */
+    public final long getLastFailedTime(final String questIdentifier) {
+        long lastFailedTime = questHistorySummaries.getOrDefault(questIdentifier, QuestHistorySummary.EMPTY).lastFailed();
+        for (final FailedQuest failedQuest : failedQuests) {
+            if (failedQuest.getQuestIdentifier().equals(questIdentifier) && failedQuest.getTimeFailed() > lastFailedTime) {
+                lastFailedTime = failedQuest.getTimeFailed();
+            }
+        }
+        return lastFailedTime;
+    }
+
+    /**
+     * @return the amount of completions of all quests, including rolled up ones
+     */
+    public final long getTotalCompletedAmount() {
+        long totalCompletedAmount = completedQuests.size();
+        for (final QuestHistorySummary questHistorySummary : questHistorySummaries.values()) {
+            totalCompletedAmount += questHistorySummary.completions();
+        }
+        return totalCompletedAmount;
+    }
+
     public void failQuest(final ActiveQuest activeQuestToFail) {
         final ArrayList<ActiveQuest> activeQuestsCopy = new ArrayList<>(activeQuests);
         for (final ActiveQuest foundActiveQuest : activeQuestsCopy) {
@@ -910,7 +1137,7 @@ public class QuestPlayer {
                 questsToRemove.add(foundActiveQuest);
                 final Player player = getPlayer();
 
-                failedQuests.add(new FailedQuest(foundActiveQuest.getQuest(), this));
+                recordFailedQuest(new FailedQuest(foundActiveQuest.getQuest(), this));
 
 
                 if (player != null) {
@@ -926,9 +1153,13 @@ public class QuestPlayer {
             }
         }
         activeQuests.removeAll(questsToRemove);
+        activeTriggerIndex.removeActiveQuests(questsToRemove);
+        markMoveInterestsModified();
         activeQuestsCopy.removeAll(questsToComplete);
 
         questsToComplete.clear();
+        markQuestStateModified();
+        markDataModified();
 
 
     }
@@ -943,12 +1174,7 @@ public class QuestPlayer {
     }
 
     public final boolean hasCompletedQuest(final Quest quest) {
-        for (final CompletedQuest completedQuest : completedQuests) {
-            if (completedQuest.getQuestIdentifier() .equalsIgnoreCase(quest.getIdentifier())) {
-                return true;
-            }
-        }
-        return false;
+        return hasCompletedQuest(quest.getIdentifier());
     }
 
     public final boolean hasCompletedQuest(final String questName) {
@@ -957,24 +1183,29 @@ public class QuestPlayer {
                 return true;
             }
         }
-        return false;
-    }
-
-    public final boolean hasFailedQuest(final Quest quest) {
-        for (final FailedQuest failedQuest : failedQuests) {
-            if (failedQuest.getQuestIdentifier() .equalsIgnoreCase(quest.getIdentifier())) {
+        for (final Map.Entry<String, QuestHistorySummary> questHistorySummary : questHistorySummaries.entrySet()) {
+            if (questHistorySummary.getValue().completions() > 0 && questHistorySummary.getKey().equalsIgnoreCase(questName)) {
                 return true;
             }
         }
         return false;
     }
 
+    public final boolean hasFailedQuest(final Quest quest) {
+        return hasFailedQuest(quest.getIdentifier());
+    }
+
     public final boolean hasFailedQuest(final String questName) {
         for (final FailedQuest failedQuest : failedQuests) {
             if (failedQuest.getQuestIdentifier() .equalsIgnoreCase(questName)) {
                 return true;
             }
         }
+        for (final Map.Entry<String, QuestHistorySummary> questHistorySummary : questHistorySummaries.entrySet()) {
+            if (questHistorySummary.getValue().fails() > 0 && questHistorySummary.getKey().equalsIgnoreCase(questName)) {
+                return true;
+            }
+        }
         return false;
     }
 
@@ -1097,16 +1328,8 @@ public class QuestPlayer {
 
 
     public void onQuit(final Player player){
-        if (!getActiveQuests().isEmpty()) {
-            for (final ActiveQuest activeQuest : getActiveQuests()) {
-
-                for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-                    if (activeTrigger.getTrigger().getTriggerType().equals("DISCONNECT")) {
-
-                        main.getQuestEvents().handleGeneralTrigger(this, activeTrigger);
-                    }
-                }
-            }
+        for (final ActiveTrigger activeTrigger : activeTriggerIndex.getActiveTriggers(TriggerType.DISCONNECT)) {
+            main.getQuestEvents().handleGeneralTrigger(this, activeTrigger);
         }
     }
 
@@ -1124,6 +1347,14 @@ public class QuestPlayer {
         main.getTagManager().onJoin(this, player);
     }
 
+    /**
+     * @param prefetchedTags the tags of this profile, which have already been loaded before the player joined
+     */
+    public void onJoinAsync(final Player player, final Map<String, Object> prefetchedTags){
+        this.player = player;
+        main.getTagManager().onJoin(this, player, prefetchedTags);
+    }
+
     public final boolean isCurrentlyLoading() {
         return currentlyLoading;
     }
@@ -1138,6 +1369,10 @@ public class QuestPlayer {
 
     public final void setFinishedLoadingGeneralData(boolean finishedLoadingGeneralData) {
         this.finishedLoadingGeneralData = finishedLoadingGeneralData;
+        if (finishedLoadingGeneralData) {
+            //Everything which has been loaded is already in the database
+            savedDataModificationCount = dataModificationCount.get();
+        }
     }
 
     public final boolean isFinishedLoadingTags() {
@@ -26,7 +26,6 @@ import org.bukkit.configuration.file.FileConfiguration;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.managers.data.Category;
 import rocks.gravili.notquests.paper.structs.ActiveObjective;
-import rocks.gravili.notquests.paper.structs.ActiveQuest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.conditions.Condition;
 import rocks.gravili.notquests.paper.structs.objectives.Objective;
@@ -42,6 +41,7 @@ public abstract class Action {
   private Category category;
   private int actionID = -1;
   private long executionDelay = -1; // Cooldown in milliseconds. -1 or smaller => no cooldown.
+  private String actionType = null; // Resolved lazily, as resolving it searches all registered actions
 
 
   public Action(NotQuests main) {
@@ -68,7 +68,10 @@ public abstract class Action {
   }
 
   public final String getActionType() {
-    return main.getActionManager().getActionType(this.getClass());
+    if (actionType == null) {
+      actionType = main.getActionManager().getActionType(this.getClass());
+    }
+    return actionType;
   }
 
   public final String getActionName() {
@@ -129,10 +132,13 @@ public abstract class Action {
 
     if(Bukkit.isPrimaryThread() || canExecuteAsync()) {
       if(getExecutionDelay() == -1 && delayOverride == -1){
-        executeInternally(questPlayer, objects);
+        executeNow(questPlayer, objects);
       }else{
         final long delayToUse = delayOverride == -1 ? getExecutionDelay()/50 : delayOverride/50;
-        Bukkit.getScheduler().runTaskLater(main.getMain(), () -> executeInternally(questPlayer, objects), delayToUse);
+        Bukkit.getScheduler().runTaskLater(main.getMain(), () -> {
+          executeNow(questPlayer, objects);
+          main.getActionManager().checkObjectiveUnlockConditions(questPlayer);
+        }, delayToUse);
         return;
       }
     } else {
@@ -142,12 +148,20 @@ public abstract class Action {
     }
 
     // Potentially unlock objectives
-    if(questPlayer != null && main.getConfiguration().isObjectiveUnlockConditionsCheckOnAnyAction()) {
-      for(final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-        activeQuest.updateObjectivesUnlocked(true, true);
-      }
-    }
+    main.getActionManager().checkObjectiveUnlockConditions(questPlayer);
+  }
 
+  /**
+   * Executes the action right away, without any delay, condition check or objective unlock check, and records how long it
+   * took in the action execution stats. Has to be called on the primary thread.
+   */
+  public final void executeNow(final QuestPlayer questPlayer, final Object... objects) {
+    final long startNanos = System.nanoTime();
+    try {
+      executeInternally(questPlayer, objects);
+    } finally {
+      main.getActionManager().getActionExecutionStats().recordExecution(getActionType(), System.nanoTime() - startNanos);
+    }
   }
 
   public abstract void save(final FileConfiguration configuration, final String initialPath);
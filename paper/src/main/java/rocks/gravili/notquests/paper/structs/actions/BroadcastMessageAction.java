@@ -22,16 +22,19 @@ import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
+import java.util.Objects;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.MiniMessageSelector;
+import rocks.gravili.notquests.paper.managers.PlaceholderTemplate;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 public class BroadcastMessageAction extends Action {
 
   private String messageToBroadcast = "";
+  private PlaceholderTemplate messageToBroadcastTemplate = PlaceholderTemplate.parse("");
 
   public BroadcastMessageAction(final NotQuests main) {
     super(main);
@@ -67,6 +70,7 @@ public class BroadcastMessageAction extends Action {
 
   public void setMessageToBroadcast(final String messageToBroadcast) {
     this.messageToBroadcast = messageToBroadcast;
+    messageToBroadcastTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(messageToBroadcast, ""));
   }
 
   @Override
@@ -78,13 +82,7 @@ public class BroadcastMessageAction extends Action {
 
     Bukkit.broadcast(
         main.parse(
-            main.getUtilManager()
-                .applyPlaceholders(
-                    getMessageToBroadcast(),
-                    questPlayer.getPlayer(),
-                    questPlayer,
-                    getObjectiveHolder(),
-                    objects)));
+            messageToBroadcastTemplate.render(main, questPlayer.getPlayer(), questPlayer, getObjectiveHolder())));
   }
 
   @Override
@@ -95,11 +93,13 @@ public class BroadcastMessageAction extends Action {
   @Override
   public void load(final FileConfiguration configuration, String initialPath) {
     this.messageToBroadcast = configuration.getString(initialPath + ".specifics.message", "");
+    messageToBroadcastTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(messageToBroadcast, ""));
   }
 
   @Override
   public void deserializeFromSingleLineString(ArrayList<String> arguments) {
     this.messageToBroadcast = String.join(" ", arguments);
+    messageToBroadcastTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(messageToBroadcast, ""));
   }
 
   @Override
@@ -22,17 +22,20 @@ import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
+import java.util.Objects;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.CommandSelector;
+import rocks.gravili.notquests.paper.managers.PlaceholderTemplate;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 public class ConsoleCommandAction extends Action {
 
   private String consoleCommand = "";
+  private PlaceholderTemplate consoleCommandTemplate = PlaceholderTemplate.parse("");
 
   public ConsoleCommandAction(final NotQuests main) {
     super(main);
@@ -70,9 +73,7 @@ public class ConsoleCommandAction extends Action {
     }
 
     final String rewardConsoleCommand =
-        main.getUtilManager()
-            .applyPlaceholders(
-                consoleCommand, questPlayer.getPlayer(), questPlayer, getObjectiveHolder(), objects);
+        consoleCommandTemplate.render(main, questPlayer.getPlayer(), questPlayer, getObjectiveHolder());
 
     final ConsoleCommandSender console = Bukkit.getServer().getConsoleSender();
 
@@ -92,11 +93,13 @@ public class ConsoleCommandAction extends Action {
   @Override
   public void load(final FileConfiguration configuration, String initialPath) {
     this.consoleCommand = configuration.getString(initialPath + ".specifics.consoleCommand");
+    consoleCommandTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(consoleCommand, ""));
   }
 
   @Override
   public void deserializeFromSingleLineString(ArrayList<String> arguments) {
     this.consoleCommand = String.join(" ", arguments);
+    consoleCommandTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(consoleCommand, ""));
   }
 
   public final String getConsoleCommand() {
@@ -105,6 +108,7 @@ public class ConsoleCommandAction extends Action {
 
   public void setConsoleCommand(final String consoleCommand) {
     this.consoleCommand = consoleCommand;
+    consoleCommandTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(consoleCommand, ""));
   }
 
   @Override
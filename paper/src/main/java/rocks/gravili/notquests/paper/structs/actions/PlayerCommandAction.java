@@ -4,16 +4,19 @@ import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
+import java.util.Objects;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.CommandSelector;
+import rocks.gravili.notquests.paper.managers.PlaceholderTemplate;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 public class PlayerCommandAction extends Action {
   private String playerCommand = "";
+  private PlaceholderTemplate playerCommandTemplate = PlaceholderTemplate.parse("");
 
   public PlayerCommandAction(final NotQuests main) {
     super(main);
@@ -58,16 +61,14 @@ public class PlayerCommandAction extends Action {
     }
 
     final String rewardPlayerCommand =
-        main.getUtilManager()
-            .applyPlaceholders(
-                playerCommand, questPlayer.getPlayer(), questPlayer, getObjectiveHolder(), objects);
+        playerCommandTemplate.render(main, player, questPlayer, getObjectiveHolder());
 
 
     if (Bukkit.isPrimaryThread()) {
-      player.performCommand(playerCommand);
+      player.performCommand(rewardPlayerCommand);
     } else {
       Bukkit.getScheduler()
-          .runTask(main.getMain(), () -> player.performCommand(playerCommand));
+          .runTask(main.getMain(), () -> player.performCommand(rewardPlayerCommand));
     }
   }
 
@@ -79,11 +80,13 @@ public class PlayerCommandAction extends Action {
   @Override
   public void load(final FileConfiguration configuration, String initialPath) {
     this.playerCommand = configuration.getString(initialPath + ".specifics.playerCommand");
+    playerCommandTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(playerCommand, ""));
   }
 
   @Override
   public void deserializeFromSingleLineString(ArrayList<String> arguments) {
     this.playerCommand = String.join(" ", arguments);
+    playerCommandTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(playerCommand, ""));
   }
 
   public final String getPlayerCommand() {
@@ -92,6 +95,7 @@ public class PlayerCommandAction extends Action {
 
   public void setPlayerCommand(final String playerCommand) {
     this.playerCommand = playerCommand;
+    playerCommandTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(playerCommand, ""));
   }
 
   @Override
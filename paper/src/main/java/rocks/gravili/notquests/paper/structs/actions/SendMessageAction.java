@@ -22,15 +22,18 @@ import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
+import java.util.Objects;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.MiniMessageSelector;
+import rocks.gravili.notquests.paper.managers.PlaceholderTemplate;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 public class SendMessageAction extends Action {
 
   private String messageToSend = "";
+  private PlaceholderTemplate messageToSendTemplate = PlaceholderTemplate.parse("");
 
   public SendMessageAction(final NotQuests main) {
     super(main);
@@ -66,6 +69,7 @@ public class SendMessageAction extends Action {
 
   public void setMessageToSend(final String messageToSend) {
     this.messageToSend = messageToSend;
+    messageToSendTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(messageToSend, ""));
   }
 
   @Override
@@ -79,9 +83,7 @@ public class SendMessageAction extends Action {
         .getPlayer()
         .sendMessage(
             main.parse(
-                main.getUtilManager()
-                    .applyPlaceholders(
-                        getMessageToSend(), questPlayer.getPlayer(), getObjectiveHolder(), objects)));
+                messageToSendTemplate.render(main, questPlayer.getPlayer(), questPlayer, getObjectiveHolder())));
   }
 
   @Override
@@ -92,11 +94,13 @@ public class SendMessageAction extends Action {
   @Override
   public void load(final FileConfiguration configuration, String initialPath) {
     this.messageToSend = configuration.getString(initialPath + ".specifics.message", "");
+    messageToSendTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(messageToSend, ""));
   }
 
   @Override
   public void deserializeFromSingleLineString(ArrayList<String> arguments) {
     this.messageToSend = String.join(" ", arguments);
+    messageToSendTemplate = PlaceholderTemplate.parse(Objects.requireNonNullElse(messageToSend, ""));
   }
 
   @Override
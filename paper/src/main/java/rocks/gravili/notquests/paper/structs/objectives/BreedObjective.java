@@ -32,6 +32,7 @@ import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 public class BreedObjective extends Objective {
   private String entityToBreedType = "";
+  private EntityTypeFilter entityToBreedFilter = EntityTypeFilter.of(null);
 
   public BreedObjective(NotQuests main) {
     super(main);
@@ -93,10 +94,15 @@ public class BreedObjective extends Objective {
 
   public void setEntityToBreedType(final String entityToBreedType) {
     this.entityToBreedType = entityToBreedType;
+    this.entityToBreedFilter = EntityTypeFilter.of(entityToBreedType);
+  }
+
+  public final EntityTypeFilter getEntityToBreedFilter() {
+    return entityToBreedFilter;
   }
 
   @Override
   public void load(FileConfiguration configuration, String initialPath) {
-    this.entityToBreedType = configuration.getString(initialPath + ".specifics.mobToBreed");
+    setEntityToBreedType(configuration.getString(initialPath + ".specifics.mobToBreed"));
   }
 }
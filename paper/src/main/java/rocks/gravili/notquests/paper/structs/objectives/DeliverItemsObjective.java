@@ -126,6 +126,12 @@ public class DeliverItemsObjective extends Objective {
 
     public void setRecipientNPC(final NQNPC recipientNPC) {
         this.recipientNPC = recipientNPC;
+        main.getNPCManager().markInteractionBindingsModified();
+    }
+
+    @Override
+    public boolean isInteractingWithNPC(final NQNPC nqnpc) {
+        return nqnpc.equals(getRecipientNPC()) || super.isInteractingWithNPC(nqnpc);
     }
 
     @Override
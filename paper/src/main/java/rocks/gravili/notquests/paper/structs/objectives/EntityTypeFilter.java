@@ -0,0 +1,63 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.objectives;
+
+import java.util.EnumSet;
+import org.bukkit.entity.EntityType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An entity type string of an objective (like "zombie" or "any"), resolved once so checking an entity is just an EnumSet
+ * lookup. Strings which aren't vanilla entity types (like MythicMobs mob names) don't match any EntityType.
+ */
+public final class EntityTypeFilter {
+  private static final EntityTypeFilter NONE = new EntityTypeFilter(false, EnumSet.noneOf(EntityType.class));
+
+  private final boolean any;
+  private final EnumSet<EntityType> entityTypes;
+
+  private EntityTypeFilter(final boolean any, final EnumSet<EntityType> entityTypes) {
+    this.any = any;
+    this.entityTypes = entityTypes;
+  }
+
+  public static EntityTypeFilter of(@Nullable final String entityTypeString) {
+    if (entityTypeString == null || entityTypeString.isBlank()) {
+      return NONE;
+    }
+    if (entityTypeString.equalsIgnoreCase("any")) {
+      return new EntityTypeFilter(true, EnumSet.noneOf(EntityType.class));
+    }
+    final EnumSet<EntityType> entityTypes = EnumSet.noneOf(EntityType.class);
+    for (final EntityType entityType : EntityType.values()) {
+      if (entityType.toString().equalsIgnoreCase(entityTypeString)) {
+        entityTypes.add(entityType);
+      }
+    }
+    return new EntityTypeFilter(false, entityTypes);
+  }
+
+  public final boolean isAny() {
+    return any;
+  }
+
+  public final boolean matches(final EntityType entityType) {
+    return any || entityTypes.contains(entityType);
+  }
+}
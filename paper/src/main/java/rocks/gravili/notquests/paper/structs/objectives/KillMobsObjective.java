@@ -21,6 +21,8 @@ package rocks.gravili.notquests.paper.structs.objectives;
 import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
+import java.util.ArrayList;
+import java.util.Locale;
 import java.util.Map;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -39,6 +41,10 @@ public class KillMobsObjective extends Objective {
 
   private String projectKorraAbility = "";
 
+  // Resolved from the strings above whenever they are set, so checking a kill doesn't have to parse them again
+  private EntityTypeFilter mobToKillFilter = EntityTypeFilter.of(null);
+  private String[] nameTagContainsAnyPartsLowercase = new String[0];
+
   public KillMobsObjective(NotQuests main) {
     super(main);
   }
@@ -136,6 +142,7 @@ public class KillMobsObjective extends Objective {
 
   public void setMobToKillType(final String mobToKillType) {
     this.mobToKillType = mobToKillType;
+    this.mobToKillFilter = EntityTypeFilter.of(mobToKillType);
   }
 
   @Override
@@ -185,6 +192,14 @@ public class KillMobsObjective extends Objective {
 
   public void setNameTagContainsAny(final String nameTagContainsAny) {
     this.nameTagContainsAny = nameTagContainsAny;
+
+    final ArrayList<String> nameTagContainsAnyParts = new ArrayList<>();
+    for (final String namePart : nameTagContainsAny.toLowerCase(Locale.ROOT).split(" ")) {
+      if (!namePart.isEmpty()) {
+        nameTagContainsAnyParts.add(namePart);
+      }
+    }
+    this.nameTagContainsAnyPartsLowercase = nameTagContainsAnyParts.toArray(new String[0]);
   }
 
   public final String getNameTagEquals() {
@@ -195,9 +210,39 @@ public class KillMobsObjective extends Objective {
     this.nameTagEquals = nameTagEquals;
   }
 
+  public final EntityTypeFilter getMobToKillFilter() {
+    return mobToKillFilter;
+  }
+
+  /**
+   * @return true if any of the nametag_containsany or nametag_equals flags are set
+   */
+  public final boolean hasNameTagFilter() {
+    return !nameTagContainsAny.isBlank() || !nameTagEquals.isBlank();
+  }
+
+  /**
+   * @param customNameLowercase the lowercase custom name of the killed entity, or null if it doesn't have one
+   * @return true if the custom name fits the nametag_containsany and nametag_equals flags
+   */
+  public final boolean matchesNameTag(@Nullable final String customNameLowercase) {
+    if (!hasNameTagFilter()) {
+      return true;
+    }
+    if (customNameLowercase == null || customNameLowercase.isBlank()) {
+      return false;
+    }
+    for (final String namePart : nameTagContainsAnyPartsLowercase) {
+      if (!customNameLowercase.contains(namePart)) {
+        return false;
+      }
+    }
+    return nameTagEquals.isBlank() || customNameLowercase.equalsIgnoreCase(nameTagEquals);
+  }
+
   @Override
   public void load(FileConfiguration configuration, String initialPath) {
-    mobToKillType = configuration.getString(initialPath + ".specifics.mobToKill");
+    setMobToKillType(configuration.getString(initialPath + ".specifics.mobToKill"));
 
     // Extras
     final String nameTagContains =
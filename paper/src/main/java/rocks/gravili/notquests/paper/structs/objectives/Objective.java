@@ -100,6 +100,7 @@ public abstract class Objective extends ObjectiveHolder{
 
   public final void setCompletionNPC(final NQNPC completionNPC, final boolean save) {
     this.completionNPC = completionNPC;
+    main.getNPCManager().markInteractionBindingsModified();
     if (save) {
       completionNPC.saveToConfig(objectiveHolder.getConfig(), objectiveHolder.getInitialConfigPath()
           + ".objectives."
@@ -109,6 +110,14 @@ public abstract class Objective extends ObjectiveHolder{
     }
   }
 
+  /**
+   * @return true if clicking the NPC could progress this objective. Used to skip checking the objectives of players who
+   *     click NPCs which aren't part of any objective.
+   */
+  public boolean isInteractingWithNPC(final NQNPC nqnpc) {
+    return nqnpc.equals(getCompletionNPC());
+  }
+
   public final int getObjectiveID() {
     return objectiveID;
   }
@@ -804,6 +813,7 @@ public abstract class Objective extends ObjectiveHolder{
   @Override
   public void clearObjectives() {
     super.getObjectives().clear();
+    main.getNPCManager().markInteractionBindingsModified();
     getObjectiveHolder().getConfig().set(getObjectiveHolder().getInitialConfigPath() + ".objectives." + getObjectiveID() + ".objectives", null);
     getObjectiveHolder().saveConfig();
   }
@@ -824,6 +834,7 @@ public abstract class Objective extends ObjectiveHolder{
         .set(getObjectiveHolder().getInitialConfigPath() + ".objectives." + getObjectiveID() + ".objectives." + objective.getObjectiveID(), null);
     getObjectiveHolder().saveConfig();
     super.getObjectives().remove(objective);
+    main.getNPCManager().markInteractionBindingsModified();
   }
 
 
@@ -837,6 +848,7 @@ public abstract class Objective extends ObjectiveHolder{
     }
     if (!dupeID) {
       super.getObjectives().add(objective);
+      main.getNPCManager().markInteractionBindingsModified();
       if (save) {
         getObjectiveHolder().getConfig()
             .set(
@@ -104,13 +104,17 @@ public class ReachLocationObjective extends Objective {
   @Override
   public void onObjectiveUnlock(
       final ActiveObjective activeObjective,
-      final boolean unlockedDuringPluginStartupQuestLoadingProcess) {}
+      final boolean unlockedDuringPluginStartupQuestLoadingProcess) {
+    activeObjective.getQuestPlayer().markMoveInterestsModified();
+  }
 
   @Override
   public void onObjectiveCompleteOrLock(
       final ActiveObjective activeObjective,
       final boolean lockedOrCompletedDuringPluginStartupQuestLoadingProcess,
-      final boolean completed) {}
+      final boolean completed) {
+    activeObjective.getQuestPlayer().markMoveInterestsModified();
+  }
 
   public final Location getMinLocation() {
     return min;
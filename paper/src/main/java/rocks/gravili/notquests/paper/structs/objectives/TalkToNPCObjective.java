@@ -143,5 +143,11 @@ public class TalkToNPCObjective extends Objective {
 
     public void setNPCtoTalkTo(final NQNPC npcToTalkTo) {
         this.npcToTalkTo = npcToTalkTo;
+        main.getNPCManager().markInteractionBindingsModified();
+    }
+
+    @Override
+    public boolean isInteractingWithNPC(final NQNPC nqnpc) {
+        return nqnpc.equals(getNPCtoTalkTo()) || super.isInteractingWithNPC(nqnpc);
     }
 }
\ No newline at end of file
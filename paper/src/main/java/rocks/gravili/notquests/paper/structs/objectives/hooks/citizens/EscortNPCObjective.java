@@ -35,6 +35,7 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.npc.NQNPC;
 import rocks.gravili.notquests.paper.structs.ActiveObjective;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.objectives.Objective;
@@ -235,6 +236,13 @@ public class EscortNPCObjective extends Objective { //TODO: Add support for othe
 
   public void setNpcToEscortToID(final int npcToEscortToID) {
     this.npcToEscortToID = npcToEscortToID;
+    main.getNPCManager().markInteractionBindingsModified();
+  }
+
+  @Override
+  public boolean isInteractingWithNPC(final NQNPC nqnpc) {
+    return (nqnpc.getNPCType().equalsIgnoreCase("citizens") && nqnpc.getID().getIntegerID() == getNpcToEscortToID())
+        || super.isInteractingWithNPC(nqnpc);
   }
 
 
@@ -46,6 +46,7 @@ public class ActiveTrigger {
 
   public void setCurrentProgress(long newCurrentProgress) {
     this.currentProgress = newCurrentProgress;
+    activeQuest.getQuestPlayer().markDataModified();
   }
 
   public void addProgress(long progressToAdd) {
@@ -0,0 +1,106 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.triggers;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import rocks.gravili.notquests.paper.structs.ActiveQuest;
+import rocks.gravili.notquests.paper.structs.triggers.types.WorldEnterTrigger;
+import rocks.gravili.notquests.paper.structs.triggers.types.WorldLeaveTrigger;
+
+/**
+ * All active triggers of all active quests of a QuestPlayer, by trigger type. WORLDENTER and WORLDLEAVE triggers are
+ * additionally indexed by the name of the world they are waiting for.
+ * <p>
+ * This is kept up-to-date by the QuestPlayer whenever an active quest is added or removed, so firing a trigger only has to
+ * look at the active triggers of that type.
+ */
+public class ActiveTriggerIndex {
+  private final EnumMap<TriggerType, CopyOnWriteArrayList<ActiveTrigger>> activeTriggersByType =
+      new EnumMap<>(TriggerType.class);
+  private final ConcurrentHashMap<String, CopyOnWriteArrayList<ActiveTrigger>> worldEnterTriggersByWorldName =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CopyOnWriteArrayList<ActiveTrigger>> worldLeaveTriggersByWorldName =
+      new ConcurrentHashMap<>();
+
+  public ActiveTriggerIndex() {
+    for (final TriggerType triggerType : TriggerType.values()) {
+      activeTriggersByType.put(triggerType, new CopyOnWriteArrayList<>());
+    }
+  }
+
+  public void addActiveQuest(final ActiveQuest activeQuest) {
+    for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
+      activeTriggersByType.get(activeTrigger.getTrigger().getResolvedTriggerType()).addIfAbsent(activeTrigger);
+
+      if (activeTrigger.getTrigger() instanceof final WorldEnterTrigger worldEnterTrigger
+          && worldEnterTrigger.getWorldToEnterName() != null) {
+        worldEnterTriggersByWorldName
+            .computeIfAbsent(worldEnterTrigger.getWorldToEnterName(), worldName -> new CopyOnWriteArrayList<>())
+            .addIfAbsent(activeTrigger);
+      } else if (activeTrigger.getTrigger() instanceof final WorldLeaveTrigger worldLeaveTrigger
+          && worldLeaveTrigger.getWorldToLeaveName() != null) {
+        worldLeaveTriggersByWorldName
+            .computeIfAbsent(worldLeaveTrigger.getWorldToLeaveName(), worldName -> new CopyOnWriteArrayList<>())
+            .addIfAbsent(activeTrigger);
+      }
+    }
+  }
+
+  public void removeActiveQuest(final ActiveQuest activeQuest) {
+    if (activeQuest.getActiveTriggers().isEmpty()) {
+      return;
+    }
+    for (final CopyOnWriteArrayList<ActiveTrigger> activeTriggers : activeTriggersByType.values()) {
+      activeTriggers.removeIf(activeTrigger -> activeTrigger.getActiveQuest() == activeQuest);
+    }
+    for (final CopyOnWriteArrayList<ActiveTrigger> activeTriggers : worldEnterTriggersByWorldName.values()) {
+      activeTriggers.removeIf(activeTrigger -> activeTrigger.getActiveQuest() == activeQuest);
+    }
+    for (final CopyOnWriteArrayList<ActiveTrigger> activeTriggers : worldLeaveTriggersByWorldName.values()) {
+      activeTriggers.removeIf(activeTrigger -> activeTrigger.getActiveQuest() == activeQuest);
+    }
+  }
+
+  public void removeActiveQuests(final Collection<ActiveQuest> activeQuests) {
+    for (final ActiveQuest activeQuest : activeQuests) {
+      removeActiveQuest(activeQuest);
+    }
+  }
+
+  /**
+   * @return all active triggers of that type, in the order their quests were accepted
+   */
+  public final List<ActiveTrigger> getActiveTriggers(final TriggerType triggerType) {
+    return activeTriggersByType.get(triggerType);
+  }
+
+  public final List<ActiveTrigger> getWorldEnterTriggers(final String worldName) {
+    final List<ActiveTrigger> activeTriggers = worldEnterTriggersByWorldName.get(worldName);
+    return activeTriggers != null ? activeTriggers : List.of();
+  }
+
+  public final List<ActiveTrigger> getWorldLeaveTriggers(final String worldName) {
+    final List<ActiveTrigger> activeTriggers = worldLeaveTriggersByWorldName.get(worldName);
+    return activeTriggers != null ? activeTriggers : List.of();
+  }
+}
@@ -38,6 +38,7 @@ public abstract class Trigger {
   private String worldName = "ALL";
   private long amountNeeded = 0; // 0 or 1 means every trigger() triggers it
   private Category category;
+  private TriggerType resolvedTriggerType = null;
 
   public Trigger(final NotQuests main) {
     this.main = main;
@@ -76,6 +77,16 @@ public abstract class Trigger {
     return main.getTriggerManager().getTriggerType(this.getClass());
   }
 
+  /**
+   * @return the type of this trigger. Resolved from {@link #getTriggerType()} only once
+   */
+  public final TriggerType getResolvedTriggerType() {
+    if (resolvedTriggerType == null) {
+      resolvedTriggerType = TriggerType.fromIdentifier(getTriggerType());
+    }
+    return resolvedTriggerType;
+  }
+
   public final String getWorldName() {
     return worldName;
   }
@@ -0,0 +1,48 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.triggers;
+
+import java.util.Locale;
+
+/**
+ * The built-in trigger types, so triggers can be looked up by type without comparing type strings. Triggers registered by
+ * other plugins are of the type OTHER.
+ */
+public enum TriggerType {
+  BEGIN,
+  COMPLETE,
+  DEATH,
+  DISCONNECT,
+  FAIL,
+  NPCDEATH,
+  WORLDENTER,
+  WORLDLEAVE,
+  OTHER;
+
+  public static TriggerType fromIdentifier(final String identifier) {
+    if (identifier == null) {
+      return OTHER;
+    }
+    try {
+      return valueOf(identifier.toUpperCase(Locale.ROOT));
+    } catch (final IllegalArgumentException ignored) {
+      return OTHER;
+    }
+  }
+}
@@ -18,10 +18,13 @@
 
 package rocks.gravili.notquests.paper.structs.variables;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.structs.CompletedQuest;
 import rocks.gravili.notquests.paper.structs.Quest;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 public class CompletedQuestsVariable extends Variable<String[]> {
@@ -37,10 +40,16 @@ public class CompletedQuestsVariable extends Variable<String[]> {
       return null;
     }
 
-    completedQuests =
-        questPlayer.getCompletedQuests().stream()
-            .map(CompletedQuest::getQuestIdentifier)
-            .toArray(String[]::new);
+    final LinkedHashSet<String> completedQuestIdentifiers = new LinkedHashSet<>();
+    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
+      completedQuestIdentifiers.add(completedQuest.getQuestIdentifier());
+    }
+    for (final Map.Entry<String, QuestHistorySummary> questHistorySummary : questPlayer.getQuestHistorySummaries().entrySet()) {
+      if (questHistorySummary.getValue().completions() > 0) {
+        completedQuestIdentifiers.add(questHistorySummary.getKey());
+      }
+    }
+    completedQuests = completedQuestIdentifiers.toArray(String[]::new);
 
     return completedQuests;
   }
@@ -51,23 +60,23 @@ public class CompletedQuestsVariable extends Variable<String[]> {
       return false;
     }
 
-    for (CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
+    for (final String completedQuestIdentifier : getValueInternally(questPlayer)) {
       boolean foundQuest = false;
       for (int i = 0; i < newValue.length; i++) {
-        if (newValue[i].equalsIgnoreCase(completedQuest.getQuestIdentifier() )) {
+        if (newValue[i].equalsIgnoreCase(completedQuestIdentifier)) {
           foundQuest = true;
           break;
         }
       }
       if (!foundQuest) {
-        questPlayer.getCompletedQuests().remove(completedQuest);
+        questPlayer.removeCompletedQuests(completedQuestIdentifier);
       }
     }
 
     for (int i = 0; i < newValue.length; i++) {
       Quest quest = main.getQuestManager().getQuest(newValue[i]);
       if (quest != null && !questPlayer.hasCompletedQuest(quest)) {
-        questPlayer.getCompletedQuests().add(new CompletedQuest(quest, questPlayer));
+        questPlayer.recordCompletedQuest(new CompletedQuest(quest, questPlayer));
       }
     }
 
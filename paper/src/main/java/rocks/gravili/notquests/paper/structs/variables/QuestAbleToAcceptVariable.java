@@ -67,31 +67,12 @@ public class QuestAbleToAcceptVariable extends Variable<Boolean> {
 
     if (questPlayer != null) {
 
-      int completedAmount = 0;
-      long mostRecentCompleteTime = 0;
+      final long completedAmount = questPlayer.getCompletedAmount(quest.getIdentifier());
+      final long mostRecentCompleteTime = questPlayer.getLastCompletedTime(quest.getIdentifier());
 
-      int failedAmount = 0;
-      long mostRecentFailTime = 0;
+      final long failedAmount = questPlayer.getFailedAmount(quest.getIdentifier());
 
-      int acceptedAmount = 0;
-      for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-        if (completedQuest.getQuest().equals(quest)) {
-          completedAmount += 1;
-          acceptedAmount += 1;
-          if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-            mostRecentCompleteTime = completedQuest.getTimeCompleted();
-          }
-        }
-      }
-      for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-        if (failedQuest.getQuest().equals(quest)) {
-          failedAmount += 1;
-          acceptedAmount += 1;
-          if (failedQuest.getTimeFailed() > mostRecentFailTime) {
-            mostRecentFailTime = failedQuest.getTimeFailed();
-          }
-        }
-      }
+      long acceptedAmount = completedAmount + failedAmount;
       for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
         if (activeQuest.getQuest().equals(quest)) {
           acceptedAmount += 1;
@@ -24,7 +24,6 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.bukkit.command.CommandSender;
 import rocks.gravili.notquests.paper.NotQuests;
-import rocks.gravili.notquests.paper.structs.CompletedQuest;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
@@ -64,15 +63,7 @@ public class QuestOnCooldownVariable extends Variable<Boolean> {
 
     // int completedAmount = 0; //only needed for maxAccepts
 
-    long mostRecentCompleteTime = 0;
-    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-      if (completedQuest.getQuest().equals(quest)) {
-        // completedAmount += 1;
-        if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-          mostRecentCompleteTime = completedQuest.getTimeCompleted();
-        }
-      }
-    }
+    final long mostRecentCompleteTime = questPlayer.getLastCompletedTime(quest.getIdentifier());
 
     final long completeTimeDifference = System.currentTimeMillis() - mostRecentCompleteTime;
     final long completeTimeDifferenceMinutes = TimeUnit.MILLISECONDS.toMinutes(completeTimeDifference);
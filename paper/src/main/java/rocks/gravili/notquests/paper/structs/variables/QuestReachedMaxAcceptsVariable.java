@@ -68,24 +68,13 @@ public class QuestReachedMaxAcceptsVariable extends Variable<Boolean> {
       return true;
     }
 
-    int acceptedAmount = 0; // only needed for maxAccepts
-
-    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-      if (completedQuest.getQuest().equals(quest)) {
-        acceptedAmount += 1;
-      }
-    }
+    long acceptedAmount = questPlayer.getCompletedAmount(quest.getIdentifier()) + questPlayer.getFailedAmount(quest.getIdentifier()); // only needed for maxAccepts
 
     for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
       if (activeQuest.getQuest().equals(quest)) {
         acceptedAmount += 1;
       }
     }
-    for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-      if (failedQuest.getQuest().equals(quest)) {
-        acceptedAmount += 1;
-      }
-    }
 
     return acceptedAmount >= quest.getMaxAccepts();
   }
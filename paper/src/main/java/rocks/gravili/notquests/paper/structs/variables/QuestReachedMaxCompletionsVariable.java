@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.List;
 import org.bukkit.command.CommandSender;
 import rocks.gravili.notquests.paper.NotQuests;
-import rocks.gravili.notquests.paper.structs.CompletedQuest;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
@@ -70,13 +69,7 @@ public class QuestReachedMaxCompletionsVariable extends Variable<Boolean> {
             return true;
         }
 
-        int completedAmount = 0; // only needed for maxCompletions
-
-        for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-            if (completedQuest.getQuest().equals(quest)) {
-                completedAmount += 1;
-            }
-        }
+        final long completedAmount = questPlayer.getCompletedAmount(quest.getIdentifier()); // only needed for maxCompletions
 
         return completedAmount >= quest.getMaxCompletions();
     }
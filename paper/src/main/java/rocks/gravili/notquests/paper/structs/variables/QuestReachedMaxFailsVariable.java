@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.List;
 import org.bukkit.command.CommandSender;
 import rocks.gravili.notquests.paper.NotQuests;
-import rocks.gravili.notquests.paper.structs.FailedQuest;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
@@ -70,13 +69,7 @@ public class QuestReachedMaxFailsVariable extends Variable<Boolean> {
             return true;
         }
 
-        int failedAmount = 0; // only needed for maxFails
-
-        for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-            if (failedQuest.getQuest().equals(quest)) {
-                failedAmount += 1;
-            }
-        }
+        final long failedAmount = questPlayer.getFailedAmount(quest.getIdentifier()); // only needed for maxFails
 
         return failedAmount >= quest.getMaxFails();
     }
@@ -71,13 +71,7 @@ public class BooleanTagVariable extends Variable<Boolean> {
             return false;
         }
 
-        final Object value = questPlayer.getTagValue(tagName);
-
-        if (value instanceof final Boolean boolValue) {
-            return boolValue;
-        } else {
-            return false;
-        }
+        return questPlayer.getTags().getBoolean(tagName, false);
 
     }
 
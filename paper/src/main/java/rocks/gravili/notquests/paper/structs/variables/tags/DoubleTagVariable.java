@@ -71,13 +71,7 @@ public class DoubleTagVariable extends Variable<Double> {
             return 0d;
         }
 
-        final Object value = questPlayer.getTagValue(tagName);
-
-        if (value instanceof final Double doubleValue) {
-            return doubleValue;
-        } else {
-            return 0d;
-        }
+        return questPlayer.getTags().getDouble(tagName, 0d);
 
     }
 
@@ -71,13 +71,7 @@ public class FloatTagVariable extends Variable<Float> {
             return 0f;
         }
 
-        final Object value = questPlayer.getTagValue(tagName);
-
-        if (value instanceof final Float floatValue) {
-            return floatValue;
-        } else {
-            return 0f;
-        }
+        return questPlayer.getTags().getFloat(tagName, 0f);
 
     }
 
@@ -72,13 +72,7 @@ public class IntegerTagVariable extends Variable<Integer> {
         }
 
         //main.getLogManager().info("Getting tag for " + tagName);
-        final Object value = questPlayer.getTagValue(tagName);
-
-        if(value instanceof Integer integerValue){
-            return integerValue;
-        }else{
-            return 0;
-        }
+        return questPlayer.getTags().getInteger(tagName, 0);
 
     }
 
@@ -71,13 +71,7 @@ public class StringTagVariable extends Variable<String> {
             return "";
         }
 
-        final Object value = questPlayer.getTagValue(tagName);
-
-        if (value instanceof final String stringValue) {
-            return stringValue;
-        } else {
-            return "";
-        }
+        return questPlayer.getTags().getString(tagName, "");
 
     }
 
@@ -0,0 +1,176 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveObjectiveData;
+
+class KeyValuePlayerDataStorageTest {
+  private static final UUID firstUUID = UUID.fromString("0f3c2a51-7d4e-4b8a-9c61-5e2f1a0b3d47");
+  private static final UUID secondUUID = UUID.fromString("7b1d9e20-3c5a-4f6e-8d2b-1a4c6e8f0b93");
+  private static final UUID thirdUUID = UUID.fromString("c2e4a6b8-1d3f-4a5c-8e7b-9d0f2a4c6e81");
+
+  @TempDir
+  Path tempDir;
+
+  private File file;
+  private final RecordingPlayerDataLog log = new RecordingPlayerDataLog();
+
+  @BeforeEach
+  void setFile() {
+    file = tempDir.resolve("playerdata.kv").toFile();
+  }
+
+  private static PlayerDataSnapshot snapshot(final UUID uuid, final long questPoints) {
+    return new PlayerDataSnapshot(
+        uuid,
+        "default",
+        "default",
+        questPoints,
+        List.of("mining"),
+        List.of(),
+        List.of(new ActiveObjectiveData("BreakBlocks", "mining", questPoints, 1, false, 64d)),
+        List.of(),
+        Map.of("visits", (int) questPoints),
+        Set.of(),
+        1
+    );
+  }
+
+  private static void save(final KeyValuePlayerDataStorage storage, final UUID uuid, final long questPoints) {
+    assertTrue(storage.savePlayerData(List.of(snapshot(uuid, questPoints)), savedSnapshot -> {}));
+  }
+
+  /**
+   * @return the quest points of every stored player, by UUID
+   */
+  private static Map<UUID, Long> loadQuestPoints(final KeyValuePlayerDataStorage storage) throws IOException {
+    final HashMap<UUID, Long> questPoints = new HashMap<>();
+    for (final StoredPlayerData storedPlayerData : storage.loadPlayerData(null)) {
+      questPoints.put(storedPlayerData.uuid(), storedPlayerData.questPoints());
+      assertEquals(Map.of("visits", (int) storedPlayerData.questPoints()), storage.loadTags(storedPlayerData.uuid(), storedPlayerData.profile()));
+    }
+    return questPoints;
+  }
+
+  /**
+   * @return the positions of all records in the file, by reading their lengths
+   */
+  private List<Long> readRecordPositions() throws IOException {
+    final ArrayList<Long> recordPositions = new ArrayList<>();
+    try (final FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long position = 8;
+      final ByteBuffer payloadLength = ByteBuffer.allocate(4);
+      while (position < fileChannel.size()) {
+        recordPositions.add(position);
+        fileChannel.read(payloadLength.clear(), position);
+        position += 8 + payloadLength.flip().getInt();
+      }
+    }
+    return recordPositions;
+  }
+
+  @Test
+  void savedDataIsLoadedAfterReopening() throws IOException {
+    final KeyValuePlayerDataStorage storage = new KeyValuePlayerDataStorage(log, file);
+    save(storage, firstUUID, 10);
+    save(storage, secondUUID, 20);
+    save(storage, firstUUID, 15);
+    assertEquals(Map.of(firstUUID, 15L, secondUUID, 20L), loadQuestPoints(storage));
+    storage.close();
+
+    final KeyValuePlayerDataStorage reopenedStorage = new KeyValuePlayerDataStorage(log, file);
+    assertEquals(Map.of(firstUUID, 15L, secondUUID, 20L), loadQuestPoints(reopenedStorage));
+    assertEquals(15, reopenedStorage.loadPlayerData(firstUUID).get(0).activeObjectives().get(0).currentProgress());
+    reopenedStorage.close();
+    assertEquals(List.of(), log.getWarnings());
+  }
+
+  @Test
+  void everythingFromACorruptRecordInTheMiddleOfTheFileOnIsCutOff() throws IOException {
+    final KeyValuePlayerDataStorage storage = new KeyValuePlayerDataStorage(log, file);
+    save(storage, firstUUID, 10);
+    save(storage, secondUUID, 20);
+    save(storage, thirdUUID, 30);
+    storage.close();
+
+    //Each first save of a player writes their profile and their current profile. Flip a byte in the profile record of the
+    //second player, so its checksum doesn't match anymore.
+    final List<Long> recordPositions = readRecordPositions();
+    assertEquals(6, recordPositions.size());
+    final long corruptPosition = recordPositions.get(2) + 8 + 20;
+    try (final FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      final ByteBuffer corruptByte = ByteBuffer.allocate(1);
+      fileChannel.read(corruptByte, corruptPosition);
+      corruptByte.put(0, (byte) ~corruptByte.get(0));
+      fileChannel.write(corruptByte.flip(), corruptPosition);
+    }
+
+    final KeyValuePlayerDataStorage reopenedStorage = new KeyValuePlayerDataStorage(log, file);
+    assertEquals(Map.of(firstUUID, 10L), loadQuestPoints(reopenedStorage));
+    assertEquals(1, log.getWarnings().size());
+    assertEquals((long) recordPositions.get(2), file.length());
+
+    //Saving after the records have been cut off works like before
+    save(reopenedStorage, thirdUUID, 35);
+    reopenedStorage.close();
+    final KeyValuePlayerDataStorage storageAfterSaving = new KeyValuePlayerDataStorage(log, file);
+    assertEquals(Map.of(firstUUID, 10L, thirdUUID, 35L), loadQuestPoints(storageAfterSaving));
+    storageAfterSaving.close();
+    assertEquals(1, log.getWarnings().size());
+  }
+
+  @Test
+  void recordsAfterAnIncompleteWriteAreNotLost() throws IOException {
+    final KeyValuePlayerDataStorage storage = new KeyValuePlayerDataStorage(log, file);
+    save(storage, firstUUID, 10);
+
+    //What a write which failed partway leaves behind, if it couldn't be cut off: the start of a record
+    try (final FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      fileChannel.write(ByteBuffer.allocate(12).putInt(1000).putInt(0x12345678).putInt(42).flip());
+    }
+
+    save(storage, secondUUID, 20);
+    save(storage, thirdUUID, 30);
+    storage.close();
+
+    final KeyValuePlayerDataStorage reopenedStorage = new KeyValuePlayerDataStorage(log, file);
+    assertEquals(Map.of(firstUUID, 10L, secondUUID, 20L, thirdUUID, 30L), loadQuestPoints(reopenedStorage));
+    reopenedStorage.close();
+    assertEquals(List.of(), log.getWarnings());
+  }
+}
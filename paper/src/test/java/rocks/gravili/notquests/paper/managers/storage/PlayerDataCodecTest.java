@@ -0,0 +1,205 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataCodec.Profile;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveObjectiveData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveTriggerData;
+import rocks.gravili.notquests.paper.managers.storage.StoredPlayerData.QuestHistoryEntry;
+import rocks.gravili.notquests.paper.managers.tags.TagType;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
+
+class PlayerDataCodecTest {
+  private static final UUID uuid = UUID.fromString("0f3c2a51-7d4e-4b8a-9c61-5e2f1a0b3d47");
+
+  private static Profile createFullProfile() {
+    final HashMap<String, QuestHistorySummary> questHistorySummaries = new HashMap<>();
+    questHistorySummaries.put("dailyQuest", new QuestHistorySummary(42, 1_700_000_000_000L, 3, 1_650_000_000_000L));
+    questHistorySummaries.put("Drachenjagd-Ä", QuestHistorySummary.EMPTY);
+
+    final StoredPlayerData playerData = new StoredPlayerData(
+        uuid,
+        "Größe",
+        "プロフィール",
+        Long.MIN_VALUE,
+        List.of("dailyQuest", "Drachenjagd-Ä", "dailyQuest"),
+        List.of(
+            new ActiveTriggerData("DEATH", "dailyQuest", 3, 1),
+            new ActiveTriggerData(null, "Drachenjagd-Ä", -5, Integer.MAX_VALUE),
+            new ActiveTriggerData("WORLDENTER", "dailyQuest", Long.MAX_VALUE, Integer.MIN_VALUE)
+        ),
+        List.of(
+            new ActiveObjectiveData("BreakBlocks", "dailyQuest", 12.5, 1, false, 64d),
+            new ActiveObjectiveData(null, "dailyQuest.1", -0.0, 2, true, null),
+            new ActiveObjectiveData("TalkToNPC", "Drachenjagd-Ä", Double.NaN, 0, true, Double.POSITIVE_INFINITY)
+        ),
+        //Not sorted by time, so the time differences are negative as well
+        List.of(
+            new QuestHistoryEntry("dailyQuest", 1_700_000_000_000L),
+            new QuestHistoryEntry("dailyQuest", 1_600_000_000_000L),
+            new QuestHistoryEntry("Drachenjagd-Ä", 0),
+            new QuestHistoryEntry("dailyQuest", Long.MAX_VALUE),
+            new QuestHistoryEntry("dailyQuest", Long.MIN_VALUE)
+        ),
+        List.of(
+            new QuestHistoryEntry("Drachenjagd-Ä", 5),
+            new QuestHistoryEntry("Drachenjagd-Ä", -5)
+        ),
+        questHistorySummaries
+    );
+
+    final LinkedHashMap<String, Object> tags = new LinkedHashMap<>();
+    tags.put("visited", true);
+    tags.put("notvisited", false);
+    tags.put("kills", Integer.MIN_VALUE);
+    tags.put("level", 7);
+    tags.put("speed", -1.25f);
+    tags.put("nanfloat", Float.NaN);
+    tags.put("balance", 1e300);
+    tags.put("name", "Zoë 🐉 名前");
+    tags.put("empty", "");
+    return new Profile(uuid, "Größe", playerData, tags);
+  }
+
+  @Test
+  void roundTripsFullProfile() throws IOException {
+    final Profile profile = createFullProfile();
+    assertEquals(profile, PlayerDataCodec.decode(PlayerDataCodec.encode(profile)));
+  }
+
+  @Test
+  void roundTripsProfileWithOnlyTags() throws IOException {
+    final Profile profile = new Profile(uuid, "default", null, Map.of("kills", 3));
+    final Profile decodedProfile = PlayerDataCodec.decode(PlayerDataCodec.encode(profile));
+    assertNull(decodedProfile.playerData());
+    assertEquals(profile, decodedProfile);
+  }
+
+  @Test
+  void roundTripsEmptyProfiles() throws IOException {
+    final Profile profileWithoutAnything = new Profile(uuid, "", null, Map.of());
+    assertEquals(profileWithoutAnything, PlayerDataCodec.decode(PlayerDataCodec.encode(profileWithoutAnything)));
+
+    final StoredPlayerData emptyPlayerData = new StoredPlayerData(uuid, "default", "default", 0, List.of(), List.of(), List.of(), List.of(), List.of(), Map.of());
+    final Profile profileWithEmptyPlayerData = new Profile(uuid, "default", emptyPlayerData, Map.of());
+    assertEquals(profileWithEmptyPlayerData, PlayerDataCodec.decode(PlayerDataCodec.encode(profileWithEmptyPlayerData)));
+  }
+
+  @Test
+  void roundTripsEveryTagType() throws IOException {
+    for (final TagType tagType : TagType.values()) {
+      final Object tagValue = switch (tagType) {
+        case BOOLEAN -> true;
+        case INTEGER -> -123456;
+        case FLOAT -> Float.MIN_VALUE;
+        case DOUBLE -> -Double.MAX_VALUE;
+        case STRING -> "ünïcödé";
+      };
+      assertEquals(tagType, PlayerDataCodec.getTagType(tagValue));
+
+      final Profile profile = new Profile(uuid, "default", null, Map.of("tag", tagValue));
+      assertEquals(profile, PlayerDataCodec.decode(PlayerDataCodec.encode(profile)), tagType.name());
+    }
+  }
+
+  @Test
+  void refusesTagValuesWhichCannotBeStored() {
+    final Profile profile = new Profile(uuid, "default", null, Map.of("tag", 5L));
+    assertThrows(IOException.class, () -> PlayerDataCodec.encode(profile));
+  }
+
+  @Test
+  void encodingIsDeterministic() throws IOException {
+    assertArrayEquals(PlayerDataCodec.encode(createFullProfile()), PlayerDataCodec.encode(createFullProfile()));
+  }
+
+  @Test
+  void refusesUnknownFormatVersions() throws IOException {
+    final byte[] encodedProfile = PlayerDataCodec.encode(createFullProfile());
+    encodedProfile[0] = (byte) (PlayerDataCodec.formatVersion + 1);
+    assertThrows(IOException.class, () -> PlayerDataCodec.decode(encodedProfile));
+  }
+
+  @Test
+  void refusesTruncatedProfiles() throws IOException {
+    final byte[] encodedProfile = PlayerDataCodec.encode(createFullProfile());
+    for (int length = 0; length < encodedProfile.length; length++) {
+      final byte[] truncatedProfile = Arrays.copyOf(encodedProfile, length);
+      assertThrows(IOException.class, () -> PlayerDataCodec.decode(truncatedProfile), "Truncated to " + length + " bytes");
+    }
+  }
+
+  @Test
+  void refusesTrailingBytes() throws IOException {
+    final byte[] encodedProfile = PlayerDataCodec.encode(createFullProfile());
+    assertThrows(IOException.class, () -> PlayerDataCodec.decode(Arrays.copyOf(encodedProfile, encodedProfile.length + 1)));
+  }
+
+  @Test
+  void corruptProfilesOnlyThrowIOExceptions() throws IOException {
+    final List<byte[]> encodedProfiles = new ArrayList<>();
+    encodedProfiles.add(PlayerDataCodec.encode(createFullProfile()));
+    encodedProfiles.add(PlayerDataCodec.encode(new Profile(uuid, "default", null, Map.of("kills", 3, "name", "Zoë"))));
+
+    for (final byte[] encodedProfile : encodedProfiles) {
+      //Every single bit flip
+      for (int i = 0; i < encodedProfile.length * 8; i++) {
+        final byte[] corruptProfile = encodedProfile.clone();
+        corruptProfile[i / 8] ^= (byte) (1 << (i % 8));
+        decodeCorruptProfile(corruptProfile);
+      }
+
+      //Random bytes overwritten and truncated
+      final Random random = new Random(5);
+      for (int i = 0; i < 20_000; i++) {
+        final byte[] corruptProfile = Arrays.copyOf(encodedProfile, random.nextInt(encodedProfile.length) + 1);
+        for (int j = random.nextInt(4); j >= 0; j--) {
+          corruptProfile[random.nextInt(corruptProfile.length)] = (byte) random.nextInt(256);
+        }
+        decodeCorruptProfile(corruptProfile);
+      }
+    }
+  }
+
+  /**
+   * Corrupt data may still decode to a (different) profile, but must never throw anything but an IOException
+   */
+  private static void decodeCorruptProfile(final byte[] corruptProfile) {
+    try {
+      PlayerDataCodec.decode(corruptProfile);
+    } catch (final IOException ignored) {
+      //Expected
+    }
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataHandoffs.Handoff;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.Encoding;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.Table;
+
+/**
+ * Runs the claim and release statements of the PlayerDataHandoff table against a SQLite database file, with one connection per
+ * server, like servers sharing a database would.
+ */
+class PlayerDataHandoffsTest {
+  private static final UUID uuid = UUID.fromString("0f3c2a51-7d4e-4b8a-9c61-5e2f1a0b3d47");
+
+  @TempDir
+  Path tempDir;
+
+  private String url;
+  private final List<Connection> connections = new ArrayList<>();
+
+  @BeforeEach
+  void createTable() throws SQLException {
+    url = "jdbc:sqlite:" + tempDir.resolve("database_sqlite.db");
+    final Table handoffTable = PlayerDataSchema.playerDataTables.stream().filter(table -> table.name().equals("PlayerDataHandoff")).findFirst().orElseThrow();
+    try (final Connection connection = DriverManager.getConnection(url);
+         final Statement statement = connection.createStatement()) {
+      //WAL, like the DataManager uses for SQLite
+      statement.execute("PRAGMA journal_mode = WAL");
+      //Only the table statements are used, which don't need the plugin
+      statement.executeUpdate(new PlayerDataSchema(null, false).getCreateTableStatement(handoffTable, handoffTable.name(), Encoding.TEXT));
+    }
+  }
+
+  @AfterEach
+  void closeConnections() throws SQLException {
+    for (final Connection connection : connections) {
+      connection.close();
+    }
+  }
+
+  private Connection connect() throws SQLException {
+    final Connection connection = DriverManager.getConnection(url);
+    try (final Statement statement = connection.createStatement()) {
+      statement.execute("PRAGMA busy_timeout = 10000");
+    }
+    connections.add(connection);
+    return connection;
+  }
+
+  private static PlayerDataHandoffs server(final String serverID) {
+    return new PlayerDataHandoffs(new PlayerDataSchema(null, false), serverID);
+  }
+
+  @Test
+  void firstClaimCreatesTheHandoff() throws SQLException {
+    final Connection connection = connect();
+    final PlayerDataHandoffs serverA = server("a");
+    assertNull(serverA.read(connection, uuid));
+
+    final Handoff claim = serverA.tryClaim(connection, uuid, null);
+    assertNotNull(claim);
+    assertEquals("a", claim.serverID());
+    assertEquals(0, claim.version());
+    assertFalse(claim.released());
+    assertEquals(claim, serverA.read(connection, uuid));
+  }
+
+  @Test
+  void claimedDataCannotBeClaimedByAnotherServer() throws SQLException {
+    final PlayerDataHandoffs serverA = server("a");
+    final PlayerDataHandoffs serverB = server("b");
+    final Connection connectionA = connect();
+    final Connection connectionB = connect();
+
+    assertNotNull(serverA.tryClaim(connectionA, uuid, null));
+    assertFalse(serverB.isClaimable(serverB.read(connectionB, uuid)));
+    assertNull(serverB.tryClaim(connectionB, uuid, null));
+    assertEquals("a", serverB.read(connectionB, uuid).serverID());
+
+    //Claiming it again, like after a reload, works
+    assertNotNull(serverA.tryClaim(connectionA, uuid, null));
+  }
+
+  @Test
+  void releasedDataCanBeClaimedByAnotherServer() throws SQLException {
+    final PlayerDataHandoffs serverA = server("a");
+    final PlayerDataHandoffs serverB = server("b");
+    final Connection connectionA = connect();
+    final Connection connectionB = connect();
+
+    assertNotNull(serverA.tryClaim(connectionA, uuid, null));
+    assertTrue(serverA.release(connectionA, uuid));
+    assertFalse(serverA.release(connectionA, uuid), "Releasing twice must not increase the version twice");
+
+    final Handoff handoff = serverB.read(connectionB, uuid);
+    assertTrue(serverB.isClaimable(handoff));
+    final Handoff claim = serverB.tryClaim(connectionB, uuid, null);
+    assertNotNull(claim);
+    assertEquals("b", claim.serverID());
+    assertEquals(1, claim.version());
+  }
+
+  @Test
+  void onlyTheStaleClaimWhichHasBeenWaitedForIsTakenOver() throws SQLException {
+    final PlayerDataHandoffs serverA = server("a");
+    final PlayerDataHandoffs serverB = server("b");
+    final PlayerDataHandoffs serverC = server("c");
+    final Connection connectionA = connect();
+    final Connection connectionB = connect();
+    final Connection connectionC = connect();
+
+    final Handoff staleClaim = serverA.tryClaim(connectionA, uuid, null);
+    assertNotNull(staleClaim);
+    //Both B and C waited for A. Only the first one may take over its claim.
+    assertNotNull(serverB.tryClaim(connectionB, uuid, staleClaim));
+    assertNull(serverC.tryClaim(connectionC, uuid, staleClaim));
+    assertEquals("b", serverC.read(connectionC, uuid).serverID());
+
+    //A finishes saving after it has been taken over
+    assertFalse(serverA.release(connectionA, uuid));
+    assertTrue(serverB.release(connectionB, uuid));
+  }
+
+  @Test
+  void releaseAllOnlyReleasesTheClaimsOfThisServer() throws SQLException {
+    final PlayerDataHandoffs serverA = server("a");
+    final PlayerDataHandoffs serverB = server("b");
+    final Connection connection = connect();
+    final UUID otherUUID = UUID.fromString("7b1d9e20-3c5a-4f6e-8d2b-1a4c6e8f0b93");
+
+    assertNotNull(serverA.tryClaim(connection, uuid, null));
+    assertNotNull(serverB.tryClaim(connection, otherUUID, null));
+
+    assertEquals(1, serverA.releaseAll(connection));
+    assertTrue(serverA.read(connection, uuid).released());
+    assertFalse(serverB.read(connection, otherUUID).released());
+    assertEquals(0, serverA.releaseAll(connection));
+  }
+
+  @Test
+  void claimsWorkWithTheCompactEncoding() throws SQLException {
+    final Table handoffTable = PlayerDataSchema.playerDataTables.stream().filter(table -> table.name().equals("PlayerDataHandoff")).findFirst().orElseThrow();
+    final PlayerDataSchema playerDataSchema = new PlayerDataSchema(null, false);
+    final Connection connection = connect();
+    try (final Statement statement = connection.createStatement()) {
+      statement.executeUpdate("DROP TABLE PlayerDataHandoff");
+      statement.executeUpdate(playerDataSchema.getCreateTableStatement(handoffTable, handoffTable.name(), Encoding.COMPACT));
+    }
+    playerDataSchema.setEncoding(Encoding.COMPACT);
+    final PlayerDataHandoffs serverA = new PlayerDataHandoffs(playerDataSchema, "a");
+    final PlayerDataHandoffs serverB = new PlayerDataHandoffs(playerDataSchema, "b");
+
+    assertNotNull(serverA.tryClaim(connection, uuid, null));
+    assertNull(serverB.tryClaim(connection, uuid, null));
+    assertTrue(serverA.release(connection, uuid));
+    assertEquals(1, serverB.tryClaim(connection, uuid, null).version());
+  }
+
+  @Test
+  void concurrentFirstClaimsOnlySucceedOnce() throws Exception {
+    assertEquals(1, claimConcurrently(8));
+  }
+
+  @Test
+  void concurrentClaimsOfReleasedDataOnlySucceedOnce() throws Exception {
+    final PlayerDataHandoffs serverA = server("a");
+    final Connection connection = connect();
+    assertNotNull(serverA.tryClaim(connection, uuid, null));
+    assertTrue(serverA.release(connection, uuid));
+
+    assertEquals(1, claimConcurrently(8));
+  }
+
+  /**
+   * @return how many of the servers claimed the data
+   */
+  private int claimConcurrently(final int servers) throws Exception {
+    final ExecutorService executorService = Executors.newFixedThreadPool(servers);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final ArrayList<Future<Handoff>> claims = new ArrayList<>();
+      for (int i = 0; i < servers; i++) {
+        final PlayerDataHandoffs server = server("server" + i);
+        final Connection connection = connect();
+        claims.add(executorService.submit(() -> {
+          start.await();
+          return server.tryClaim(connection, uuid, null);
+        }));
+      }
+      start.countDown();
+
+      int successfulClaims = 0;
+      for (final Future<Handoff> claim : claims) {
+        if (claim.get() != null) {
+          successfulClaims++;
+        }
+      }
+      return successfulClaims;
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataCodec.Profile;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveObjectiveData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveTriggerData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.QuestHistoryChange;
+import rocks.gravili.notquests.paper.managers.storage.StoredPlayerData.QuestHistoryEntry;
+import rocks.gravili.notquests.paper.structs.QuestHistorySummary;
+
+/**
+ * Player data like a player who has been playing for a while has, for tests and benchmarks
+ */
+final class PlayerDataSamples {
+  static final List<String> activeQuests = List.of("dailyMining", "dragonHunt", "tutorial");
+
+  static final List<ActiveTriggerData> activeTriggers = List.of(
+      new ActiveTriggerData("DEATH", "dragonHunt", 0, 1),
+      new ActiveTriggerData("WORLDENTER", "tutorial", 1, 1)
+  );
+
+  static final List<ActiveObjectiveData> activeObjectives = List.of(
+      new ActiveObjectiveData("BreakBlocks", "dailyMining", 37, 1, false, 64d),
+      new ActiveObjectiveData("CollectItems", "dailyMining", 64, 2, true, 64d),
+      new ActiveObjectiveData("KillMobs", "dragonHunt", 3, 1, false, 10d),
+      new ActiveObjectiveData("TalkToNPC", "dragonHunt", 0, 2, false, 1d),
+      new ActiveObjectiveData("ReachLocation", "tutorial", 1, 1, true, 1d),
+      new ActiveObjectiveData("TalkToNPC", "tutorial.1", 0, 2, false, 1d)
+  );
+
+  private PlayerDataSamples() {}
+
+  /**
+   * @return the name of one of a few quests which are completed over and over
+   */
+  static String repeatedQuestName(final int i) {
+    return switch (i % 4) {
+      case 0 -> "dailyMining";
+      case 1 -> "dailyFishing";
+      case 2 -> "weeklyBoss";
+      default -> "quest" + (i % 50);
+    };
+  }
+
+  static LinkedHashMap<String, Object> tags(final int amount) {
+    final LinkedHashMap<String, Object> tags = new LinkedHashMap<>();
+    for (int i = 0; i < amount; i++) {
+      tags.put("tag" + i, switch (i % 4) {
+        case 0 -> i;
+        case 1 -> i % 2 == 0;
+        case 2 -> i * 1.5d;
+        default -> "value" + i;
+      });
+    }
+    return tags;
+  }
+
+  /**
+   * @param completedQuests how many quests have been completed (and not rolled up yet)
+   */
+  static Profile profile(final UUID uuid, final int completedQuests) {
+    final ArrayList<QuestHistoryEntry> completedQuestEntries = new ArrayList<>(completedQuests);
+    for (int i = 0; i < completedQuests; i++) {
+      completedQuestEntries.add(new QuestHistoryEntry(repeatedQuestName(i), 1_700_000_000_000L + i * 3_600_000L));
+    }
+    final HashMap<String, QuestHistorySummary> questHistorySummaries = new HashMap<>();
+    questHistorySummaries.put("dailyMining", new QuestHistorySummary(120, 1_690_000_000_000L, 2, 1_680_000_000_000L));
+
+    return new Profile(uuid, "default", new StoredPlayerData(
+        uuid,
+        "default",
+        "default",
+        1250,
+        activeQuests,
+        activeTriggers,
+        activeObjectives,
+        completedQuestEntries,
+        List.of(new QuestHistoryEntry("dragonHunt", 1_700_000_000_000L)),
+        questHistorySummaries
+    ), tags(20));
+  }
+
+  /**
+   * @param completedQuests how many quest completions the snapshot adds to the quest history
+   * @param changedTags how many of the tags have been changed since the last save
+   */
+  static PlayerDataSnapshot snapshot(final UUID uuid, final long questPoints, final int completedQuests, final int changedTags) {
+    final ArrayList<QuestHistoryChange> questHistoryChanges = new ArrayList<>(completedQuests);
+    for (int i = 0; i < completedQuests; i++) {
+      questHistoryChanges.add(new QuestHistoryChange(i, QuestHistoryChange.Type.COMPLETED, repeatedQuestName(i), 1_700_000_000_000L + i * 3_600_000L));
+    }
+    return new PlayerDataSnapshot(
+        uuid,
+        "default",
+        "default",
+        questPoints,
+        activeQuests,
+        activeTriggers,
+        activeObjectives,
+        questHistoryChanges,
+        tags(changedTags),
+        Set.of(),
+        1
+    );
+  }
+}
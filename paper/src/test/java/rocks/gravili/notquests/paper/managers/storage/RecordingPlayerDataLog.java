@@ -0,0 +1,53 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the warnings and errors the storages log, so tests can check them
+ */
+final class RecordingPlayerDataLog implements PlayerDataLog {
+  private final CopyOnWriteArrayList<String> warnings = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void info(final String message, final Object... interpolatedStrings) {}
+
+  @Override
+  public void warn(final String message, final Object... interpolatedStrings) {
+    warnings.add(String.format(message, interpolatedStrings));
+  }
+
+  @Override
+  public void severe(final String message, final Object... interpolatedStrings) {
+    warnings.add(String.format(message, interpolatedStrings));
+  }
+
+  @Override
+  public void debug(final String message, final Object... interpolatedStrings) {}
+
+  /**
+   * @return the warnings and errors, oldest first
+   */
+  List<String> getWarnings() {
+    return List.copyOf(warnings);
+  }
+}
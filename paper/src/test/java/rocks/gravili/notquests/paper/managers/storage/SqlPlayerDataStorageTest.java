@@ -0,0 +1,213 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.Encoding;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveObjectiveData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.ActiveTriggerData;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSnapshot.QuestHistoryChange;
+import rocks.gravili.notquests.paper.managers.storage.StoredPlayerData.QuestHistoryEntry;
+
+/**
+ * Two servers sharing a SQLite database file, each with its own writer and read connections, while a player switches between
+ * them.
+ */
+class SqlPlayerDataStorageTest {
+  private static final UUID uuid = UUID.fromString("0f3c2a51-7d4e-4b8a-9c61-5e2f1a0b3d47");
+
+  @TempDir
+  Path tempDir;
+
+  private SqliteTestDatabase databaseA;
+  private SqliteTestDatabase databaseB;
+  private final RecordingPlayerDataLog logA = new RecordingPlayerDataLog();
+  private final RecordingPlayerDataLog logB = new RecordingPlayerDataLog();
+  private SqlPlayerDataStorage serverA;
+  private SqlPlayerDataStorage serverB;
+
+  @BeforeEach
+  void openDatabases() throws SQLException {
+    final Path databaseFile = tempDir.resolve("database_sqlite.db");
+    databaseA = new SqliteTestDatabase(databaseFile, 2, Encoding.TEXT);
+    databaseA.createTables();
+    databaseB = new SqliteTestDatabase(databaseFile, 2, Encoding.TEXT);
+    serverA = new SqlPlayerDataStorage(databaseA, logA, () -> "a");
+    serverB = new SqlPlayerDataStorage(databaseB, logB, () -> "b");
+  }
+
+  @AfterEach
+  void closeDatabases() {
+    databaseA.close();
+    databaseB.close();
+  }
+
+  private static PlayerDataSnapshot snapshot(final long questPoints, final double objectiveProgress, final List<QuestHistoryChange> questHistoryChanges, final Map<String, Object> changedTags, final int modificationCount) {
+    return new PlayerDataSnapshot(
+        uuid,
+        "default",
+        "default",
+        questPoints,
+        List.of("mining"),
+        List.of(new ActiveTriggerData("DEATH", "mining", 1, 1)),
+        List.of(new ActiveObjectiveData("BreakBlocks", "mining", objectiveProgress, 1, false, 64d)),
+        questHistoryChanges,
+        changedTags,
+        Set.of(),
+        modificationCount
+    );
+  }
+
+  private static void save(final SqlPlayerDataStorage server, final PlayerDataSnapshot snapshot) {
+    assertTrue(server.savePlayerData(List.of(snapshot), savedSnapshot -> {}));
+  }
+
+  private static StoredPlayerData load(final SqlPlayerDataStorage server) throws SQLException {
+    final List<StoredPlayerData> storedPlayerData = server.loadPlayerData(uuid);
+    assertEquals(1, storedPlayerData.size());
+    return storedPlayerData.get(0);
+  }
+
+  @Test
+  void noProgressIsLostWhenSwitchingServers() throws Exception {
+    assertEquals(0, serverA.claimPlayerData(uuid, 5000));
+    save(serverA, snapshot(10, 3, List.of(), Map.of("visits", 1), 1));
+
+    //The player switches to server B while server A is still saving the quit
+    final CompletableFuture<Long> claimB = CompletableFuture.supplyAsync(() -> {
+      try {
+        return serverB.claimPlayerData(uuid, 10000);
+      } catch (final Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    Thread.sleep(200);
+    assertFalse(claimB.isDone(), "Server B must wait until server A released the player data");
+
+    save(serverA, snapshot(25, 7, List.of(new QuestHistoryChange(0, QuestHistoryChange.Type.COMPLETED, "intro", 1000)), Map.of("visits", 2), 2));
+    serverA.releasePlayerData(uuid);
+    assertEquals(1, claimB.get(10, TimeUnit.SECONDS));
+
+    final StoredPlayerData loadedByB = load(serverB);
+    assertEquals(25, loadedByB.questPoints());
+    assertEquals(List.of("mining"), loadedByB.activeQuests());
+    assertEquals(7, loadedByB.activeObjectives().get(0).currentProgress());
+    assertEquals(List.of(new QuestHistoryEntry("intro", 1000)), loadedByB.completedQuests());
+    assertEquals(Map.of("visits", 2), serverB.loadTags(uuid, "default"));
+
+    //And back to server A
+    save(serverB, snapshot(40, 12, List.of(new QuestHistoryChange(1, QuestHistoryChange.Type.FAILED, "mining", 2000)), Map.of("visits", 3), 1));
+    serverB.releasePlayerData(uuid);
+    assertEquals(2, serverA.claimPlayerData(uuid, 5000));
+
+    final StoredPlayerData loadedByA = load(serverA);
+    assertEquals(40, loadedByA.questPoints());
+    assertEquals(12, loadedByA.activeObjectives().get(0).currentProgress());
+    assertEquals(List.of(new QuestHistoryEntry("intro", 1000)), loadedByA.completedQuests());
+    assertEquals(List.of(new QuestHistoryEntry("mining", 2000)), loadedByA.failedQuests());
+    assertEquals(Map.of("visits", 3), serverA.loadTags(uuid, "default"));
+
+    assertEquals(List.of(), logA.getWarnings());
+    assertEquals(List.of(), logB.getWarnings());
+  }
+
+  @Test
+  void staleClaimsAreTakenOverAfterTheTimeout() throws Exception {
+    assertEquals(0, serverA.claimPlayerData(uuid, 5000));
+    save(serverA, snapshot(10, 3, List.of(), Map.of(), 1));
+
+    //Server A never releases it, like when it crashed
+    final long start = System.currentTimeMillis();
+    assertEquals(0, serverB.claimPlayerData(uuid, 300));
+    assertTrue(System.currentTimeMillis() - start >= 300);
+    assertEquals(1, logB.getWarnings().size());
+    assertEquals(10, load(serverB).questPoints());
+
+    //Server A can't release what server B took over anymore
+    serverA.releasePlayerData(uuid);
+    assertEquals(1, logA.getWarnings().size());
+  }
+
+  @Test
+  void simultaneousLogoutsAreAllSaved() throws Exception {
+    final int logouts = 200;
+    final ArrayList<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < logouts; i++) {
+      final UUID uuid = UUID.randomUUID();
+      uuids.add(uuid);
+      assertEquals(0, serverA.claimPlayerData(uuid, 5000));
+    }
+
+    //Every quit save runs on its own thread, like on the async scheduler, and they all write at the same time
+    final ExecutorService executorService = Executors.newFixedThreadPool(logouts);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final ArrayList<Future<Boolean>> logoutSaves = new ArrayList<>();
+      for (int i = 0; i < logouts; i++) {
+        final UUID uuid = uuids.get(i);
+        final PlayerDataSnapshot snapshot = PlayerDataSamples.snapshot(uuid, i, 10, 5);
+        logoutSaves.add(executorService.submit(() -> {
+          start.await();
+          final boolean saved = serverA.savePlayerData(List.of(snapshot), savedSnapshot -> {});
+          serverA.releasePlayerData(uuid);
+          return saved;
+        }));
+      }
+      start.countDown();
+      for (final Future<Boolean> logoutSave : logoutSaves) {
+        assertTrue(logoutSave.get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    for (int i = 0; i < logouts; i++) {
+      final UUID uuid = uuids.get(i);
+      //Released, so it's claimed right away
+      assertEquals(1, serverB.claimPlayerData(uuid, 0));
+      final List<StoredPlayerData> storedPlayerData = serverB.loadPlayerData(uuid);
+      assertEquals(1, storedPlayerData.size());
+      assertEquals(i, storedPlayerData.get(0).questPoints());
+      assertEquals(10, storedPlayerData.get(0).completedQuests().size());
+      assertEquals(PlayerDataSamples.tags(5), serverB.loadTags(uuid, "default"));
+    }
+    assertEquals(List.of(), logA.getWarnings());
+  }
+}
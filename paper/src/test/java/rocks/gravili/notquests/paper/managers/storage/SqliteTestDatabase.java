@@ -0,0 +1,127 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package rocks.gravili.notquests.paper.managers.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.Encoding;
+import rocks.gravili.notquests.paper.managers.storage.PlayerDataSchema.Table;
+
+/**
+ * A SQLite database file opened the way the DataManager opens it: a single writer connection and a pool of read-only
+ * connections, with WAL and the same pragmas. Opening the same file twice is like two servers sharing the database.
+ */
+final class SqliteTestDatabase implements SqlPlayerDataSource, AutoCloseable {
+  private final HikariDataSource hikariDataSource;
+  private final HikariDataSource hikariReadDataSource;
+  private final PlayerDataSchema playerDataSchema;
+
+  SqliteTestDatabase(final Path databaseFile, final int readConnections, final Encoding encoding) {
+    this(databaseFile, 1, readConnections, encoding);
+  }
+
+  /**
+   * @param writerConnections the size of the pool of connections used for writing. The DataManager uses one. More are only
+   *                          useful to compare with how it was before, when all connections could write.
+   */
+  SqliteTestDatabase(final Path databaseFile, final int writerConnections, final int readConnections, final Encoding encoding) {
+    final HikariConfig hikariConfig = new HikariConfig();
+    hikariConfig.setJdbcUrl("jdbc:sqlite:" + databaseFile);
+    hikariConfig.setMaximumPoolSize(writerConnections);
+    hikariConfig.setConnectionTimeout(30000);
+    hikariConfig.addDataSourceProperty("journal_mode", "WAL");
+    addSQLitePragmas(hikariConfig);
+    hikariDataSource = new HikariDataSource(hikariConfig);
+
+    final HikariConfig readHikariConfig = new HikariConfig();
+    readHikariConfig.setJdbcUrl("jdbc:sqlite:" + databaseFile);
+    readHikariConfig.setMaximumPoolSize(readConnections);
+    readHikariConfig.setConnectionTimeout(30000);
+    readHikariConfig.addDataSourceProperty("open_mode", "1"); //SQLITE_OPEN_READONLY
+    addSQLitePragmas(readHikariConfig);
+    //The read-only connections can't create the database file
+    try (final Connection ignored = hikariDataSource.getConnection()) {
+      hikariReadDataSource = new HikariDataSource(readHikariConfig);
+    } catch (final SQLException e) {
+      hikariDataSource.close();
+      throw new IllegalStateException(e);
+    }
+
+    //Only the table statements and value encoding are used, which don't need the plugin
+    playerDataSchema = new PlayerDataSchema(null, false);
+    playerDataSchema.setEncoding(encoding);
+  }
+
+  private static void addSQLitePragmas(final HikariConfig sqliteHikariConfig) {
+    sqliteHikariConfig.addDataSourceProperty("busy_timeout", "30000");
+    sqliteHikariConfig.addDataSourceProperty("synchronous", "NORMAL");
+    sqliteHikariConfig.addDataSourceProperty("temp_store", "MEMORY");
+    sqliteHikariConfig.addDataSourceProperty("journal_size_limit", String.valueOf(64L * 1024L * 1024L));
+  }
+
+  /**
+   * Creates the player data tables, and their indexes like the schema migrations of the DataManager do
+   */
+  void createTables() throws SQLException {
+    final Encoding encoding = playerDataSchema.getEncoding();
+    try (final Connection connection = getConnection();
+         final Statement statement = connection.createStatement()) {
+      for (final Table table : PlayerDataSchema.playerDataTables) {
+        statement.executeUpdate(playerDataSchema.getCreateTableStatement(table, table.name(), encoding));
+      }
+      if (encoding == Encoding.COMPACT) {
+        statement.executeUpdate(PlayerDataSchema.createDictionaryTableStatement);
+      }
+      statement.executeUpdate("CREATE INDEX idx_QuestPlayerData_Player ON QuestPlayerData (`PlayerUUID`, `Profile`)");
+      statement.executeUpdate("CREATE INDEX idx_ActiveQuests_Player ON ActiveQuests (`PlayerUUID`, `Profile`)");
+      statement.executeUpdate("CREATE INDEX idx_CompletedQuests_Player ON CompletedQuests (`PlayerUUID`, `Profile`)");
+      statement.executeUpdate("CREATE INDEX idx_FailedQuests_Player ON FailedQuests (`PlayerUUID`, `Profile`)");
+      statement.executeUpdate("CREATE INDEX idx_ActiveTriggers_Player ON ActiveTriggers (`PlayerUUID`, `Profile`, `QuestName`)");
+      statement.executeUpdate("CREATE INDEX idx_ActiveObjectives_Player ON ActiveObjectives (`PlayerUUID`, `Profile`, `QuestName`)");
+      statement.executeUpdate("CREATE INDEX idx_Tags_Player ON Tags (`PlayerUUID`, `Profile`)");
+      statement.executeUpdate("CREATE INDEX idx_QuestHistoryRollup_Player ON QuestHistoryRollup (`PlayerUUID`, `Profile`, `QuestName`)");
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return hikariDataSource.getConnection();
+  }
+
+  @Override
+  public Connection getReadConnection() throws SQLException {
+    return hikariReadDataSource.getConnection();
+  }
+
+  @Override
+  public PlayerDataSchema getPlayerDataSchema() {
+    return playerDataSchema;
+  }
+
+  @Override
+  public void close() {
+    hikariReadDataSource.close();
+    hikariDataSource.close();
+  }
+}